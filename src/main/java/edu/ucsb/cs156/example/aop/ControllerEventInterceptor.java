@@ -0,0 +1,51 @@
+package edu.ucsb.cs156.example.aop;
+
+import edu.ucsb.cs156.example.services.diagnostics.ControllerCallEvent;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Emits a {@link ControllerCallEvent} for each request a controller handles, so that Flight
+ * Recorder recordings show time spent per endpoint rather than in generic Tomcat frames. When no
+ * recording enables the event, nothing is recorded and the request is not touched.
+ *
+ * <p>The event spans the whole request, including the async dispatch of a streamed response: it
+ * begins in the first {@code preHandle} and is committed in the last {@code afterCompletion}, when
+ * the status is known.
+ */
+public class ControllerEventInterceptor implements AsyncHandlerInterceptor {
+  private static final String EVENT = ControllerEventInterceptor.class.getName() + ".event";
+
+  @Override
+  public boolean preHandle(
+      HttpServletRequest request, HttpServletResponse response, Object handler) {
+    if (request.getAttribute(EVENT) == null) {
+      ControllerCallEvent event = new ControllerCallEvent();
+      if (event.isEnabled()) {
+        event.begin();
+        request.setAttribute(EVENT, event);
+      }
+    }
+    return true;
+  }
+
+  @Override
+  public void afterCompletion(
+      HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+    if (!(request.getAttribute(EVENT) instanceof ControllerCallEvent event)) return;
+    request.removeAttribute(EVENT);
+    event.end();
+    if (!event.shouldCommit()) return;
+    event.httpMethod = request.getMethod();
+    event.route = (String) request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+    if (handler instanceof HandlerMethod method) {
+      event.handler = method.getBeanType().getSimpleName() + "." + method.getMethod().getName();
+    }
+    // an exception no handler resolved becomes a 500 after this
+    event.status = ex != null && response.getStatus() < 400 ? 500 : response.getStatus();
+    event.commit();
+  }
+}
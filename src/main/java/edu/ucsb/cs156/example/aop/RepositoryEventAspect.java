@@ -0,0 +1,82 @@
+package edu.ucsb.cs156.example.aop;
+
+import edu.ucsb.cs156.example.services.diagnostics.RepositoryCallEvent;
+import jakarta.persistence.Entity;
+import java.util.Collection;
+import java.util.Optional;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.aop.framework.AopProxyUtils;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+
+/**
+ * This class is an Aspect that emits a {@link RepositoryCallEvent} for each call to a Spring Data
+ * repository, with the rows it returned and how long it took, so that Flight Recorder recordings
+ * show which repository calls time is spent in rather than generic Hibernate frames. When no
+ * recording enables the event, the call just proceeds.
+ */
+@Aspect
+@Component
+public class RepositoryEventAspect {
+
+  /**
+   * Times a repository call, if a recording enables {@link RepositoryCallEvent}.
+   *
+   * @param joinPoint the repository call (injected by Spring framework)
+   * @return what the call returned
+   * @throws Throwable what the call threw
+   */
+  @Around("execution(* org.springframework.data.repository.Repository+.*(..))")
+  public Object recordCall(ProceedingJoinPoint joinPoint) throws Throwable {
+    RepositoryCallEvent event = new RepositoryCallEvent();
+    if (!event.isEnabled()) return joinPoint.proceed();
+
+    event.begin();
+    Object result = null;
+    Throwable error = null;
+    try {
+      result = joinPoint.proceed();
+      return result;
+    } catch (Throwable t) {
+      error = t;
+      throw t;
+    } finally {
+      event.end();
+      if (event.shouldCommit()) {
+        event.repository = repositoryName(joinPoint.getThis());
+        event.method = joinPoint.getSignature().getName();
+        event.rows = error == null ? rows(result) : -1;
+        event.error = error != null ? error.getClass().getName() : null;
+        event.commit();
+      }
+    }
+  }
+
+  /**
+   * @param proxy the proxy of a repository
+   * @return the simple name of the repository interface, e.g. JobsRepository
+   */
+  static String repositoryName(Object proxy) {
+    for (Class<?> type : AopProxyUtils.proxiedUserInterfaces(proxy)) {
+      if (Repository.class.isAssignableFrom(type)) return type.getSimpleName();
+    }
+    return proxy.getClass().getSimpleName();
+  }
+
+  /**
+   * @param result what a repository call returned
+   * @return the rows it returned, or updated or deleted if it is a modifying query; -1 if it does
+   *     not return rows
+   */
+  static long rows(Object result) {
+    if (result instanceof Collection<?> rows) return rows.size();
+    if (result instanceof Slice<?> page) return page.getNumberOfElements();
+    if (result instanceof Optional<?> row) return row.isPresent() ? 1 : 0;
+    if (result instanceof Integer modified) return modified;
+    if (result == null || result instanceof Number || result instanceof Boolean) return -1;
+    return result.getClass().isAnnotationPresent(Entity.class) ? 1 : -1;
+  }
+}
@@ -0,0 +1,81 @@
+package edu.ucsb.cs156.example.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+/**
+ * The `JobExecutorConfig` class defines the executor that runs jobs launched through the
+ * JobService.
+ *
+ * <p>At most {@code app.jobs.executor.maxConcurrency} jobs run at once on this node. Jobs waiting
+ * for a worker wait in the job queue, not in the executor: the JobService only claims a job when a
+ * worker is free, and rejects new jobs once {@code app.jobs.queue.capacity} are waiting. With
+ * {@code app.jobs.executor.mode=virtual} each job runs on a virtual thread, so a large
+ * maxConcurrency of jobs blocked on JDBC or sleeps does not tie up the same number of OS threads;
+ * maxConcurrency then defaults to {@value #VIRTUAL_MAX_CONCURRENCY} rather than {@value
+ * #PLATFORM_MAX_CONCURRENCY}.
+ *
+ * <p>It also defines the application's task scheduler, which enforces job timeouts and runs
+ * {@code @Scheduled} methods.
+ */
+@Configuration
+@Slf4j
+public class JobExecutorConfig {
+  public static final String JOB_EXECUTOR = "jobExecutor";
+
+  static final int PLATFORM_MAX_CONCURRENCY = 4;
+
+  static final int VIRTUAL_MAX_CONCURRENCY = 64;
+
+  @Value("${app.jobs.executor.mode:platform}")
+  private String mode;
+
+  /** 0 picks the default for the mode. */
+  @Value("${app.jobs.executor.maxConcurrency:0}")
+  private int maxConcurrency;
+
+  @Value("${app.jobs.scheduler.poolSize:2}")
+  private int schedulerPoolSize;
+
+  /**
+   * The executor used by {@code @Async(JobExecutorConfig.JOB_EXECUTOR)} methods.
+   *
+   * @return an executor with maxConcurrency workers; its own queue only holds a job for the moment
+   *     between a worker's job finishing and the worker becoming idle
+   */
+  @Bean(name = JOB_EXECUTOR)
+  public ThreadPoolTaskExecutor jobExecutor() {
+    boolean virtual = "virtual".equals(mode);
+    int workers =
+        maxConcurrency > 0
+            ? maxConcurrency
+            : virtual ? VIRTUAL_MAX_CONCURRENCY : PLATFORM_MAX_CONCURRENCY;
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(workers);
+    executor.setMaxPoolSize(workers);
+    executor.setAllowCoreThreadTimeOut(true);
+    executor.setThreadNamePrefix("job-");
+    if (virtual) {
+      executor.setThreadFactory(Thread.ofVirtual().name("job-", 0).factory());
+    }
+    log.info("job executor: mode={}, maxConcurrency={}", mode, workers);
+    return executor;
+  }
+
+  /**
+   * The scheduler used for job timeouts and for {@code @Scheduled} methods.
+   *
+   * @return a small pool of scheduler threads
+   */
+  @Bean(name = "taskScheduler")
+  public ThreadPoolTaskScheduler taskScheduler() {
+    ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    scheduler.setPoolSize(schedulerPoolSize);
+    scheduler.setThreadNamePrefix("scheduling-");
+    return scheduler;
+  }
+}
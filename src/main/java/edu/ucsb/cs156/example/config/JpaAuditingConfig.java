@@ -0,0 +1,29 @@
+package edu.ucsb.cs156.example.config;
+
+import java.time.ZonedDateTime;
+import java.util.Optional;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.auditing.DateTimeProvider;
+import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+
+/**
+ * The `JpaAuditingConfig` class turns on JPA auditing, which fills in the {@code @CreatedDate} and
+ * {@code @LastModifiedDate} fields of entities listened to by the {@code AuditingEntityListener},
+ * such as a job's createdAt and updatedAt.
+ *
+ * <p>It is kept apart from the application class so that web slice tests, which have no JPA, do not
+ * load it.
+ */
+@Configuration
+@EnableJpaAuditing(dateTimeProviderRef = "auditingDateTimeProvider")
+public class JpaAuditingConfig {
+
+  /**
+   * @return the time stamps for audited fields, with the zone, as the entities store them
+   */
+  @Bean
+  public DateTimeProvider auditingDateTimeProvider() {
+    return () -> Optional.of(ZonedDateTime.now());
+  }
+}
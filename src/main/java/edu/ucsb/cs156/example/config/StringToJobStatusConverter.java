@@ -0,0 +1,14 @@
+package edu.ucsb.cs156.example.config;
+
+import edu.ucsb.cs156.example.entities.JobStatus;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.stereotype.Component;
+
+/** Lets request parameters use a job status's lower-case value, e.g. {@code ?status=running}. */
+@Component
+public class StringToJobStatusConverter implements Converter<String, JobStatus> {
+  @Override
+  public JobStatus convert(String source) {
+    return JobStatus.fromValue(source);
+  }
+}
@@ -0,0 +1,15 @@
+package edu.ucsb.cs156.example.config;
+
+import edu.ucsb.cs156.example.aop.ControllerEventInterceptor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/** Registers the interceptors that run around every controller call. */
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(new ControllerEventInterceptor());
+  }
+}
@@ -0,0 +1,134 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.models.ClassHistogramEntry;
+import edu.ucsb.cs156.example.models.MemoryReport;
+import edu.ucsb.cs156.example.services.diagnostics.MemoryDiagnostics;
+import edu.ucsb.cs156.example.services.diagnostics.StackSampler;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.time.Duration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import javax.management.JMException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * This is a REST controller for diagnosing performance problems on the node that handles the
+ * request, for admins who have no shell access to the host.
+ */
+@Tag(name = "Diagnostics")
+@RequestMapping("/api/diagnostics")
+@RestController
+public class DiagnosticsController extends ApiController {
+
+  @Autowired private StackSampler stackSampler;
+
+  @Autowired private MemoryDiagnostics memoryDiagnostics;
+
+  @Value("${app.jobs.executor.mode:platform}")
+  private String executorMode;
+
+  @Operation(
+      summary =
+          "Sample the stacks of this node's threads for some seconds and return them as collapsed"
+              + " stacks, the input of flame graph tools such as flamegraph.pl and speedscope")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping(value = "/profile", produces = MediaType.TEXT_PLAIN_VALUE)
+  public String profile(
+      @Parameter(name = "seconds", description = "How long to sample, 1 to 60")
+          @RequestParam(defaultValue = "10")
+          int seconds,
+      @Parameter(name = "intervalMs", description = "Time between samples, 1 to 1000 ms")
+          @RequestParam(defaultValue = "10")
+          int intervalMs,
+      @Parameter(
+              name = "threads",
+              description =
+                  "Threads to sample: all, requests or jobs. Jobs are only seen when"
+                      + " app.jobs.executor.mode is platform, since virtual threads are not"
+                      + " sampled")
+          @RequestParam(defaultValue = "all")
+          String threads,
+      @Parameter(
+              name = "waiting",
+              description = "Sample waiting threads too, for wall-clock rather than CPU time")
+          @RequestParam(defaultValue = "false")
+          boolean waiting)
+      throws InterruptedException {
+
+    if (seconds < 1 || seconds > 60) {
+      throw new IllegalArgumentException("seconds must be between 1 and 60");
+    }
+    if (intervalMs < 1 || intervalMs > 1000) {
+      throw new IllegalArgumentException("intervalMs must be between 1 and 1000");
+    }
+    StackSampler.Threads sampled;
+    try {
+      sampled = StackSampler.Threads.valueOf(threads.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("threads must be all, requests or jobs");
+    }
+    if (sampled == StackSampler.Threads.JOBS && "virtual".equals(executorMode)) {
+      throw new IllegalArgumentException(
+          "threads=jobs finds nothing to sample: jobs run on virtual threads, which are not"
+              + " sampled, while app.jobs.executor.mode is virtual");
+    }
+    return StackSampler.format(
+        stackSampler.sample(Duration.ofSeconds(seconds), intervalMs, sampled, waiting));
+  }
+
+  @Operation(
+      summary =
+          "Get the usage of this node's heap, non-heap memory and memory pools, and how often and"
+              + " for how long each garbage collector has run")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("/memory")
+  public MemoryReport memory() {
+    return memoryDiagnostics.memory();
+  }
+
+  @Operation(
+      summary =
+          "Get the classes with the most live bytes on this node; runs a full garbage collection"
+              + " first. To see what holds on to them, launch a heap dump at"
+              + " /api/jobs/launch/heapdump")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("/classes")
+  public List<ClassHistogramEntry> classes(
+      @Parameter(name = "top", description = "How many classes to list, 1 to 1000")
+          @RequestParam(defaultValue = "50")
+          int top)
+      throws JMException {
+
+    if (top < 1 || top > 1000) {
+      throw new IllegalArgumentException("top must be between 1 and 1000");
+    }
+    return memoryDiagnostics.classHistogram(top);
+  }
+
+  /**
+   * This method handles the IllegalArgumentException thrown for invalid parameters.
+   *
+   * @param e the exception
+   * @return a map with the type and message of the exception
+   */
+  @ExceptionHandler({IllegalArgumentException.class})
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  public Object handleIllegalArgumentException(Throwable e) {
+    return Map.of(
+        "type", e.getClass().getSimpleName(),
+        "message", e.getMessage());
+  }
+}
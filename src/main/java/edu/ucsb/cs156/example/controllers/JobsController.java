@@ -3,24 +3,59 @@ package edu.ucsb.cs156.example.controllers;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobStatus;
 import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.errors.JobRejectedException;
+import edu.ucsb.cs156.example.jobs.HeapDumpJob;
+import edu.ucsb.cs156.example.jobs.JfrDumpJob;
+import edu.ucsb.cs156.example.jobs.JfrRecordingJob;
+import edu.ucsb.cs156.example.jobs.SyntheticLoadJob;
 import edu.ucsb.cs156.example.jobs.TestJob;
+import edu.ucsb.cs156.example.models.JobDeleteResult;
+import edu.ucsb.cs156.example.models.JobExecutorStatus;
+import edu.ucsb.cs156.example.models.JobGraphNode;
+import edu.ucsb.cs156.example.models.JobLogMatch;
+import edu.ucsb.cs156.example.models.JobPurgeReport;
+import edu.ucsb.cs156.example.models.JobSummary;
 import edu.ucsb.cs156.example.repositories.JobsRepository;
+import edu.ucsb.cs156.example.services.jobs.JobLogSearch;
+import edu.ucsb.cs156.example.services.jobs.JobPurgeService;
+import edu.ucsb.cs156.example.services.jobs.JobResultStore;
 import edu.ucsb.cs156.example.services.jobs.JobService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import java.nio.charset.StandardCharsets;
+import java.time.ZonedDateTime;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @Tag(name = "Jobs")
 @RequestMapping("/api/jobs")
@@ -31,22 +66,126 @@ public class JobsController extends ApiController {
 
   @Autowired private JobService jobService;
 
+  @Autowired private JobPurgeService jobPurgeService;
+
+  @Autowired private JobLogSearch jobLogSearch;
+
+  @Autowired private JobResultStore jobResultStore;
+
   @Autowired ObjectMapper mapper;
 
-  @Operation(summary = "List all jobs")
+  private static final int MAX_PAGE_SIZE = 500;
+
+  // the statuses a bulk delete without a status filter deletes
+  private static final Set<JobStatus> FINISHED =
+      EnumSet.complementOf(EnumSet.of(JobStatus.WAITING, JobStatus.QUEUED, JobStatus.RUNNING));
+
+  @Operation(summary = "List all jobs (without their logs)")
   @PreAuthorize("hasRole('ROLE_ADMIN')")
   @GetMapping("/all")
-  public Iterable<Job> allJobs() {
-    Iterable<Job> jobs = jobsRepository.findAll();
+  public Iterable<JobSummary> allJobs() {
+    Iterable<JobSummary> jobs = jobsRepository.findAllSummaries();
     return jobs;
   }
 
+  @Operation(
+      summary =
+          "List one page of jobs, newest first, without their logs (for keyset paging pass the id"
+              + " of the last job on the previous page as beforeId instead of a page number)")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("/list")
+  public List<JobSummary> listJobs(
+      @Parameter(name = "status", description = "e.g. running, complete, error")
+          @RequestParam(required = false)
+          JobStatus status,
+      @Parameter(name = "createdById", description = "id of the user who launched the job")
+          @RequestParam(required = false)
+          Long createdById,
+      @Parameter(name = "createdAfter", description = "in iso format, e.g. 2025-10-01T00:00:00Z")
+          @RequestParam(required = false)
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          ZonedDateTime createdAfter,
+      @Parameter(name = "createdBefore", description = "in iso format, e.g. 2025-11-01T00:00:00Z")
+          @RequestParam(required = false)
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          ZonedDateTime createdBefore,
+      @Parameter(name = "beforeId", description = "only jobs with a smaller id")
+          @RequestParam(required = false)
+          Long beforeId,
+      @Parameter(name = "page") @RequestParam(defaultValue = "0") int page,
+      @Parameter(name = "size") @RequestParam(defaultValue = "50") int size) {
+    PageRequest pageRequest = PageRequest.of(page, Math.min(size, MAX_PAGE_SIZE));
+    return jobsRepository.findSummaries(
+        status, createdById, createdAfter, createdBefore, beforeId, pageRequest);
+  }
+
   @Operation(summary = "Delete all job records")
   @PreAuthorize("hasRole('ROLE_ADMIN')")
   @DeleteMapping("/all")
-  public Map<String, String> deleteAllJobs() {
-    jobsRepository.deleteAll();
-    return Map.of("message", "All jobs deleted");
+  public Map<String, Object> deleteAllJobs() {
+    JobDeleteResult result =
+        jobPurgeService.deleteJobs(null, EnumSet.allOf(JobStatus.class), null, null, null);
+    return Map.of(
+        "message",
+        "All jobs deleted",
+        "jobsDeleted",
+        result.getJobsDeleted(),
+        "logLinesDeleted",
+        result.getLogLinesDeleted());
+  }
+
+  @Operation(
+      summary =
+          "Delete the job records matching all of the given filters (at least one is required),"
+              + " with their logs, and return how many were deleted. Waiting, queued and running"
+              + " jobs are only deleted if the status filter selects them.")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @DeleteMapping("/bulk")
+  public JobDeleteResult deleteJobs(
+      @Parameter(name = "ids", description = "comma separated ids of the jobs to delete")
+          @RequestParam(required = false)
+          List<Long> ids,
+      @Parameter(name = "status", description = "e.g. complete, error")
+          @RequestParam(required = false)
+          JobStatus status,
+      @Parameter(name = "createdById", description = "id of the user who launched the job")
+          @RequestParam(required = false)
+          Long createdById,
+      @Parameter(name = "createdAfter", description = "in iso format, e.g. 2025-10-01T00:00:00Z")
+          @RequestParam(required = false)
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          ZonedDateTime createdAfter,
+      @Parameter(name = "createdBefore", description = "in iso format, e.g. 2025-11-01T00:00:00Z")
+          @RequestParam(required = false)
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          ZonedDateTime createdBefore) {
+    if (ids == null
+        && status == null
+        && createdById == null
+        && createdAfter == null
+        && createdBefore == null) {
+      throw new IllegalArgumentException(
+          "At least one filter is required; use DELETE /api/jobs/all to delete every job");
+    }
+    Set<JobStatus> statuses = status != null ? EnumSet.of(status) : FINISHED;
+    return jobPurgeService.deleteJobs(ids, statuses, createdById, createdAfter, createdBefore);
+  }
+
+  @Operation(summary = "Purge old job records now, following the retention policy")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @PostMapping("/purge")
+  public JobPurgeReport purgeJobs() {
+    return jobPurgeService.purge();
+  }
+
+  @Operation(
+      summary =
+          "Get the report of the most recent purge of old job records (empty if there has been no"
+              + " purge since the server started)")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("/purge")
+  public JobPurgeReport getLastPurgeReport() {
+    return jobPurgeService.getLastReport();
   }
 
   @Operation(summary = "Get a specific Job Log by ID if it is in the database")
@@ -66,10 +205,11 @@ public class JobsController extends ApiController {
   @PreAuthorize("hasRole('ROLE_ADMIN')")
   @DeleteMapping("")
   public Map<String, String> deleteAllJobs(@Parameter(name = "id") @RequestParam Long id) {
-    if (!jobsRepository.existsById(id)) {
+    JobDeleteResult result =
+        jobPurgeService.deleteJobs(List.of(id), EnumSet.allOf(JobStatus.class), null, null, null);
+    if (result.getJobsDeleted() == 0) {
       return Map.of("message", String.format("Job with id %d not found", id));
     }
-    jobsRepository.deleteById(id);
     return Map.of("message", String.format("Job with id %d deleted", id));
   }
 
@@ -78,17 +218,350 @@ public class JobsController extends ApiController {
   @PostMapping("/launch/testjob")
   public Job launchTestJob(
       @Parameter(name = "fail") @RequestParam Boolean fail,
-      @Parameter(name = "sleepMs") @RequestParam Integer sleepMs) {
+      @Parameter(name = "sleepMs") @RequestParam Integer sleepMs,
+      @Parameter(name = "Idempotency-Key", description = "Key identifying this launch for retries")
+          @RequestHeader(value = "Idempotency-Key", required = false)
+          String idempotencyKey) {
 
     TestJob testJob = TestJob.builder().fail(fail).sleepMs(sleepMs).build();
-    return jobService.runAsJob(testJob);
+    return jobService.runAsJob(testJob, getCurrentUser().getUser(), idempotencyKey);
+  }
+
+  @Operation(
+      summary =
+          "Launch a synthetic load job: workers run a mix of reads and writes against the CRUD"
+              + " tables for a fixed time, and the job's result reports the throughput and latency"
+              + " percentiles")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @PostMapping("/launch/syntheticload")
+  public Job launchSyntheticLoadJob(
+      @Parameter(name = "workers", description = "How many workers run operations at once")
+          @RequestParam(defaultValue = "4")
+          int workers,
+      @Parameter(name = "durationSeconds", description = "How long to measure")
+          @RequestParam(defaultValue = "60")
+          int durationSeconds,
+      @Parameter(name = "writePercent", description = "Percentage of operations that are writes")
+          @RequestParam(defaultValue = "20")
+          int writePercent,
+      @Parameter(name = "Idempotency-Key", description = "Key identifying this launch for retries")
+          @RequestHeader(value = "Idempotency-Key", required = false)
+          String idempotencyKey) {
+
+    SyntheticLoadJob loadJob =
+        SyntheticLoadJob.builder()
+            .workers(workers)
+            .durationSeconds(durationSeconds)
+            .writePercent(writePercent)
+            .build();
+    return jobService.runAsJob(loadJob, getCurrentUser().getUser(), idempotencyKey);
+  }
+
+  @Operation(
+      summary =
+          "Launch a job that makes a Java Flight Recorder recording of the node running it and"
+              + " stores the .jfr file for download from /api/jobs/results/{id}")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @PostMapping("/launch/jfr")
+  public Job launchJfrRecordingJob(
+      @Parameter(name = "durationSeconds", description = "How long to record")
+          @RequestParam(defaultValue = "60")
+          int durationSeconds,
+      @Parameter(name = "settings", description = "JFR settings: default or profile")
+          @RequestParam(defaultValue = "profile")
+          String settings,
+      @Parameter(name = "Idempotency-Key", description = "Key identifying this launch for retries")
+          @RequestHeader(value = "Idempotency-Key", required = false)
+          String idempotencyKey) {
+
+    JfrRecordingJob recordingJob =
+        JfrRecordingJob.builder().durationSeconds(durationSeconds).settings(settings).build();
+    return jobService.runAsJob(recordingJob, getCurrentUser().getUser(), idempotencyKey);
+  }
+
+  @Operation(
+      summary =
+          "Launch a job that dumps the continuous Java Flight Recorder recording of the node"
+              + " running it and stores the .jfr file for download from /api/jobs/results/{id}")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @PostMapping("/launch/jfrdump")
+  public Job launchJfrDumpJob(
+      @Parameter(name = "Idempotency-Key", description = "Key identifying this launch for retries")
+          @RequestHeader(value = "Idempotency-Key", required = false)
+          String idempotencyKey) {
+    return jobService.runAsJob(
+        JfrDumpJob.builder().build(), getCurrentUser().getUser(), idempotencyKey);
+  }
+
+  @Operation(
+      summary =
+          "Launch a job that dumps the heap of the node running it and stores the gzipped .hprof"
+              + " file for download from /api/jobs/results/{id}")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @PostMapping("/launch/heapdump")
+  public Job launchHeapDumpJob(
+      @Parameter(
+              name = "live",
+              description = "Dump only reachable objects, after a full garbage collection")
+          @RequestParam(defaultValue = "true")
+          boolean live,
+      @Parameter(name = "Idempotency-Key", description = "Key identifying this launch for retries")
+          @RequestHeader(value = "Idempotency-Key", required = false)
+          String idempotencyKey) {
+
+    return jobService.runAsJob(
+        HeapDumpJob.builder().live(live).build(), getCurrentUser().getUser(), idempotencyKey);
+  }
+
+  @Operation(
+      summary =
+          "Launch a graph of jobs: each job starts once the jobs it depends on have completed, and"
+              + " is cancelled if one of them does not complete")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @PostMapping("/graph")
+  public List<Job> launchJobGraph(@RequestBody List<JobGraphNode> jobs) {
+    return jobService.runAsGraph(jobs, getCurrentUser().getUser());
+  }
+
+  @Operation(summary = "Cancel a waiting, queued or running job")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @PostMapping("/cancel")
+  public Map<String, String> cancelJob(@Parameter(name = "id") @RequestParam Long id) {
+    if (!jobService.cancelJob(id)) {
+      return Map.of("message", String.format("Job with id %d is not running", id));
+    }
+    return Map.of("message", String.format("Job with id %d is being cancelled", id));
   }
 
-  @Operation(summary = "Get long job logs")
+  @Operation(
+      summary =
+          "Restart a failed, cancelled or timed out job; chunked jobs continue from their last"
+              + " checkpoint")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @PostMapping("/restart")
+  public Job restartJob(@Parameter(name = "id") @RequestParam Long id) {
+    return jobService.restartJob(id);
+  }
+
+  @Operation(
+      summary =
+          "Download the result a job stored, e.g. a JSON document of counts or an exported file,"
+              + " without reading its log")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("/results/{id}")
+  public ResponseEntity<StreamingResponseBody> getJobResult(
+      @Parameter(name = "id", description = "Job ID") @PathVariable Long id) {
+    Job job =
+        jobsRepository.findById(id).orElseThrow(() -> new EntityNotFoundException(Job.class, id));
+    if (job.getResultSize() == null) {
+      throw new EntityNotFoundException("Job %d has no result".formatted(id));
+    }
+    ResponseEntity.BodyBuilder response =
+        ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(job.getResultContentType()))
+            .contentLength(job.getResultSize());
+    if (job.getResultFileName() != null) {
+      response.header(
+          HttpHeaders.CONTENT_DISPOSITION,
+          ContentDisposition.attachment().filename(job.getResultFileName()).build().toString());
+    }
+    return response.body(out -> jobResultStore.write(id, out));
+  }
+
+  @Operation(
+      summary =
+          "Get long job logs, or just some lines of them with offset and limit or tail, or a byte"
+              + " range of a finished job's log with the Range header (a finished job's compressed"
+              + " log is sent as stored if the client accepts gzip)")
   @PreAuthorize("hasRole('ROLE_ADMIN')")
   @GetMapping("/logs/{id}")
-  public String getJobLogs(@Parameter(name = "id", description = "Job ID") @PathVariable Long id) {
+  public ResponseEntity<?> getJobLogs(
+      @Parameter(name = "id", description = "Job ID") @PathVariable Long id,
+      @Parameter(name = "offset", description = "number of the first line to get, starting at 0")
+          @RequestParam(required = false)
+          Integer offset,
+      @Parameter(name = "limit", description = "how many lines to get at most")
+          @RequestParam(required = false)
+          Integer limit,
+      @Parameter(name = "tail", description = "get just the last lines, e.g. 50")
+          @RequestParam(required = false)
+          Integer tail,
+      @Parameter(name = "Range", description = "e.g. bytes=0-1023 or bytes=-1024")
+          @RequestHeader(value = HttpHeaders.RANGE, required = false)
+          String range,
+      @Parameter(name = "Accept-Encoding", description = "e.g. gzip")
+          @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false)
+          String acceptEncoding) {
+
+    if (tail != null) {
+      return ResponseEntity.ok().body(jobService.getJobLogTail(id, tail));
+    }
+    if (offset != null || limit != null) {
+      return ResponseEntity.ok()
+          .body(
+              jobService.getJobLogLines(
+                  id, offset != null ? offset : 0, limit != null ? limit : Integer.MAX_VALUE));
+    }
+
+    // only a finished job's log can be read by byte range, since a running job's log keeps growing
+    long size = jobService.getCompressedJobLogSize(id);
+    if (range != null && size >= 0) {
+      return getJobLogRange(id, range, size);
+    }
+    if (acceptsGzip(acceptEncoding) && size >= 0) {
+      return ResponseEntity.ok()
+          .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+          .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING)
+          .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+          .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+          .contentLength(jobService.getGzippedJobLogSize(id))
+          .body(new InputStreamResource(jobService.openCompressedJobLogs(id)));
+    }
+    ResponseEntity.BodyBuilder response =
+        ResponseEntity.ok().header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+    if (size >= 0) response.header(HttpHeaders.ACCEPT_RANGES, "bytes");
+    return response.body(jobService.getJobLogs(id));
+  }
+
+  /**
+   * Serves a byte range of a finished job's log. A Range header that cannot be parsed, or that asks
+   * for several ranges, is ignored and the whole log is sent, as HTTP allows.
+   */
+  private ResponseEntity<?> getJobLogRange(Long id, String rangeHeader, long size) {
+    List<HttpRange> ranges;
+    try {
+      ranges = HttpRange.parseRanges(rangeHeader);
+    } catch (IllegalArgumentException e) {
+      ranges = List.of();
+    }
+    if (ranges.size() != 1) {
+      return ResponseEntity.ok()
+          .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+          .body(jobService.getJobLogs(id));
+    }
+
+    long first = ranges.get(0).getRangeStart(size);
+    long last = ranges.get(0).getRangeEnd(size);
+    if (first >= size || last < first) {
+      return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+          .header(HttpHeaders.CONTENT_RANGE, "bytes */" + size)
+          .build();
+    }
+    return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+        .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+        .header(HttpHeaders.CONTENT_RANGE, "bytes " + first + "-" + last + "/" + size)
+        .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+        .body(jobService.getCompressedJobLogBytes(id, first, last));
+  }
+
+  /**
+   * @param acceptEncoding the Accept-Encoding header of a request, e.g. "gzip, deflate, br"
+   * @return true if the header accepts gzip
+   */
+  private static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) return false;
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.trim().split(";");
+      if (!parts[0].trim().equalsIgnoreCase("gzip")) continue;
+      // "gzip;q=0" means gzip is not acceptable
+      return parts.length < 2 || !parts[1].replace(" ", "").matches("q=0(\\.0*)?");
+    }
+    return false;
+  }
+
+  @Operation(
+      summary =
+          "Search a job log on the server and return the matching lines with their line numbers"
+              + " and the lines around them")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("/logs/{id}/search")
+  public List<JobLogMatch> searchJobLogs(
+      @Parameter(name = "id", description = "Job ID") @PathVariable Long id,
+      @Parameter(name = "q", description = "the text to look for") @RequestParam String q,
+      @Parameter(name = "ignoreCase") @RequestParam(defaultValue = "false") boolean ignoreCase,
+      @Parameter(name = "context", description = "how many lines before and after each match")
+          @RequestParam(defaultValue = "2")
+          int context,
+      @Parameter(name = "limit", description = "how many matches to return at most")
+          @RequestParam(defaultValue = "100")
+          int limit) {
+    return jobLogSearch.search(id, q, ignoreCase, context, limit);
+  }
+
+  @Operation(
+      summary =
+          "Search the logs of the jobs created in a window of time, newest job first, and return"
+              + " the matching lines with their line numbers and the lines around them")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("/logs/search")
+  public List<JobLogMatch> searchAllJobLogs(
+      @Parameter(name = "q", description = "the text to look for") @RequestParam String q,
+      @Parameter(name = "createdAfter", description = "in iso format, e.g. 2025-10-01T00:00:00Z")
+          @RequestParam
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          ZonedDateTime createdAfter,
+      @Parameter(name = "createdBefore", description = "in iso format, defaults to now")
+          @RequestParam(required = false)
+          @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
+          ZonedDateTime createdBefore,
+      @Parameter(name = "ignoreCase") @RequestParam(defaultValue = "false") boolean ignoreCase,
+      @Parameter(name = "context", description = "how many lines before and after each match")
+          @RequestParam(defaultValue = "2")
+          int context,
+      @Parameter(name = "limit", description = "how many matches to return at most")
+          @RequestParam(defaultValue = "100")
+          int limit) {
+    return jobLogSearch.searchJobs(q, ignoreCase, createdAfter, createdBefore, context, limit);
+  }
+
+  @Operation(
+      summary =
+          "Stream job logs as Server-Sent Events (resumes after the Last-Event-ID header if given)")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("/logs/{id}/stream")
+  public SseEmitter streamJobLogs(
+      @Parameter(name = "id", description = "Job ID") @PathVariable Long id,
+      @Parameter(name = "Last-Event-ID", description = "Id of the last log line received")
+          @RequestHeader(value = "Last-Event-ID", required = false)
+          Integer lastEventId)
+      throws Exception {
+    int fromSeq = lastEventId == null ? 0 : lastEventId + 1;
+    return jobService.streamJobLogs(id, fromSeq);
+  }
+
+  @Operation(summary = "Get the number of running and queued jobs")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("/executor")
+  public JobExecutorStatus getExecutorStatus() {
+    return jobService.getExecutorStatus();
+  }
+
+  /**
+   * This method handles a request for a job log that is not valid, e.g. a negative offset or an
+   * empty search.
+   *
+   * @param e the exception
+   * @return a map with the type and message of the exception
+   */
+  @ExceptionHandler({IllegalArgumentException.class})
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  public Object handleIllegalArgumentException(Throwable e) {
+    return Map.of(
+        "type", e.getClass().getSimpleName(),
+        "message", e.getMessage());
+  }
 
-    return jobService.getJobLogs(id);
+  /**
+   * This method handles the JobRejectedException thrown when the job executor is full.
+   *
+   * @param e the exception
+   * @return a map with the type and message of the exception
+   */
+  @ExceptionHandler({JobRejectedException.class})
+  @ResponseStatus(HttpStatus.TOO_MANY_REQUESTS)
+  public Object handleJobRejectedException(Throwable e) {
+    return Map.of(
+        "type", e.getClass().getSimpleName(),
+        "message", e.getMessage());
   }
 }
@@ -0,0 +1,163 @@
+package edu.ucsb.cs156.example.controllers;
+
+import edu.ucsb.cs156.example.entities.RecurringJob;
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.repositories.RecurringJobsRepository;
+import edu.ucsb.cs156.example.services.jobs.RecurringJobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+
+/** This is a REST controller for RecurringJobs, i.e. jobs launched on a schedule */
+@Tag(name = "RecurringJobs")
+@RequestMapping("/api/recurringjobs")
+@RestController
+@Slf4j
+public class RecurringJobsController extends ApiController {
+
+  @Autowired RecurringJobsRepository recurringJobsRepository;
+
+  @Autowired RecurringJobService recurringJobService;
+
+  /**
+   * List all recurring jobs
+   *
+   * @return an iterable of RecurringJob
+   */
+  @Operation(summary = "List all recurring jobs")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("/all")
+  public Iterable<RecurringJob> allRecurringJobs() {
+    return recurringJobsRepository.findAll();
+  }
+
+  /**
+   * Get a single recurring job by id
+   *
+   * @param id the id of the recurring job
+   * @return a RecurringJob
+   */
+  @Operation(summary = "Get a single recurring job")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @GetMapping("")
+  public RecurringJob getById(@Parameter(name = "id") @RequestParam Long id) {
+    return recurringJobsRepository
+        .findById(id)
+        .orElseThrow(() -> new EntityNotFoundException(RecurringJob.class, id));
+  }
+
+  /**
+   * Create a new recurring job
+   *
+   * @param name a name for the recurring job
+   * @param jobType the class name of the job
+   * @param params the parameters of the job as JSON
+   * @param cron a cron expression (give either this or fixedRateMs)
+   * @param fixedRateMs the interval between runs in milliseconds
+   * @param enabled whether the job runs
+   * @return the saved recurring job
+   */
+  @Operation(summary = "Create a new recurring job")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @PostMapping("/post")
+  public RecurringJob postRecurringJob(
+      @Parameter(name = "name") @RequestParam String name,
+      @Parameter(name = "jobType", description = "e.g. edu.ucsb.cs156.example.jobs.TestJob")
+          @RequestParam
+          String jobType,
+      @Parameter(name = "params", description = "e.g. {\"fail\":false,\"sleepMs\":1000}")
+          @RequestParam(defaultValue = "{}")
+          String params,
+      @Parameter(name = "cron", description = "Spring cron expression, e.g. 0 0 3 * * *")
+          @RequestParam(required = false)
+          String cron,
+      @Parameter(name = "fixedRateMs") @RequestParam(required = false) Long fixedRateMs,
+      @Parameter(name = "enabled") @RequestParam(defaultValue = "true") boolean enabled) {
+    RecurringJob recurringJob =
+        RecurringJob.builder()
+            .name(name)
+            .jobType(jobType)
+            .params(params)
+            .cron(cron)
+            .fixedRateMs(fixedRateMs)
+            .enabled(enabled)
+            .build();
+
+    return recurringJobsRepository.save(recurringJobService.prepare(recurringJob));
+  }
+
+  /**
+   * Delete a RecurringJob
+   *
+   * @param id the id of the recurring job to delete
+   * @return a message indicating the recurring job was deleted
+   */
+  @Operation(summary = "Delete a recurring job")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @DeleteMapping("")
+  public Object deleteRecurringJob(@Parameter(name = "id") @RequestParam Long id) {
+    RecurringJob recurringJob =
+        recurringJobsRepository
+            .findById(id)
+            .orElseThrow(() -> new EntityNotFoundException(RecurringJob.class, id));
+
+    recurringJobsRepository.delete(recurringJob);
+    return genericMessage("RecurringJob with id %s deleted".formatted(id));
+  }
+
+  /**
+   * Update a single recurring job. Its next run is worked out again from the new schedule.
+   *
+   * @param id id of the recurring job to update
+   * @param incoming the new recurring job
+   * @return the updated recurring job
+   */
+  @Operation(summary = "Update a single recurring job")
+  @PreAuthorize("hasRole('ROLE_ADMIN')")
+  @PutMapping("")
+  public RecurringJob updateRecurringJob(
+      @Parameter(name = "id") @RequestParam Long id, @RequestBody RecurringJob incoming) {
+    RecurringJob recurringJob =
+        recurringJobsRepository
+            .findById(id)
+            .orElseThrow(() -> new EntityNotFoundException(RecurringJob.class, id));
+
+    recurringJob.setName(incoming.getName());
+    recurringJob.setJobType(incoming.getJobType());
+    recurringJob.setParams(incoming.getParams());
+    recurringJob.setCron(incoming.getCron());
+    recurringJob.setFixedRateMs(incoming.getFixedRateMs());
+    recurringJob.setEnabled(incoming.getEnabled());
+
+    return recurringJobsRepository.save(recurringJobService.prepare(recurringJob));
+  }
+
+  /**
+   * This method handles a recurring job that is not valid.
+   *
+   * @param e the exception
+   * @return a map with the type and message of the exception
+   */
+  @ExceptionHandler({IllegalArgumentException.class})
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  public Object handleIllegalArgumentException(Throwable e) {
+    return Map.of(
+        "type", e.getClass().getSimpleName(),
+        "message", e.getMessage());
+  }
+}
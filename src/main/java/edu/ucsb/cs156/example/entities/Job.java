@@ -10,6 +10,8 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
+import jakarta.persistence.PrePersist;
+import jakarta.persistence.PreUpdate;
 import java.time.ZonedDateTime;
 import lombok.AccessLevel;
 import lombok.AllArgsConstructor;
@@ -39,7 +41,45 @@ public class Job {
   @CreatedDate private ZonedDateTime createdAt;
   @LastModifiedDate private ZonedDateTime updatedAt;
 
-  private String status;
+  private JobStatus status;
+
+  // class name of the job, or null for a job launched with a lambda
+  private String jobType;
+
+  // how long the job waited in the queue before it first started
+  private Long queueWaitMs;
+
+  // when the job first started running, and when it finished
+  private ZonedDateTime startedAt;
+  private ZonedDateTime finishedAt;
+
+  // the key a launch was made with; kept only while the job is queued or running, so that a
+  // retried launch with the same key returns this job instead of starting another
+  private String dedupKey;
+
+  // who the key is unique for: the id of the user who launched the job, or 0 for the system, so
+  // that the unique index also covers system launches (NULL created_by_id values never conflict)
+  @JsonIgnore private long dedupScope;
+
+  // progress reported through JobContext.phase() and JobContext.progress()
+  private String phase;
+  private Long progressDone;
+  private Long progressTotal;
+
+  // the job's parameters as JSON, kept so that a failed job can be restarted after it has left the
+  // queue; null for a job launched with a lambda
+  @Column(columnDefinition = "TEXT")
+  private String params;
+
+  // where the job got to, recorded through JobContext.checkpoint(); a restarted job continues from
+  // here
+  private String checkpoint;
+
+  // the result the job stored through JobContext.result() or resultFile(), if any; the result
+  // itself is kept in job_result_chunks
+  private String resultContentType;
+  private String resultFileName;
+  private Long resultSize;
 
   // 1048576 is 2^20, which is the max size of a mediumtext in MySQL
   @Column(
@@ -47,4 +87,10 @@ public class Job {
       length = 1048576) // needed for long strings, i.e. log entries longer than 255
   // characters
   private String log;
+
+  @PrePersist
+  @PreUpdate
+  void releaseDedupKeyOnceFinished() {
+    if (status != JobStatus.QUEUED && status != JobStatus.RUNNING) dedupKey = null;
+  }
 }
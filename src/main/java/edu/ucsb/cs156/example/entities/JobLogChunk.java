@@ -0,0 +1,43 @@
+package edu.ucsb.cs156.example.entities;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a JPA entity that represents a gzip-compressed piece of a finished job's log. Once a job
+ * finishes its log lines are packed into chunks of consecutive lines; each chunk holds one gzip
+ * member, so the chunks of a job in order form a single gzip stream of the whole log.
+ *
+ * <p>Lines are counted by line breaks in the log text, so a message containing line breaks spans
+ * several lines. Every chunk but the first starts with the line break that ends the chunk before
+ * it. Offsets and lengths are in bytes of the uncompressed UTF-8 text.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+@Entity(name = "job_log_chunks")
+public class JobLogChunk {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private long id;
+
+  private long jobId;
+  private int chunkNo;
+
+  // number of the first line in the chunk, and how many lines it holds
+  private int firstLine;
+  private int lineCount;
+
+  private long rawOffset;
+  private long rawLength;
+
+  private byte[] data;
+}
@@ -0,0 +1,40 @@
+package edu.ucsb.cs156.example.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.SequenceGenerator;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a JPA entity that represents a single line of a job's log. Lines are appended in batches
+ * and reassembled in order of their sequence number. A line holds no line breaks, so its sequence
+ * number is also its line number in the job's log text.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+@Entity(name = "job_log_lines")
+public class JobLogLine {
+  // A sequence (rather than IDENTITY) lets Hibernate batch the inserts for a flush
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "job_log_lines_seq")
+  @SequenceGenerator(
+      name = "job_log_lines_seq",
+      sequenceName = "JOB_LOG_LINES_SEQ",
+      allocationSize = 50)
+  private long id;
+
+  private long jobId;
+  private int seq;
+
+  @Column(columnDefinition = "TEXT")
+  private String message;
+}
@@ -0,0 +1,39 @@
+package edu.ucsb.cs156.example.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import java.time.ZonedDateTime;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a JPA entity that represents a job waiting in, or claimed from, the durable job queue.
+ * The id is the id of the job. A job whose type is null was launched with a function that cannot be
+ * stored, so only the node that enqueued it can run it. Entries are claimed in order of priority,
+ * then in the order they were enqueued.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+@Entity(name = "job_queue")
+public class JobQueueEntry {
+  @Id private Long id;
+
+  private String jobType;
+
+  @Column(columnDefinition = "TEXT")
+  private String params;
+
+  // the priority of the job's lane; higher is claimed first
+  private int priority;
+
+  private String enqueuedBy;
+  private String claimedBy;
+  private ZonedDateTime leaseExpiresAt;
+  private int attempts;
+}
@@ -0,0 +1,41 @@
+package edu.ucsb.cs156.example.entities;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonValue;
+import java.util.Arrays;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The status of a job. Each status is stored in the jobs table and sent to clients as its
+ * lower-case value, e.g. "timed_out". A WAITING job is part of a job graph and waits for the jobs
+ * it depends on before it is queued.
+ */
+@AllArgsConstructor
+public enum JobStatus {
+  WAITING("waiting"),
+  QUEUED("queued"),
+  RUNNING("running"),
+  COMPLETE("complete"),
+  ERROR("error"),
+  REJECTED("rejected"),
+  CANCELLED("cancelled"),
+  TIMED_OUT("timed_out");
+
+  @Getter @JsonValue private final String value;
+
+  /**
+   * Looks up a status by its value (or, for convenience, its name), ignoring case.
+   *
+   * @param value e.g. "running" or "RUNNING"
+   * @return the status
+   * @throws IllegalArgumentException if there is no such status
+   */
+  @JsonCreator
+  public static JobStatus fromValue(String value) {
+    return Arrays.stream(values())
+        .filter(s -> s.value.equalsIgnoreCase(value) || s.name().equalsIgnoreCase(value))
+        .findFirst()
+        .orElseThrow(() -> new IllegalArgumentException("Unknown job status: " + value));
+  }
+}
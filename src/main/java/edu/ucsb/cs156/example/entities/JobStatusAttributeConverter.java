@@ -0,0 +1,18 @@
+package edu.ucsb.cs156.example.entities;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/** Stores a JobStatus in the database as its lower-case value, e.g. "running". */
+@Converter(autoApply = true)
+public class JobStatusAttributeConverter implements AttributeConverter<JobStatus, String> {
+  @Override
+  public String convertToDatabaseColumn(JobStatus status) {
+    return status == null ? null : status.getValue();
+  }
+
+  @Override
+  public JobStatus convertToEntityAttribute(String value) {
+    return value == null ? null : JobStatus.fromValue(value);
+  }
+}
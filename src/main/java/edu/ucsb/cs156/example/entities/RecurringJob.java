@@ -0,0 +1,48 @@
+package edu.ucsb.cs156.example.entities;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import java.time.ZonedDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a JPA entity that represents a job that is launched on a schedule, either by a cron
+ * expression or at a fixed rate. The job is given by its class name and its parameters as JSON, the
+ * same way jobs are stored in the job queue.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity(name = "recurring_jobs")
+public class RecurringJob {
+  @Id
+  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  private long id;
+
+  private String name;
+
+  /** e.g. edu.ucsb.cs156.example.jobs.TestJob */
+  private String jobType;
+
+  @Column(columnDefinition = "TEXT")
+  private String params;
+
+  /** a Spring cron expression, e.g. "0 0 * * * *"; null for a fixed-rate job */
+  private String cron;
+
+  /** the interval between runs; null for a cron job */
+  private Long fixedRateMs;
+
+  private boolean enabled;
+
+  private Long lastJobId;
+  private ZonedDateTime lastRunAt;
+  private ZonedDateTime nextRunAt;
+}
@@ -14,4 +14,13 @@ public class EntityNotFoundException extends RuntimeException {
   public EntityNotFoundException(Class<?> entityType, Object id) {
     super("%s with id %s not found".formatted(entityType.getSimpleName(), id.toString()));
   }
+
+  /**
+   * Constructor for the exception, for something other than an entity that was not found
+   *
+   * @param message what was not found, e.g. "Job 5 has no result"
+   */
+  public EntityNotFoundException(String message) {
+    super(message);
+  }
 }
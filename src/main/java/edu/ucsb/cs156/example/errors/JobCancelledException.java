@@ -0,0 +1,19 @@
+package edu.ucsb.cs156.example.errors;
+
+import edu.ucsb.cs156.example.entities.JobStatus;
+
+/**
+ * This is an error class for a custom RuntimeException in Java that is thrown inside a running job
+ * once the job has been cancelled or has timed out.
+ */
+public class JobCancelledException extends RuntimeException {
+  /**
+   * Constructor for the exception
+   *
+   * @param jobId the id of the job that was cancelled
+   * @param status the reason the job was stopped, e.g. CANCELLED or TIMED_OUT
+   */
+  public JobCancelledException(long jobId, JobStatus status) {
+    super("Job %d stopped: %s".formatted(jobId, status.getValue()));
+  }
+}
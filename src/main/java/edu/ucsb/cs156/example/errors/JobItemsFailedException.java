@@ -0,0 +1,41 @@
+package edu.ucsb.cs156.example.errors;
+
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * This is an error class for a custom RuntimeException in Java that is thrown by a job that
+ * processed its items in parallel once all of them have run, if any of them failed. The first few
+ * failures are attached as suppressed exceptions.
+ */
+public class JobItemsFailedException extends RuntimeException {
+  private static final int MAX_SUPPRESSED = 10;
+
+  private final SortedMap<Integer, Exception> failures;
+
+  /**
+   * Constructor for the exception
+   *
+   * @param itemCount the number of items the job processed
+   * @param failures the exception thrown for each item that failed, by the item's index
+   */
+  public JobItemsFailedException(int itemCount, Map<Integer, Exception> failures) {
+    super(message(itemCount, new TreeMap<>(failures)));
+    this.failures = new TreeMap<>(failures);
+    this.failures.values().stream().limit(MAX_SUPPRESSED).forEach(this::addSuppressed);
+  }
+
+  private static String message(int itemCount, SortedMap<Integer, Exception> failures) {
+    int first = failures.firstKey();
+    return "%d of %d items failed; item %d: %s"
+        .formatted(failures.size(), itemCount, first, failures.get(first).getMessage());
+  }
+
+  /**
+   * @return the exception thrown for each item that failed, by the item's index
+   */
+  public SortedMap<Integer, Exception> getFailures() {
+    return failures;
+  }
+}
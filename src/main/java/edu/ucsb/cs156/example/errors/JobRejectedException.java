@@ -0,0 +1,27 @@
+package edu.ucsb.cs156.example.errors;
+
+/**
+ * This is an error class for a custom RuntimeException in Java that is used to indicate that a job
+ * could not be started because the job queue has no room for it, or because the user already has as
+ * many jobs of its type as its quota allows.
+ */
+public class JobRejectedException extends RuntimeException {
+  /**
+   * Constructor for the exception
+   *
+   * @param jobId the id of the job that was rejected
+   * @param reason why the job was rejected
+   */
+  public JobRejectedException(long jobId, String reason) {
+    super("Job %d rejected: %s".formatted(jobId, reason));
+  }
+
+  /**
+   * Constructor for the exception, for jobs rejected before they were recorded, e.g. a job graph
+   *
+   * @param reason why the jobs were rejected
+   */
+  public JobRejectedException(String reason) {
+    super("Jobs rejected: " + reason);
+  }
+}
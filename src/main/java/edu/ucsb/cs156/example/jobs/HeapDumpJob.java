@@ -0,0 +1,67 @@
+package edu.ucsb.cs156.example.jobs;
+
+import edu.ucsb.cs156.example.services.diagnostics.MemoryDiagnostics;
+import edu.ucsb.cs156.example.services.jobs.JobContext;
+import edu.ucsb.cs156.example.services.jobs.JobContextConsumer;
+import edu.ucsb.cs156.example.services.jobs.JobLane;
+import edu.ucsb.cs156.example.services.jobs.JobPolicy;
+import edu.ucsb.cs156.example.services.jobs.JobQueue;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPOutputStream;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Dumps the heap of the node that runs the job and stores the {@code .hprof} file, gzipped, as the
+ * job's result, to be opened in a heap analyzer such as Eclipse MAT or VisualVM. The dump is
+ * written to a temporary file first, which needs free disk space about the size of the used heap,
+ * and is deleted once stored.
+ */
+@JobPolicy(lane = JobLane.INTERACTIVE, maxConcurrency = 1)
+public class HeapDumpJob implements JobContextConsumer {
+  @Getter private final boolean live;
+
+  @Autowired private MemoryDiagnostics memoryDiagnostics;
+
+  @Autowired private JobQueue jobQueue;
+
+  /**
+   * @param live true to dump only reachable objects, after a full garbage collection; false to dump
+   *     garbage too, without collecting it
+   */
+  @Builder
+  @Jacksonized
+  private HeapDumpJob(boolean live) {
+    this.live = live;
+  }
+
+  @Override
+  public void accept(JobContext ctx) throws Exception {
+    long jobId = ctx.getJob().getId();
+    ctx.log(
+        "Dumping the %s of node %s"
+            .formatted(live ? "live objects in the heap" : "whole heap", jobQueue.getNodeId()));
+    ctx.phase("dumping");
+    Path file = memoryDiagnostics.dumpHeap(live);
+    try {
+      ctx.log("Dumped %d bytes".formatted(Files.size(file)));
+      ctx.phase("storing");
+      ctx.resultFile(
+          "heap-%d.hprof.gz".formatted(jobId),
+          "application/gzip",
+          out -> {
+            try (OutputStream gzip = new GZIPOutputStream(out)) {
+              Files.copy(file, gzip);
+            }
+          });
+      ctx.log("Stored %d compressed bytes".formatted(ctx.getJob().getResultSize()));
+    } finally {
+      Files.deleteIfExists(file);
+      Files.deleteIfExists(file.getParent());
+    }
+  }
+}
@@ -0,0 +1,46 @@
+package edu.ucsb.cs156.example.jobs;
+
+import edu.ucsb.cs156.example.services.diagnostics.JfrRecorder;
+import edu.ucsb.cs156.example.services.jobs.JobContext;
+import edu.ucsb.cs156.example.services.jobs.JobContextConsumer;
+import edu.ucsb.cs156.example.services.jobs.JobLane;
+import edu.ucsb.cs156.example.services.jobs.JobPolicy;
+import edu.ucsb.cs156.example.services.jobs.JobQueue;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import lombok.Builder;
+import lombok.extern.jackson.Jacksonized;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Dumps the continuous Java Flight Recorder recording of the node that runs the job, i.e. what
+ * happened there over the last {@code app.jfr.continuous.maxAge}, and stores the {@code .jfr} file
+ * as the job's result. Fails if the node has no continuous recording; see {@link JfrRecorder}.
+ */
+@JobPolicy(lane = JobLane.INTERACTIVE)
+public class JfrDumpJob implements JobContextConsumer {
+
+  @Autowired private JfrRecorder jfrRecorder;
+
+  @Autowired private JobQueue jobQueue;
+
+  @Builder
+  @Jacksonized
+  private JfrDumpJob() {}
+
+  @Override
+  public void accept(JobContext ctx) throws Exception {
+    long jobId = ctx.getJob().getId();
+    ctx.log("Dumping the continuous recording of node %s".formatted(jobQueue.getNodeId()));
+    Path file = jfrRecorder.dumpContinuous();
+    try {
+      ctx.resultFile(
+          "continuous-%d.jfr".formatted(jobId),
+          "application/octet-stream",
+          out -> Files.copy(file, out));
+      ctx.log("Stored a recording of %d bytes".formatted(Files.size(file)));
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}
@@ -0,0 +1,76 @@
+package edu.ucsb.cs156.example.jobs;
+
+import edu.ucsb.cs156.example.services.diagnostics.JfrRecorder;
+import edu.ucsb.cs156.example.services.jobs.JobContext;
+import edu.ucsb.cs156.example.services.jobs.JobContextConsumer;
+import edu.ucsb.cs156.example.services.jobs.JobLane;
+import edu.ucsb.cs156.example.services.jobs.JobPolicy;
+import edu.ucsb.cs156.example.services.jobs.JobQueue;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import jdk.jfr.Recording;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
+import org.springframework.beans.factory.annotation.Autowired;
+
+/**
+ * Makes a Java Flight Recorder recording of the node that runs the job, for a given time and with
+ * the default or profile settings, and stores the {@code .jfr} file as the job's result. The job
+ * runs in the INTERACTIVE lane, so that it starts right away during an incident even while other
+ * jobs fill the workers. Cancelling the job discards the recording.
+ */
+@JobPolicy(lane = JobLane.INTERACTIVE, maxConcurrency = 1)
+public class JfrRecordingJob implements JobContextConsumer {
+  @Getter private final int durationSeconds;
+  @Getter private final String settings;
+
+  @Autowired private JfrRecorder jfrRecorder;
+
+  @Autowired private JobQueue jobQueue;
+
+  /**
+   * @param durationSeconds how long to record, 1 to 3600 seconds
+   * @param settings the JFR settings to record with, default or profile
+   */
+  @Builder
+  @Jacksonized
+  private JfrRecordingJob(int durationSeconds, String settings) {
+    if (durationSeconds < 1 || durationSeconds > 3600) {
+      throw new IllegalArgumentException("durationSeconds must be between 1 and 3600");
+    }
+    JfrRecorder.checkSettings(settings);
+    this.durationSeconds = durationSeconds;
+    this.settings = settings;
+  }
+
+  @Override
+  public void accept(JobContext ctx) throws Exception {
+    long jobId = ctx.getJob().getId();
+    ctx.log(
+        "Recording node %s for %ds with %s settings"
+            .formatted(jobQueue.getNodeId(), durationSeconds, settings));
+    ctx.phase("recording");
+    try (Recording recording = jfrRecorder.start("job-" + jobId, settings)) {
+      for (int second = 0; second < durationSeconds; second++) {
+        ctx.progress(second, durationSeconds);
+        Thread.sleep(1000);
+      }
+      ctx.progress(durationSeconds, durationSeconds);
+      recording.stop();
+
+      ctx.phase("storing");
+      Path file = Files.createTempFile("job-%d-".formatted(jobId), ".jfr");
+      try {
+        recording.dump(file);
+        ctx.resultFile(
+            "recording-%d.jfr".formatted(jobId),
+            "application/octet-stream",
+            out -> Files.copy(file, out));
+        ctx.log("Stored a recording of %d bytes".formatted(Files.size(file)));
+      } finally {
+        Files.deleteIfExists(file);
+      }
+    }
+  }
+}
@@ -0,0 +1,97 @@
+package edu.ucsb.cs156.example.jobs;
+
+import edu.ucsb.cs156.example.models.LatencySummary;
+
+/**
+ * Counts latencies, in microseconds, in buckets at most about 3% wide, so percentiles of any number
+ * of operations are computed in fixed memory. Latencies below 32µs are counted exactly; above that
+ * each power of two is split into 32 buckets. Not thread safe: each worker keeps its own histogram
+ * and they are added together at the end.
+ */
+public class LatencyHistogram {
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+  private final long[] counts = new long[bucketOf(Long.MAX_VALUE) + 1];
+  private long count;
+  private long totalMicros;
+  private long maxMicros;
+
+  /**
+   * @param nanos the latency of one operation, in nanoseconds
+   */
+  public void record(long nanos) {
+    long micros = Math.max(0, nanos / 1000);
+    counts[bucketOf(micros)]++;
+    count++;
+    totalMicros += micros;
+    maxMicros = Math.max(maxMicros, micros);
+  }
+
+  /**
+   * Adds the counts of another histogram to this one.
+   *
+   * @param other the other histogram
+   */
+  public void add(LatencyHistogram other) {
+    for (int i = 0; i < counts.length; i++) counts[i] += other.counts[i];
+    count += other.count;
+    totalMicros += other.totalMicros;
+    maxMicros = Math.max(maxMicros, other.maxMicros);
+  }
+
+  /**
+   * @return the number of latencies recorded
+   */
+  public long getCount() {
+    return count;
+  }
+
+  /**
+   * @param percentile the percentile, e.g. 99 for the latency 99% of operations were faster than
+   * @return the upper bound of the bucket holding the percentile, in microseconds, or 0 if no
+   *     latencies were recorded
+   */
+  public long percentileMicros(double percentile) {
+    if (count == 0) return 0;
+    long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+    long seen = 0;
+    for (int bucket = 0; bucket < counts.length; bucket++) {
+      seen += counts[bucket];
+      if (seen >= rank) return Math.min(upperBound(bucket), maxMicros);
+    }
+    return maxMicros;
+  }
+
+  /**
+   * @return the count, mean, median, 90th and 99th percentiles and maximum of the latencies
+   */
+  public LatencySummary summarize() {
+    return LatencySummary.builder()
+        .count(count)
+        .meanMs(count > 0 ? totalMicros / 1000.0 / count : 0)
+        .p50Ms(percentileMicros(50) / 1000.0)
+        .p90Ms(percentileMicros(90) / 1000.0)
+        .p99Ms(percentileMicros(99) / 1000.0)
+        .maxMs(maxMicros / 1000.0)
+        .build();
+  }
+
+  static int bucketOf(long micros) {
+    if (micros < SUB_BUCKETS) return (int) micros;
+    int exponent = 63 - Long.numberOfLeadingZeros(micros);
+    int subBucket = (int) (micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  static long lowerBound(int bucket) {
+    if (bucket < SUB_BUCKETS) return bucket;
+    int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    int subBucket = bucket % SUB_BUCKETS;
+    return (long) (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+  }
+
+  private long upperBound(int bucket) {
+    return bucket + 1 < counts.length ? lowerBound(bucket + 1) - 1 : Long.MAX_VALUE;
+  }
+}
@@ -0,0 +1,243 @@
+package edu.ucsb.cs156.example.jobs;
+
+import edu.ucsb.cs156.example.entities.Articles;
+import edu.ucsb.cs156.example.entities.HelpRequest;
+import edu.ucsb.cs156.example.entities.MenuItemReview;
+import edu.ucsb.cs156.example.models.SyntheticLoadReport;
+import edu.ucsb.cs156.example.repositories.ArticlesRepository;
+import edu.ucsb.cs156.example.repositories.HelpRequestRepository;
+import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository;
+import edu.ucsb.cs156.example.services.jobs.JobContext;
+import edu.ucsb.cs156.example.services.jobs.JobContextConsumer;
+import edu.ucsb.cs156.example.services.jobs.JobLane;
+import edu.ucsb.cs156.example.services.jobs.JobPolicy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+import java.util.stream.IntStream;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.repository.CrudRepository;
+
+/**
+ * Measures the capacity of a deployment in place. For a fixed time, concurrent workers each run a
+ * mix of reads and writes against the menu item review, help request and article tables, and the
+ * job stores the throughput and the latency percentiles of each kind of operation as its result.
+ *
+ * <p>Before measuring, the job inserts {@value #SEED_ROWS} rows in each table for reads to find by
+ * id; each write inserts another row. Every row the job inserted is deleted when it ends, whether
+ * it completes, fails or is cancelled. Workers take database connections from the pool like any
+ * request does, so more workers than pooled connections show up as higher latency.
+ */
+@JobPolicy(lane = JobLane.BULK, maxConcurrency = 1)
+public class SyntheticLoadJob implements JobContextConsumer {
+  static final int SEED_ROWS = 100;
+  static final String SYNTHETIC_EMAIL = "synthetic-load@example.invalid";
+
+  @Getter private final int workers;
+  @Getter private final int durationSeconds;
+  @Getter private final int writePercent;
+
+  @Autowired private MenuItemReviewRepository menuItemReviewRepository;
+
+  @Autowired private HelpRequestRepository helpRequestRepository;
+
+  @Autowired private ArticlesRepository articlesRepository;
+
+  /**
+   * @param workers how many workers run operations at once, 1 to 256
+   * @param durationSeconds how long to measure, 1 to 3600 seconds
+   * @param writePercent the percentage of operations that are writes, 0 to 100
+   */
+  @Builder
+  @Jacksonized
+  private SyntheticLoadJob(int workers, int durationSeconds, int writePercent) {
+    if (workers < 1 || workers > 256) {
+      throw new IllegalArgumentException("workers must be between 1 and 256");
+    }
+    if (durationSeconds < 1 || durationSeconds > 3600) {
+      throw new IllegalArgumentException("durationSeconds must be between 1 and 3600");
+    }
+    if (writePercent < 0 || writePercent > 100) {
+      throw new IllegalArgumentException("writePercent must be between 0 and 100");
+    }
+    this.workers = workers;
+    this.durationSeconds = durationSeconds;
+    this.writePercent = writePercent;
+  }
+
+  /** A table the workers read and write, with the ids of the rows the job inserted in it. */
+  private record Table<T>(
+      String name,
+      CrudRepository<T, Long> repository,
+      Supplier<T> newRow,
+      ToLongFunction<T> idOf,
+      List<Long> seeded,
+      Queue<Long> inserted) {
+
+    Table(
+        String name,
+        CrudRepository<T, Long> repository,
+        Supplier<T> newRow,
+        ToLongFunction<T> idOf) {
+      this(name, repository, newRow, idOf, new ArrayList<>(), new ConcurrentLinkedQueue<>());
+    }
+
+    long insert() {
+      long id = idOf.applyAsLong(repository.save(newRow.get()));
+      inserted.add(id);
+      return id;
+    }
+
+    void read(ThreadLocalRandom random) {
+      repository.findById(seeded.get(random.nextInt(seeded.size())));
+    }
+
+    int deleteInserted() {
+      List<Long> ids = List.copyOf(inserted);
+      repository.deleteAllById(ids);
+      inserted.clear();
+      return ids.size();
+    }
+  }
+
+  /** What one worker measured. */
+  private static class WorkerStats {
+    final LatencyHistogram reads = new LatencyHistogram();
+    final LatencyHistogram writes = new LatencyHistogram();
+    long errors;
+    String lastError;
+  }
+
+  @Override
+  public void accept(JobContext ctx) throws Exception {
+    List<Table<?>> tables = tables();
+    try {
+      ctx.phase("seeding");
+      for (Table<?> table : tables) {
+        for (int i = 0; i < SEED_ROWS; i++) table.seeded().add(table.insert());
+      }
+      ctx.log(
+          "Measuring %d workers, %d%% writes, for %ds"
+              .formatted(workers, writePercent, durationSeconds));
+
+      ctx.phase("measuring");
+      long startNanos = System.nanoTime();
+      long deadline = startNanos + durationSeconds * 1_000_000_000L;
+      List<WorkerStats> stats =
+          ctx.mapParallel(
+              IntStream.range(0, workers).boxed().toList(),
+              workers,
+              worker -> work(ctx, tables, deadline));
+      long elapsedNanos = System.nanoTime() - startNanos;
+
+      WorkerStats total = new WorkerStats();
+      for (WorkerStats worker : stats) {
+        total.reads.add(worker.reads);
+        total.writes.add(worker.writes);
+        total.errors += worker.errors;
+        if (worker.lastError != null) total.lastError = worker.lastError;
+      }
+      long operations = total.reads.getCount() + total.writes.getCount() + total.errors;
+      SyntheticLoadReport report =
+          SyntheticLoadReport.builder()
+              .workers(workers)
+              .writePercent(writePercent)
+              .durationMs(elapsedNanos / 1_000_000)
+              .operations(operations)
+              .errors(total.errors)
+              .operationsPerSecond(operations * 1e9 / elapsedNanos)
+              .reads(total.reads.summarize())
+              .writes(total.writes.summarize())
+              .build();
+      ctx.result(report);
+      ctx.log(
+          "%d operations, %.1f per second, p99 read %.2fms, p99 write %.2fms"
+              .formatted(
+                  operations,
+                  report.getOperationsPerSecond(),
+                  report.getReads().getP99Ms(),
+                  report.getWrites().getP99Ms()));
+      if (total.errors > 0) {
+        ctx.log("%d operations failed, the last with: %s".formatted(total.errors, total.lastError));
+      }
+    } finally {
+      // a cancelled job may have been interrupted, which would fail the deletes
+      boolean interrupted = Thread.interrupted();
+      ctx.phase("cleaning up");
+      int deleted = 0;
+      for (Table<?> table : tables) deleted += table.deleteInserted();
+      ctx.log("Deleted %d synthetic rows".formatted(deleted));
+      if (interrupted) Thread.currentThread().interrupt();
+    }
+  }
+
+  private WorkerStats work(JobContext ctx, List<Table<?>> tables, long deadline) {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    WorkerStats stats = new WorkerStats();
+    while (System.nanoTime() < deadline && !ctx.isCancelled()) {
+      Table<?> table = tables.get(random.nextInt(tables.size()));
+      boolean write = random.nextInt(100) < writePercent;
+      long start = System.nanoTime();
+      try {
+        if (write) {
+          table.insert();
+          stats.writes.record(System.nanoTime() - start);
+        } else {
+          table.read(random);
+          stats.reads.record(System.nanoTime() - start);
+        }
+      } catch (RuntimeException e) {
+        stats.errors++;
+        stats.lastError = "%s on %s: %s".formatted(write ? "write" : "read", table.name(), e);
+      }
+    }
+    return stats;
+  }
+
+  private List<Table<?>> tables() {
+    return List.of(
+        new Table<>(
+            "menuitemreviews",
+            menuItemReviewRepository,
+            () ->
+                MenuItemReview.builder()
+                    .reviewerEmail(SYNTHETIC_EMAIL)
+                    .stars(3)
+                    .dateReviewed(LocalDateTime.now())
+                    .comments("synthetic load")
+                    .build(),
+            MenuItemReview::getId),
+        new Table<>(
+            "helprequest",
+            helpRequestRepository,
+            () ->
+                HelpRequest.builder()
+                    .requesterEmail(SYNTHETIC_EMAIL)
+                    .teamId("synthetic")
+                    .tableOrBreakoutRoom("synthetic")
+                    .requestTime(LocalDateTime.now())
+                    .explanation("synthetic load")
+                    .build(),
+            HelpRequest::getId),
+        new Table<>(
+            "articles",
+            articlesRepository,
+            () ->
+                Articles.builder()
+                    .title("Synthetic load")
+                    .url("https://example.invalid/")
+                    .explanation("synthetic load")
+                    .submitterEmail(SYNTHETIC_EMAIL)
+                    .dateAdded(LocalDateTime.now())
+                    .build(),
+            Articles::getId));
+  }
+}
@@ -3,8 +3,13 @@ package edu.ucsb.cs156.example.jobs;
 import edu.ucsb.cs156.example.services.jobs.JobContext;
 import edu.ucsb.cs156.example.services.jobs.JobContextConsumer;
 import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
 
+// stored as JSON in the job queue, so that any node can run it
+@Getter
 @Builder
+@Jacksonized
 public class TestJob implements JobContextConsumer {
 
   private boolean fail;
@@ -12,11 +17,14 @@ public class TestJob implements JobContextConsumer {
 
   @Override
   public void accept(JobContext ctx) throws Exception {
+    ctx.phase("sleeping");
+    ctx.progress(0, 1);
     ctx.log("Hello World! from test job!");
     Thread.sleep(sleepMs);
     if (fail) {
       throw new Exception("Fail!");
     }
+    ctx.progress(1, 1);
     ctx.log("Goodbye from test job!");
   }
 }
@@ -0,0 +1,22 @@
+package edu.ucsb.cs156.example.models;
+
+import java.util.List;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** This is a model class that reports how often and for how long a garbage collector has run. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class GarbageCollectorStats {
+  private String name;
+  private long collections;
+  private long collectionTimeMs;
+  private double meanCollectionMs;
+  private Long lastCollectionMs;
+  private List<String> pools;
+}
@@ -0,0 +1,22 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a model class that represents a snapshot of the job executor's load: the jobs running on
+ * this node, and the jobs waiting in the job queue for any node to claim them.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class JobExecutorStatus {
+  private int activeJobs;
+  private long queuedJobs;
+  private int maxConcurrency;
+  private int queueCapacity;
+}
@@ -0,0 +1,24 @@
+package edu.ucsb.cs156.example.models;
+
+import java.util.List;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a model class that represents one job of a job graph launched through the API. The job is
+ * given by its class name and its parameters as JSON, the same way jobs are stored in the job
+ * queue, and names the jobs listed before it that must complete before it starts.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class JobGraphNode {
+  private String name;
+  private String jobType;
+  private String params;
+  private List<String> dependsOn;
+}
@@ -0,0 +1,24 @@
+package edu.ucsb.cs156.example.models;
+
+import java.util.List;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a model class that represents a line of a job log that matched a search, with the lines
+ * around it.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class JobLogMatch {
+  private long jobId;
+  private int lineNumber;
+  private String line;
+  private List<String> before;
+  private List<String> after;
+}
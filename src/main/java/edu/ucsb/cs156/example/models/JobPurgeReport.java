@@ -0,0 +1,27 @@
+package edu.ucsb.cs156.example.models;
+
+import java.time.ZonedDateTime;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** This is a model class that reports what a purge of old job records removed. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class JobPurgeReport {
+  private ZonedDateTime startedAt;
+  private long durationMs;
+
+  /** jobs removed because they were older than the maximum age */
+  private long expiredJobsDeleted;
+
+  /** jobs removed because there were more than the maximum number of jobs */
+  private long excessJobsDeleted;
+
+  private long logLinesDeleted;
+  private int batches;
+}
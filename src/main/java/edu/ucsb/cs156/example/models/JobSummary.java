@@ -0,0 +1,31 @@
+package edu.ucsb.cs156.example.models;
+
+import edu.ucsb.cs156.example.entities.JobStatus;
+import java.time.ZonedDateTime;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a model class that represents a job without its log.
+ *
+ * <p>Job listings are built from this projection so that they never read the log column.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class JobSummary {
+  private long id;
+  private JobStatus status;
+  private ZonedDateTime createdAt;
+  private ZonedDateTime updatedAt;
+  private ZonedDateTime startedAt;
+  private ZonedDateTime finishedAt;
+  private Long createdById;
+  private String phase;
+  private Long progressDone;
+  private Long progressTotal;
+}
@@ -0,0 +1,21 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** This is a model class that summarizes the latencies of a kind of operation. */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class LatencySummary {
+  private long count;
+  private double meanMs;
+  private double p50Ms;
+  private double p90Ms;
+  private double p99Ms;
+  private double maxMs;
+}
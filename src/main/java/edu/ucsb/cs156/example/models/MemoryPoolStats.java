@@ -0,0 +1,24 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a model class that reports the memory used by a memory pool, or by the heap or non-heap
+ * memory as a whole.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class MemoryPoolStats {
+  private String name;
+  private String type;
+  private long usedBytes;
+  private long committedBytes;
+  private long maxBytes;
+  private Long usedAfterGcBytes;
+}
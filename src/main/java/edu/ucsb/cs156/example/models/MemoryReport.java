@@ -0,0 +1,24 @@
+package edu.ucsb.cs156.example.models;
+
+import java.util.List;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a model class that reports the memory use and garbage collection statistics of a node.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class MemoryReport {
+  private String nodeId;
+  private long uptimeMs;
+  private MemoryPoolStats heap;
+  private MemoryPoolStats nonHeap;
+  private List<MemoryPoolStats> pools;
+  private List<GarbageCollectorStats> collectors;
+}
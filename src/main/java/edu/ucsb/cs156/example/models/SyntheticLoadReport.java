@@ -0,0 +1,28 @@
+package edu.ucsb.cs156.example.models;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * This is a model class that reports the throughput and latencies a synthetic load job measured.
+ */
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@Builder
+public class SyntheticLoadReport {
+  private int workers;
+  private int writePercent;
+  private long durationMs;
+  private long operations;
+
+  /** operations that threw, which are not counted in the latencies */
+  private long errors;
+
+  private double operationsPerSecond;
+  private LatencySummary reads;
+  private LatencySummary writes;
+}
@@ -0,0 +1,111 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.JobDependency;
+import edu.ucsb.cs156.example.entities.JobStatus;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/** The JobDependenciesRepository is a repository for JobDependency entities. */
+@Repository
+public interface JobDependenciesRepository extends CrudRepository<JobDependency, Long> {
+  /**
+   * This method returns the ids of the jobs waiting for a job.
+   *
+   * @param prerequisiteId id of the job waited for
+   * @return the ids of the waiting jobs
+   */
+  @Query("SELECT d.jobId FROM job_dependencies d WHERE d.prerequisiteId = :prerequisiteId")
+  List<Long> findDependentIds(long prerequisiteId);
+
+  /**
+   * This method counts the prerequisites of a job that do not have a given status. A prerequisite
+   * that has been deleted is not counted.
+   *
+   * @param jobId id of the waiting job
+   * @param status e.g. COMPLETE
+   * @return the number of prerequisites with another status
+   */
+  @Query(
+      "SELECT COUNT(d) FROM job_dependencies d, jobs j"
+          + " WHERE d.jobId = :jobId AND j.id = d.prerequisiteId AND j.status <> :status")
+  long countPrerequisitesWithStatusNot(long jobId, JobStatus status);
+
+  /**
+   * This method deletes the edges of a job that has stopped waiting.
+   *
+   * @param jobId id of the job
+   */
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM job_dependencies d WHERE d.jobId = :jobId")
+  void deleteByJobId(long jobId);
+
+  /**
+   * This method deletes the edges of several jobs, both those they wait on and those waiting on
+   * them, with a single statement.
+   *
+   * @param ids ids of the jobs
+   * @return the number of edges deleted
+   */
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM job_dependencies d WHERE d.jobId IN :ids OR d.prerequisiteId IN :ids")
+  int deleteByJobIdIn(Collection<Long> ids);
+
+  /**
+   * This method deletes the edges of every job matching the filters, both those they wait on and
+   * those waiting on them, with a single statement.
+   *
+   * @param statuses only jobs with one of these statuses
+   * @param createdById only jobs launched by the user with this id
+   * @param createdAfter only jobs created at or after this time
+   * @param createdBefore only jobs created before this time
+   * @return the number of edges deleted
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      "DELETE FROM job_dependencies d WHERE d.jobId IN (SELECT j.id FROM jobs j WHERE "
+          + JobsRepository.MATCHING
+          + ") OR d.prerequisiteId IN (SELECT j.id FROM jobs j WHERE "
+          + JobsRepository.MATCHING
+          + ")")
+  int deleteMatching(
+      Collection<JobStatus> statuses,
+      Long createdById,
+      ZonedDateTime createdAfter,
+      ZonedDateTime createdBefore);
+
+  /**
+   * This method deletes the edges of the jobs with the given ids that match the filters, both those
+   * they wait on and those waiting on them, with a single statement.
+   *
+   * @param ids ids of the jobs
+   * @param statuses only jobs with one of these statuses
+   * @param createdById only jobs launched by the user with this id
+   * @param createdAfter only jobs created at or after this time
+   * @param createdBefore only jobs created before this time
+   * @return the number of edges deleted
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      "DELETE FROM job_dependencies d WHERE d.jobId IN (SELECT j.id FROM jobs j WHERE j.id IN :ids"
+          + " AND "
+          + JobsRepository.MATCHING
+          + ") OR d.prerequisiteId IN (SELECT j.id FROM jobs j WHERE j.id IN :ids AND "
+          + JobsRepository.MATCHING
+          + ")")
+  int deleteMatchingIn(
+      Collection<Long> ids,
+      Collection<JobStatus> statuses,
+      Long createdById,
+      ZonedDateTime createdAfter,
+      ZonedDateTime createdBefore);
+}
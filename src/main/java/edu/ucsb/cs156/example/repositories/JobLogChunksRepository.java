@@ -0,0 +1,152 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.JobLogChunk;
+import edu.ucsb.cs156.example.entities.JobStatus;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/** The JobLogChunksRepository is a repository for JobLogChunk entities. */
+@Repository
+public interface JobLogChunksRepository extends CrudRepository<JobLogChunk, Long> {
+  /**
+   * This method counts the chunks of a job's compressed log.
+   *
+   * @param jobId id of the job
+   * @return the number of chunks, or 0 if the job's log is not compressed
+   */
+  int countByJobId(long jobId);
+
+  /**
+   * This method returns one chunk of a job's compressed log. Chunks are read one at a time so that
+   * a long log is never held in memory all at once.
+   *
+   * @param jobId id of the job
+   * @param chunkNo number of the chunk, starting at 0
+   * @return the chunk, if there is one
+   */
+  Optional<JobLogChunk> findByJobIdAndChunkNo(long jobId, int chunkNo);
+
+  /**
+   * This method returns the chunks of a job's compressed log that hold any of a range of lines,
+   * found by the chunks' line numbers without reading the other chunks.
+   *
+   * @param jobId id of the job
+   * @param firstLine number of the first line (inclusive)
+   * @param lastLine number of the last line (inclusive)
+   * @return the chunks, in order
+   */
+  @Query(
+      "SELECT c FROM job_log_chunks c WHERE c.jobId = :jobId AND c.firstLine <= :lastLine"
+          + " AND c.firstLine + c.lineCount > :firstLine ORDER BY c.chunkNo")
+  List<JobLogChunk> findCoveringLines(long jobId, int firstLine, int lastLine);
+
+  /**
+   * This method returns the chunks of a job's compressed log that hold any of a range of bytes of
+   * the log text, found by the chunks' offsets without reading the other chunks.
+   *
+   * @param jobId id of the job
+   * @param firstByte offset of the first byte (inclusive)
+   * @param lastByte offset of the last byte (inclusive)
+   * @return the chunks, in order
+   */
+  @Query(
+      "SELECT c FROM job_log_chunks c WHERE c.jobId = :jobId AND c.rawOffset <= :lastByte"
+          + " AND c.rawOffset + c.rawLength > :firstByte ORDER BY c.chunkNo")
+  List<JobLogChunk> findCoveringBytes(long jobId, long firstByte, long lastByte);
+
+  /**
+   * This method returns the number of lines in a job's compressed log.
+   *
+   * @param jobId id of the job
+   * @return the number of lines, or 0 if the job's log is not compressed
+   */
+  @Query("SELECT COALESCE(SUM(c.lineCount), 0) FROM job_log_chunks c WHERE c.jobId = :jobId")
+  int findLineCountByJobId(long jobId);
+
+  /**
+   * This method returns the size of a job's compressed log once it is inflated.
+   *
+   * @param jobId id of the job
+   * @return the size of the log text in bytes, or 0 if the job's log is not compressed
+   */
+  @Query("SELECT COALESCE(SUM(c.rawLength), 0) FROM job_log_chunks c WHERE c.jobId = :jobId")
+  long findRawLengthByJobId(long jobId);
+
+  /**
+   * This method returns the size of a job's compressed log as stored, without reading the chunks.
+   * It is a native query because JPQL has no function for the length of a binary column.
+   *
+   * @param jobId id of the job
+   * @return the size of the gzip stream in bytes, or 0 if the job's log is not compressed
+   */
+  @Query(
+      value =
+          "SELECT COALESCE(SUM(OCTET_LENGTH(DATA)), 0) FROM JOB_LOG_CHUNKS WHERE JOB_ID = :jobId",
+      nativeQuery = true)
+  long findCompressedLengthByJobId(long jobId);
+
+  /**
+   * This method deletes the compressed logs of several jobs with a single statement.
+   *
+   * @param jobIds ids of the jobs
+   * @return the number of chunks deleted
+   */
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM job_log_chunks c WHERE c.jobId IN :jobIds")
+  int deleteByJobIdIn(Collection<Long> jobIds);
+
+  /**
+   * This method deletes the compressed logs of every job matching the filters with a single
+   * statement.
+   *
+   * @param statuses only jobs with one of these statuses
+   * @param createdById only jobs launched by the user with this id
+   * @param createdAfter only jobs created at or after this time
+   * @param createdBefore only jobs created before this time
+   * @return the number of chunks deleted
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      "DELETE FROM job_log_chunks c WHERE c.jobId IN (SELECT j.id FROM jobs j WHERE "
+          + JobsRepository.MATCHING
+          + ")")
+  int deleteMatching(
+      Collection<JobStatus> statuses,
+      Long createdById,
+      ZonedDateTime createdAfter,
+      ZonedDateTime createdBefore);
+
+  /**
+   * This method deletes the compressed logs of the jobs with the given ids that match the filters
+   * with a single statement.
+   *
+   * @param ids ids of the jobs
+   * @param statuses only jobs with one of these statuses
+   * @param createdById only jobs launched by the user with this id
+   * @param createdAfter only jobs created at or after this time
+   * @param createdBefore only jobs created before this time
+   * @return the number of chunks deleted
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      "DELETE FROM job_log_chunks c WHERE c.jobId IN (SELECT j.id FROM jobs j WHERE j.id IN :ids"
+          + " AND "
+          + JobsRepository.MATCHING
+          + ")")
+  int deleteMatchingIn(
+      Collection<Long> ids,
+      Collection<JobStatus> statuses,
+      Long createdById,
+      ZonedDateTime createdAfter,
+      ZonedDateTime createdBefore);
+}
@@ -0,0 +1,115 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.entities.JobStatus;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/** The JobLogLinesRepository is a repository for JobLogLine entities. */
+@Repository
+public interface JobLogLinesRepository extends CrudRepository<JobLogLine, Long> {
+  /**
+   * This method returns the log lines of a job in the order they were written.
+   *
+   * @param jobId id of the job
+   * @return the log lines of the job, ordered by sequence number
+   */
+  List<JobLogLine> findByJobIdOrderBySeqAsc(long jobId);
+
+  /**
+   * This method returns the log lines of a job within a range of sequence numbers.
+   *
+   * @param jobId id of the job
+   * @param firstSeq sequence number of the first line (inclusive)
+   * @param lastSeq sequence number of the last line (inclusive)
+   * @return the log lines in the range, ordered by sequence number
+   */
+  List<JobLogLine> findByJobIdAndSeqBetweenOrderBySeqAsc(long jobId, int firstSeq, int lastSeq);
+
+  /**
+   * This method returns the sequence number of the last log line of a job.
+   *
+   * @param jobId id of the job
+   * @return the highest sequence number, or -1 if the job has no log lines
+   */
+  @Query("SELECT COALESCE(MAX(l.seq), -1) FROM job_log_lines l WHERE l.jobId = :jobId")
+  int findMaxSeqByJobId(long jobId);
+
+  /**
+   * This method deletes all log lines of a job with a single statement.
+   *
+   * @param jobId id of the job
+   */
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM job_log_lines l WHERE l.jobId = :jobId")
+  int deleteByJobId(long jobId);
+
+  /**
+   * This method deletes the log lines of several jobs with a single statement.
+   *
+   * @param jobIds ids of the jobs
+   * @return the number of lines deleted
+   */
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM job_log_lines l WHERE l.jobId IN :jobIds")
+  int deleteByJobIdIn(Collection<Long> jobIds);
+
+  /**
+   * This method deletes the log lines of every job matching the filters with a single statement.
+   *
+   * @param statuses only jobs with one of these statuses
+   * @param createdById only jobs launched by the user with this id
+   * @param createdAfter only jobs created at or after this time
+   * @param createdBefore only jobs created before this time
+   * @return the number of lines deleted
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      "DELETE FROM job_log_lines l WHERE l.jobId IN (SELECT j.id FROM jobs j WHERE "
+          + JobsRepository.MATCHING
+          + ")")
+  int deleteMatching(
+      Collection<JobStatus> statuses,
+      Long createdById,
+      ZonedDateTime createdAfter,
+      ZonedDateTime createdBefore);
+
+  /**
+   * This method deletes the log lines of the jobs with the given ids that match the filters with a
+   * single statement.
+   *
+   * @param ids ids of the jobs
+   * @param statuses only jobs with one of these statuses
+   * @param createdById only jobs launched by the user with this id
+   * @param createdAfter only jobs created at or after this time
+   * @param createdBefore only jobs created before this time
+   * @return the number of lines deleted
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      "DELETE FROM job_log_lines l WHERE l.jobId IN (SELECT j.id FROM jobs j WHERE j.id IN :ids AND "
+          + JobsRepository.MATCHING
+          + ")")
+  int deleteMatchingIn(
+      Collection<Long> ids,
+      Collection<JobStatus> statuses,
+      Long createdById,
+      ZonedDateTime createdAfter,
+      ZonedDateTime createdBefore);
+
+  /** This method deletes all log lines of all jobs with a single statement. */
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM job_log_lines")
+  int deleteAllLines();
+}
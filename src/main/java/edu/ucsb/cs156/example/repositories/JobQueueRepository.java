@@ -0,0 +1,124 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.JobQueueEntry;
+import edu.ucsb.cs156.example.entities.JobStatus;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/** The JobQueueRepository is a repository for JobQueueEntry entities. */
+@Repository
+public interface JobQueueRepository extends CrudRepository<JobQueueEntry, Long> {
+  /**
+   * This method locks the highest-priority, then oldest, entries that are unclaimed or whose lease
+   * has expired, skipping rows another node has locked ({@code FOR UPDATE SKIP LOCKED} where the
+   * database supports it). It must be called inside a transaction.
+   *
+   * @param now the current time
+   * @param nodeId id of this node; entries without a job type are only returned to the node that
+   *     enqueued them
+   * @param pageable how many entries to lock
+   * @return the locked entries
+   */
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+  @Query(
+      "SELECT q FROM job_queue q"
+          + " WHERE (q.claimedBy IS NULL OR q.leaseExpiresAt < :now)"
+          + " AND (q.jobType IS NOT NULL OR q.enqueuedBy = :nodeId)"
+          + " ORDER BY q.priority DESC, q.id")
+  List<JobQueueEntry> findClaimable(ZonedDateTime now, String nodeId, Pageable pageable);
+
+  long countByClaimedByIsNull();
+
+  @Modifying
+  @Transactional
+  @Query(
+      "UPDATE job_queue q SET q.leaseExpiresAt = :leaseExpiresAt"
+          + " WHERE q.claimedBy = :nodeId AND q.id IN :ids")
+  int renewLeases(String nodeId, Collection<Long> ids, ZonedDateTime leaseExpiresAt);
+
+  @Modifying
+  @Transactional
+  @Query(
+      "UPDATE job_queue q SET q.claimedBy = NULL, q.leaseExpiresAt = NULL,"
+          + " q.attempts = q.attempts - 1 WHERE q.id = :id AND q.claimedBy = :nodeId")
+  int release(long id, String nodeId);
+
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM job_queue q WHERE q.id = :id AND q.claimedBy = :nodeId")
+  int deleteClaimed(long id, String nodeId);
+
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM job_queue q WHERE q.id = :id AND q.claimedBy IS NULL")
+  int deleteUnclaimed(long id);
+
+  /**
+   * This method deletes the queue entries of several jobs with a single statement.
+   *
+   * @param ids ids of the jobs
+   * @return the number of entries deleted
+   */
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM job_queue q WHERE q.id IN :ids")
+  int deleteByIdIn(Collection<Long> ids);
+
+  /**
+   * This method deletes the queue entries of every job matching the filters with a single
+   * statement.
+   *
+   * @param statuses only jobs with one of these statuses
+   * @param createdById only jobs launched by the user with this id
+   * @param createdAfter only jobs created at or after this time
+   * @param createdBefore only jobs created before this time
+   * @return the number of entries deleted
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      "DELETE FROM job_queue q WHERE q.id IN (SELECT j.id FROM jobs j WHERE "
+          + JobsRepository.MATCHING
+          + ")")
+  int deleteMatching(
+      Collection<JobStatus> statuses,
+      Long createdById,
+      ZonedDateTime createdAfter,
+      ZonedDateTime createdBefore);
+
+  /**
+   * This method deletes the queue entries of the jobs with the given ids that match the filters
+   * with a single statement.
+   *
+   * @param ids ids of the jobs
+   * @param statuses only jobs with one of these statuses
+   * @param createdById only jobs launched by the user with this id
+   * @param createdAfter only jobs created at or after this time
+   * @param createdBefore only jobs created before this time
+   * @return the number of entries deleted
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      "DELETE FROM job_queue q WHERE q.id IN (SELECT j.id FROM jobs j WHERE j.id IN :ids AND "
+          + JobsRepository.MATCHING
+          + ")")
+  int deleteMatchingIn(
+      Collection<Long> ids,
+      Collection<JobStatus> statuses,
+      Long createdById,
+      ZonedDateTime createdAfter,
+      ZonedDateTime createdBefore);
+}
@@ -0,0 +1,93 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.JobResultChunk;
+import edu.ucsb.cs156.example.entities.JobStatus;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.Optional;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/** The JobResultChunksRepository is a repository for JobResultChunk entities. */
+@Repository
+public interface JobResultChunksRepository extends CrudRepository<JobResultChunk, Long> {
+  /**
+   * This method returns one chunk of a job's result. Chunks are read one at a time so that a large
+   * result is never held in memory all at once.
+   *
+   * @param jobId id of the job
+   * @param chunkNo number of the chunk, starting at 0
+   * @return the chunk, if there is one
+   */
+  Optional<JobResultChunk> findByJobIdAndChunkNo(long jobId, int chunkNo);
+
+  /**
+   * This method deletes the result of a job, e.g. before the job stores a new one.
+   *
+   * @param jobId id of the job
+   */
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM job_result_chunks r WHERE r.jobId = :jobId")
+  void deleteByJobId(long jobId);
+
+  /**
+   * This method deletes the results of several jobs with a single statement.
+   *
+   * @param jobIds ids of the jobs
+   * @return the number of chunks deleted
+   */
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM job_result_chunks r WHERE r.jobId IN :jobIds")
+  int deleteByJobIdIn(Collection<Long> jobIds);
+
+  /**
+   * This method deletes the results of every job matching the filters with a single statement.
+   *
+   * @param statuses only jobs with one of these statuses
+   * @param createdById only jobs launched by the user with this id
+   * @param createdAfter only jobs created at or after this time
+   * @param createdBefore only jobs created before this time
+   * @return the number of chunks deleted
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      "DELETE FROM job_result_chunks r WHERE r.jobId IN (SELECT j.id FROM jobs j WHERE "
+          + JobsRepository.MATCHING
+          + ")")
+  int deleteMatching(
+      Collection<JobStatus> statuses,
+      Long createdById,
+      ZonedDateTime createdAfter,
+      ZonedDateTime createdBefore);
+
+  /**
+   * This method deletes the results of the jobs with the given ids that match the filters with a
+   * single statement.
+   *
+   * @param ids ids of the jobs
+   * @param statuses only jobs with one of these statuses
+   * @param createdById only jobs launched by the user with this id
+   * @param createdAfter only jobs created at or after this time
+   * @param createdBefore only jobs created before this time
+   * @return the number of chunks deleted
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      "DELETE FROM job_result_chunks r WHERE r.jobId IN (SELECT j.id FROM jobs j WHERE j.id IN :ids"
+          + " AND "
+          + JobsRepository.MATCHING
+          + ")")
+  int deleteMatchingIn(
+      Collection<Long> ids,
+      Collection<JobStatus> statuses,
+      Long createdById,
+      ZonedDateTime createdAfter,
+      ZonedDateTime createdBefore);
+}
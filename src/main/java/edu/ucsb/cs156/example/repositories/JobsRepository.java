@@ -1,8 +1,226 @@
 package edu.ucsb.cs156.example.repositories;
 
 import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobStatus;
+import edu.ucsb.cs156.example.models.JobSummary;
+import java.time.ZonedDateTime;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+/** The JobsRepository is a repository for Job entities. */
 @Repository
-public interface JobsRepository extends CrudRepository<Job, Long> {}
+public interface JobsRepository extends CrudRepository<Job, Long> {
+  String SUMMARY =
+      "SELECT new edu.ucsb.cs156.example.models.JobSummary("
+          + "j.id, j.status, j.createdAt, j.updatedAt, j.startedAt, j.finishedAt, u.id, "
+          + "j.phase, j.progressDone, j.progressTotal) "
+          + "FROM jobs j LEFT JOIN j.createdBy u ";
+
+  /**
+   * Filters on jobs j, shared by the bulk deletes: the statuses to delete, and optional filters
+   * (pass null to skip a filter).
+   */
+  String MATCHING =
+      "j.status IN :statuses "
+          + "AND (:createdById IS NULL OR j.createdBy.id = :createdById) "
+          + "AND (:createdAfter IS NULL OR j.createdAt >= :createdAfter) "
+          + "AND (:createdBefore IS NULL OR j.createdAt < :createdBefore)";
+
+  /**
+   * This method returns every job, newest first, without reading the log column.
+   *
+   * @return summaries of all jobs
+   */
+  @Query(SUMMARY + "ORDER BY j.id DESC")
+  List<JobSummary> findAllSummaries();
+
+  /**
+   * This method returns one page of jobs, newest first, without reading the log column. Every
+   * filter is optional (pass null to skip it). Passing the id of the last job of the previous page
+   * as {@code beforeId} pages through the jobs by key instead of by offset.
+   *
+   * @param status only jobs with this status
+   * @param createdById only jobs launched by the user with this id
+   * @param createdAfter only jobs created at or after this time
+   * @param createdBefore only jobs created before this time
+   * @param beforeId only jobs with an id less than this one
+   * @param pageable the page size and (for offset paging) page number
+   * @return summaries of the matching jobs
+   */
+  @Query(
+      SUMMARY
+          + "WHERE (:status IS NULL OR j.status = :status) "
+          + "AND (:createdById IS NULL OR u.id = :createdById) "
+          + "AND (:createdAfter IS NULL OR j.createdAt >= :createdAfter) "
+          + "AND (:createdBefore IS NULL OR j.createdAt < :createdBefore) "
+          + "AND (:beforeId IS NULL OR j.id < :beforeId) "
+          + "ORDER BY j.id DESC")
+  List<JobSummary> findSummaries(
+      JobStatus status,
+      Long createdById,
+      ZonedDateTime createdAfter,
+      ZonedDateTime createdBefore,
+      Long beforeId,
+      Pageable pageable);
+
+  /**
+   * This method records the progress of a running job without rewriting the rest of its row.
+   *
+   * @param id id of the job
+   * @param phase name of the phase the job is in
+   * @param progressDone number of units of work done
+   * @param progressTotal total number of units of work
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      "UPDATE jobs j SET j.phase = :phase, j.progressDone = :progressDone,"
+          + " j.progressTotal = :progressTotal WHERE j.id = :id")
+  void updateProgress(long id, String phase, Long progressDone, Long progressTotal);
+
+  /**
+   * This method records the checkpoint of a running job without rewriting the rest of its row.
+   *
+   * @param id id of the job
+   * @param checkpoint where the job got to
+   */
+  @Modifying
+  @Transactional
+  @Query("UPDATE jobs j SET j.checkpoint = :checkpoint WHERE j.id = :id")
+  void updateCheckpoint(long id, String checkpoint);
+
+  /**
+   * This method records the result a job has stored without rewriting the rest of its row.
+   *
+   * @param id id of the job
+   * @param contentType the media type of the result, e.g. application/json
+   * @param fileName the name to download the result as, or null
+   * @param size the size of the result in bytes, or null to clear the result
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      "UPDATE jobs j SET j.resultContentType = :contentType, j.resultFileName = :fileName,"
+          + " j.resultSize = :size WHERE j.id = :id")
+  void updateResult(long id, String contentType, String fileName, Long size);
+
+  /**
+   * This method moves a job from one status to another, unless another node or thread moved it
+   * first.
+   *
+   * @param id id of the job
+   * @param from the status the job must have
+   * @param to the new status
+   * @return 1 if the job was moved, 0 if it did not have the status {@code from}
+   */
+  @Modifying
+  @Transactional
+  @Query("UPDATE jobs j SET j.status = :to WHERE j.id = :id AND j.status = :from")
+  int updateStatus(long id, JobStatus from, JobStatus to);
+
+  /**
+   * This method finds the jobs launched by a user with a deduplication key. Only queued and running
+   * jobs keep their key.
+   *
+   * @param dedupScope id of the user, or 0 for jobs launched by the system
+   * @param dedupKey the key
+   * @param statuses only jobs with one of these statuses
+   * @return the jobs
+   */
+  @Query(
+      "SELECT j FROM jobs j WHERE j.dedupScope = :dedupScope AND j.dedupKey = :dedupKey"
+          + " AND j.status IN :statuses")
+  List<Job> findByDedupKey(long dedupScope, String dedupKey, Collection<JobStatus> statuses);
+
+  /**
+   * This method releases the deduplication key of a job, so that a new launch can use it.
+   *
+   * @param id id of the job
+   */
+  @Modifying
+  @Transactional
+  @Query("UPDATE jobs j SET j.dedupKey = NULL WHERE j.id = :id")
+  void clearDedupKey(long id);
+
+  /**
+   * This method counts a user's jobs of one type that have one of the given statuses.
+   *
+   * @param createdById id of the user
+   * @param jobType class name of the job
+   * @param statuses e.g. QUEUED and RUNNING
+   * @return the number of jobs
+   */
+  @Query(
+      "SELECT COUNT(j) FROM jobs j WHERE j.createdBy.id = :createdById"
+          + " AND j.jobType = :jobType AND j.status IN :statuses")
+  long countByCreatedByAndJobType(long createdById, String jobType, Collection<JobStatus> statuses);
+
+  /**
+   * This method returns the ids of the oldest jobs with one of the given statuses.
+   *
+   * @param statuses only jobs with one of these statuses
+   * @param createdBefore only jobs created before this time (pass null to skip this filter)
+   * @param pageable how many ids to return
+   * @return the ids, oldest first
+   */
+  @Query(
+      "SELECT j.id FROM jobs j WHERE j.status IN :statuses"
+          + " AND (:createdBefore IS NULL OR j.createdAt < :createdBefore) ORDER BY j.id")
+  List<Long> findOldestIds(
+      Collection<JobStatus> statuses, ZonedDateTime createdBefore, Pageable pageable);
+
+  /**
+   * This method deletes jobs with a single statement.
+   *
+   * @param ids ids of the jobs
+   * @return the number of jobs deleted
+   */
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM jobs j WHERE j.id IN :ids")
+  int deleteByIdIn(Collection<Long> ids);
+
+  /**
+   * This method deletes every job matching the filters with a single statement.
+   *
+   * @param statuses only jobs with one of these statuses
+   * @param createdById only jobs launched by the user with this id
+   * @param createdAfter only jobs created at or after this time
+   * @param createdBefore only jobs created before this time
+   * @return the number of jobs deleted
+   */
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM jobs j WHERE " + MATCHING)
+  int deleteMatching(
+      Collection<JobStatus> statuses,
+      Long createdById,
+      ZonedDateTime createdAfter,
+      ZonedDateTime createdBefore);
+
+  /**
+   * This method deletes the jobs with the given ids that match the filters with a single statement.
+   *
+   * @param ids ids of the jobs
+   * @param statuses only jobs with one of these statuses
+   * @param createdById only jobs launched by the user with this id
+   * @param createdAfter only jobs created at or after this time
+   * @param createdBefore only jobs created before this time
+   * @return the number of jobs deleted
+   */
+  @Modifying
+  @Transactional
+  @Query("DELETE FROM jobs j WHERE j.id IN :ids AND " + MATCHING)
+  int deleteMatchingIn(
+      Collection<Long> ids,
+      Collection<JobStatus> statuses,
+      Long createdById,
+      ZonedDateTime createdAfter,
+      ZonedDateTime createdBefore);
+}
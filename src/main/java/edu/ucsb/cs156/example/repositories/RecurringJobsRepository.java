@@ -0,0 +1,37 @@
+package edu.ucsb.cs156.example.repositories;
+
+import edu.ucsb.cs156.example.entities.RecurringJob;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/** The RecurringJobsRepository is a repository for RecurringJob entities. */
+@Repository
+public interface RecurringJobsRepository extends CrudRepository<RecurringJob, Long> {
+  List<RecurringJob> findByEnabledTrueAndNextRunAtLessThanEqual(ZonedDateTime now);
+
+  /**
+   * This method moves a recurring job on to its next run, but only if no other node has done so
+   * already, so that each run is launched by exactly one node.
+   *
+   * @param id id of the recurring job
+   * @param dueAt the run this node is about to launch
+   * @param nextRunAt the run after that
+   * @return 1 if this node gets to launch the run, 0 otherwise
+   */
+  @Modifying
+  @Transactional
+  @Query(
+      "UPDATE recurring_jobs r SET r.nextRunAt = :nextRunAt"
+          + " WHERE r.id = :id AND r.nextRunAt = :dueAt")
+  int advance(long id, ZonedDateTime dueAt, ZonedDateTime nextRunAt);
+
+  @Modifying
+  @Transactional
+  @Query("UPDATE recurring_jobs r SET r.lastJobId = :jobId, r.lastRunAt = :runAt WHERE r.id = :id")
+  int recordRun(long id, long jobId, ZonedDateTime runAt);
+}
@@ -0,0 +1,30 @@
+package edu.ucsb.cs156.example.services.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** A Flight Recorder event for an API request handled by a controller, from start to response. */
+@Name("edu.ucsb.cs156.example.ControllerCall")
+@Label("Controller Call")
+@Category({"Application", "Controllers"})
+@Description("An API request handled by a controller")
+@StackTrace(false)
+public class ControllerCallEvent extends Event {
+  @Label("HTTP Method")
+  public String httpMethod;
+
+  @Label("Route")
+  @Description("The route pattern, e.g. /api/jobs/logs/{id}")
+  public String route;
+
+  @Label("Handler")
+  @Description("The controller method, e.g. JobsController.getJobLogs")
+  public String handler;
+
+  @Label("Status")
+  public int status;
+}
@@ -0,0 +1,117 @@
+package edu.ucsb.cs156.example.services.diagnostics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.Set;
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Makes Java Flight Recorder recordings of this JVM, so that a profile can be captured during an
+ * incident without shell access to the host. Recordings are made by jobs, which store the {@code
+ * .jfr} file as their result.
+ *
+ * <p>If {@code app.jfr.continuous.enabled} is set, a rolling recording runs from startup, keeping
+ * the last {@code app.jfr.continuous.maxAge} of events up to {@code app.jfr.continuous.maxSize} on
+ * disk, and can be dumped on demand to see what led up to a problem.
+ */
+@Slf4j
+@Service
+public class JfrRecorder {
+  /** the settings shipped with the JDK: low overhead, or more detail for profiling */
+  public static final Set<String> SETTINGS = Set.of("default", "profile");
+
+  @Value("${app.jfr.continuous.enabled:false}")
+  private boolean continuous;
+
+  @Value("${app.jfr.continuous.settings:default}")
+  private String continuousSettings;
+
+  @Value("${app.jfr.continuous.maxAge:30m}")
+  private Duration maxAge;
+
+  @Value("${app.jfr.continuous.maxSize:256MB}")
+  private DataSize maxSize;
+
+  private Recording continuousRecording;
+
+  @PostConstruct
+  void startContinuous() throws IOException, ParseException {
+    if (!continuous) return;
+    Recording recording = new Recording(Configuration.getConfiguration(continuousSettings));
+    recording.setName("continuous");
+    recording.setToDisk(true);
+    recording.setMaxAge(maxAge);
+    recording.setMaxSize(maxSize.toBytes());
+    recording.start();
+    continuousRecording = recording;
+    log.info("Started continuous JFR recording: last {}, at most {}", maxAge, maxSize);
+  }
+
+  @PreDestroy
+  synchronized void stopContinuous() {
+    if (continuousRecording != null) continuousRecording.close();
+    continuousRecording = null;
+  }
+
+  /**
+   * @return true if the continuous recording is running
+   */
+  public synchronized boolean isContinuousRecording() {
+    return continuousRecording != null;
+  }
+
+  /**
+   * Starts a recording, which the caller stops and closes.
+   *
+   * @param name the name of the recording, e.g. the job it is for
+   * @param settings one of {@link #SETTINGS}
+   * @return the recording
+   * @throws IOException if the settings cannot be read
+   * @throws ParseException if the settings cannot be parsed
+   */
+  public Recording start(String name, String settings) throws IOException, ParseException {
+    checkSettings(settings);
+    Recording recording = new Recording(Configuration.getConfiguration(settings));
+    recording.setName(name);
+    recording.setToDisk(true);
+    recording.start();
+    return recording;
+  }
+
+  /**
+   * Writes what the continuous recording holds to a file, which the caller deletes.
+   *
+   * @return the file
+   * @throws IllegalStateException if the continuous recording is not running
+   * @throws IOException if the file cannot be written
+   */
+  public synchronized Path dumpContinuous() throws IOException {
+    if (continuousRecording == null) {
+      throw new IllegalStateException(
+          "No continuous recording is running; set app.jfr.continuous.enabled to start one");
+    }
+    Path file = Files.createTempFile("continuous-", ".jfr");
+    continuousRecording.dump(file);
+    return file;
+  }
+
+  /**
+   * @param settings the name of a JFR settings file
+   * @throws IllegalArgumentException unless the settings are one of {@link #SETTINGS}
+   */
+  public static void checkSettings(String settings) {
+    if (settings == null || !SETTINGS.contains(settings)) {
+      throw new IllegalArgumentException("settings must be default or profile");
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package edu.ucsb.cs156.example.services.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** A Flight Recorder event for a step a job reports: a log line, a new phase or progress. */
+@Name("edu.ucsb.cs156.example.JobStep")
+@Label("Job Step")
+@Category({"Application", "Jobs"})
+@Description("A log line, phase or progress reported by a job")
+@StackTrace(false)
+public class JobStepEvent extends Event {
+  @Label("Job Id")
+  public long jobId;
+
+  @Label("Job Type")
+  public String jobType;
+
+  @Label("Step")
+  @Description("log, phase or progress")
+  public String step;
+
+  @Label("Message")
+  @Description("The line logged or the name of the phase")
+  public String message;
+
+  @Label("Done")
+  public long done;
+
+  @Label("Total")
+  public long total;
+}
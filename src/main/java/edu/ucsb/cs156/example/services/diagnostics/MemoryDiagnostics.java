@@ -0,0 +1,155 @@
+package edu.ucsb.cs156.example.services.diagnostics;
+
+import com.sun.management.GcInfo;
+import com.sun.management.HotSpotDiagnosticMXBean;
+import edu.ucsb.cs156.example.models.ClassHistogramEntry;
+import edu.ucsb.cs156.example.models.GarbageCollectorStats;
+import edu.ucsb.cs156.example.models.MemoryPoolStats;
+import edu.ucsb.cs156.example.models.MemoryReport;
+import edu.ucsb.cs156.example.services.jobs.JobQueue;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryUsage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+/**
+ * Reports what fills the memory of this JVM, so that growth from large responses or job logs can be
+ * seen without shell access to the host: the usage of each memory pool, how often and for how long
+ * each garbage collector has run, the classes with the most live bytes, and heap dumps.
+ *
+ * <p>The class histogram and heap dumps of live objects each run a full garbage collection first,
+ * pausing the node for as long as that takes; the pool and collector statistics are cheap.
+ */
+@Service
+public class MemoryDiagnostics {
+  private static final Pattern HISTOGRAM_LINE =
+      Pattern.compile("^\\s*\\d+:\\s+(\\d+)\\s+(\\d+)\\s+(\\S+).*$");
+
+  @Autowired private JobQueue jobQueue;
+
+  /**
+   * @return the usage of the heap, the non-heap memory and each pool, and the statistics of each
+   *     garbage collector
+   */
+  public MemoryReport memory() {
+    MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+    return MemoryReport.builder()
+        .nodeId(jobQueue.getNodeId())
+        .uptimeMs(ManagementFactory.getRuntimeMXBean().getUptime())
+        .heap(stats("heap", "HEAP", memory.getHeapMemoryUsage(), null))
+        .nonHeap(stats("non-heap", "NON_HEAP", memory.getNonHeapMemoryUsage(), null))
+        .pools(
+            ManagementFactory.getMemoryPoolMXBeans().stream()
+                .map(
+                    pool ->
+                        stats(
+                            pool.getName(),
+                            pool.getType().name(),
+                            pool.getUsage(),
+                            pool.getCollectionUsage()))
+                .toList())
+        .collectors(
+            ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .map(MemoryDiagnostics::stats)
+                .toList())
+        .build();
+  }
+
+  private static MemoryPoolStats stats(
+      String name, String type, MemoryUsage usage, MemoryUsage afterGc) {
+    return MemoryPoolStats.builder()
+        .name(name)
+        .type(type)
+        .usedBytes(usage.getUsed())
+        .committedBytes(usage.getCommitted())
+        .maxBytes(usage.getMax())
+        .usedAfterGcBytes(afterGc != null ? afterGc.getUsed() : null)
+        .build();
+  }
+
+  // with G1 and ZGC some collectors count concurrent cycles rather than pauses, so their time is
+  // not all time the application was stopped
+  private static GarbageCollectorStats stats(GarbageCollectorMXBean collector) {
+    long collections = Math.max(0, collector.getCollectionCount());
+    long timeMs = Math.max(0, collector.getCollectionTime());
+    Long lastMs = null;
+    if (collector instanceof com.sun.management.GarbageCollectorMXBean hotspot) {
+      GcInfo last = hotspot.getLastGcInfo();
+      if (last != null) lastMs = last.getDuration();
+    }
+    return GarbageCollectorStats.builder()
+        .name(collector.getName())
+        .collections(collections)
+        .collectionTimeMs(timeMs)
+        .meanCollectionMs(collections > 0 ? (double) timeMs / collections : 0)
+        .lastCollectionMs(lastMs)
+        .pools(List.of(collector.getMemoryPoolNames()))
+        .build();
+  }
+
+  /**
+   * Counts the live instances of each class, after a full garbage collection.
+   *
+   * @param top how many classes to return
+   * @return the classes with the most live bytes, most first
+   * @throws JMException if the JVM cannot make a class histogram
+   */
+  public List<ClassHistogramEntry> classHistogram(int top) throws JMException {
+    String histogram =
+        (String)
+            ManagementFactory.getPlatformMBeanServer()
+                .invoke(
+                    new ObjectName("com.sun.management:type=DiagnosticCommand"),
+                    "gcClassHistogram",
+                    new Object[] {new String[0]},
+                    new String[] {String[].class.getName()});
+    return parseHistogram(histogram, top);
+  }
+
+  /**
+   * @param histogram the output of the GC.class_histogram diagnostic command, which lists classes
+   *     by bytes, most first
+   * @param top how many classes to return
+   * @return the first classes of the histogram
+   */
+  static List<ClassHistogramEntry> parseHistogram(String histogram, int top) {
+    List<ClassHistogramEntry> entries = new ArrayList<>();
+    for (String line : histogram.split("\n")) {
+      if (entries.size() == top) break;
+      Matcher matcher = HISTOGRAM_LINE.matcher(line);
+      if (!matcher.matches()) continue;
+      entries.add(
+          ClassHistogramEntry.builder()
+              .instances(Long.parseLong(matcher.group(1)))
+              .bytes(Long.parseLong(matcher.group(2)))
+              .className(matcher.group(3))
+              .build());
+    }
+    return entries;
+  }
+
+  /**
+   * Dumps the heap to a new file in a new temporary directory; the caller deletes both.
+   *
+   * @param live true to dump only reachable objects, after a full garbage collection
+   * @return the {@code .hprof} file
+   * @throws IOException if the heap cannot be dumped
+   */
+  public Path dumpHeap(boolean live) throws IOException {
+    Path file = Files.createTempDirectory("heap-").resolve("heap.hprof");
+    ManagementFactory.getPlatformMXBean(HotSpotDiagnosticMXBean.class)
+        .dumpHeap(file.toString(), live);
+    return file;
+  }
+}
@@ -0,0 +1,32 @@
+package edu.ucsb.cs156.example.services.diagnostics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** A Flight Recorder event for a call to a Spring Data repository. */
+@Name("edu.ucsb.cs156.example.RepositoryCall")
+@Label("Repository Call")
+@Category({"Application", "Repositories"})
+@Description("A call to a Spring Data repository")
+@StackTrace(false)
+public class RepositoryCallEvent extends Event {
+  @Label("Repository")
+  public String repository;
+
+  @Label("Method")
+  public String method;
+
+  @Label("Rows")
+  @Description(
+      "Rows returned, or updated or deleted by a modifying query; -1 if the call does not return"
+          + " rows, e.g. a count")
+  public long rows;
+
+  @Label("Error")
+  @Description("The class of the exception the call threw, if any")
+  public String error;
+}
@@ -0,0 +1,108 @@
+package edu.ucsb.cs156.example.services.diagnostics;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import org.springframework.stereotype.Service;
+
+/**
+ * Samples the stacks of this JVM's threads at a fixed rate, to show where the CPU time goes on
+ * hosts where an external profiler cannot be attached. Samples are aggregated as collapsed stacks:
+ * one line per distinct stack, its frames from the root of the thread to the sampled frame joined
+ * by semicolons, then a space and the number of samples. This is the input format of flame graph
+ * tools such as flamegraph.pl and speedscope.
+ *
+ * <p>Only platform threads are seen; {@link ThreadMXBean} does not report virtual threads, e.g. the
+ * items of a job's {@code mapParallel}. Each sample stops the JVM at a safepoint for a moment, so
+ * an interval of a few milliseconds is about as fine as is useful.
+ */
+@Service
+public class StackSampler {
+  private static final int MAX_DEPTH = 256;
+
+  /** Which threads to sample, by name. */
+  public enum Threads {
+    ALL(".*"),
+    /** Tomcat's request threads, e.g. http-nio-8080-exec-1 */
+    REQUESTS("http-.+-exec-\\d+"),
+    /**
+     * the job executor's workers, when app.jobs.executor.mode is platform; see JobExecutorConfig
+     */
+    JOBS("job-\\d+");
+
+    private final Pattern name;
+
+    Threads(String name) {
+      this.name = Pattern.compile(name);
+    }
+
+    /**
+     * @param threadName the name of a thread
+     * @return true if the thread is one of these threads
+     */
+    public boolean matches(String threadName) {
+      return name.matcher(threadName).matches();
+    }
+  }
+
+  private final ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+
+  /**
+   * Samples the stacks of the threads, other than the calling thread, until the duration is up.
+   *
+   * @param duration how long to sample
+   * @param intervalMs how long to wait between samples
+   * @param threads which threads to sample
+   * @param waiting true to sample waiting and blocked threads too, for wall-clock time; otherwise
+   *     only runnable threads, for CPU time
+   * @return the number of samples of each collapsed stack
+   * @throws InterruptedException if the calling thread is interrupted
+   */
+  public Map<String, Long> sample(
+      Duration duration, long intervalMs, Threads threads, boolean waiting)
+      throws InterruptedException {
+    Map<String, Long> stacks = new HashMap<>();
+    long self = Thread.currentThread().threadId();
+    long deadline = System.nanoTime() + duration.toNanos();
+    while (System.nanoTime() < deadline) {
+      for (ThreadInfo info : threadMXBean.dumpAllThreads(false, false, MAX_DEPTH)) {
+        if (info == null || info.getThreadId() == self) continue;
+        if (!waiting && info.getThreadState() != Thread.State.RUNNABLE) continue;
+        if (!threads.matches(info.getThreadName())) continue;
+        StackTraceElement[] frames = info.getStackTrace();
+        if (frames.length > 0) stacks.merge(collapse(frames), 1L, Long::sum);
+      }
+      Thread.sleep(intervalMs);
+    }
+    return stacks;
+  }
+
+  /**
+   * @param frames the frames of a stack, innermost first, as a thread dump lists them
+   * @return the frames from the outermost in, as class.method, joined by semicolons
+   */
+  static String collapse(StackTraceElement[] frames) {
+    StringBuilder stack = new StringBuilder();
+    for (int i = frames.length - 1; i >= 0; i--) {
+      if (!stack.isEmpty()) stack.append(';');
+      stack.append(frames[i].getClassName()).append('.').append(frames[i].getMethodName());
+    }
+    return stack.toString();
+  }
+
+  /**
+   * @param stacks the number of samples of each collapsed stack
+   * @return one line per stack, the stack and its number of samples, most sampled first
+   */
+  public static String format(Map<String, Long> stacks) {
+    return stacks.entrySet().stream()
+        .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+        .map(e -> e.getKey() + " " + e.getValue() + "\n")
+        .collect(Collectors.joining());
+  }
+}
@@ -0,0 +1,94 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A job that reads its input, processes it and writes its output a chunk of items at a time, and
+ * records a checkpoint after each chunk. If the job fails, is cancelled, or its node dies, it can
+ * be restarted (see {@code JobService.restartJob}) and continues after the last chunk written
+ * rather than from the beginning.
+ *
+ * <p>Each chunk's output is written and its checkpoint recorded in one transaction (see {@link
+ * JobContext#commit}), so writes to this application's database are neither lost nor repeated. A
+ * writer to another system should be idempotent, since a chunk may be written again if the job
+ * stops between the write and the checkpoint.
+ *
+ * <p>Like any job that should survive a restart, a chunked job must be stored in the job queue as
+ * JSON; see {@link JobQueue}.
+ *
+ * @param <I> the type of the items read
+ * @param <O> the type of the items written
+ */
+public abstract class ChunkedJob<I, O> implements JobContextConsumer {
+
+  /**
+   * @return how many items to read, process and write between checkpoints
+   */
+  protected int chunkSize() {
+    return 100;
+  }
+
+  /**
+   * @return the number of items to read, for progress reporting, or -1 if it is not known
+   */
+  protected long total() throws Exception {
+    return -1;
+  }
+
+  /**
+   * Reads a chunk of items.
+   *
+   * @param offset how many items have been read before
+   * @param count how many items to read at most
+   * @return the items, or an empty list if there are no more
+   */
+  protected abstract List<I> read(long offset, int count) throws Exception;
+
+  /**
+   * Processes one item.
+   *
+   * @param item the item read
+   * @return the item to write, or null to leave the item out
+   */
+  protected abstract O process(I item) throws Exception;
+
+  /**
+   * Writes the processed items of a chunk, e.g. in one batch.
+   *
+   * @param items the items to write
+   */
+  protected abstract void write(List<O> items) throws Exception;
+
+  @Override
+  public final void accept(JobContext ctx) throws Exception {
+    long offset = ctx.getCheckpoint() != null ? Long.parseLong(ctx.getCheckpoint()) : 0;
+    if (offset > 0) {
+      ctx.log("Continuing from checkpoint: %d items already done".formatted(offset));
+    }
+    long total = total();
+    if (total >= 0) ctx.progress(offset, total);
+
+    while (true) {
+      ctx.checkCancelled();
+      List<I> items = read(offset, chunkSize());
+      if (items.isEmpty()) break;
+
+      List<O> output = new ArrayList<>(items.size());
+      for (I item : items) {
+        O processed = process(item);
+        if (processed != null) output.add(processed);
+      }
+      long next = offset + items.size();
+      ctx.commit(
+          () -> {
+            write(output);
+            return null;
+          },
+          Long.toString(next));
+      offset = next;
+      if (total >= 0) ctx.progress(offset, total);
+    }
+    ctx.log("Done: %d items".formatted(offset));
+  }
+}
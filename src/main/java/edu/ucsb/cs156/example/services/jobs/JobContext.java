@@ -1,20 +1,449 @@
 package edu.ucsb.cs156.example.services.jobs;
 
 import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.entities.JobStatus;
+import edu.ucsb.cs156.example.errors.JobCancelledException;
+import edu.ucsb.cs156.example.errors.JobItemsFailedException;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
 import edu.ucsb.cs156.example.repositories.JobsRepository;
-import lombok.AllArgsConstructor;
+import edu.ucsb.cs156.example.services.diagnostics.JobStepEvent;
+import io.micrometer.core.instrument.Counter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.Builder;
+import lombok.Getter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.transaction.support.TransactionTemplate;
 
-@AllArgsConstructor
+/**
+ * The JobContext is handed to a running job. Log lines are buffered in memory and appended to the
+ * job_log_lines table in batches, either once {@code flushLines} lines are pending or once {@code
+ * flushIntervalMs} has elapsed since the last flush. The JobService flushes any remaining lines
+ * when the job finishes. The most recent lines are also kept in a {@link JobLogRingBuffer} so that
+ * clients can tail the log of a running job without reading it from the database. A message with
+ * line breaks is logged as one line for each line of its text.
+ *
+ * <p>A job can be cancelled (by an admin or because it ran past its timeout) while it runs.
+ * Cancellation is cooperative: long-running jobs should call {@link #checkCancelled()} or {@link
+ * #isCancelled()} between units of work. Blocking calls such as {@code Thread.sleep} are also
+ * interrupted.
+ *
+ * <p>Jobs report structured progress with {@link #phase(String)} and {@link #progress(long, long)}.
+ * Progress is kept on the Job and written to its row at most once every {@code progressIntervalMs};
+ * phase changes are written right away.
+ *
+ * <p>A job that is re-run after the node running it died gets a {@code firstSeq} past the lines
+ * logged by its earlier attempts, so its log continues where it left off. A job can record a {@link
+ * #checkpoint(String)} as it goes, which is kept on the Job, so that a re-run or restarted job can
+ * continue from there; see {@link ChunkedJob}.
+ *
+ * <p>If given the {@code logLines} and {@code logChars} counters from {@link JobMetrics}, every
+ * line logged is counted.
+ *
+ * <p>A job whose items are independent can process them in parallel with {@link #mapParallel} or
+ * {@link #forEachParallel}; logging, progress and cancellation checks are safe from any thread.
+ *
+ * <p>A job hands its clients a result, rather than numbers to parse out of its log, with {@link
+ * #result(Object)} or {@link #resultFile(String, String, JobResultStore.ResultWriter)}; see {@link
+ * JobResultStore}.
+ *
+ * <p>Every log line, phase and progress report is also a {@link JobStepEvent} in any Flight
+ * Recorder recording that enables it.
+ */
 @Slf4j
 public class JobContext {
-  private JobsRepository jobsRepository;
-  private Job job;
+  private final JobsRepository jobsRepository;
+  private final JobLogLinesRepository jobLogLinesRepository;
+  @Getter private final Job job;
+  private final int flushLines;
+  private final long flushIntervalMs;
+  @Getter private final JobLogRingBuffer logBuffer;
+  private final long progressIntervalMs;
+  private final Counter logLines;
+  private final Counter logChars;
+  private final TransactionTemplate transactionTemplate;
+  private final JobResultStore resultStore;
 
-  public void log(String message) {
+  private static final int MAX_LOGGED_FAILURES = 20;
+
+  private final List<JobLogLine> pendingLines = new ArrayList<>();
+  private int nextSeq;
+  private long lastFlushMillis = System.currentTimeMillis();
+  private long lastProgressSaveMillis = 0;
+
+  private volatile JobStatus cancelStatus;
+  private Thread worker;
+
+  @Builder
+  public JobContext(
+      JobsRepository jobsRepository,
+      JobLogLinesRepository jobLogLinesRepository,
+      Job job,
+      int flushLines,
+      long flushIntervalMs,
+      int logBufferLines,
+      long progressIntervalMs,
+      int firstSeq,
+      Counter logLines,
+      Counter logChars,
+      TransactionTemplate transactionTemplate,
+      JobResultStore resultStore) {
+    this.jobsRepository = jobsRepository;
+    this.jobLogLinesRepository = jobLogLinesRepository;
+    this.job = job;
+    this.flushLines = flushLines;
+    this.flushIntervalMs = flushIntervalMs;
+    this.logBuffer = new JobLogRingBuffer(logBufferLines, firstSeq);
+    this.nextSeq = firstSeq;
+    this.progressIntervalMs = progressIntervalMs;
+    this.logLines = logLines;
+    this.logChars = logChars;
+    this.transactionTemplate = transactionTemplate;
+    this.resultStore = resultStore;
+  }
+
+  public synchronized void log(String message) {
     log.info("Job %s: %s".formatted(job.getId(), message));
-    String previousLog = job.getLog() == null ? "" : (job.getLog() + "\n");
-    job.setLog(previousLog + message);
-    if (jobsRepository != null) jobsRepository.save(job);
+    List<JobLogLine> lines = toLines(job.getId(), nextSeq, message);
+    nextSeq += lines.size();
+    for (JobLogLine line : lines) {
+      pendingLines.add(line);
+      logBuffer.append(line);
+    }
+    if (logLines != null) logLines.increment(lines.size());
+    if (logChars != null && message != null) logChars.increment(message.length());
+    recordStep("log", message);
+    if (pendingLines.size() >= flushLines
+        || System.currentTimeMillis() - lastFlushMillis >= flushIntervalMs) {
+      flush();
+    }
+  }
+
+  /**
+   * Splits a message into log lines, one for each line of its text, so that the sequence number of
+   * a line is also its line number in the log text, e.g. once the log is compressed.
+   *
+   * @param jobId id of the job
+   * @param firstSeq sequence number of the first line
+   * @param message the message, which may hold line breaks, or null
+   * @return the lines
+   */
+  static List<JobLogLine> toLines(long jobId, int firstSeq, String message) {
+    String[] texts = message != null ? message.split("\n", -1) : new String[] {null};
+    List<JobLogLine> lines = new ArrayList<>(texts.length);
+    for (String text : texts) {
+      lines.add(JobLogLine.builder().jobId(jobId).seq(firstSeq++).message(text).build());
+    }
+    return lines;
+  }
+
+  /** Writes all pending log lines to the database in a single batch. */
+  public synchronized void flush() {
+    lastFlushMillis = System.currentTimeMillis();
+    if (pendingLines.isEmpty()) return;
+    if (jobLogLinesRepository != null) jobLogLinesRepository.saveAll(List.copyOf(pendingLines));
+    pendingLines.clear();
+  }
+
+  /**
+   * Marks the start of a named phase of the job, e.g. "loading" or "writing".
+   *
+   * @param name name of the phase
+   */
+  public synchronized void phase(String name) {
+    job.setPhase(name);
+    saveProgress();
+    recordStep("phase", name);
+  }
+
+  /**
+   * Reports how much of the job's work is done.
+   *
+   * @param done number of units of work done so far
+   * @param total total number of units of work
+   */
+  public synchronized void progress(long done, long total) {
+    job.setProgressDone(done);
+    job.setProgressTotal(total);
+    if (System.currentTimeMillis() - lastProgressSaveMillis >= progressIntervalMs) {
+      saveProgress();
+    }
+    recordStep("progress", null);
+  }
+
+  /**
+   * Emits a {@link JobStepEvent} if a Flight Recorder recording wants it; otherwise does nothing.
+   */
+  private void recordStep(String step, String message) {
+    JobStepEvent event = new JobStepEvent();
+    if (!event.shouldCommit()) return;
+    event.jobId = job.getId();
+    event.jobType = JobMetrics.typeTag(job.getJobType());
+    event.step = step;
+    event.message = message;
+    event.done = job.getProgressDone() != null ? job.getProgressDone() : 0;
+    event.total = job.getProgressTotal() != null ? job.getProgressTotal() : 0;
+    event.commit();
+  }
+
+  private void saveProgress() {
+    lastProgressSaveMillis = System.currentTimeMillis();
+    if (jobsRepository != null) {
+      jobsRepository.updateProgress(
+          job.getId(), job.getPhase(), job.getProgressDone(), job.getProgressTotal());
+    }
+  }
+
+  /**
+   * Stores the job's result as a JSON document, for clients to download from {@code
+   * /api/jobs/results/{id}}. A later result replaces an earlier one.
+   *
+   * @param value the result, e.g. a map of counts
+   * @throws IOException if the result cannot be written as JSON
+   */
+  public void result(Object value) throws IOException {
+    if (resultStore != null) resultStore.writeJson(job, value);
+  }
+
+  /**
+   * Stores a file as the job's result, e.g. a CSV export. The file is saved as it is written, and
+   * becomes the job's result once the writer returns; if the writer throws, nothing is stored.
+   *
+   * @param fileName the name to download the file as
+   * @param contentType the media type of the file, e.g. text/csv
+   * @param writer writes the file
+   * @throws IOException if the writer cannot write the file
+   */
+  public void resultFile(String fileName, String contentType, JobResultStore.ResultWriter writer)
+      throws IOException {
+    if (resultStore != null) {
+      resultStore.writeFile(job, fileName, contentType, writer);
+    } else {
+      writer.write(OutputStream.nullOutputStream());
+    }
+  }
+
+  /**
+   * Records where the job got to, so that if it is restarted, or re-run after the node running it
+   * died, it can continue from there.
+   *
+   * @param checkpoint where the job got to, e.g. the number of items done
+   */
+  public void checkpoint(String checkpoint) {
+    job.setCheckpoint(checkpoint);
+    if (jobsRepository != null) jobsRepository.updateCheckpoint(job.getId(), checkpoint);
+  }
+
+  /**
+   * @return the checkpoint the job last recorded, or null if it has none, e.g. on its first run
+   */
+  public String getCheckpoint() {
+    return job.getCheckpoint();
+  }
+
+  /**
+   * Writes a piece of the job's output and records the checkpoint after it in one transaction, so
+   * that either both happen or neither does and a restarted job neither skips nor repeats the
+   * piece. Writes to other systems than this application's database are not part of the
+   * transaction.
+   *
+   * @param write writes the output
+   * @param checkpoint where the job will have got to once the output is written
+   * @throws Exception if the output cannot be written, in which case the checkpoint is not recorded
+   */
+  public void commit(Callable<?> write, String checkpoint) throws Exception {
+    if (transactionTemplate == null) {
+      write.call();
+      checkpoint(checkpoint);
+      return;
+    }
+    try {
+      transactionTemplate.executeWithoutResult(
+          status -> {
+            try {
+              write.call();
+            } catch (Exception e) {
+              throw new CommitFailedException(e);
+            }
+            checkpoint(checkpoint);
+          });
+    } catch (CommitFailedException e) {
+      throw (Exception) e.getCause();
+    }
+  }
+
+  /** Carries a checked exception thrown by a write out of its transaction. */
+  private static class CommitFailedException extends RuntimeException {
+    CommitFailedException(Exception cause) {
+      super(cause);
+    }
+  }
+
+  /** Called by the JobService once the job's final status has been saved. */
+  void close() {
+    logBuffer.close(job.getStatus());
+  }
+
+  /**
+   * Requests that the job stop. The job's status becomes {@code status} once it returns.
+   *
+   * @param status the status to record for the job, e.g. CANCELLED or TIMED_OUT
+   * @return false if the job had already been cancelled
+   */
+  public synchronized boolean cancel(JobStatus status) {
+    if (cancelStatus != null) return false;
+    cancelStatus = status;
+    if (worker != null) worker.interrupt();
+    return true;
+  }
+
+  /**
+   * @return true if the job has been asked to stop
+   */
+  public boolean isCancelled() {
+    return cancelStatus != null;
+  }
+
+  /**
+   * @return the status requested by {@link #cancel(JobStatus)}, or null if the job was not
+   *     cancelled
+   */
+  public JobStatus getCancelStatus() {
+    return cancelStatus;
+  }
+
+  /**
+   * Throws if the job has been asked to stop; jobs call this between units of work.
+   *
+   * @throws JobCancelledException if the job has been cancelled
+   */
+  public void checkCancelled() {
+    if (cancelStatus != null) throw new JobCancelledException(job.getId(), cancelStatus);
+  }
+
+  /**
+   * Runs a task for each of the items, each on its own virtual thread, with at most {@code
+   * parallelism} of them running at once. See {@link #mapParallel}.
+   *
+   * @param items the items
+   * @param parallelism how many items to process at once at most
+   * @param task the work to do for each item
+   * @param <T> the type of the items
+   * @throws JobItemsFailedException once all items have run, if any of them failed
+   * @throws JobCancelledException if the job was cancelled
+   */
+  public <T> void forEachParallel(List<T> items, int parallelism, JobItemConsumer<T> task) {
+    mapParallel(
+        items,
+        parallelism,
+        item -> {
+          task.accept(item);
+          return null;
+        });
+  }
+
+  /**
+   * Applies a function to each of the items, each on its own virtual thread, with at most {@code
+   * parallelism} of them running at once, and returns the results in the order of the items; a job
+   * can then reduce them on its own thread.
+   *
+   * <p>An item that fails does not stop the others. Once all items have run, the failures are
+   * logged and thrown together as a {@link JobItemsFailedException}. The job's progress is reported
+   * as the number of items done. If the job is cancelled no more items are started, the items
+   * running are interrupted, and once they have stopped a {@link JobCancelledException} is thrown.
+   * Items can also call {@link #checkCancelled()} and {@link #log(String)} themselves.
+   *
+   * @param items the items
+   * @param parallelism how many items to process at once at most
+   * @param function the function to apply to each item
+   * @param <T> the type of the items
+   * @param <R> the type of the results
+   * @return the result for each item, in order
+   * @throws JobItemsFailedException once all items have run, if any of them failed
+   * @throws JobCancelledException if the job was cancelled
+   */
+  public <T, R> List<R> mapParallel(
+      List<T> items, int parallelism, JobItemFunction<T, R> function) {
+    if (parallelism < 1) throw new IllegalArgumentException("The parallelism must be at least 1");
+    int total = items.size();
+    List<R> results = new ArrayList<>(Collections.nCopies(total, null));
+    Map<Integer, Exception> failures = new ConcurrentHashMap<>();
+    AtomicLong done = new AtomicLong();
+    Semaphore permits = new Semaphore(parallelism);
+    boolean interrupted = false;
+
+    ThreadFactory threads =
+        Thread.ofVirtual().name("job-%d-item-".formatted(job.getId()), 0).factory();
+    ExecutorService executor = Executors.newThreadPerTaskExecutor(threads);
+    try {
+      for (int i = 0; i < total && !isCancelled(); i++) {
+        permits.acquire();
+        int index = i;
+        executor.execute(
+            () -> {
+              try {
+                results.set(index, function.apply(items.get(index)));
+              } catch (Exception e) {
+                failures.put(index, e);
+              } finally {
+                progress(done.incrementAndGet(), total);
+                permits.release();
+              }
+            });
+      }
+      permits.acquire(parallelism);
+    } catch (InterruptedException e) {
+      interrupted = true;
+      executor.shutdownNow();
+    } finally {
+      // waits for the items still running
+      executor.close();
+    }
+
+    checkCancelled();
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+      throw new JobCancelledException(job.getId(), JobStatus.CANCELLED);
+    }
+    if (!failures.isEmpty()) {
+      JobItemsFailedException failed = new JobItemsFailedException(total, failures);
+      failed.getFailures().entrySet().stream()
+          .limit(MAX_LOGGED_FAILURES)
+          .forEach(f -> log("Item %d failed: %s".formatted(f.getKey(), f.getValue().getMessage())));
+      throw failed;
+    }
+    return results;
+  }
+
+  /**
+   * Called by the JobService on the worker thread before the job function runs.
+   *
+   * @return false if the job was cancelled before it started and should not run
+   */
+  synchronized boolean start() {
+    if (cancelStatus != null) return false;
+    worker = Thread.currentThread();
+    return true;
+  }
+
+  /**
+   * Called by the JobService on the worker thread once the job function has returned. Clears any
+   * interrupt left over from a cancellation so the final database writes are not disturbed.
+   */
+  synchronized void finish() {
+    worker = null;
+    Thread.interrupted();
   }
 }
@@ -0,0 +1,65 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A set of jobs to launch together, where some jobs wait for others to complete before they start;
+ * see {@link JobService#runAsGraph}. Jobs that do not wait for each other run in parallel. A job
+ * can only depend on jobs added before it, so a graph has no cycles.
+ *
+ * <pre>{@code
+ * JobGraph graph = new JobGraph();
+ * int commons = graph.add(importCommons);
+ * int menuItems = graph.add(importMenuItems, commons);
+ * graph.add(recomputeRatings, menuItems);
+ * }</pre>
+ */
+public class JobGraph {
+  private final List<JobContextConsumer> jobs = new ArrayList<>();
+  private final List<int[]> prerequisites = new ArrayList<>();
+
+  /**
+   * Adds a job to the graph.
+   *
+   * @param job the job
+   * @param dependsOn the indexes of the jobs that must complete before this one starts
+   * @return the index of the job, to name it as a prerequisite of jobs added later
+   * @throws IllegalArgumentException if a prerequisite has not been added yet
+   */
+  public int add(JobContextConsumer job, int... dependsOn) {
+    for (int prerequisite : dependsOn) {
+      if (prerequisite < 0 || prerequisite >= jobs.size()) {
+        throw new IllegalArgumentException(
+            "Job %d can only depend on jobs added before it, not on job %d"
+                .formatted(jobs.size(), prerequisite));
+      }
+    }
+    jobs.add(job);
+    prerequisites.add(dependsOn.clone());
+    return jobs.size() - 1;
+  }
+
+  /**
+   * @return the number of jobs in the graph
+   */
+  public int size() {
+    return jobs.size();
+  }
+
+  /**
+   * @param index the index of a job
+   * @return the job
+   */
+  public JobContextConsumer getJob(int index) {
+    return jobs.get(index);
+  }
+
+  /**
+   * @param index the index of a job
+   * @return the indexes of the jobs it depends on
+   */
+  public int[] getPrerequisites(int index) {
+    return prerequisites.get(index).clone();
+  }
+}
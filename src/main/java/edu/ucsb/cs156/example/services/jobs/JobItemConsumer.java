@@ -0,0 +1,11 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+/**
+ * A unit of work done for one item of a job's input by {@link JobContext#forEachParallel}.
+ *
+ * @param <T> the type of the items
+ */
+@FunctionalInterface
+public interface JobItemConsumer<T> {
+  void accept(T item) throws Exception;
+}
@@ -0,0 +1,12 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+/**
+ * A unit of work applied to one item of a job's input by {@link JobContext#mapParallel}.
+ *
+ * @param <T> the type of the items
+ * @param <R> the type of the results
+ */
+@FunctionalInterface
+public interface JobItemFunction<T, R> {
+  R apply(T item) throws Exception;
+}
@@ -0,0 +1,18 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * The lane a job waits in. Queued jobs in a higher-priority lane are claimed before those in a
+ * lower one, and a few workers on each node are kept free for INTERACTIVE jobs so that quick admin
+ * actions do not wait behind bulk work.
+ */
+@AllArgsConstructor
+public enum JobLane {
+  BULK(0),
+  NORMAL(1),
+  INTERACTIVE(2);
+
+  @Getter private final int priority;
+}
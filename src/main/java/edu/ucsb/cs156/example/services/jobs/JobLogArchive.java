@@ -0,0 +1,282 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.entities.JobLogChunk;
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.repositories.JobLogChunksRepository;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.function.BiPredicate;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Keeps the logs of finished jobs compressed. When a job finishes its log lines are packed, {@code
+ * app.jobs.logCompression.chunkLines} at a time, into gzip-compressed {@link JobLogChunk}s and the
+ * lines are deleted. The chunks of a job together form one gzip stream of its log text, which can
+ * be sent as-is to clients that accept gzip.
+ */
+@Slf4j
+@Service
+public class JobLogArchive {
+  @Autowired private JobLogLinesRepository jobLogLinesRepository;
+
+  @Autowired private JobLogChunksRepository jobLogChunksRepository;
+
+  @Value("${app.jobs.logCompression.chunkLines:1000}")
+  private int chunkLines;
+
+  /**
+   * Replaces the log lines of a finished job with compressed chunks.
+   *
+   * @param jobId id of the job
+   */
+  @Transactional
+  public void compress(long jobId) {
+    int maxSeq = jobLogLinesRepository.findMaxSeqByJobId(jobId);
+    int chunkNo = 0;
+    int nextLine = 0;
+    long rawOffset = 0;
+    long compressedSize = 0;
+    for (int first = 0; first <= maxSeq; first += chunkLines) {
+      List<JobLogLine> lines =
+          jobLogLinesRepository.findByJobIdAndSeqBetweenOrderBySeqAsc(
+              jobId, first, first + chunkLines - 1);
+      if (lines.isEmpty()) continue;
+
+      StringBuilder text = new StringBuilder();
+      int lineCount = 0;
+      for (JobLogLine line : lines) {
+        if (chunkNo > 0 || lineCount > 0) text.append('\n');
+        String message = line.getMessage() != null ? line.getMessage() : "";
+        text.append(message);
+        lineCount += (int) message.chars().filter(c -> c == '\n').count() + 1;
+      }
+      byte[] raw = text.toString().getBytes(StandardCharsets.UTF_8);
+      byte[] data = gzip(raw);
+      jobLogChunksRepository.save(
+          JobLogChunk.builder()
+              .jobId(jobId)
+              .chunkNo(chunkNo++)
+              .firstLine(nextLine)
+              .lineCount(lineCount)
+              .rawOffset(rawOffset)
+              .rawLength(raw.length)
+              .data(data)
+              .build());
+      nextLine += lineCount;
+      rawOffset += raw.length;
+      compressedSize += data.length;
+    }
+    if (chunkNo == 0) return;
+
+    jobLogLinesRepository.deleteByJobId(jobId);
+    log.debug(
+        "Compressed log of job {}: {} lines, {} bytes to {} bytes",
+        jobId,
+        nextLine,
+        rawOffset,
+        compressedSize);
+  }
+
+  /**
+   * Turns a job's compressed log back into log lines, one chunk at a time, e.g. because the job is
+   * restarted and will log more. Each line's sequence number is its line number.
+   *
+   * @param jobId id of the job
+   */
+  @Transactional
+  public void decompress(long jobId) {
+    for (int chunkNo = 0; ; chunkNo++) {
+      JobLogChunk chunk = jobLogChunksRepository.findByJobIdAndChunkNo(jobId, chunkNo).orElse(null);
+      if (chunk == null) break;
+      jobLogLinesRepository.saveAll(
+          readLines(chunk, chunk.getFirstLine(), chunk.getFirstLine() + chunk.getLineCount() - 1));
+    }
+    jobLogChunksRepository.deleteByJobIdIn(List.of(jobId));
+  }
+
+  /**
+   * @param jobId id of the job
+   * @return true if the job's log is stored compressed
+   */
+  public boolean isCompressed(long jobId) {
+    return jobLogChunksRepository.countByJobId(jobId) > 0;
+  }
+
+  /**
+   * Opens a job's compressed log as a gzip stream, without inflating it. The chunks are read as the
+   * stream reaches them, so no more than two are held in memory at once.
+   *
+   * @param jobId id of the job
+   * @return the gzip stream, which is empty if the job's log is not stored compressed
+   */
+  public InputStream openCompressed(long jobId) {
+    return new SequenceInputStream(
+        new Enumeration<InputStream>() {
+          private int chunkNo = 0;
+          private JobLogChunk next = chunk(jobId, 0);
+
+          @Override
+          public boolean hasMoreElements() {
+            return next != null;
+          }
+
+          @Override
+          public InputStream nextElement() {
+            if (next == null) throw new NoSuchElementException();
+            InputStream data = new ByteArrayInputStream(next.getData());
+            next = chunk(jobId, ++chunkNo);
+            return data;
+          }
+        });
+  }
+
+  private JobLogChunk chunk(long jobId, int chunkNo) {
+    return jobLogChunksRepository.findByJobIdAndChunkNo(jobId, chunkNo).orElse(null);
+  }
+
+  /**
+   * @param jobId id of the job
+   * @return the size in bytes of the gzip stream {@link #openCompressed} reads, or 0 if the job's
+   *     log is not stored compressed
+   */
+  public long compressedSize(long jobId) {
+    return jobLogChunksRepository.findCompressedLengthByJobId(jobId);
+  }
+
+  /**
+   * @param jobId id of the job
+   * @return the job's log text, or null if its log is not stored compressed
+   */
+  public String read(long jobId) {
+    StringBuilder text = null;
+    for (int chunkNo = 0; ; chunkNo++) {
+      JobLogChunk chunk = jobLogChunksRepository.findByJobIdAndChunkNo(jobId, chunkNo).orElse(null);
+      if (chunk == null) return text != null ? text.toString() : null;
+      if (text == null) text = new StringBuilder();
+      text.append(new String(inflate(chunk), StandardCharsets.UTF_8));
+    }
+  }
+
+  /**
+   * @param jobId id of the job
+   * @return the number of lines in the job's log, or 0 if its log is not stored compressed
+   */
+  public int countLines(long jobId) {
+    return jobLogChunksRepository.findLineCountByJobId(jobId);
+  }
+
+  /**
+   * @param jobId id of the job
+   * @return the size in bytes of the job's log text, or 0 if its log is not stored compressed
+   */
+  public long size(long jobId) {
+    return jobLogChunksRepository.findRawLengthByJobId(jobId);
+  }
+
+  /**
+   * Reads a range of lines of a job's compressed log, e.g. to replay them to a log stream. Only the
+   * chunks holding the range are read. Each line's sequence number is its line number.
+   *
+   * @param jobId id of the job
+   * @param fromLine number of the first line to read
+   * @param toLine number of the last line to read
+   * @return the lines, or an empty list if the job's log is not stored compressed
+   */
+  public List<JobLogLine> readLines(long jobId, int fromLine, int toLine) {
+    List<JobLogLine> lines = new ArrayList<>();
+    for (JobLogChunk chunk : jobLogChunksRepository.findCoveringLines(jobId, fromLine, toLine)) {
+      lines.addAll(readLines(chunk, fromLine, toLine));
+    }
+    return lines;
+  }
+
+  private static List<JobLogLine> readLines(JobLogChunk chunk, int fromLine, int toLine) {
+    List<JobLogLine> lines = new ArrayList<>();
+    String text = new String(inflate(chunk), StandardCharsets.UTF_8);
+    if (chunk.getChunkNo() > 0) text = text.substring(1);
+    int lineNo = chunk.getFirstLine();
+    for (String message : text.split("\n", -1)) {
+      if (lineNo >= fromLine && lineNo <= toLine) {
+        lines.add(
+            JobLogLine.builder().jobId(chunk.getJobId()).seq(lineNo).message(message).build());
+      }
+      lineNo++;
+    }
+    return lines;
+  }
+
+  /**
+   * Reads a job's compressed log line by line, inflating one chunk at a time, until the visitor
+   * returns false.
+   *
+   * @param jobId id of the job
+   * @param visitor called with the number and text of each line; returns false to stop
+   * @return true if the job's log is stored compressed
+   */
+  public boolean scanLines(long jobId, BiPredicate<Integer, String> visitor) {
+    for (int chunkNo = 0; ; chunkNo++) {
+      JobLogChunk chunk = jobLogChunksRepository.findByJobIdAndChunkNo(jobId, chunkNo).orElse(null);
+      if (chunk == null) return chunkNo > 0;
+
+      String text = new String(inflate(chunk), StandardCharsets.UTF_8);
+      if (chunkNo > 0) text = text.substring(1);
+      int lineNo = chunk.getFirstLine();
+      for (String line : text.split("\n", -1)) {
+        if (!visitor.test(lineNo++, line)) return true;
+      }
+    }
+  }
+
+  /**
+   * Reads a range of bytes of a job's log text. Only the chunks holding the range are read.
+   *
+   * @param jobId id of the job
+   * @param firstByte offset of the first byte to read
+   * @param lastByte offset of the last byte to read
+   * @return the bytes, or an empty array if the job's log is not stored compressed
+   */
+  public byte[] readBytes(long jobId, long firstByte, long lastByte) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    for (JobLogChunk chunk : jobLogChunksRepository.findCoveringBytes(jobId, firstByte, lastByte)) {
+      byte[] raw = inflate(chunk);
+      int from = (int) Math.max(0, firstByte - chunk.getRawOffset());
+      int to = (int) Math.min(raw.length, lastByte - chunk.getRawOffset() + 1);
+      bytes.write(raw, from, to - from);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static byte[] gzip(byte[] raw) {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream(raw.length / 4 + 64);
+    try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+      gzip.write(raw);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static byte[] inflate(JobLogChunk chunk) {
+    try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(chunk.getData()))) {
+      return gzip.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
@@ -0,0 +1,103 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.entities.JobStatus;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * Sends job log lines to a client as Server-Sent Events: one "log" event per line, with the line's
+ * sequence number as the event id, followed by one "end" event carrying the job's final status.
+ *
+ * <p>Events are queued and sent by a virtual thread of the emitter's own, so a slow client never
+ * holds up the job that logs. If the client falls so far behind that the queue of new lines fills
+ * up, the stream is closed and the client can reconnect with the Last-Event-ID it got to. Lines
+ * replayed from the database have a queue of their own, which is sent first and which the replay
+ * waits on instead, since no job does.
+ */
+@Slf4j
+public class JobLogEmitter implements JobLogListener {
+  private final SseEmitter emitter;
+  private final BlockingQueue<Event> replayed;
+  private final BlockingQueue<Event> events;
+  private volatile boolean stopped;
+
+  /** An event to send, and whether it is the last. */
+  private record Event(SseEmitter.SseEventBuilder event, boolean last) {}
+
+  /**
+   * @param emitter the emitter to send events to
+   * @param queueCapacity the most new lines to hold for a client that is slow to read them
+   */
+  public JobLogEmitter(SseEmitter emitter, int queueCapacity) {
+    this.emitter = emitter;
+    this.replayed = new ArrayBlockingQueue<>(queueCapacity);
+    this.events = new ArrayBlockingQueue<>(queueCapacity);
+    Thread.ofVirtual().name("job-log-stream").start(this::sendEvents);
+  }
+
+  @Override
+  public void onLine(JobLogLine line) throws IOException {
+    enqueue(new Event(logEvent(line), false));
+  }
+
+  @Override
+  public void replay(JobLogLine line) throws InterruptedException {
+    Event event = new Event(logEvent(line), false);
+    while (!stopped && !replayed.offer(event, 100, TimeUnit.MILLISECONDS)) {}
+  }
+
+  @Override
+  public void onEnd(JobStatus status) throws IOException {
+    enqueue(new Event(SseEmitter.event().name("end").data(status.getValue()), true));
+  }
+
+  /** Stops sending, e.g. once the client has gone away. */
+  public void stop() {
+    stopped = true;
+    replayed.clear();
+    events.clear();
+  }
+
+  private static SseEmitter.SseEventBuilder logEvent(JobLogLine line) {
+    return SseEmitter.event().id(String.valueOf(line.getSeq())).name("log").data(line.getMessage());
+  }
+
+  private void enqueue(Event event) throws IOException {
+    if (stopped) throw new IOException("The log stream is closed");
+    if (!events.offer(event)) {
+      stop();
+      throw new IOException("The client is reading the log too slowly");
+    }
+  }
+
+  private void sendEvents() {
+    try {
+      while (!stopped) {
+        Event event = replayed.poll();
+        if (event == null) {
+          event = events.poll(100, TimeUnit.MILLISECONDS);
+          if (event == null) continue;
+          // every replayed line was queued before the first new one
+          for (Event earlier; (earlier = replayed.poll()) != null; ) emitter.send(earlier.event());
+        }
+        emitter.send(event.event());
+        if (event.last()) {
+          emitter.complete();
+          return;
+        }
+      }
+      emitter.complete();
+    } catch (IOException | IllegalStateException e) {
+      log.debug("Job log stream closed: {}", e.getMessage());
+      stop();
+      emitter.completeWithError(e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
@@ -0,0 +1,35 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.entities.JobStatus;
+
+/** A JobLogListener receives the log lines of a running job as they are written. */
+public interface JobLogListener {
+  /**
+   * Called for each log line, in sequence order. Lines of a running job are passed on while the job
+   * waits, so this must not block.
+   *
+   * @param line the log line
+   * @throws Exception if the line could not be delivered; the listener is then unsubscribed
+   */
+  void onLine(JobLogLine line) throws Exception;
+
+  /**
+   * Called for each earlier log line read back from the database on subscribing, in sequence order
+   * and before any line passed to {@link #onLine}. No job waits for this, so it may block.
+   *
+   * @param line the log line
+   * @throws Exception if the line could not be delivered
+   */
+  default void replay(JobLogLine line) throws Exception {
+    onLine(line);
+  }
+
+  /**
+   * Called once when the job has finished.
+   *
+   * @param status the final status of the job
+   * @throws Exception if the notification could not be delivered
+   */
+  void onEnd(JobStatus status) throws Exception;
+}
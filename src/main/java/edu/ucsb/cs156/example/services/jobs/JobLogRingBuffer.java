@@ -0,0 +1,126 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.entities.JobStatus;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.BiFunction;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Keeps the most recent log lines of a running job in memory and forwards new lines to any
+ * listeners, so that clients tailing a job do not have to re-read its log from the database.
+ *
+ * <p>Lines that have dropped out of the buffer have already been flushed to the job_log_lines table
+ * as long as the buffer holds at least as many lines as JobContext buffers before flushing.
+ */
+@Slf4j
+public class JobLogRingBuffer {
+  /** The most lines read from the database at a time when replaying lines older than a buffer. */
+  static final int REPLAY_WINDOW_LINES = 1000;
+
+  private final int capacity;
+  private final Deque<JobLogLine> lines = new ArrayDeque<>();
+  private final List<JobLogListener> listeners = new ArrayList<>();
+  private int nextSeq = 0;
+  private JobStatus finalStatus;
+
+  public JobLogRingBuffer(int capacity) {
+    this(capacity, 0);
+  }
+
+  /**
+   * @param capacity the most lines to keep
+   * @param firstSeq sequence number of the first line that will be appended; earlier lines are
+   *     already in the database, e.g. from an earlier attempt at the job
+   */
+  public JobLogRingBuffer(int capacity, int firstSeq) {
+    this.capacity = capacity;
+    this.nextSeq = firstSeq;
+  }
+
+  /**
+   * Adds a line to the buffer, evicting the oldest line if the buffer is full, and forwards it to
+   * the listeners.
+   *
+   * @param line the log line
+   */
+  public synchronized void append(JobLogLine line) {
+    if (capacity > 0) {
+      if (lines.size() == capacity) lines.removeFirst();
+      lines.addLast(line);
+    }
+    nextSeq = line.getSeq() + 1;
+    for (JobLogListener listener : List.copyOf(listeners)) {
+      try {
+        listener.onLine(line);
+      } catch (Exception e) {
+        log.debug("Dropping job log listener: {}", e.getMessage());
+        listeners.remove(listener);
+      }
+    }
+  }
+
+  /**
+   * Replays every line from {@code fromSeq} onwards to the listener and then subscribes it to new
+   * lines. Lines older than the buffer are fetched with {@code olderLines}, which is given the
+   * first and last sequence numbers of at most {@value #REPLAY_WINDOW_LINES} lines at a time; they
+   * are read and replayed without holding the buffer's lock, so the job keeps logging meanwhile.
+   *
+   * @param fromSeq sequence number of the first line the listener wants
+   * @param listener the listener
+   * @param olderLines loads lines that are no longer in the buffer
+   * @throws Exception if the listener failed while replaying
+   */
+  public void subscribe(
+      int fromSeq,
+      JobLogListener listener,
+      BiFunction<Integer, Integer, List<JobLogLine>> olderLines)
+      throws Exception {
+    int next = fromSeq;
+    while (true) {
+      int oldestSeq;
+      synchronized (this) {
+        oldestSeq = lines.isEmpty() ? nextSeq : lines.getFirst().getSeq();
+        if (next >= oldestSeq) {
+          for (JobLogLine line : lines) {
+            if (line.getSeq() >= next) listener.onLine(line);
+          }
+          if (finalStatus != null) {
+            listener.onEnd(finalStatus);
+          } else {
+            listeners.add(listener);
+          }
+          return;
+        }
+      }
+      // more lines may have been evicted while these were read, so check the buffer again
+      int last = (int) Math.min((long) next + REPLAY_WINDOW_LINES - 1, oldestSeq - 1);
+      for (JobLogLine line : olderLines.apply(next, last)) listener.replay(line);
+      next = last + 1;
+    }
+  }
+
+  public synchronized void unsubscribe(JobLogListener listener) {
+    listeners.remove(listener);
+  }
+
+  /**
+   * Marks the job as finished and tells the listeners.
+   *
+   * @param status the final status of the job
+   */
+  public synchronized void close(JobStatus status) {
+    finalStatus = status;
+    for (JobLogListener listener : listeners) {
+      try {
+        listener.onEnd(status);
+      } catch (Exception e) {
+        log.debug("Job log listener failed at end of job: {}", e.getMessage());
+      }
+    }
+    listeners.clear();
+  }
+}
@@ -0,0 +1,218 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.JobLogMatch;
+import edu.ucsb.cs156.example.models.JobSummary;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.function.BiPredicate;
+import java.util.regex.Pattern;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+/**
+ * Searches job logs on the server, so that finding an error does not mean sending a whole log to
+ * the browser. A log is scanned a window of lines (or one compressed chunk) at a time, and the scan
+ * stops as soon as enough matches have been found.
+ */
+@Service
+public class JobLogSearch {
+  @Autowired private JobsRepository jobsRepository;
+
+  @Autowired private JobLogLinesRepository jobLogLinesRepository;
+
+  @Autowired private JobLogArchive jobLogArchive;
+
+  @Value("${app.jobs.logSearch.windowLines:1000}")
+  private int windowLines;
+
+  @Value("${app.jobs.logSearch.maxContext:20}")
+  private int maxContext;
+
+  @Value("${app.jobs.logSearch.maxMatches:1000}")
+  private int maxMatches;
+
+  @Value("${app.jobs.logSearch.maxWindow:7d}")
+  private Duration maxWindow;
+
+  private static final int JOB_PAGE_SIZE = 100;
+
+  /**
+   * Searches the log of one job.
+   *
+   * @param jobId id of the job
+   * @param query the text to look for
+   * @param ignoreCase whether to ignore case when matching
+   * @param context how many lines before and after each match to return
+   * @param limit how many matches to return at most
+   * @return the matching lines, in order
+   * @throws EntityNotFoundException if there is no such job
+   * @throws IllegalArgumentException if the query is empty or the limits are out of range
+   */
+  public List<JobLogMatch> search(
+      long jobId, String query, boolean ignoreCase, int context, int limit) {
+    Scan scan = new Scan(pattern(query, ignoreCase), checkContext(context), checkLimit(limit));
+    if (!jobsRepository.existsById(jobId)) throw new EntityNotFoundException(Job.class, jobId);
+    scan.startJob(jobId);
+    scanLog(jobId, scan);
+    return scan.matches;
+  }
+
+  /**
+   * Searches the logs of the jobs created in a window of time, newest job first.
+   *
+   * @param query the text to look for
+   * @param ignoreCase whether to ignore case when matching
+   * @param createdAfter only jobs created at or after this time
+   * @param createdBefore only jobs created before this time, or null for now
+   * @param context how many lines before and after each match to return
+   * @param limit how many matches to return at most, over all jobs
+   * @return the matching lines
+   * @throws IllegalArgumentException if the query is empty, the limits are out of range, or the
+   *     window is longer than {@code app.jobs.logSearch.maxWindow}
+   */
+  public List<JobLogMatch> searchJobs(
+      String query,
+      boolean ignoreCase,
+      ZonedDateTime createdAfter,
+      ZonedDateTime createdBefore,
+      int context,
+      int limit) {
+    Scan scan = new Scan(pattern(query, ignoreCase), checkContext(context), checkLimit(limit));
+    ZonedDateTime before = createdBefore != null ? createdBefore : ZonedDateTime.now();
+    if (createdAfter == null || Duration.between(createdAfter, before).compareTo(maxWindow) > 0) {
+      throw new IllegalArgumentException("Give a window of at most " + maxWindow);
+    }
+
+    Long beforeId = null;
+    while (true) {
+      List<JobSummary> jobs =
+          jobsRepository.findSummaries(
+              null, null, createdAfter, before, beforeId, PageRequest.of(0, JOB_PAGE_SIZE));
+      for (JobSummary job : jobs) {
+        scan.startJob(job.getId());
+        if (!scanLog(job.getId(), scan)) return scan.matches;
+      }
+      if (jobs.size() < JOB_PAGE_SIZE) return scan.matches;
+      beforeId = jobs.get(jobs.size() - 1).getId();
+    }
+  }
+
+  /**
+   * Feeds the lines of a job's log to a scan, wherever the log is stored.
+   *
+   * @return false if the scan has stopped
+   */
+  private boolean scanLog(long jobId, Scan scan) {
+    int maxSeq = jobLogLinesRepository.findMaxSeqByJobId(jobId);
+    if (maxSeq >= 0) {
+      for (int first = 0; first <= maxSeq; first += windowLines) {
+        for (JobLogLine line :
+            jobLogLinesRepository.findByJobIdAndSeqBetweenOrderBySeqAsc(
+                jobId, first, first + windowLines - 1)) {
+          if (!scan.test(line.getSeq(), line.getMessage())) return false;
+        }
+      }
+      return scan.hasRoom();
+    }
+    if (jobLogArchive.scanLines(jobId, scan)) return scan.hasRoom();
+
+    // jobs that ran before log lines were stored separately keep their log on the job row
+    String log = jobsRepository.findById(jobId).map(Job::getLog).orElse(null);
+    if (log != null) {
+      int lineNo = 0;
+      for (String line : log.split("\n", -1)) {
+        if (!scan.test(lineNo++, line)) return false;
+      }
+    }
+    return scan.hasRoom();
+  }
+
+  private static Pattern pattern(String query, boolean ignoreCase) {
+    if (query == null || query.isEmpty()) throw new IllegalArgumentException("Give a query");
+    return Pattern.compile(
+        Pattern.quote(query), ignoreCase ? Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE : 0);
+  }
+
+  private int checkContext(int context) {
+    if (context < 0 || context > maxContext) {
+      throw new IllegalArgumentException("The context must be between 0 and " + maxContext);
+    }
+    return context;
+  }
+
+  private int checkLimit(int limit) {
+    if (limit < 1 || limit > maxMatches) {
+      throw new IllegalArgumentException("The limit must be between 1 and " + maxMatches);
+    }
+    return limit;
+  }
+
+  /**
+   * The state of a search: the matches found so far, the lines before the current line, and the
+   * matches still collecting the lines after them.
+   */
+  private static class Scan implements BiPredicate<Integer, String> {
+    private final Pattern pattern;
+    private final int context;
+    private final int limit;
+    private final List<JobLogMatch> matches = new ArrayList<>();
+    private final ArrayDeque<String> before = new ArrayDeque<>();
+    private final List<JobLogMatch> open = new ArrayList<>();
+    private long jobId;
+
+    Scan(Pattern pattern, int context, int limit) {
+      this.pattern = pattern;
+      this.context = context;
+      this.limit = limit;
+    }
+
+    void startJob(long jobId) {
+      this.jobId = jobId;
+      before.clear();
+      open.clear();
+    }
+
+    boolean hasRoom() {
+      return matches.size() < limit;
+    }
+
+    /** Looks at the next line of the log; returns false once nothing more is needed. */
+    @Override
+    public boolean test(Integer lineNo, String line) {
+      if (line == null) line = "";
+      for (Iterator<JobLogMatch> it = open.iterator(); it.hasNext(); ) {
+        JobLogMatch match = it.next();
+        match.getAfter().add(line);
+        if (match.getAfter().size() == context) it.remove();
+      }
+      if (hasRoom() && pattern.matcher(line).find()) {
+        JobLogMatch match =
+            JobLogMatch.builder()
+                .jobId(jobId)
+                .lineNumber(lineNo)
+                .line(line)
+                .before(new ArrayList<>(before))
+                .after(new ArrayList<>())
+                .build();
+        matches.add(match);
+        if (context > 0) open.add(match);
+      }
+      if (context > 0) {
+        if (before.size() == context) before.removeFirst();
+        before.addLast(line);
+      }
+      return hasRoom() || !open.isEmpty();
+    }
+  }
+}
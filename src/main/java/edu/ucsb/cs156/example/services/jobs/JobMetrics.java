@@ -0,0 +1,131 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.entities.JobStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.time.Duration;
+import java.util.function.Supplier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records metrics about the jobs run on this node, tagged with the job's type (the simple name of
+ * its class, or "lambda"), and published through {@code /actuator/metrics}:
+ *
+ * <ul>
+ *   <li>{@code jobs.queue.wait}: how long a job waited in the queue before it first started
+ *   <li>{@code jobs.execution}: how long a job ran, also tagged with its outcome (e.g. complete,
+ *       error, cancelled)
+ *   <li>{@code jobs.finished}: the number of jobs that finished, by outcome
+ *   <li>{@code jobs.log.lines} and {@code jobs.log.chars}: how much the jobs logged
+ *   <li>{@code jobs.active} and {@code jobs.queued}: the jobs running on this node and the jobs
+ *       waiting in the queue
+ * </ul>
+ *
+ * The timers publish percentile histograms, so a monitoring system can aggregate them across nodes.
+ */
+@Component
+public class JobMetrics {
+  private final MeterRegistry registry;
+
+  @Autowired
+  public JobMetrics(MeterRegistry registry) {
+    this.registry = registry;
+  }
+
+  /**
+   * @param jobType the class name of a job, or null for a job launched with a lambda
+   * @return the value of the type tag for the job
+   */
+  public static String typeTag(String jobType) {
+    if (jobType == null) return "lambda";
+    return jobType.substring(jobType.lastIndexOf('.') + 1);
+  }
+
+  /**
+   * Registers the gauges for the jobs running on this node and the jobs waiting in the queue.
+   *
+   * @param active supplies the number of running jobs
+   * @param queued supplies the number of queued jobs
+   */
+  public void registerGauges(Supplier<Number> active, Supplier<Number> queued) {
+    Gauge.builder("jobs.active", active)
+        .description("Jobs running on this node")
+        .register(registry);
+    Gauge.builder("jobs.queued", queued)
+        .description("Jobs waiting in the queue")
+        .register(registry);
+  }
+
+  /**
+   * @param jobType the class name of the job, or null for a lambda
+   * @param wait how long the job waited before it first started
+   */
+  public void recordQueueWait(String jobType, Duration wait) {
+    Timer.builder("jobs.queue.wait")
+        .description("Time jobs waited in the queue before they first started")
+        .tag("type", typeTag(jobType))
+        .publishPercentileHistogram()
+        .register(registry)
+        .record(wait);
+  }
+
+  /**
+   * Records a job that ran and has finished.
+   *
+   * @param jobType the class name of the job, or null for a lambda
+   * @param outcome the job's final status
+   * @param runTime how long the job ran
+   */
+  public void recordExecution(String jobType, JobStatus outcome, Duration runTime) {
+    Timer.builder("jobs.execution")
+        .description("Time jobs ran")
+        .tag("type", typeTag(jobType))
+        .tag("outcome", outcome.getValue())
+        .publishPercentileHistogram()
+        .register(registry)
+        .record(runTime);
+    recordOutcome(jobType, outcome);
+  }
+
+  /**
+   * Records a job that has finished, including one that never ran, e.g. because it was rejected or
+   * cancelled while queued.
+   *
+   * @param jobType the class name of the job, or null for a lambda
+   * @param outcome the job's final status
+   */
+  public void recordOutcome(String jobType, JobStatus outcome) {
+    Counter.builder("jobs.finished")
+        .description("Jobs that finished")
+        .tag("type", typeTag(jobType))
+        .tag("outcome", outcome.getValue())
+        .register(registry)
+        .increment();
+  }
+
+  /**
+   * @param jobType the class name of the job, or null for a lambda
+   * @return the counter of lines logged by jobs of the type
+   */
+  public Counter logLines(String jobType) {
+    return Counter.builder("jobs.log.lines")
+        .description("Lines logged by jobs")
+        .tag("type", typeTag(jobType))
+        .register(registry);
+  }
+
+  /**
+   * @param jobType the class name of the job, or null for a lambda
+   * @return the counter of characters logged by jobs of the type
+   */
+  public Counter logChars(String jobType) {
+    return Counter.builder("jobs.log.chars")
+        .description("Characters logged by jobs")
+        .baseUnit("characters")
+        .tag("type", typeTag(jobType))
+        .register(registry);
+  }
+}
@@ -0,0 +1,41 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Declares how the JobService dispatches a job type, e.g.
+ *
+ * <pre>
+ * &#64;JobPolicy(lane = JobLane.BULK, maxConcurrency = 2, maxPerUser = 1)
+ * public class ImportJob implements JobContextConsumer { ... }
+ * </pre>
+ *
+ * Jobs without the annotation run in the NORMAL lane with no cap and no quota.
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target(ElementType.TYPE)
+public @interface JobPolicy {
+  /**
+   * @return the lane the job waits in
+   */
+  JobLane lane() default JobLane.NORMAL;
+
+  /**
+   * @return the most jobs of this type that run at once on each node, or 0 for no cap
+   */
+  int maxConcurrency() default 0;
+
+  /**
+   * The quota is checked when a job is launched and again once the job is saved, so launches that
+   * race each other never take a user over it; at worst all of them are rejected.
+   *
+   * @return the most unfinished (queued or running) jobs of this type a user may have, or 0 for no
+   *     quota
+   */
+  int maxPerUser() default 0;
+}
@@ -0,0 +1,177 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.entities.JobStatus;
+import edu.ucsb.cs156.example.models.JobDeleteResult;
+import edu.ucsb.cs156.example.models.JobPurgeReport;
+import edu.ucsb.cs156.example.repositories.JobDependenciesRepository;
+import edu.ucsb.cs156.example.repositories.JobLogChunksRepository;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
+import edu.ucsb.cs156.example.repositories.JobQueueRepository;
+import edu.ucsb.cs156.example.repositories.JobResultChunksRepository;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Enforces the retention policy for job records. Finished jobs (by default every status except
+ * queued and running) are removed once they are older than {@code app.jobs.retention.maxAge}, and
+ * the oldest finished jobs are removed while there are more than {@code app.jobs.retention.maxJobs}
+ * jobs. Either limit is switched off by setting it to zero.
+ *
+ * <p>Jobs are deleted, along with their log lines, compressed logs, results, queue entries and
+ * graph edges, {@code app.jobs.retention.batchSize} at a time, each batch in its own short
+ * transaction, so a large purge never holds locks on the jobs table for long and a failed batch
+ * leaves no job without its log. The purge runs on the {@code app.jobs.retention.cron} schedule and
+ * can also be run by an admin.
+ *
+ * <p>Admins can also delete jobs matching a filter; those deletes are single set-based statements
+ * that never load the jobs.
+ */
+@Slf4j
+@Service
+public class JobPurgeService {
+  @Autowired private JobsRepository jobsRepository;
+
+  @Autowired private JobLogLinesRepository jobLogLinesRepository;
+
+  @Autowired private JobQueueRepository jobQueueRepository;
+
+  @Autowired private JobDependenciesRepository jobDependenciesRepository;
+
+  @Autowired private JobLogChunksRepository jobLogChunksRepository;
+
+  @Autowired private JobResultChunksRepository jobResultChunksRepository;
+
+  @Autowired private TransactionTemplate transactionTemplate;
+
+  @Value("${app.jobs.retention.maxAge:30d}")
+  private Duration maxAge;
+
+  @Value("${app.jobs.retention.maxJobs:10000}")
+  private long maxJobs;
+
+  @Value("${app.jobs.retention.statuses:complete,error,rejected,cancelled,timed_out}")
+  private String[] statuses;
+
+  @Value("${app.jobs.retention.batchSize:500}")
+  private int batchSize;
+
+  /** the report of the most recent purge, or null if there has not been one */
+  @Getter private volatile JobPurgeReport lastReport;
+
+  @Scheduled(cron = "${app.jobs.retention.cron:0 30 3 * * *}")
+  public void scheduledPurge() {
+    purge();
+  }
+
+  /**
+   * Removes the jobs the retention policy no longer keeps.
+   *
+   * @return a report of what was removed
+   */
+  public synchronized JobPurgeReport purge() {
+    ZonedDateTime startedAt = ZonedDateTime.now();
+    long startNanos = System.nanoTime();
+    List<JobStatus> purgeable = Arrays.stream(statuses).map(JobStatus::fromValue).toList();
+    JobPurgeReport report = JobPurgeReport.builder().startedAt(startedAt).build();
+
+    if (!maxAge.isZero()) {
+      ZonedDateTime cutoff = startedAt.minus(maxAge);
+      List<Long> ids;
+      while (!(ids = jobsRepository.findOldestIds(purgeable, cutoff, PageRequest.of(0, batchSize)))
+          .isEmpty()) {
+        report.setExpiredJobsDeleted(report.getExpiredJobsDeleted() + deleteBatch(ids, report));
+      }
+    }
+
+    if (maxJobs > 0) {
+      long excess = jobsRepository.count() - maxJobs;
+      while (excess > 0) {
+        int size = (int) Math.min(batchSize, excess);
+        List<Long> ids = jobsRepository.findOldestIds(purgeable, null, PageRequest.of(0, size));
+        if (ids.isEmpty()) break;
+        long deleted = deleteBatch(ids, report);
+        report.setExcessJobsDeleted(report.getExcessJobsDeleted() + deleted);
+        excess -= ids.size();
+      }
+    }
+
+    report.setDurationMs((System.nanoTime() - startNanos) / 1_000_000);
+    log.info("Job purge: {}", report);
+    lastReport = report;
+    return report;
+  }
+
+  /**
+   * Deletes the jobs matching the filters, with their logs, results, queue entries and graph edges,
+   * in one transaction. Every filter but the statuses is optional (pass null to skip it).
+   *
+   * @param ids only jobs with one of these ids
+   * @param statuses only jobs with one of these statuses
+   * @param createdById only jobs launched by the user with this id
+   * @param createdAfter only jobs created at or after this time
+   * @param createdBefore only jobs created before this time
+   * @return how many jobs and log lines were deleted
+   */
+  @Transactional
+  public JobDeleteResult deleteJobs(
+      Collection<Long> ids,
+      Collection<JobStatus> statuses,
+      Long createdById,
+      ZonedDateTime createdAfter,
+      ZonedDateTime createdBefore) {
+    if (ids == null) {
+      jobQueueRepository.deleteMatching(statuses, createdById, createdAfter, createdBefore);
+      jobDependenciesRepository.deleteMatching(statuses, createdById, createdAfter, createdBefore);
+      jobLogChunksRepository.deleteMatching(statuses, createdById, createdAfter, createdBefore);
+      jobResultChunksRepository.deleteMatching(statuses, createdById, createdAfter, createdBefore);
+      int lines =
+          jobLogLinesRepository.deleteMatching(statuses, createdById, createdAfter, createdBefore);
+      int jobs = jobsRepository.deleteMatching(statuses, createdById, createdAfter, createdBefore);
+      return JobDeleteResult.builder().jobsDeleted(jobs).logLinesDeleted(lines).build();
+    }
+    if (ids.isEmpty()) return JobDeleteResult.builder().build();
+    jobQueueRepository.deleteMatchingIn(ids, statuses, createdById, createdAfter, createdBefore);
+    jobDependenciesRepository.deleteMatchingIn(
+        ids, statuses, createdById, createdAfter, createdBefore);
+    jobLogChunksRepository.deleteMatchingIn(
+        ids, statuses, createdById, createdAfter, createdBefore);
+    jobResultChunksRepository.deleteMatchingIn(
+        ids, statuses, createdById, createdAfter, createdBefore);
+    int lines =
+        jobLogLinesRepository.deleteMatchingIn(
+            ids, statuses, createdById, createdAfter, createdBefore);
+    int jobs =
+        jobsRepository.deleteMatchingIn(ids, statuses, createdById, createdAfter, createdBefore);
+    return JobDeleteResult.builder().jobsDeleted(jobs).logLinesDeleted(lines).build();
+  }
+
+  private long deleteBatch(List<Long> ids, JobPurgeReport report) {
+    JobDeleteResult deleted =
+        transactionTemplate.execute(
+            transaction -> {
+              jobQueueRepository.deleteByIdIn(ids);
+              jobDependenciesRepository.deleteByJobIdIn(ids);
+              jobLogChunksRepository.deleteByJobIdIn(ids);
+              jobResultChunksRepository.deleteByJobIdIn(ids);
+              int lines = jobLogLinesRepository.deleteByJobIdIn(ids);
+              int jobs = jobsRepository.deleteByIdIn(ids);
+              return JobDeleteResult.builder().jobsDeleted(jobs).logLinesDeleted(lines).build();
+            });
+    report.setLogLinesDeleted(report.getLogLinesDeleted() + deleted.getLogLinesDeleted());
+    report.setBatches(report.getBatches() + 1);
+    return deleted.getJobsDeleted();
+  }
+}
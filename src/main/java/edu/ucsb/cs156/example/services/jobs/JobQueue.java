@@ -0,0 +1,214 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ucsb.cs156.example.entities.JobQueueEntry;
+import edu.ucsb.cs156.example.repositories.JobQueueRepository;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Predicate;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * The durable job queue shared by every node. A launched job is stored in the job_queue table along
+ * with its class name and its parameters as JSON; beans the job uses, e.g. repositories, are left
+ * out and {@code @Autowired} into it before it runs, so a job declares them as {@code @Autowired}
+ * fields and gets them on whichever node runs it. A node claims an entry before running the job and
+ * renews its lease while the job runs; the entry is removed once the job finishes. If a node dies
+ * its leases expire and any other node can claim and re-run the job.
+ *
+ * <p>Claims lock rows with {@code SELECT ... FOR UPDATE SKIP LOCKED} on Postgres, so nodes polling
+ * at the same time neither wait for each other nor claim the same job. H2, which has no SKIP
+ * LOCKED, falls back to a plain {@code FOR UPDATE}: a second node waits for the first to commit and
+ * then skips the rows it claimed.
+ */
+@Slf4j
+@Service
+public class JobQueue {
+  @Autowired private JobQueueRepository jobQueueRepository;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Value("${app.jobs.queue.leaseMs:60000}")
+  private long leaseMs;
+
+  @Value("${app.jobs.queue.claimScan:100}")
+  private int claimScan;
+
+  @Getter private final String nodeId;
+
+  public JobQueue(@Value("${app.jobs.nodeId:}") String nodeId) {
+    // defaults to pid@hostname, which is unique across the nodes sharing a database
+    this.nodeId = nodeId.isBlank() ? ManagementFactory.getRuntimeMXBean().getName() : nodeId;
+  }
+
+  /**
+   * Adds a job to the queue.
+   *
+   * @param jobId id of the job
+   * @param jobFunction the job
+   * @param claim whether this node claims the job right away
+   * @return false if the job cannot be stored, in which case only this node can run it
+   */
+  public boolean enqueue(long jobId, JobContextConsumer jobFunction, boolean claim) {
+    return enqueue(jobId, jobFunction, toParams(jobFunction), claim);
+  }
+
+  /**
+   * Adds a job to the queue.
+   *
+   * @param jobId id of the job
+   * @param jobFunction the job
+   * @param params the job's parameters as JSON, from {@link #toParams}
+   * @param claim whether this node claims the job right away
+   * @return false if the job cannot be stored, in which case only this node can run it
+   */
+  public boolean enqueue(long jobId, JobContextConsumer jobFunction, String params, boolean claim) {
+    JobQueueEntry entry =
+        JobQueueEntry.builder()
+            .id(jobId)
+            .priority(JobSlots.policyOf(jobFunction.getClass()).lane().getPriority())
+            .enqueuedBy(nodeId)
+            .build();
+    if (params != null) {
+      entry.setJobType(jobFunction.getClass().getName());
+      entry.setParams(params);
+    }
+    if (claim) {
+      entry.setClaimedBy(nodeId);
+      entry.setLeaseExpiresAt(leaseExpiry());
+      entry.setAttempts(1);
+    }
+    jobQueueRepository.save(entry);
+    return params != null;
+  }
+
+  /**
+   * Claims up to {@code max} jobs for this node: jobs nobody has claimed yet, and jobs whose lease
+   * has expired because the node running them died. Up to {@code app.jobs.queue.claimScan} entries
+   * are considered, highest priority first, so that jobs this node may not start yet (e.g. because
+   * their type is at its cap) do not hold up the jobs behind them.
+   *
+   * @param max the most jobs to claim
+   * @param admit decides whether this node may start the job in an entry
+   * @return the claimed entries, with their attempt counts incremented
+   */
+  @Transactional
+  public List<JobQueueEntry> claim(int max, Predicate<JobQueueEntry> admit) {
+    List<JobQueueEntry> claimed = new ArrayList<>();
+    for (JobQueueEntry entry :
+        jobQueueRepository.findClaimable(
+            ZonedDateTime.now(), nodeId, PageRequest.of(0, Math.max(max, claimScan)))) {
+      if (claimed.size() >= max) break;
+      if (!admit.test(entry)) continue;
+      entry.setClaimedBy(nodeId);
+      entry.setLeaseExpiresAt(leaseExpiry());
+      entry.setAttempts(entry.getAttempts() + 1);
+      claimed.add(entry);
+    }
+    return claimed;
+  }
+
+  /**
+   * Extends the leases on jobs this node is running.
+   *
+   * @param jobIds ids of the jobs
+   */
+  public void renewLeases(Collection<Long> jobIds) {
+    if (jobIds.isEmpty()) return;
+    jobQueueRepository.renewLeases(nodeId, List.copyOf(jobIds), leaseExpiry());
+  }
+
+  /**
+   * Gives up this node's claim on a job it could not start, so that any node can claim it.
+   *
+   * @param jobId id of the job
+   */
+  public void release(long jobId) {
+    jobQueueRepository.release(jobId, nodeId);
+  }
+
+  /**
+   * Removes a finished job from the queue, unless another node has claimed it since this node's
+   * lease expired.
+   *
+   * @param jobId id of the job
+   */
+  public void complete(long jobId) {
+    jobQueueRepository.deleteClaimed(jobId, nodeId);
+  }
+
+  /**
+   * Removes a job from the queue if no node has claimed it yet.
+   *
+   * @param jobId id of the job
+   * @return false if the job is not waiting in the queue
+   */
+  public boolean cancelQueued(long jobId) {
+    return jobQueueRepository.deleteUnclaimed(jobId) > 0;
+  }
+
+  /**
+   * @return the number of jobs waiting to be claimed
+   */
+  public long countQueued() {
+    return jobQueueRepository.countByClaimedByIsNull();
+  }
+
+  /**
+   * Rebuilds the job stored in an entry.
+   *
+   * @param entry the entry
+   * @return the job
+   * @throws Exception if the entry does not hold a job that can be rebuilt on this node
+   */
+  public JobContextConsumer toJobFunction(JobQueueEntry entry) throws Exception {
+    if (entry.getJobType() == null) {
+      throw new IllegalArgumentException("job was launched on node " + entry.getEnqueuedBy());
+    }
+    return toJobFunction(entry.getJobType(), entry.getParams());
+  }
+
+  /**
+   * Builds a job from its class name and its parameters as JSON.
+   *
+   * @param jobType the class name of the job, e.g. edu.ucsb.cs156.example.jobs.TestJob
+   * @param params the parameters of the job
+   * @return the job
+   * @throws Exception if the class is not a job or the parameters do not fit it
+   */
+  public JobContextConsumer toJobFunction(String jobType, String params) throws Exception {
+    Class<?> type = Class.forName(jobType);
+    if (!JobContextConsumer.class.isAssignableFrom(type)) {
+      throw new IllegalArgumentException(jobType + " is not a job");
+    }
+    return (JobContextConsumer) objectMapper.readValue(params, type);
+  }
+
+  /**
+   * @param jobFunction the job
+   * @return the job's parameters as JSON, or null if the job cannot be stored, e.g. a lambda
+   */
+  public String toParams(JobContextConsumer jobFunction) {
+    if (jobFunction.getClass().isHidden()) return null; // lambdas
+    try {
+      return objectMapper.writeValueAsString(jobFunction);
+    } catch (Exception e) {
+      log.debug("Job {} cannot be stored: {}", jobFunction.getClass().getName(), e.getMessage());
+      return null;
+    }
+  }
+
+  private ZonedDateTime leaseExpiry() {
+    return ZonedDateTime.now().plus(Duration.ofMillis(leaseMs));
+  }
+}
@@ -0,0 +1,163 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobResultChunk;
+import edu.ucsb.cs156.example.repositories.JobResultChunksRepository;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Stores the results of jobs: a JSON document or a file that a job produces for its clients, kept
+ * apart from its log so that clients need not parse the log to get at it. A result is saved in
+ * chunks of {@code app.jobs.results.chunkBytes} as the job writes it, and read back one chunk at a
+ * time, so neither storing nor downloading a large result holds it all in memory.
+ *
+ * <p>A result becomes the job's result, recorded on the job with its media type, file name and
+ * size, once it is completely written. If writing it fails, the chunks saved so far are deleted and
+ * nothing is recorded. A job has at most one result; a new one replaces the last.
+ */
+@Service
+public class JobResultStore {
+  @Autowired private JobResultChunksRepository jobResultChunksRepository;
+
+  @Autowired private JobsRepository jobsRepository;
+
+  @Autowired private ObjectMapper objectMapper;
+
+  @Value("${app.jobs.results.chunkBytes:1048576}")
+  private int chunkBytes;
+
+  /** Writes a result to the stream it is given, e.g. by copying a file to it. */
+  @FunctionalInterface
+  public interface ResultWriter {
+    /**
+     * @param out the stream to write the result to, which the writer may close
+     * @throws IOException if the result cannot be written
+     */
+    void write(OutputStream out) throws IOException;
+  }
+
+  /**
+   * Stores a job's result, replacing the last. The result is recorded on the job once the writer
+   * returns; if it throws instead, the part of the result it wrote is deleted.
+   *
+   * @param job the job
+   * @param fileName the name to download the result as, or null
+   * @param contentType the media type of the result, e.g. text/csv
+   * @param writer writes the result
+   * @throws IOException if the writer cannot write the result
+   */
+  public void writeFile(Job job, String fileName, String contentType, ResultWriter writer)
+      throws IOException {
+    if (job.getResultSize() != null) {
+      jobsRepository.updateResult(job.getId(), null, null, null);
+      job.setResultContentType(null);
+      job.setResultFileName(null);
+      job.setResultSize(null);
+    }
+    jobResultChunksRepository.deleteByJobId(job.getId());
+    ResultOutputStream out = new ResultOutputStream(job, fileName, contentType);
+    boolean committed = false;
+    try {
+      writer.write(out);
+      out.commit();
+      committed = true;
+    } finally {
+      if (!committed) jobResultChunksRepository.deleteByJobId(job.getId());
+    }
+  }
+
+  /**
+   * Stores a value as a job's result, as a JSON document.
+   *
+   * @param job the job
+   * @param value the value, e.g. a map or a model object
+   * @throws IOException if the value cannot be written as JSON
+   */
+  public void writeJson(Job job, Object value) throws IOException {
+    writeFile(job, null, "application/json", out -> objectMapper.writeValue(out, value));
+  }
+
+  /**
+   * Writes a job's result, one chunk at a time.
+   *
+   * @param jobId id of the job
+   * @param out where to write the result
+   * @throws IOException if the stream cannot be written
+   */
+  public void write(long jobId, OutputStream out) throws IOException {
+    for (int chunkNo = 0; ; chunkNo++) {
+      JobResultChunk chunk =
+          jobResultChunksRepository.findByJobIdAndChunkNo(jobId, chunkNo).orElse(null);
+      if (chunk == null) return;
+      out.write(chunk.getData());
+    }
+  }
+
+  /** Saves what is written to it as chunks, and records the result on the job when committed. */
+  private class ResultOutputStream extends OutputStream {
+    private final Job job;
+    private final String fileName;
+    private final String contentType;
+    private final byte[] buffer = new byte[chunkBytes];
+    private int buffered;
+    private int chunkNo;
+    private long size;
+    private boolean closed;
+
+    ResultOutputStream(Job job, String fileName, String contentType) {
+      this.job = job;
+      this.fileName = fileName;
+      this.contentType = contentType;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      write(new byte[] {(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] bytes, int offset, int length) throws IOException {
+      if (closed) throw new IOException("The result of job %d is closed".formatted(job.getId()));
+      while (length > 0) {
+        int n = Math.min(length, buffer.length - buffered);
+        System.arraycopy(bytes, offset, buffer, buffered, n);
+        buffered += n;
+        offset += n;
+        length -= n;
+        size += n;
+        if (buffered == buffer.length) saveChunk();
+      }
+    }
+
+    private void saveChunk() {
+      jobResultChunksRepository.save(
+          JobResultChunk.builder()
+              .jobId(job.getId())
+              .chunkNo(chunkNo++)
+              .data(Arrays.copyOf(buffer, buffered))
+              .build());
+      buffered = 0;
+    }
+
+    @Override
+    public void close() {
+      closed = true;
+    }
+
+    void commit() {
+      closed = true;
+      if (buffered > 0) saveChunk();
+      jobsRepository.updateResult(job.getId(), contentType, fileName, size);
+      job.setResultContentType(contentType);
+      job.setResultFileName(fileName);
+      job.setResultSize(size);
+    }
+  }
+}
@@ -1,53 +1,991 @@
 package edu.ucsb.cs156.example.services.jobs;
 
+import edu.ucsb.cs156.example.config.JobExecutorConfig;
 import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobDependency;
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.entities.JobQueueEntry;
+import edu.ucsb.cs156.example.entities.JobStatus;
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.errors.JobRejectedException;
+import edu.ucsb.cs156.example.models.JobExecutorStatus;
+import edu.ucsb.cs156.example.models.JobGraphNode;
+import edu.ucsb.cs156.example.repositories.JobDependenciesRepository;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
 import edu.ucsb.cs156.example.repositories.JobsRepository;
 import edu.ucsb.cs156.example.services.CurrentUserService;
+import jakarta.annotation.PostConstruct;
+import java.io.InputStream;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledFuture;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.AutowireCapableBeanFactory;
 import org.springframework.context.annotation.Lazy;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+@Slf4j
 @Service
 public class JobService {
   @Autowired private JobsRepository jobsRepository;
 
+  @Autowired private JobLogLinesRepository jobLogLinesRepository;
+
   @Autowired private CurrentUserService currentUserService;
 
   @Lazy @Autowired private JobService self;
 
+  @Autowired
+  @Qualifier(JobExecutorConfig.JOB_EXECUTOR)
+  private ThreadPoolTaskExecutor jobExecutor;
+
+  @Autowired private TaskScheduler taskScheduler;
+
+  @Autowired private Environment environment;
+
+  @Autowired private JobQueue jobQueue;
+
+  @Autowired private JobMetrics jobMetrics;
+
+  @Autowired private JobLogArchive jobLogArchive;
+
+  @Autowired private JobDependenciesRepository jobDependenciesRepository;
+
+  @Autowired private JobResultStore jobResultStore;
+
+  @Autowired private AutowireCapableBeanFactory beanFactory;
+
+  // lets jobs write their output and checkpoint together; absent where there is no database
+  @Autowired(required = false)
+  private TransactionTemplate transactionTemplate;
+
+  private static final Set<JobStatus> RESTARTABLE =
+      EnumSet.of(JobStatus.ERROR, JobStatus.CANCELLED, JobStatus.TIMED_OUT);
+
+  private final Map<Long, JobContext> activeJobs = new ConcurrentHashMap<>();
+
+  // queued jobs whose function could not be stored in the queue, so only this node can run them
+  private final Map<Long, JobContextConsumer> localJobs = new ConcurrentHashMap<>();
+
+  @Value("${app.jobs.logFlushLines:50}")
+  private int logFlushLines;
+
+  @Value("${app.jobs.logFlushIntervalMs:2000}")
+  private long logFlushIntervalMs;
+
+  @Value("${app.jobs.logBufferLines:1000}")
+  private int logBufferLines;
+
+  @Value("${app.jobs.logStreamTimeoutMs:1800000}")
+  private long logStreamTimeoutMs;
+
+  @Value("${app.jobs.logStreamQueueLines:1000}")
+  private int logStreamQueueLines;
+
+  @Value("${app.jobs.logCompression.enabled:true}")
+  private boolean logCompression;
+
+  @Value("${app.jobs.progressIntervalMs:1000}")
+  private long progressIntervalMs;
+
+  @Value("${app.jobs.queue.capacity:100}")
+  private int queueCapacity;
+
+  @Value("${app.jobs.queue.maxAttempts:3}")
+  private int maxAttempts;
+
+  @Value("${app.jobs.dedup.window:10m}")
+  private Duration dedupWindow;
+
+  @Value("${app.jobs.lanes.reservedWorkers:1}")
+  private int reservedWorkers;
+
+  private final JobSlots slots =
+      new JobSlots(() -> jobExecutor.getMaxPoolSize(), () -> reservedWorkers);
+
+  @PostConstruct
+  void registerGauges() {
+    jobMetrics.registerGauges(activeJobs::size, jobQueue::countQueued);
+  }
+
+  /**
+   * Launches a job. The job is added to the durable job queue; if this node has a free worker it
+   * claims and starts the job right away, otherwise the first node with a free worker picks it up.
+   * Which worker is free for a job depends on its {@link JobPolicy}: its lane, the cap on jobs of
+   * its type, and the quota on unfinished jobs of its type per user.
+   *
+   * @param jobFunction the job
+   * @return the job
+   * @throws JobRejectedException if the queue already holds {@code app.jobs.queue.capacity} jobs,
+   *     or the current user has reached their quota for this type of job
+   */
   public Job runAsJob(JobContextConsumer jobFunction) {
-    Job job = Job.builder().createdBy(currentUserService.getUser()).status("running").build();
+    return runAsJob(jobFunction, currentUserService.getUser());
+  }
 
-    jobsRepository.save(job);
-    self.runJobAsync(job, jobFunction);
+  /**
+   * Launches a job on behalf of a user, e.g. from a scheduler thread where there is no current
+   * user.
+   *
+   * @param jobFunction the job
+   * @param createdBy the user launching the job, or null for the system
+   * @return the job
+   * @throws JobRejectedException if the queue already holds {@code app.jobs.queue.capacity} jobs,
+   *     or the user has reached their quota for this type of job
+   */
+  public Job runAsJob(JobContextConsumer jobFunction, User createdBy) {
+    return runAsJob(jobFunction, createdBy, null);
+  }
+
+  /**
+   * Launches a job unless the user already launched one with the same deduplication key, e.g.
+   * because a client retried its request or the user double-clicked. A queued or running job
+   * launched with the key within the last {@code app.jobs.dedup.window} is returned instead of
+   * starting another; once that job finishes the key can be used again.
+   *
+   * @param jobFunction the job
+   * @param createdBy the user launching the job, or null for the system
+   * @param dedupKey the deduplication key, or null to always launch the job
+   * @return the job, or the job already launched with the key
+   * @throws JobRejectedException if the queue already holds {@code app.jobs.queue.capacity} jobs,
+   *     or the user has reached their quota for this type of job
+   */
+  public Job runAsJob(JobContextConsumer jobFunction, User createdBy, String dedupKey) {
+    if (dedupKey != null) {
+      Job duplicate = findDuplicate(createdBy, dedupKey);
+      if (duplicate != null) return duplicate;
+    }
+
+    String jobType = jobFunction.getClass().isHidden() ? null : jobFunction.getClass().getName();
+    String rejection = rejectionReason(jobFunction, jobType, createdBy);
+    boolean claim = rejection == null && slots.tryAcquire(jobFunction.getClass());
+    String params = jobQueue.toParams(jobFunction);
+    Job job =
+        Job.builder()
+            .createdBy(createdBy)
+            .status(claim ? JobStatus.RUNNING : JobStatus.QUEUED)
+            .jobType(jobType)
+            .queueWaitMs(claim ? 0L : null)
+            .startedAt(claim ? ZonedDateTime.now() : null)
+            .dedupKey(dedupKey)
+            .dedupScope(dedupScope(createdBy))
+            .params(params)
+            .build();
+
+    try {
+      jobsRepository.save(job);
+    } catch (DataIntegrityViolationException e) {
+      // a concurrent launch with the same key saved its job first
+      if (claim) slots.release(jobFunction.getClass());
+      Job duplicate = dedupKey != null ? findDuplicate(createdBy, dedupKey) : null;
+      if (duplicate == null) throw e;
+      return duplicate;
+    }
+    if (rejection == null) {
+      // checked again now that the job is counted, since another launch may have been saved
+      // between the first check and this one
+      rejection = quotaRejection(jobFunction, jobType, createdBy, 0);
+      if (rejection != null && claim) slots.release(jobFunction.getClass());
+    }
+    if (rejection != null) {
+      job.setStatus(JobStatus.REJECTED);
+      job.setFinishedAt(ZonedDateTime.now());
+      jobsRepository.save(job);
+      jobMetrics.recordOutcome(jobType, JobStatus.REJECTED);
+      throw new JobRejectedException(job.getId(), rejection);
+    }
 
+    // registered before the job is visible in the queue, so this node's poller can find it
+    if (!claim) localJobs.put(job.getId(), jobFunction);
+    boolean durable = jobQueue.enqueue(job.getId(), jobFunction, params, claim);
+    if (durable) localJobs.remove(job.getId());
+    if (claim) {
+      if (start(job, jobFunction, 0)) {
+        jobMetrics.recordQueueWait(jobType, Duration.ZERO);
+      } else {
+        job.setStartedAt(null);
+        job.setQueueWaitMs(null);
+        requeue(job, jobFunction, durable);
+      }
+    }
     return job;
   }
 
-  @Async
-  public void runJobAsync(Job job, JobContextConsumer jobFunction) {
-    JobContext context = new JobContext(jobsRepository, job);
+  /**
+   * Launches a graph of jobs on behalf of a user. The jobs that depend on no other job are queued
+   * right away; the others wait, with status WAITING, and are queued once every job they depend on
+   * has completed. If a job does not complete, the jobs waiting for it, and in turn the jobs
+   * waiting for those, are cancelled.
+   *
+   * <p>Any node may be the one that queues a waiting job, so a job that depends on others must be
+   * stored as JSON; see {@link JobQueue}.
+   *
+   * <p>The whole graph is checked against the queue capacity and the user's quotas before any job
+   * is saved, counting every job of the graph of a type towards the quota for that type. A waiting
+   * job is checked again when it is queued, and ends with status REJECTED, cancelling the jobs
+   * waiting for it, if it may no longer be launched.
+   *
+   * @param graph the jobs
+   * @param createdBy the user launching the jobs, or null for the system
+   * @return the jobs, in the order they were added to the graph
+   * @throws IllegalArgumentException if a job that depends on others cannot be stored
+   * @throws JobRejectedException if the jobs to be queued right away would take the queue past
+   *     {@code app.jobs.queue.capacity} jobs, or the jobs of the graph would take the user over
+   *     their quota for a type of job
+   */
+  public List<Job> runAsGraph(JobGraph graph, User createdBy) {
+    List<String> params = new ArrayList<>();
+    int roots = 0;
+    Map<Class<?>, Integer> launching = new HashMap<>();
+    for (int i = 0; i < graph.size(); i++) {
+      JobContextConsumer jobFunction = graph.getJob(i);
+      String jobParams = jobQueue.toParams(jobFunction);
+      if (graph.getPrerequisites(i).length > 0) {
+        if (jobParams == null) {
+          throw new IllegalArgumentException(
+              "Job %d of the graph depends on other jobs, so it must be stored as JSON, but %s cannot be"
+                  .formatted(i, jobFunction.getClass().getName()));
+        }
+      } else {
+        roots++;
+      }
+      launching.merge(jobFunction.getClass(), 1, Integer::sum);
+      params.add(jobParams);
+    }
+    String rejection = capacityRejection(roots);
+    for (int i = 0; rejection == null && i < graph.size(); i++) {
+      JobContextConsumer jobFunction = graph.getJob(i);
+      Integer count = launching.remove(jobFunction.getClass());
+      if (count == null) continue;
+      String jobType = jobFunction.getClass().isHidden() ? null : jobFunction.getClass().getName();
+      rejection = quotaRejection(jobFunction, jobType, createdBy, count);
+    }
+    if (rejection != null) throw new JobRejectedException(rejection);
 
+    // every job and edge is recorded before any job is queued, so that no job can finish before
+    // the jobs waiting for it are known
+    List<Job> jobs = new ArrayList<>();
+    for (int i = 0; i < graph.size(); i++) {
+      JobContextConsumer jobFunction = graph.getJob(i);
+      Job job =
+          Job.builder()
+              .createdBy(createdBy)
+              .status(JobStatus.WAITING)
+              .jobType(jobFunction.getClass().isHidden() ? null : jobFunction.getClass().getName())
+              .params(params.get(i))
+              .build();
+      jobsRepository.save(job);
+      jobs.add(job);
+    }
+    for (int i = 0; i < graph.size(); i++) {
+      for (int prerequisite : graph.getPrerequisites(i)) {
+        jobDependenciesRepository.save(
+            JobDependency.builder()
+                .jobId(jobs.get(i).getId())
+                .prerequisiteId(jobs.get(prerequisite).getId())
+                .build());
+      }
+    }
+    for (int i = 0; i < graph.size(); i++) {
+      if (graph.getPrerequisites(i).length == 0) release(jobs.get(i), graph.getJob(i));
+    }
+    return jobs;
+  }
+
+  /**
+   * Launches a graph of jobs given by their class names and parameters, e.g. through the API; see
+   * {@link #runAsGraph(JobGraph, User)}.
+   *
+   * @param nodes the jobs, each listed after the jobs it depends on
+   * @param createdBy the user launching the jobs, or null for the system
+   * @return the jobs, in the order they were listed
+   * @throws IllegalArgumentException if a job cannot be built, or depends on a job that is not
+   *     listed before it
+   * @throws JobRejectedException if the jobs may not be launched
+   */
+  public List<Job> runAsGraph(List<JobGraphNode> nodes, User createdBy) {
+    JobGraph graph = new JobGraph();
+    Map<String, Integer> indexes = new HashMap<>();
+    for (JobGraphNode node : nodes) {
+      List<String> dependsOn = node.getDependsOn() != null ? node.getDependsOn() : List.of();
+      int[] prerequisites = new int[dependsOn.size()];
+      for (int i = 0; i < prerequisites.length; i++) {
+        Integer index = indexes.get(dependsOn.get(i));
+        if (index == null) {
+          throw new IllegalArgumentException(
+              "Job %s depends on %s, which is not listed before it"
+                  .formatted(node.getName(), dependsOn.get(i)));
+        }
+        prerequisites[i] = index;
+      }
+      JobContextConsumer jobFunction;
+      try {
+        jobFunction =
+            jobQueue.toJobFunction(
+                node.getJobType(), node.getParams() != null ? node.getParams() : "{}");
+      } catch (Exception e) {
+        throw new IllegalArgumentException(
+            "Job %s cannot be built: %s".formatted(node.getName(), e.getMessage()));
+      }
+      int index = graph.add(jobFunction, prerequisites);
+      if (node.getName() != null && indexes.putIfAbsent(node.getName(), index) != null) {
+        throw new IllegalArgumentException("The name %s is used twice".formatted(node.getName()));
+      }
+    }
+    if (graph.size() == 0) throw new IllegalArgumentException("Give at least one job");
+    return runAsGraph(graph, createdBy);
+  }
+
+  /**
+   * Queues a waiting job, unless another node or thread has queued or cancelled it first. The job
+   * is rejected instead if the queue is full or it would take its user over their quota.
+   *
+   * @param jobFunction the job, or null to build it from its parameters
+   */
+  private void release(Job job, JobContextConsumer jobFunction) {
+    if (jobsRepository.updateStatus(job.getId(), JobStatus.WAITING, JobStatus.QUEUED) == 0) return;
+    job.setStatus(JobStatus.QUEUED);
+    jobDependenciesRepository.deleteByJobId(job.getId());
+    if (jobFunction == null) {
+      try {
+        jobFunction = jobQueue.toJobFunction(job.getJobType(), job.getParams());
+      } catch (Exception e) {
+        finishUnstarted(job, JobStatus.ERROR, "Job cannot be started: " + e.getMessage());
+        return;
+      }
+    }
+    // the job already counts towards its user's quota, now that it is QUEUED
+    String rejection = capacityRejection(1);
+    if (rejection == null) {
+      rejection = quotaRejection(jobFunction, job.getJobType(), job.getCreatedBy(), 0);
+    }
+    if (rejection != null) {
+      finishUnstarted(job, JobStatus.REJECTED, "Job rejected: " + rejection);
+      return;
+    }
+    // registered before the job is visible in the queue, so this node's poller can find it
+    if (job.getParams() == null) localJobs.put(job.getId(), jobFunction);
+    jobQueue.enqueue(job.getId(), jobFunction, job.getParams(), false);
+  }
+
+  /**
+   * Cancels a waiting job, unless another node or thread has queued or cancelled it first.
+   *
+   * @param message why the job is cancelled, to log, or null
+   * @return false if the job was not waiting
+   */
+  private boolean cancelWaiting(long jobId, String message) {
+    if (jobsRepository.updateStatus(jobId, JobStatus.WAITING, JobStatus.CANCELLED) == 0) {
+      return false;
+    }
+    jobDependenciesRepository.deleteByJobId(jobId);
+    jobsRepository
+        .findById(jobId)
+        .ifPresent(job -> finishUnstarted(job, JobStatus.CANCELLED, message));
+    return true;
+  }
+
+  /** Records that a job ended without having run, e.g. because it was cancelled in the queue. */
+  private void finishUnstarted(Job job, JobStatus status, String message) {
+    if (message != null) {
+      int seq = jobLogLinesRepository.findMaxSeqByJobId(job.getId()) + 1;
+      jobLogLinesRepository.saveAll(JobContext.toLines(job.getId(), seq, message));
+    }
+    job.setStatus(status);
+    job.setFinishedAt(ZonedDateTime.now());
+    jobsRepository.save(job);
+    jobMetrics.recordOutcome(job.getJobType(), status);
+    settleDependents(job);
+  }
+
+  /**
+   * Queues the jobs waiting for a finished job once everything they wait for has completed, or
+   * cancels them if the job did not complete.
+   */
+  private void settleDependents(Job job) {
+    for (long dependentId : jobDependenciesRepository.findDependentIds(job.getId())) {
+      try {
+        if (job.getStatus() != JobStatus.COMPLETE) {
+          cancelWaiting(
+              dependentId,
+              "Job cancelled: job %d, which it depends on, ended with status %s"
+                  .formatted(job.getId(), job.getStatus().getValue()));
+        } else if (jobDependenciesRepository.countPrerequisitesWithStatusNot(
+                dependentId, JobStatus.COMPLETE)
+            == 0) {
+          jobsRepository.findById(dependentId).ifPresent(dependent -> release(dependent, null));
+        }
+      } catch (Exception e) {
+        log.error("Could not settle job {}, which depends on job {}", dependentId, job.getId(), e);
+      }
+    }
+  }
+
+  /**
+   * @return the unfinished job launched with the key within the dedup window, or null if there is
+   *     none
+   */
+  private Job findDuplicate(User createdBy, String dedupKey) {
+    ZonedDateTime cutoff = ZonedDateTime.now().minus(dedupWindow);
+    for (Job job :
+        jobsRepository.findByDedupKey(
+            dedupScope(createdBy), dedupKey, List.of(JobStatus.QUEUED, JobStatus.RUNNING))) {
+      if (job.getCreatedAt() != null && job.getCreatedAt().isBefore(cutoff)) {
+        // still unfinished, but launched too long ago to be the same launch
+        jobsRepository.clearDedupKey(job.getId());
+      } else {
+        return job;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * @return the scope deduplication keys are unique in: the user's id, or 0 for the system
+   */
+  private static long dedupScope(User createdBy) {
+    return createdBy != null ? createdBy.getId() : 0;
+  }
+
+  /**
+   * @return why the job may not be launched, or null if it may
+   */
+  private String rejectionReason(JobContextConsumer jobFunction, String jobType, User createdBy) {
+    String rejection = capacityRejection(1);
+    return rejection != null ? rejection : quotaRejection(jobFunction, jobType, createdBy, 1);
+  }
+
+  /**
+   * @param queueing how many jobs are about to be queued
+   * @return why the jobs would take the queue past its capacity, or null if they would not
+   */
+  private String capacityRejection(int queueing) {
+    long waiting = jobQueue.countQueued();
+    if (waiting + queueing > queueCapacity) {
+      return "the job queue is full (%d waiting)".formatted(waiting);
+    }
+    return null;
+  }
+
+  /**
+   * @param launching how many jobs of this type the user is launching that are not yet saved
+   * @return why the jobs would take the user over their quota, or null if they would not
+   */
+  private String quotaRejection(
+      JobContextConsumer jobFunction, String jobType, User createdBy, int launching) {
+    int maxPerUser = JobSlots.policyOf(jobFunction.getClass()).maxPerUser();
+    if (maxPerUser > 0
+        && createdBy != null
+        && jobsRepository.countByCreatedByAndJobType(
+                    createdBy.getId(), jobType, List.of(JobStatus.QUEUED, JobStatus.RUNNING))
+                + launching
+            > maxPerUser) {
+      return "at most %d unfinished %s jobs are allowed per user"
+          .formatted(maxPerUser, jobFunction.getClass().getSimpleName());
+    }
+    return null;
+  }
+
+  /**
+   * Claims queued jobs, as well as jobs orphaned by a node that died, as long as this node has free
+   * workers. Higher-priority lanes are claimed first, and jobs that may not start here yet are left
+   * in the queue.
+   */
+  @Scheduled(fixedDelayString = "${app.jobs.queue.pollIntervalMs:1000}")
+  public void pollQueue() {
+    int free = slots.free();
+    if (free <= 0) return;
+    JobSlots plan = slots.copy();
+    for (JobQueueEntry entry : jobQueue.claim(free, e -> plan.tryAcquire(typeOf(e)))) {
+      try {
+        runClaimedJob(entry);
+      } catch (Exception e) {
+        log.error("Could not run job {} from the queue", entry.getId(), e);
+      }
+    }
+  }
+
+  /** Renews the queue leases on the jobs this node is running, so no other node re-claims them. */
+  @Scheduled(fixedDelayString = "${app.jobs.queue.heartbeatIntervalMs:15000}")
+  public void renewLeases() {
+    jobQueue.renewLeases(activeJobs.keySet());
+  }
+
+  /**
+   * @return the class of the job in a queue entry, or JobContextConsumer if it cannot be loaded
+   */
+  private Class<?> typeOf(JobQueueEntry entry) {
+    JobContextConsumer localJob = localJobs.get(entry.getId());
+    if (localJob != null) return localJob.getClass();
     try {
-      jobFunction.accept(context);
+      return Class.forName(entry.getJobType());
     } catch (Exception e) {
-      job.setStatus("error");
-      context.log(e.getMessage());
+      return JobContextConsumer.class;
+    }
+  }
+
+  private void runClaimedJob(JobQueueEntry entry) {
+    Job job = jobsRepository.findById(entry.getId()).orElse(null);
+    if (job == null) {
+      // deleted while it was queued
+      jobQueue.complete(entry.getId());
+      return;
+    }
+
+    int firstSeq = 0;
+    String resumeMessage = null;
+    if (entry.getAttempts() > 1 || job.getStartedAt() != null) {
+      // the job ran before, so its log continues after the lines it already has
+      firstSeq = jobLogLinesRepository.findMaxSeqByJobId(job.getId()) + 1;
+    }
+    if (entry.getAttempts() > 1) {
+      resumeMessage =
+          "Job resumed on node %s (attempt %d)"
+              .formatted(jobQueue.getNodeId(), entry.getAttempts());
+    }
+
+    JobContextConsumer jobFunction = localJobs.remove(job.getId());
+    String failure = null;
+    if (entry.getAttempts() > maxAttempts) {
+      failure = "Job abandoned after %d attempts".formatted(maxAttempts);
+    } else if (jobFunction == null) {
+      try {
+        jobFunction = jobQueue.toJobFunction(entry);
+      } catch (Exception e) {
+        failure = "Job cannot be resumed: " + e.getMessage();
+      }
+    }
+
+    if (failure != null) {
+      jobLogLinesRepository.saveAll(JobContext.toLines(job.getId(), firstSeq, failure));
+      job.setStatus(JobStatus.ERROR);
+      job.setFinishedAt(ZonedDateTime.now());
+      jobsRepository.save(job);
+      jobQueue.complete(job.getId());
+      jobMetrics.recordOutcome(job.getJobType(), JobStatus.ERROR);
+      settleDependents(job);
       return;
     }
 
-    job.setStatus("complete");
+    boolean durable = entry.getJobType() != null;
+    if (!slots.tryAcquire(jobFunction.getClass())) {
+      // a job launched on this node took the slot since the claim was planned
+      requeue(job, jobFunction, durable);
+      return;
+    }
+    if (resumeMessage != null) {
+      List<JobLogLine> lines = JobContext.toLines(job.getId(), firstSeq, resumeMessage);
+      jobLogLinesRepository.saveAll(lines);
+      firstSeq += lines.size();
+    }
+    job.setStatus(JobStatus.RUNNING);
+    Duration queueWait = null;
+    if (job.getStartedAt() == null) {
+      job.setStartedAt(ZonedDateTime.now());
+      if (job.getCreatedAt() != null) {
+        queueWait = Duration.between(job.getCreatedAt(), job.getStartedAt());
+        job.setQueueWaitMs(queueWait.toMillis());
+      }
+    }
     jobsRepository.save(job);
+    if (!start(job, jobFunction, firstSeq)) {
+      if (queueWait != null) {
+        job.setStartedAt(null);
+        job.setQueueWaitMs(null);
+      }
+      requeue(job, jobFunction, durable);
+    } else if (queueWait != null) {
+      jobMetrics.recordQueueWait(job.getJobType(), queueWait);
+    }
+  }
+
+  /** Gives a job this node claimed but could not start back to the queue. */
+  private void requeue(Job job, JobContextConsumer jobFunction, boolean durable) {
+    job.setStatus(JobStatus.QUEUED);
+    jobsRepository.save(job);
+    if (!durable) localJobs.put(job.getId(), jobFunction);
+    jobQueue.release(job.getId());
+  }
+
+  /**
+   * Hands a job this node has claimed, and taken a slot for, to the job executor.
+   *
+   * @return false if the executor rejected the job, in which case its slot is given back
+   */
+  private boolean start(Job job, JobContextConsumer jobFunction, int firstSeq) {
+    // jobs rebuilt from JSON on any node get the beans they use, e.g. repositories, here
+    if (!jobFunction.getClass().isHidden()) beanFactory.autowireBean(jobFunction);
+    JobContext context =
+        JobContext.builder()
+            .jobsRepository(jobsRepository)
+            .jobLogLinesRepository(jobLogLinesRepository)
+            .job(job)
+            .flushLines(logFlushLines)
+            .flushIntervalMs(logFlushIntervalMs)
+            .logBufferLines(logBufferLines)
+            .progressIntervalMs(progressIntervalMs)
+            .firstSeq(firstSeq)
+            .logLines(jobMetrics.logLines(job.getJobType()))
+            .logChars(jobMetrics.logChars(job.getJobType()))
+            .transactionTemplate(transactionTemplate)
+            .resultStore(jobResultStore)
+            .build();
+    activeJobs.put(job.getId(), context);
+    try {
+      self.runJobAsync(context, jobFunction);
+      return true;
+    } catch (TaskRejectedException e) {
+      activeJobs.remove(job.getId());
+      slots.release(jobFunction.getClass());
+      return false;
+    }
+  }
+
+  @Async(JobExecutorConfig.JOB_EXECUTOR)
+  public void runJobAsync(JobContext context, JobContextConsumer jobFunction) {
+    Job job = context.getJob();
+    ScheduledFuture<?> timeout = scheduleTimeout(context, jobFunction);
+    String errorMessage = null;
+    long startNanos = System.nanoTime();
+
+    try {
+      if (context.start()) {
+        jobFunction.accept(context);
+      }
+    } catch (Exception e) {
+      errorMessage = e.getMessage();
+    } finally {
+      context.finish();
+      if (timeout != null) timeout.cancel(false);
+    }
+
+    try {
+      if (context.isCancelled()) {
+        job.setStatus(context.getCancelStatus());
+        context.log(job.getStatus() == JobStatus.TIMED_OUT ? "Job timed out" : "Job cancelled");
+      } else if (errorMessage != null) {
+        job.setStatus(JobStatus.ERROR);
+        context.log(errorMessage);
+      } else {
+        job.setStatus(JobStatus.COMPLETE);
+      }
+      context.flush();
+      job.setFinishedAt(ZonedDateTime.now());
+      jobsRepository.save(job);
+      jobQueue.complete(job.getId());
+      jobMetrics.recordExecution(
+          job.getJobType(), job.getStatus(), Duration.ofNanos(System.nanoTime() - startNanos));
+      settleDependents(job);
+      if (logCompression) compressLog(job.getId());
+    } finally {
+      // only now are all lines and the final status in the database for log streams to read
+      activeJobs.remove(job.getId());
+      slots.release(jobFunction.getClass());
+      context.close();
+    }
+  }
+
+  private void compressLog(long jobId) {
+    try {
+      jobLogArchive.compress(jobId);
+    } catch (Exception e) {
+      // the log stays readable from its lines
+      log.warn("Could not compress the log of job {}", jobId, e);
+    }
+  }
+
+  /**
+   * Restarts a job that failed, was cancelled or timed out. The job keeps its id, its log and its
+   * checkpoint, and goes back into the queue; a job that records checkpoints, such as a {@link
+   * ChunkedJob}, then continues from its last checkpoint rather than starting over. Jobs of a graph
+   * that were cancelled because this job failed are not restarted with it.
+   *
+   * @param jobId id of the job
+   * @return the job, queued again
+   * @throws EntityNotFoundException if there is no such job
+   * @throws IllegalArgumentException if the job has not stopped short, or was launched with a
+   *     lambda and so cannot be rebuilt
+   * @throws JobRejectedException if the queue is full or the job's user has reached their quota
+   */
+  public Job restartJob(long jobId) {
+    Job job =
+        jobsRepository
+            .findById(jobId)
+            .orElseThrow(() -> new EntityNotFoundException(Job.class, jobId));
+    if (!RESTARTABLE.contains(job.getStatus())) {
+      throw new IllegalArgumentException(
+          "Job %d is %s; only jobs that failed, were cancelled or timed out can be restarted"
+              .formatted(jobId, job.getStatus().getValue()));
+    }
+    if (job.getParams() == null) {
+      throw new IllegalArgumentException(
+          "Job %d was launched with a lambda and cannot be restarted".formatted(jobId));
+    }
+    JobContextConsumer jobFunction;
+    try {
+      jobFunction = jobQueue.toJobFunction(job.getJobType(), job.getParams());
+    } catch (Exception e) {
+      throw new IllegalArgumentException(
+          "Job %d cannot be restarted: %s".formatted(jobId, e.getMessage()));
+    }
+    String rejection = rejectionReason(jobFunction, job.getJobType(), job.getCreatedBy());
+    if (rejection != null) throw new JobRejectedException(jobId, rejection);
+
+    // the restarted job appends to its log, so the log goes back to being stored as lines
+    jobLogArchive.decompress(jobId);
+    int seq = jobLogLinesRepository.findMaxSeqByJobId(jobId) + 1;
+    String message =
+        job.getCheckpoint() != null
+            ? "Job restarted from checkpoint " + job.getCheckpoint()
+            : "Job restarted";
+    jobLogLinesRepository.saveAll(JobContext.toLines(jobId, seq, message));
+
+    job.setStatus(JobStatus.QUEUED);
+    job.setFinishedAt(null);
+    jobsRepository.save(job);
+    jobQueue.enqueue(jobId, jobFunction, job.getParams(), false);
+    return job;
+  }
+
+  /**
+   * Asks a waiting, queued or running job to stop. A job waiting for other jobs or still in the
+   * queue is cancelled right away, as are the jobs of its graph waiting for it; a running job stops
+   * at its next cancellation check or blocking call, and its status becomes CANCELLED once it does.
+   *
+   * @param jobId id of the job
+   * @return false if the job is neither waiting, in the queue nor running on this server
+   */
+  public boolean cancelJob(Long jobId) {
+    JobContext context = activeJobs.get(jobId);
+    if (context != null) return context.cancel(JobStatus.CANCELLED);
+    if (!jobQueue.cancelQueued(jobId)) return cancelWaiting(jobId, null);
+
+    localJobs.remove(jobId);
+    jobsRepository
+        .findById(jobId)
+        .ifPresent(job -> finishUnstarted(job, JobStatus.CANCELLED, null));
+    return true;
+  }
+
+  /**
+   * The wall-clock timeout for a job is read from {@code app.jobs.timeout.<JobClassName>}, falling
+   * back to {@code app.jobs.timeout.default}; a zero timeout means the job may run indefinitely.
+   */
+  private ScheduledFuture<?> scheduleTimeout(JobContext context, JobContextConsumer jobFunction) {
+    Duration timeout =
+        environment.getProperty(
+            "app.jobs.timeout." + jobFunction.getClass().getSimpleName(),
+            Duration.class,
+            environment.getProperty("app.jobs.timeout.default", Duration.class, Duration.ZERO));
+    if (timeout.isZero()) return null;
+    return taskScheduler.schedule(
+        () -> context.cancel(JobStatus.TIMED_OUT), Instant.now().plus(timeout));
+  }
+
+  /**
+   * Streams the log of a job as Server-Sent Events. Lines of a running job are pushed as they are
+   * logged, mostly from the job's in-memory ring buffer; a finished job's log is read from the
+   * database a window of lines at a time. Either way the stream ends with an "end" event carrying
+   * the job's status.
+   *
+   * @param jobId id of the job
+   * @param fromSeq sequence number of the first line to send
+   * @return the emitter for the stream
+   * @throws Exception if the stream could not be started
+   */
+  public SseEmitter streamJobLogs(Long jobId, int fromSeq) throws Exception {
+    SseEmitter emitter = new SseEmitter(logStreamTimeoutMs);
+    // room for the whole ring buffer, which is queued at once on subscribing, and then some
+    JobLogEmitter listener = new JobLogEmitter(emitter, logBufferLines + logStreamQueueLines);
+    emitter.onError(e -> listener.stop());
+
+    JobContext context = activeJobs.get(jobId);
+    if (context != null) {
+      JobLogRingBuffer logBuffer = context.getLogBuffer();
+      Runnable unsubscribe =
+          () -> {
+            logBuffer.unsubscribe(listener);
+            listener.stop();
+          };
+      emitter.onCompletion(unsubscribe);
+      emitter.onTimeout(unsubscribe);
+      logBuffer.subscribe(fromSeq, listener, (first, last) -> readLogLines(jobId, first, last));
+      return emitter;
+    }
+
+    Job job =
+        jobsRepository
+            .findById(jobId)
+            .orElseThrow(() -> new EntityNotFoundException(Job.class, jobId));
+    emitter.onTimeout(listener::stop);
+    for (long first = fromSeq; ; first += JobLogRingBuffer.REPLAY_WINDOW_LINES) {
+      int last =
+          (int) Math.min(first + JobLogRingBuffer.REPLAY_WINDOW_LINES - 1, Integer.MAX_VALUE);
+      List<JobLogLine> lines = readLogLines(jobId, (int) first, last);
+      if (lines.isEmpty()) break;
+      for (JobLogLine line : lines) listener.replay(line);
+    }
+    listener.onEnd(job.getStatus());
+    return emitter;
+  }
+
+  /**
+   * Reads a range of a job's log lines, whether the log is still stored as lines or has been
+   * compressed. The lines are read first since a job's log may be compressed while it is read.
+   */
+  private List<JobLogLine> readLogLines(long jobId, int firstSeq, int lastSeq) {
+    List<JobLogLine> lines =
+        jobLogLinesRepository.findByJobIdAndSeqBetweenOrderBySeqAsc(jobId, firstSeq, lastSeq);
+    return !lines.isEmpty() ? lines : jobLogArchive.readLines(jobId, firstSeq, lastSeq);
   }
 
   public String getJobLogs(Long jobId) {
     Job job =
         jobsRepository
             .findById(jobId)
-            .orElseThrow(() -> new IllegalArgumentException("Job not found"));
+            .orElseThrow(() -> new EntityNotFoundException(Job.class, jobId));
 
+    List<JobLogLine> lines = jobLogLinesRepository.findByJobIdOrderBySeqAsc(jobId);
+    if (!lines.isEmpty()) {
+      return lines.stream().map(JobLogLine::getMessage).collect(Collectors.joining("\n"));
+    }
+    String compressed = jobLogArchive.read(jobId);
+    if (compressed != null) return compressed;
+    // jobs that ran before log lines were stored separately keep their log on the job row
     String log = job.getLog();
     return log != null ? log : "";
   }
+
+  /**
+   * Reads a range of lines of a job's log without reading the rest of it.
+   *
+   * @param jobId id of the job
+   * @param offset number of the first line, starting at 0
+   * @param limit how many lines to read at most
+   * @return the lines, separated by newlines
+   * @throws EntityNotFoundException if there is no such job
+   * @throws IllegalArgumentException if the offset or limit is negative
+   */
+  public String getJobLogLines(Long jobId, int offset, int limit) {
+    Job job =
+        jobsRepository
+            .findById(jobId)
+            .orElseThrow(() -> new EntityNotFoundException(Job.class, jobId));
+    if (offset < 0 || limit < 0) {
+      throw new IllegalArgumentException("The offset and limit must not be negative");
+    }
+    if (limit == 0) return "";
+
+    int last = (int) Math.min((long) offset + limit - 1, Integer.MAX_VALUE);
+    List<JobLogLine> lines = readLogLines(jobId, offset, last);
+    if (lines.isEmpty() && job.getLog() != null) {
+      return legacyLogLines(job).skip(offset).limit(limit).collect(Collectors.joining("\n"));
+    }
+    return lines.stream().map(JobLogLine::getMessage).collect(Collectors.joining("\n"));
+  }
+
+  /**
+   * Reads the last lines of a job's log without reading the rest of it.
+   *
+   * @param jobId id of the job
+   * @param count how many lines to read at most
+   * @return the lines, separated by newlines
+   * @throws EntityNotFoundException if there is no such job
+   * @throws IllegalArgumentException if the count is negative
+   */
+  public String getJobLogTail(Long jobId, int count) {
+    if (count < 0) throw new IllegalArgumentException("The tail must not be negative");
+    int lineCount = jobLogLinesRepository.findMaxSeqByJobId(jobId) + 1;
+    if (lineCount == 0) lineCount = jobLogArchive.countLines(jobId);
+    if (lineCount == 0) {
+      lineCount =
+          (int)
+              jobsRepository.findById(jobId).map(this::legacyLogLines).orElse(Stream.of()).count();
+    }
+    return getJobLogLines(jobId, Math.max(0, lineCount - count), count);
+  }
+
+  private Stream<String> legacyLogLines(Job job) {
+    return job.getLog() != null ? job.getLog().lines() : Stream.of();
+  }
+
+  /**
+   * @param jobId id of the job
+   * @return the size in bytes of a job's compressed log once inflated, or -1 if the job's log is
+   *     not stored compressed (yet)
+   */
+  public long getCompressedJobLogSize(Long jobId) {
+    return jobLogArchive.isCompressed(jobId) ? jobLogArchive.size(jobId) : -1;
+  }
+
+  /**
+   * Reads a range of bytes of a job's compressed log, inflating only the chunks that hold it.
+   *
+   * @param jobId id of the job
+   * @param firstByte offset of the first byte
+   * @param lastByte offset of the last byte
+   * @return the bytes of the log text
+   */
+  public byte[] getCompressedJobLogBytes(Long jobId, long firstByte, long lastByte) {
+    return jobLogArchive.readBytes(jobId, firstByte, lastByte);
+  }
+
+  /**
+   * @param jobId id of the job
+   * @return true if the job has finished and its log is stored compressed
+   */
+  public boolean isJobLogCompressed(Long jobId) {
+    return jobLogArchive.isCompressed(jobId);
+  }
+
+  /**
+   * @param jobId id of the job
+   * @return the size in bytes of a job's compressed log as a gzip stream
+   */
+  public long getGzippedJobLogSize(Long jobId) {
+    return jobLogArchive.compressedSize(jobId);
+  }
+
+  /**
+   * Opens a job's compressed log as a gzip stream, without inflating it; the chunks are read from
+   * the database as the stream is read.
+   *
+   * @param jobId id of the job
+   * @return the gzip-compressed log text
+   */
+  public InputStream openCompressedJobLogs(Long jobId) {
+    return jobLogArchive.openCompressed(jobId);
+  }
+
+  public JobExecutorStatus getExecutorStatus() {
+    return JobExecutorStatus.builder()
+        .activeJobs(jobExecutor.getActiveCount())
+        .queuedJobs(jobQueue.countQueued())
+        .maxConcurrency(jobExecutor.getMaxPoolSize())
+        .queueCapacity(queueCapacity)
+        .build();
+  }
 }
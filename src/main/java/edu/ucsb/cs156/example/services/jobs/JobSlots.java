@@ -0,0 +1,96 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntSupplier;
+
+/**
+ * Counts the jobs running on this node, in total and by type, and decides whether another job may
+ * start here. A job may start if a worker is free, if it is not an INTERACTIVE job and would not
+ * take one of the {@code reservedWorkers} kept for INTERACTIVE jobs, and if fewer than its {@link
+ * JobPolicy#maxConcurrency()} jobs of the same type are running.
+ */
+public class JobSlots {
+  @JobPolicy
+  private static final class Unannotated {}
+
+  private static final JobPolicy DEFAULT_POLICY = Unannotated.class.getAnnotation(JobPolicy.class);
+
+  private final IntSupplier maxWorkers;
+  private final IntSupplier reservedWorkers;
+  private final Map<Class<?>, Integer> runningByType;
+  private int running;
+
+  /**
+   * @param maxWorkers the number of workers on this node
+   * @param reservedWorkers how many workers only INTERACTIVE jobs may use; other jobs can always
+   *     use at least one worker
+   */
+  public JobSlots(IntSupplier maxWorkers, IntSupplier reservedWorkers) {
+    this(maxWorkers, reservedWorkers, new HashMap<>(), 0);
+  }
+
+  private JobSlots(
+      IntSupplier maxWorkers,
+      IntSupplier reservedWorkers,
+      Map<Class<?>, Integer> runningByType,
+      int running) {
+    this.maxWorkers = maxWorkers;
+    this.reservedWorkers = reservedWorkers;
+    this.runningByType = runningByType;
+    this.running = running;
+  }
+
+  /**
+   * @param type a job class
+   * @return the policy declared on the class, or the default policy
+   */
+  public static JobPolicy policyOf(Class<?> type) {
+    JobPolicy policy = type.getAnnotation(JobPolicy.class);
+    return policy != null ? policy : DEFAULT_POLICY;
+  }
+
+  /**
+   * Takes a slot for a job if one is free.
+   *
+   * @param type the job's class
+   * @return false if the job may not start now
+   */
+  public synchronized boolean tryAcquire(Class<?> type) {
+    JobPolicy policy = policyOf(type);
+    int limit = maxWorkers.getAsInt();
+    if (policy.lane() != JobLane.INTERACTIVE)
+      limit = Math.max(1, limit - reservedWorkers.getAsInt());
+    if (running >= limit) return false;
+    int sameType = runningByType.getOrDefault(type, 0);
+    if (policy.maxConcurrency() > 0 && sameType >= policy.maxConcurrency()) return false;
+
+    running++;
+    runningByType.put(type, sameType + 1);
+    return true;
+  }
+
+  /**
+   * Gives back the slot taken for a job.
+   *
+   * @param type the job's class
+   */
+  public synchronized void release(Class<?> type) {
+    running--;
+    runningByType.computeIfPresent(type, (t, n) -> n > 1 ? n - 1 : null);
+  }
+
+  /**
+   * @return the number of workers not running a job
+   */
+  public synchronized int free() {
+    return maxWorkers.getAsInt() - running;
+  }
+
+  /**
+   * @return a copy that can be used to plan which queued jobs to claim without taking any slots
+   */
+  public synchronized JobSlots copy() {
+    return new JobSlots(maxWorkers, reservedWorkers, new HashMap<>(runningByType), running);
+  }
+}
@@ -0,0 +1,119 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobStatus;
+import edu.ucsb.cs156.example.entities.RecurringJob;
+import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import edu.ucsb.cs156.example.repositories.RecurringJobsRepository;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.support.CronExpression;
+import org.springframework.stereotype.Service;
+
+/**
+ * Launches recurring jobs when they are due. Every node checks the recurring_jobs table every
+ * {@code app.jobs.recurring.pollIntervalMs}; a node launches a due run only if it is the one that
+ * moves the job's next run time on, so each run is launched once however many nodes there are.
+ *
+ * <p>Runs go through {@link JobService#runAsJob(JobContextConsumer, User)} so they are logged and
+ * tracked like any other job. A run that comes due while the previous run is still queued or
+ * running is skipped.
+ */
+@Slf4j
+@Service
+public class RecurringJobService {
+  @Autowired private RecurringJobsRepository recurringJobsRepository;
+
+  @Autowired private JobsRepository jobsRepository;
+
+  @Autowired private JobService jobService;
+
+  @Autowired private JobQueue jobQueue;
+
+  /**
+   * Checks a recurring job and works out its next run, so that a bad definition is refused when it
+   * is saved rather than when it comes due.
+   *
+   * @param recurringJob the recurring job
+   * @return the recurring job, with its next run time set
+   * @throws IllegalArgumentException if the schedule or the job is not valid
+   */
+  public RecurringJob prepare(RecurringJob recurringJob) {
+    if ((recurringJob.getCron() == null) == (recurringJob.getFixedRateMs() == null)) {
+      throw new IllegalArgumentException("Give either a cron expression or a fixed rate");
+    }
+    if (recurringJob.getCron() != null
+        && !CronExpression.isValidExpression(recurringJob.getCron())) {
+      throw new IllegalArgumentException("Invalid cron expression: " + recurringJob.getCron());
+    }
+    if (recurringJob.getFixedRateMs() != null && recurringJob.getFixedRateMs() <= 0) {
+      throw new IllegalArgumentException("The fixed rate must be positive");
+    }
+    try {
+      jobQueue.toJobFunction(recurringJob.getJobType(), recurringJob.getParams());
+    } catch (Exception e) {
+      throw new IllegalArgumentException("Invalid job: " + e.getMessage());
+    }
+    ZonedDateTime next = nextRun(recurringJob, ZonedDateTime.now());
+    if (next == null) {
+      throw new IllegalArgumentException("The cron expression never matches again");
+    }
+    recurringJob.setNextRunAt(next);
+    return recurringJob;
+  }
+
+  /** Launches every enabled recurring job that is due. */
+  @Scheduled(fixedDelayString = "${app.jobs.recurring.pollIntervalMs:10000}")
+  public void runDueJobs() {
+    ZonedDateTime now = ZonedDateTime.now();
+    for (RecurringJob recurringJob :
+        recurringJobsRepository.findByEnabledTrueAndNextRunAtLessThanEqual(now)) {
+      try {
+        runIfDue(recurringJob, now);
+      } catch (Exception e) {
+        log.error("Could not launch recurring job {}", recurringJob.getName(), e);
+      }
+    }
+  }
+
+  private void runIfDue(RecurringJob recurringJob, ZonedDateTime now) throws Exception {
+    ZonedDateTime dueAt = recurringJob.getNextRunAt();
+    ZonedDateTime next = nextRun(recurringJob, dueAt);
+    if (!next.isAfter(now)) {
+      // runs missed while the server was down are not made up
+      next = nextRun(recurringJob, now);
+    }
+    if (recurringJobsRepository.advance(recurringJob.getId(), dueAt, next) == 0) {
+      return; // another node launched this run
+    }
+
+    if (recurringJob.getLastJobId() != null) {
+      JobStatus lastStatus =
+          jobsRepository.findById(recurringJob.getLastJobId()).map(Job::getStatus).orElse(null);
+      if (lastStatus == JobStatus.QUEUED || lastStatus == JobStatus.RUNNING) {
+        log.info(
+            "Skipping recurring job {}: job {} is still {}",
+            recurringJob.getName(),
+            recurringJob.getLastJobId(),
+            lastStatus.getValue());
+        return;
+      }
+    }
+
+    JobContextConsumer jobFunction =
+        jobQueue.toJobFunction(recurringJob.getJobType(), recurringJob.getParams());
+    Job job = jobService.runAsJob(jobFunction, null);
+    recurringJobsRepository.recordRun(recurringJob.getId(), job.getId(), now);
+  }
+
+  private ZonedDateTime nextRun(RecurringJob recurringJob, ZonedDateTime after) {
+    if (recurringJob.getCron() != null) {
+      return CronExpression.parse(recurringJob.getCron()).next(after);
+    }
+    return after.plus(Duration.ofMillis(recurringJob.getFixedRateMs()));
+  }
+}
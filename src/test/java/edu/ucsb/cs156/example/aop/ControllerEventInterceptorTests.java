@@ -0,0 +1,105 @@
+package edu.ucsb.cs156.example.aop;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ucsb.cs156.example.controllers.JobsController;
+import edu.ucsb.cs156.example.services.diagnostics.RecordedEvents;
+import java.util.List;
+import jdk.jfr.consumer.RecordedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+public class ControllerEventInterceptorTests {
+
+  private static final String EVENT = "edu.ucsb.cs156.example.ControllerCall";
+
+  private final ControllerEventInterceptor interceptor = new ControllerEventInterceptor();
+
+  private final MockHttpServletRequest request =
+      new MockHttpServletRequest("GET", "/api/jobs/logs/3");
+
+  private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+  private HandlerMethod handler() throws Exception {
+    return new HandlerMethod(
+        new JobsController(), JobsController.class.getMethod("getJobResult", Long.class));
+  }
+
+  @Test
+  public void a_request_is_recorded_with_its_route_handler_and_status() throws Throwable {
+    // arrange
+    request.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/api/jobs/results/{id}");
+    response.setStatus(404);
+
+    // act
+    List<RecordedEvent> events =
+        RecordedEvents.record(
+            EVENT,
+            () -> {
+              interceptor.preHandle(request, response, handler());
+              Thread.sleep(5);
+              interceptor.afterCompletion(request, response, handler(), null);
+            });
+
+    // assert
+    assertEquals(1, events.size());
+    RecordedEvent event = events.get(0);
+    assertEquals("GET", event.getString("httpMethod"));
+    assertEquals("/api/jobs/results/{id}", event.getString("route"));
+    assertEquals("JobsController.getJobResult", event.getString("handler"));
+    assertEquals(404, event.getInt("status"));
+    assertTrue(event.getDuration().toMillis() >= 5);
+  }
+
+  @Test
+  public void a_streamed_response_is_recorded_once_it_completes() throws Throwable {
+    // act
+    List<RecordedEvent> events =
+        RecordedEvents.record(
+            EVENT,
+            () -> {
+              interceptor.preHandle(request, response, handler());
+              interceptor.afterConcurrentHandlingStarted(request, response, handler());
+              Thread.sleep(5);
+              // the async dispatch runs the interceptor again
+              interceptor.preHandle(request, response, handler());
+              interceptor.afterCompletion(request, response, handler(), null);
+            });
+
+    // assert
+    assertEquals(1, events.size());
+    assertEquals(200, events.get(0).getInt("status"));
+    assertTrue(events.get(0).getDuration().toMillis() >= 5);
+  }
+
+  @Test
+  public void an_unresolved_exception_is_recorded_as_a_server_error() throws Throwable {
+    // act
+    List<RecordedEvent> events =
+        RecordedEvents.record(
+            EVENT,
+            () -> {
+              interceptor.preHandle(request, response, handler());
+              interceptor.afterCompletion(
+                  request, response, handler(), new IllegalStateException("boom"));
+            });
+
+    // assert
+    assertEquals(500, events.get(0).getInt("status"));
+  }
+
+  @Test
+  public void nothing_is_kept_on_the_request_when_no_recording_wants_the_event() {
+    // act
+    interceptor.preHandle(request, response, null);
+    interceptor.afterCompletion(request, response, null, null);
+
+    // assert
+    assertNull(request.getAttribute(ControllerEventInterceptor.class.getName() + ".event"));
+  }
+}
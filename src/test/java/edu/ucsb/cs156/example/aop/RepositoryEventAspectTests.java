@@ -0,0 +1,91 @@
+package edu.ucsb.cs156.example.aop;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobStatus;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import edu.ucsb.cs156.example.services.diagnostics.RecordedEvents;
+import java.util.List;
+import java.util.Optional;
+import jdk.jfr.consumer.RecordedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.PageImpl;
+
+public class RepositoryEventAspectTests {
+
+  private static final String EVENT = "edu.ucsb.cs156.example.RepositoryCall";
+
+  private final JobsRepository target = mock(JobsRepository.class);
+
+  private JobsRepository jobsRepository;
+
+  @BeforeEach
+  public void setup() {
+    AspectJProxyFactory factory = new AspectJProxyFactory(target);
+    factory.addInterface(JobsRepository.class);
+    factory.addAspect(new RepositoryEventAspect());
+    jobsRepository = factory.getProxy();
+  }
+
+  @Test
+  public void repository_calls_are_recorded_with_the_rows_they_return() throws Throwable {
+    // arrange
+    when(target.findById(1L)).thenReturn(Optional.of(Job.builder().id(1L).build()));
+    when(target.findAll()).thenReturn(List.of(Job.builder().build(), Job.builder().build()));
+    when(target.updateStatus(1L, JobStatus.WAITING, JobStatus.QUEUED)).thenReturn(1);
+
+    // act
+    List<RecordedEvent> events =
+        RecordedEvents.record(
+            EVENT,
+            () -> {
+              jobsRepository.findById(1L);
+              jobsRepository.findAll();
+              jobsRepository.updateStatus(1L, JobStatus.WAITING, JobStatus.QUEUED);
+              jobsRepository.count();
+            });
+
+    // assert
+    assertEquals(
+        List.of("findById", "findAll", "updateStatus", "count"),
+        events.stream().map(e -> e.getString("method")).toList());
+    assertEquals(List.of(1L, 2L, 1L, -1L), events.stream().map(e -> e.getLong("rows")).toList());
+    events.forEach(e -> assertEquals("JobsRepository", e.getString("repository")));
+    events.forEach(e -> assertNull(e.getString("error")));
+  }
+
+  @Test
+  public void a_failed_call_is_recorded_with_its_exception() throws Throwable {
+    // arrange
+    when(target.findById(1L)).thenThrow(new QueryTimeoutException("too slow"));
+
+    // act
+    List<RecordedEvent> events =
+        RecordedEvents.record(
+            EVENT,
+            () -> assertThrows(QueryTimeoutException.class, () -> jobsRepository.findById(1L)));
+
+    // assert
+    assertEquals(1, events.size());
+    assertEquals(-1L, events.get(0).getLong("rows"));
+    assertEquals(QueryTimeoutException.class.getName(), events.get(0).getString("error"));
+  }
+
+  @Test
+  public void rows_are_counted_for_pages_and_entities_only() {
+    assertEquals(3, RepositoryEventAspect.rows(new PageImpl<>(List.of(1, 2, 3))));
+    assertEquals(1, RepositoryEventAspect.rows(Job.builder().build()));
+    assertEquals(0, RepositoryEventAspect.rows(Optional.empty()));
+    assertEquals(-1, RepositoryEventAspect.rows(true));
+    assertEquals(-1, RepositoryEventAspect.rows("a string"));
+    assertEquals(-1, RepositoryEventAspect.rows(null));
+  }
+}
@@ -0,0 +1,222 @@
+package edu.ucsb.cs156.example.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.models.ClassHistogramEntry;
+import edu.ucsb.cs156.example.models.MemoryPoolStats;
+import edu.ucsb.cs156.example.models.MemoryReport;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.diagnostics.MemoryDiagnostics;
+import edu.ucsb.cs156.example.services.diagnostics.StackSampler;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MvcResult;
+
+@WebMvcTest(controllers = DiagnosticsController.class)
+public class DiagnosticsControllerTests extends ControllerTestCase {
+
+  @MockBean UserRepository userRepository;
+
+  @MockBean StackSampler stackSampler;
+
+  @MockBean MemoryDiagnostics memoryDiagnostics;
+
+  @Autowired DiagnosticsController diagnosticsController;
+
+  @Test
+  public void logged_out_users_cannot_profile() throws Exception {
+    mockMvc.perform(get("/api/diagnostics/profile")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void logged_in_regular_users_cannot_profile() throws Exception {
+    mockMvc.perform(get("/api/diagnostics/profile")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void admin_can_profile_the_request_threads() throws Exception {
+
+    // arrange
+    when(stackSampler.sample(Duration.ofSeconds(2), 20, StackSampler.Threads.REQUESTS, true))
+        .thenReturn(Map.of("a;b", 3L, "a;c", 7L));
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(
+                get(
+                    "/api/diagnostics/profile?seconds=2&intervalMs=20&threads=requests&waiting=true"))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    assertEquals("a;c 7\na;b 3\n", response.getResponse().getContentAsString());
+    assertEquals("text/plain;charset=UTF-8", response.getResponse().getContentType());
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void profiling_defaults_to_ten_seconds_of_all_running_threads() throws Exception {
+
+    // arrange
+    when(stackSampler.sample(Duration.ofSeconds(10), 10, StackSampler.Threads.ALL, false))
+        .thenReturn(Map.of());
+
+    // act
+    MvcResult response =
+        mockMvc.perform(get("/api/diagnostics/profile")).andExpect(status().isOk()).andReturn();
+
+    // assert
+    assertEquals("", response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void job_threads_cannot_be_profiled_when_jobs_run_on_virtual_threads() throws Exception {
+
+    // arrange
+    ReflectionTestUtils.setField(diagnosticsController, "executorMode", "virtual");
+
+    // act
+    MvcResult response;
+    try {
+      response =
+          mockMvc
+              .perform(get("/api/diagnostics/profile?threads=jobs"))
+              .andExpect(status().isBadRequest())
+              .andReturn();
+    } finally {
+      ReflectionTestUtils.setField(diagnosticsController, "executorMode", "platform");
+    }
+
+    // assert
+    assertEquals(
+        "threads=jobs finds nothing to sample: jobs run on virtual threads, which are not"
+            + " sampled, while app.jobs.executor.mode is virtual",
+        responseToJson(response).get("message"));
+    verify(stackSampler, never()).sample(any(), anyLong(), any(), anyBoolean());
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void profiling_parameters_out_of_range_are_rejected() throws Exception {
+
+    // act
+    MvcResult seconds =
+        mockMvc
+            .perform(get("/api/diagnostics/profile?seconds=61"))
+            .andExpect(status().isBadRequest())
+            .andReturn();
+    MvcResult interval =
+        mockMvc
+            .perform(get("/api/diagnostics/profile?intervalMs=0"))
+            .andExpect(status().isBadRequest())
+            .andReturn();
+    MvcResult threads =
+        mockMvc
+            .perform(get("/api/diagnostics/profile?threads=gc"))
+            .andExpect(status().isBadRequest())
+            .andReturn();
+
+    // assert
+    assertEquals("seconds must be between 1 and 60", responseToJson(seconds).get("message"));
+    assertEquals("intervalMs must be between 1 and 1000", responseToJson(interval).get("message"));
+    assertEquals("threads must be all, requests or jobs", responseToJson(threads).get("message"));
+    verify(stackSampler, never()).sample(any(), anyLong(), any(), anyBoolean());
+  }
+
+  @Test
+  public void logged_out_users_cannot_see_memory_diagnostics() throws Exception {
+    mockMvc.perform(get("/api/diagnostics/memory")).andExpect(status().is(403));
+    mockMvc.perform(get("/api/diagnostics/classes")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void logged_in_regular_users_cannot_see_memory_diagnostics() throws Exception {
+    mockMvc.perform(get("/api/diagnostics/memory")).andExpect(status().is(403));
+    mockMvc.perform(get("/api/diagnostics/classes")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void admin_can_see_memory_usage() throws Exception {
+
+    // arrange
+    MemoryReport report =
+        MemoryReport.builder()
+            .nodeId("node-1")
+            .uptimeMs(1000)
+            .heap(
+                MemoryPoolStats.builder()
+                    .name("heap")
+                    .type("HEAP")
+                    .usedBytes(100)
+                    .committedBytes(200)
+                    .maxBytes(400)
+                    .build())
+            .pools(List.of())
+            .collectors(List.of())
+            .build();
+    when(memoryDiagnostics.memory()).thenReturn(report);
+
+    // act
+    MvcResult response =
+        mockMvc.perform(get("/api/diagnostics/memory")).andExpect(status().isOk()).andReturn();
+
+    // assert
+    assertEquals(mapper.writeValueAsString(report), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void admin_can_see_the_classes_with_the_most_live_bytes() throws Exception {
+
+    // arrange
+    List<ClassHistogramEntry> classes =
+        List.of(ClassHistogramEntry.builder().className("[B").instances(10).bytes(1000).build());
+    when(memoryDiagnostics.classHistogram(50)).thenReturn(classes);
+
+    // act
+    MvcResult response =
+        mockMvc.perform(get("/api/diagnostics/classes")).andExpect(status().isOk()).andReturn();
+
+    // assert
+    assertEquals(mapper.writeValueAsString(classes), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void too_many_classes_are_rejected() throws Exception {
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/diagnostics/classes?top=1001"))
+            .andExpect(status().isBadRequest())
+            .andReturn();
+
+    // assert
+    assertEquals("top must be between 1 and 1000", responseToJson(response).get("message"));
+    verify(memoryDiagnostics, never()).classHistogram(anyInt());
+  }
+}
@@ -3,68 +3,180 @@ package edu.ucsb.cs156.example.controllers;
 import static java.util.concurrent.TimeUnit.SECONDS;
 import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
-import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.config.JobExecutorConfig;
+import edu.ucsb.cs156.example.config.StringToJobStatusConverter;
 import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobDependency;
+import edu.ucsb.cs156.example.entities.JobLogChunk;
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.entities.JobQueueEntry;
+import edu.ucsb.cs156.example.entities.JobResultChunk;
+import edu.ucsb.cs156.example.entities.JobStatus;
 import edu.ucsb.cs156.example.entities.User;
+import edu.ucsb.cs156.example.errors.JobRejectedException;
+import edu.ucsb.cs156.example.jobs.HeapDumpJob;
+import edu.ucsb.cs156.example.jobs.JfrDumpJob;
+import edu.ucsb.cs156.example.jobs.JfrRecordingJob;
+import edu.ucsb.cs156.example.jobs.SyntheticLoadJob;
+import edu.ucsb.cs156.example.jobs.TestJob;
+import edu.ucsb.cs156.example.models.JobDeleteResult;
+import edu.ucsb.cs156.example.models.JobGraphNode;
+import edu.ucsb.cs156.example.models.JobLogMatch;
+import edu.ucsb.cs156.example.models.JobPurgeReport;
+import edu.ucsb.cs156.example.models.JobSummary;
+import edu.ucsb.cs156.example.repositories.JobDependenciesRepository;
+import edu.ucsb.cs156.example.repositories.JobLogChunksRepository;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
+import edu.ucsb.cs156.example.repositories.JobQueueRepository;
+import edu.ucsb.cs156.example.repositories.JobResultChunksRepository;
 import edu.ucsb.cs156.example.repositories.JobsRepository;
 import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.diagnostics.JfrRecorder;
+import edu.ucsb.cs156.example.services.diagnostics.MemoryDiagnostics;
+import edu.ucsb.cs156.example.services.jobs.JobContext;
+import edu.ucsb.cs156.example.services.jobs.JobContextConsumer;
+import edu.ucsb.cs156.example.services.jobs.JobGraph;
+import edu.ucsb.cs156.example.services.jobs.JobLogArchive;
+import edu.ucsb.cs156.example.services.jobs.JobLogSearch;
+import edu.ucsb.cs156.example.services.jobs.JobMetrics;
+import edu.ucsb.cs156.example.services.jobs.JobPolicy;
+import edu.ucsb.cs156.example.services.jobs.JobPurgeService;
+import edu.ucsb.cs156.example.services.jobs.JobQueue;
+import edu.ucsb.cs156.example.services.jobs.JobResultStore;
 import edu.ucsb.cs156.example.services.jobs.JobService;
+import edu.ucsb.cs156.example.services.jobs.JobSlots;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZonedDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.AutoConfigureDataJpa;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MvcResult;
 
 @Slf4j
 @WebMvcTest(controllers = JobsController.class)
-@Import(JobService.class)
+@Import({
+  JobService.class,
+  JobQueue.class,
+  JobMetrics.class,
+  JobLogArchive.class,
+  JobLogSearch.class,
+  JobResultStore.class,
+  JfrRecorder.class,
+  SimpleMeterRegistry.class,
+  JobExecutorConfig.class,
+  StringToJobStatusConverter.class
+})
 @AutoConfigureDataJpa
+@TestPropertySource(properties = "app.jobs.timeout.TestJob=6s")
 public class JobsControllerTests extends ControllerTestCase {
 
   @MockitoBean JobsRepository jobsRepository;
 
+  @MockitoBean JobLogLinesRepository jobLogLinesRepository;
+
+  @MockitoBean JobLogChunksRepository jobLogChunksRepository;
+
+  @MockitoBean JobQueueRepository jobQueueRepository;
+
+  @MockitoBean JobResultChunksRepository jobResultChunksRepository;
+
+  @MockitoBean MemoryDiagnostics memoryDiagnostics;
+
+  @MockitoBean JobDependenciesRepository jobDependenciesRepository;
+
+  @MockitoBean JobPurgeService jobPurgeService;
+
   @MockitoBean UserRepository userRepository;
 
+  @MockitoSpyBean(name = JobExecutorConfig.JOB_EXECUTOR)
+  ThreadPoolTaskExecutor jobExecutor;
+
   @Autowired JobService jobService;
 
+  @Autowired JobQueue jobQueue;
+
   @Autowired ObjectMapper objectMapper;
 
+  @Autowired MeterRegistry meterRegistry;
+
   @WithMockUser(roles = {"ADMIN"})
   @Test
   public void admin_can_get_all_jobs() throws Exception {
 
     // arrange
 
-    Job job1 = Job.builder().log("this is job 1").build();
-    Job job2 = Job.builder().log("this is job 2").build();
+    JobSummary job1 = JobSummary.builder().id(1L).status(JobStatus.COMPLETE).build();
+    JobSummary job2 =
+        JobSummary.builder()
+            .id(2L)
+            .status(JobStatus.RUNNING)
+            .createdById(1L)
+            .phase("loading")
+            .progressDone(5L)
+            .progressTotal(10L)
+            .build();
 
-    ArrayList<Job> expectedJobs = new ArrayList<>();
-    expectedJobs.addAll(Arrays.asList(job1, job2));
+    ArrayList<JobSummary> expectedJobs = new ArrayList<>();
+    expectedJobs.addAll(Arrays.asList(job2, job1));
 
-    when(jobsRepository.findAll()).thenReturn(expectedJobs);
+    when(jobsRepository.findAllSummaries()).thenReturn(expectedJobs);
 
     // act
     MvcResult response =
@@ -72,10 +184,77 @@ public class JobsControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(jobsRepository, atLeastOnce()).findAll();
+    verify(jobsRepository, atLeastOnce()).findAllSummaries();
+    verify(jobsRepository, never()).findAll();
     String expectedJson = mapper.writeValueAsString(expectedJobs);
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
+    assertTrue(responseString.contains("\"phase\":\"loading\",\"progressDone\":5"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_list_jobs_with_defaults() throws Exception {
+
+    // arrange
+
+    List<JobSummary> expectedJobs =
+        List.of(JobSummary.builder().id(2L).status(JobStatus.RUNNING).build());
+    when(jobsRepository.findSummaries(null, null, null, null, null, PageRequest.of(0, 50)))
+        .thenReturn(expectedJobs);
+
+    // act
+    MvcResult response =
+        mockMvc.perform(get("/api/jobs/list")).andExpect(status().isOk()).andReturn();
+
+    // assert
+    assertEquals(
+        mapper.writeValueAsString(expectedJobs), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_list_jobs_with_filters() throws Exception {
+
+    // arrange
+
+    ZonedDateTime after = ZonedDateTime.parse("2025-10-01T00:00:00Z");
+    ZonedDateTime before = ZonedDateTime.parse("2025-11-01T00:00:00Z");
+    List<JobSummary> expectedJobs =
+        List.of(JobSummary.builder().id(7L).status(JobStatus.TIMED_OUT).createdById(3L).build());
+    when(jobsRepository.findSummaries(
+            eq(JobStatus.TIMED_OUT),
+            eq(3L),
+            eq(after),
+            eq(before),
+            eq(10L),
+            eq(PageRequest.of(2, 500))))
+        .thenReturn(expectedJobs);
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(
+                get("/api/jobs/list")
+                    .param("status", "timed_out")
+                    .param("createdById", "3")
+                    .param("createdAfter", "2025-10-01T00:00:00Z")
+                    .param("createdBefore", "2025-11-01T00:00:00Z")
+                    .param("beforeId", "10")
+                    .param("page", "2")
+                    .param("size", "100000"))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    assertEquals(
+        mapper.writeValueAsString(expectedJobs), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void listing_jobs_with_an_unknown_status_is_a_bad_request() throws Exception {
+    mockMvc.perform(get("/api/jobs/list?status=sleeping")).andExpect(status().isBadRequest());
   }
 
   @WithMockUser(roles = {"ADMIN"})
@@ -84,7 +263,8 @@ public class JobsControllerTests extends ControllerTestCase {
 
     // arrange
 
-    Job job = Job.builder().id(1L).status("completed").log("This is a test job log.").build();
+    Job job =
+        Job.builder().id(1L).status(JobStatus.COMPLETE).log("This is a test job log.").build();
 
     when(jobsRepository.findById(eq(1L))).thenReturn(Optional.of(job));
 
@@ -127,7 +307,10 @@ public class JobsControllerTests extends ControllerTestCase {
   @Test
   public void admin_can_delete_all_jobs() throws Exception {
 
-    doNothing().when(jobsRepository).deleteAll();
+    // arrange
+
+    when(jobPurgeService.deleteJobs(null, EnumSet.allOf(JobStatus.class), null, null, null))
+        .thenReturn(JobDeleteResult.builder().jobsDeleted(3).logLinesDeleted(10).build());
 
     // act
     MvcResult response =
@@ -138,10 +321,85 @@ public class JobsControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(jobsRepository, times(1)).deleteAll();
-    String expectedJson = mapper.writeValueAsString(Map.of("message", "All jobs deleted"));
-    String responseString = response.getResponse().getContentAsString();
-    assertEquals(expectedJson, responseString);
+    verify(jobsRepository, never()).deleteAll();
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("All jobs deleted", json.get("message"));
+    assertEquals(3, json.get("jobsDeleted"));
+    assertEquals(10, json.get("logLinesDeleted"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_bulk_delete_jobs_matching_filters() throws Exception {
+
+    // arrange
+
+    JobDeleteResult result = JobDeleteResult.builder().jobsDeleted(2).logLinesDeleted(5).build();
+    when(jobPurgeService.deleteJobs(
+            List.of(4L, 5L, 6L),
+            EnumSet.of(JobStatus.ERROR),
+            1L,
+            null,
+            ZonedDateTime.parse("2025-11-01T00:00:00Z")))
+        .thenReturn(result);
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(
+                delete(
+                        "/api/jobs/bulk?ids=4,5,6&status=error&createdById=1"
+                            + "&createdBefore=2025-11-01T00:00:00Z")
+                    .with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    assertEquals(mapper.writeValueAsString(result), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void bulk_delete_without_a_status_filter_keeps_active_jobs() throws Exception {
+
+    // arrange
+    ZonedDateTime before = ZonedDateTime.parse("2025-11-01T00:00:00Z");
+    when(jobPurgeService.deleteJobs(
+            null,
+            EnumSet.of(
+                JobStatus.COMPLETE,
+                JobStatus.ERROR,
+                JobStatus.REJECTED,
+                JobStatus.CANCELLED,
+                JobStatus.TIMED_OUT),
+            null,
+            null,
+            before))
+        .thenReturn(JobDeleteResult.builder().jobsDeleted(4).build());
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(delete("/api/jobs/bulk?createdBefore=2025-11-01T00:00:00Z").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    assertEquals(4, responseToJson(response).get("jobsDeleted"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void bulk_delete_requires_a_filter() throws Exception {
+
+    // act
+    mockMvc
+        .perform(delete("/api/jobs/bulk").with(csrf()))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.type").value("IllegalArgumentException"));
+
+    // assert
+    verify(jobPurgeService, never()).deleteJobs(any(), any(), any(), any(), any());
   }
 
   @WithMockUser(roles = {"ADMIN"})
@@ -177,14 +435,359 @@ public class JobsControllerTests extends ControllerTestCase {
         .andExpect(content().string(""));
   }
 
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void test_getJobLogs_admin_can_get_log_from_log_lines() throws Exception {
+    // Arrange
+    Long jobId = 3L;
+    Job job = Job.builder().id(jobId).build();
+    when(jobsRepository.findById(jobId)).thenReturn(Optional.of(job));
+    when(jobLogLinesRepository.findByJobIdOrderBySeqAsc(jobId))
+        .thenReturn(
+            List.of(
+                JobLogLine.builder().jobId(jobId).seq(0).message("line one").build(),
+                JobLogLine.builder().jobId(jobId).seq(1).message("line two").build()));
+
+    // Act & Assert
+    mockMvc
+        .perform(get("/api/jobs/logs/{id}", jobId))
+        .andExpect(status().isOk())
+        .andExpect(content().string("line one\nline two"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void compressed_log_is_sent_as_stored_to_clients_that_accept_gzip() throws Exception {
+    // Arrange
+    byte[] first = gzip("line one");
+    byte[] second = gzip("\nline two");
+    when(jobLogChunksRepository.countByJobId(3L)).thenReturn(2);
+    when(jobLogChunksRepository.findByJobIdAndChunkNo(3L, 0))
+        .thenReturn(Optional.of(JobLogChunk.builder().jobId(3L).chunkNo(0).data(first).build()));
+    when(jobLogChunksRepository.findByJobIdAndChunkNo(3L, 1))
+        .thenReturn(Optional.of(JobLogChunk.builder().jobId(3L).chunkNo(1).data(second).build()));
+    when(jobLogChunksRepository.findCompressedLengthByJobId(3L))
+        .thenReturn((long) first.length + second.length);
+
+    // Act
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/jobs/logs/{id}", 3L).header("Accept-Encoding", "deflate, gzip"))
+            .andExpect(status().isOk())
+            .andExpect(
+                header().string("Content-Length", String.valueOf(first.length + second.length)))
+            .andReturn();
+
+    // Assert
+    assertEquals("gzip", response.getResponse().getHeader("Content-Encoding"));
+    byte[] body = response.getResponse().getContentAsByteArray();
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(body))) {
+      assertEquals("line one\nline two", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+    }
+    verify(jobsRepository, never()).findById(any());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void compressed_log_is_inflated_for_clients_that_do_not_accept_gzip() throws Exception {
+    // Arrange
+    when(jobsRepository.findById(3L)).thenReturn(Optional.of(Job.builder().id(3L).build()));
+    when(jobLogChunksRepository.countByJobId(3L)).thenReturn(1);
+    when(jobLogChunksRepository.findByJobIdAndChunkNo(3L, 0))
+        .thenReturn(
+            Optional.of(JobLogChunk.builder().jobId(3L).chunkNo(0).data(gzip("line one")).build()));
+
+    // Act & Assert
+    mockMvc
+        .perform(get("/api/jobs/logs/{id}", 3L).header("Accept-Encoding", "gzip;q=0"))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist("Content-Encoding"))
+        .andExpect(content().string("line one"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_download_the_result_of_a_job() throws Exception {
+    // Arrange
+    Job job =
+        Job.builder()
+            .id(3L)
+            .resultContentType("text/csv")
+            .resultFileName("counts.csv")
+            .resultSize(12L)
+            .build();
+    when(jobsRepository.findById(3L)).thenReturn(Optional.of(job));
+    when(jobResultChunksRepository.findByJobIdAndChunkNo(3L, 0))
+        .thenReturn(
+            Optional.of(
+                JobResultChunk.builder()
+                    .jobId(3L)
+                    .chunkNo(0)
+                    .data("a,b\n".getBytes(StandardCharsets.UTF_8))
+                    .build()));
+    when(jobResultChunksRepository.findByJobIdAndChunkNo(3L, 1))
+        .thenReturn(
+            Optional.of(
+                JobResultChunk.builder()
+                    .jobId(3L)
+                    .chunkNo(1)
+                    .data("1,2\n3,4\n".getBytes(StandardCharsets.UTF_8))
+                    .build()));
+
+    // Act
+    MvcResult started =
+        mockMvc
+            .perform(get("/api/jobs/results/{id}", 3L))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    // Assert
+    mockMvc
+        .perform(asyncDispatch(started))
+        .andExpect(status().isOk())
+        .andExpect(header().string("Content-Type", "text/csv"))
+        .andExpect(header().string("Content-Length", "12"))
+        .andExpect(header().string("Content-Disposition", "attachment; filename=\"counts.csv\""))
+        .andExpect(content().string("a,b\n1,2\n3,4\n"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void result_of_a_job_without_one_is_not_found() throws Exception {
+    // Arrange
+    when(jobsRepository.findById(3L)).thenReturn(Optional.of(Job.builder().id(3L).build()));
+
+    // Act
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/jobs/results/{id}", 3L))
+            .andExpect(status().isNotFound())
+            .andReturn();
+
+    // Assert
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("Job 3 has no result", json.get("message"));
+    verify(jobResultChunksRepository, never()).findByJobIdAndChunkNo(anyLong(), anyInt());
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void logged_in_regular_users_cannot_download_job_results() throws Exception {
+    mockMvc.perform(get("/api/jobs/results/{id}", 3L)).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void tail_of_a_running_job_log_reads_only_the_last_lines() throws Exception {
+    // Arrange
+    when(jobsRepository.findById(3L)).thenReturn(Optional.of(Job.builder().id(3L).build()));
+    when(jobLogLinesRepository.findMaxSeqByJobId(3L)).thenReturn(99);
+    when(jobLogLinesRepository.findByJobIdAndSeqBetweenOrderBySeqAsc(3L, 98, 99))
+        .thenReturn(
+            List.of(
+                JobLogLine.builder().jobId(3L).seq(98).message("line 98").build(),
+                JobLogLine.builder().jobId(3L).seq(99).message("line 99").build()));
+
+    // Act & Assert
+    mockMvc
+        .perform(get("/api/jobs/logs/{id}?tail=2", 3L))
+        .andExpect(status().isOk())
+        .andExpect(content().string("line 98\nline 99"));
+    verify(jobLogLinesRepository, never()).findByJobIdOrderBySeqAsc(anyLong());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void lines_of_a_compressed_log_are_read_by_offset_and_limit() throws Exception {
+    // Arrange
+    when(jobsRepository.findById(3L)).thenReturn(Optional.of(Job.builder().id(3L).build()));
+    when(jobLogChunksRepository.findCoveringLines(3L, 1, 2))
+        .thenReturn(
+            List.of(
+                JobLogChunk.builder()
+                    .jobId(3L)
+                    .chunkNo(0)
+                    .firstLine(0)
+                    .lineCount(3)
+                    .data(gzip("line one\nline two\nline three"))
+                    .build()));
+
+    // Act & Assert
+    mockMvc
+        .perform(get("/api/jobs/logs/{id}?offset=1&limit=2", 3L))
+        .andExpect(status().isOk())
+        .andExpect(content().string("line two\nline three"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void a_negative_offset_is_a_bad_request() throws Exception {
+    // Arrange
+    when(jobsRepository.findById(3L)).thenReturn(Optional.of(Job.builder().id(3L).build()));
+
+    // Act & Assert
+    mockMvc
+        .perform(get("/api/jobs/logs/{id}?offset=-1", 3L))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.type").value("IllegalArgumentException"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void lines_and_tail_of_the_log_of_a_missing_job_are_not_found() throws Exception {
+    // Arrange
+    when(jobsRepository.findById(6L)).thenReturn(Optional.empty());
+
+    // Act & Assert
+    mockMvc
+        .perform(get("/api/jobs/logs/{id}?offset=1&limit=2", 6L))
+        .andExpect(status().isNotFound())
+        .andExpect(jsonPath("$.type").value("EntityNotFoundException"))
+        .andExpect(jsonPath("$.message").value("Job with id 6 not found"));
+    mockMvc
+        .perform(get("/api/jobs/logs/{id}?tail=2", 6L))
+        .andExpect(status().isNotFound())
+        .andExpect(jsonPath("$.type").value("EntityNotFoundException"))
+        .andExpect(jsonPath("$.message").value("Job with id 6 not found"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void a_byte_range_of_a_compressed_log_is_partial_content() throws Exception {
+    // Arrange
+    when(jobLogChunksRepository.countByJobId(3L)).thenReturn(2);
+    when(jobLogChunksRepository.findRawLengthByJobId(3L)).thenReturn(17L);
+    when(jobLogChunksRepository.findCoveringBytes(3L, 12L, 16L))
+        .thenReturn(
+            List.of(
+                JobLogChunk.builder()
+                    .jobId(3L)
+                    .chunkNo(1)
+                    .rawOffset(8)
+                    .rawLength(9)
+                    .data(gzip("\nline two"))
+                    .build()));
+
+    // Act & Assert
+    mockMvc
+        .perform(get("/api/jobs/logs/{id}", 3L).header("Range", "bytes=-5"))
+        .andExpect(status().isPartialContent())
+        .andExpect(header().string("Content-Range", "bytes 12-16/17"))
+        .andExpect(content().string("e two"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void a_byte_range_past_the_end_of_the_log_is_not_satisfiable() throws Exception {
+    // Arrange
+    when(jobLogChunksRepository.countByJobId(3L)).thenReturn(1);
+    when(jobLogChunksRepository.findRawLengthByJobId(3L)).thenReturn(17L);
+
+    // Act & Assert
+    mockMvc
+        .perform(get("/api/jobs/logs/{id}", 3L).header("Range", "bytes=100-"))
+        .andExpect(status().isRequestedRangeNotSatisfiable())
+        .andExpect(header().string("Content-Range", "bytes */17"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_search_a_job_log() throws Exception {
+    // Arrange
+    when(jobsRepository.existsById(3L)).thenReturn(true);
+    when(jobLogLinesRepository.findMaxSeqByJobId(3L)).thenReturn(2);
+    when(jobLogLinesRepository.findByJobIdAndSeqBetweenOrderBySeqAsc(eq(3L), eq(0), anyInt()))
+        .thenReturn(
+            List.of(
+                JobLogLine.builder().jobId(3L).seq(0).message("starting").build(),
+                JobLogLine.builder().jobId(3L).seq(1).message("Error: boom").build(),
+                JobLogLine.builder().jobId(3L).seq(2).message("stopping").build()));
+
+    // Act
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/jobs/logs/{id}/search?q=error&ignoreCase=true&context=1", 3L))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // Assert
+    String expectedJson =
+        mapper.writeValueAsString(
+            List.of(
+                JobLogMatch.builder()
+                    .jobId(3L)
+                    .lineNumber(1)
+                    .line("Error: boom")
+                    .before(List.of("starting"))
+                    .after(List.of("stopping"))
+                    .build()));
+    assertEquals(expectedJson, response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void searching_logs_needs_a_query_and_a_short_enough_window() throws Exception {
+    mockMvc.perform(get("/api/jobs/logs/{id}/search?q=", 3L)).andExpect(status().isBadRequest());
+    mockMvc
+        .perform(get("/api/jobs/logs/search?q=error&createdAfter=2020-01-01T00:00:00Z"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.type").value("IllegalArgumentException"));
+  }
+
+  private static byte[] gzip(String text) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (GZIPOutputStream out = new GZIPOutputStream(bytes)) {
+      out.write(text.getBytes(StandardCharsets.UTF_8));
+    }
+    return bytes.toByteArray();
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_purge_old_jobs() throws Exception {
+
+    // arrange
+
+    JobPurgeReport report =
+        JobPurgeReport.builder().expiredJobsDeleted(7).logLinesDeleted(40).batches(1).build();
+    when(jobPurgeService.purge()).thenReturn(report);
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(post("/api/jobs/purge").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    assertEquals(mapper.writeValueAsString(report), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_get_the_last_purge_report() throws Exception {
+
+    // arrange
+
+    JobPurgeReport report = JobPurgeReport.builder().excessJobsDeleted(3).batches(1).build();
+    when(jobPurgeService.getLastReport()).thenReturn(report);
+
+    // act
+    MvcResult response =
+        mockMvc.perform(get("/api/jobs/purge")).andExpect(status().isOk()).andReturn();
+
+    // assert
+    assertEquals(mapper.writeValueAsString(report), response.getResponse().getContentAsString());
+  }
+
   @WithMockUser(roles = {"ADMIN"})
   @Test
   public void admin_can_delete_specific_job() throws Exception {
 
     // arrange
 
-    when(jobsRepository.existsById(eq(1L))).thenReturn(true);
-    doNothing().when(jobsRepository).deleteById(eq(1L));
+    when(jobPurgeService.deleteJobs(List.of(1L), EnumSet.allOf(JobStatus.class), null, null, null))
+        .thenReturn(JobDeleteResult.builder().jobsDeleted(1).logLinesDeleted(2).build());
 
     // act
     MvcResult response =
@@ -195,7 +798,7 @@ public class JobsControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(jobsRepository, times(1)).deleteById(eq(1L));
+    verify(jobsRepository, never()).existsById(any());
     String expectedJson = mapper.writeValueAsString(Map.of("message", "Job with id 1 deleted"));
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -207,7 +810,8 @@ public class JobsControllerTests extends ControllerTestCase {
 
     // arrange
 
-    when(jobsRepository.existsById(eq(2L))).thenReturn(false);
+    when(jobPurgeService.deleteJobs(List.of(2L), EnumSet.allOf(JobStatus.class), null, null, null))
+        .thenReturn(JobDeleteResult.builder().build());
 
     // act
     MvcResult response =
@@ -218,7 +822,8 @@ public class JobsControllerTests extends ControllerTestCase {
 
     // assert
 
-    verify(jobsRepository, times(1)).existsById(eq(2L));
+    verify(jobPurgeService, times(1))
+        .deleteJobs(List.of(2L), EnumSet.allOf(JobStatus.class), null, null, null);
     String expectedJson = mapper.writeValueAsString(Map.of("message", "Job with id 2 not found"));
     String responseString = response.getResponse().getContentAsString();
     assertEquals(expectedJson, responseString);
@@ -232,27 +837,23 @@ public class JobsControllerTests extends ControllerTestCase {
 
     User user = currentUserService.getUser();
 
-    Job jobStarted =
-        Job.builder()
-            .id(0L)
-            .createdBy(user)
-            .createdAt(null)
-            .updatedAt(null)
-            .status("running")
-            .log("Hello World! from test job!")
-            .build();
-
     Job jobCompleted =
         Job.builder()
             .id(0L)
             .createdBy(user)
+            .dedupScope(user.getId())
             .createdAt(null)
             .updatedAt(null)
-            .status("complete")
-            .log("Hello World! from test job!\nGoodbye from test job!")
+            .status(JobStatus.COMPLETE)
+            .jobType(TestJob.class.getName())
+            .params("{\"fail\":false,\"sleepMs\":2000}")
+            .queueWaitMs(0L)
+            .phase("sleeping")
+            .progressDone(1L)
+            .progressTotal(1L)
             .build();
 
-    when(jobsRepository.save(any(Job.class))).thenReturn(jobStarted).thenReturn(jobCompleted);
+    when(jobsRepository.save(any(Job.class))).thenReturn(jobCompleted);
 
     // act
     MvcResult response =
@@ -265,45 +866,232 @@ public class JobsControllerTests extends ControllerTestCase {
     String responseString = response.getResponse().getContentAsString();
     Job jobReturned = objectMapper.readValue(responseString, Job.class);
 
-    assertEquals("running", jobReturned.getStatus());
+    assertEquals(JobStatus.RUNNING, jobReturned.getStatus());
 
-    await()
-        .atMost(1, SECONDS)
-        .untilAsserted(() -> verify(jobsRepository, times(2)).save(eq(jobStarted)));
     await()
         .atMost(10, SECONDS)
-        .untilAsserted(() -> verify(jobsRepository, times(4)).save(eq(jobCompleted)));
+        .untilAsserted(() -> verify(jobsRepository, times(2)).save(finished(jobCompleted)));
+
+    // the job row is only written at start and finish; log lines go to their own table
+    ArgumentCaptor<List<JobLogLine>> captor = ArgumentCaptor.forClass(List.class);
+    verify(jobLogLinesRepository, atLeastOnce()).saveAll(captor.capture());
+    List<String> messages =
+        captor.getAllValues().stream().flatMap(List::stream).map(JobLogLine::getMessage).toList();
+    assertEquals(List.of("Hello World! from test job!", "Goodbye from test job!"), messages);
+
+    assertTrue(jobCompleted.getStartedAt() != null);
+    assertTrue(!jobCompleted.getFinishedAt().isBefore(jobCompleted.getStartedAt().plusSeconds(2)));
   }
 
   @WithMockUser(roles = {"ADMIN"})
   @Test
-  public void admin_can_launch_test_job_that_fails() throws Exception {
-
+  public void admin_can_launch_a_synthetic_load_job() throws Exception {
     // arrange
+    when(jobsRepository.save(any(Job.class))).thenAnswer(invocation -> invocation.getArgument(0));
 
-    User user = currentUserService.getUser();
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(
+                post("/api/jobs/launch/syntheticload?workers=2&durationSeconds=1&writePercent=10")
+                    .with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
 
-    Job jobStarted =
-        Job.builder()
-            .id(0L)
-            .createdBy(user)
-            .createdAt(null)
-            .updatedAt(null)
-            .status("running")
-            .log("Hello World! from test job!")
-            .build();
+    // assert
+    Job job = objectMapper.readValue(response.getResponse().getContentAsString(), Job.class);
+    assertEquals(SyntheticLoadJob.class.getName(), job.getJobType());
+    assertEquals("{\"workers\":2,\"durationSeconds\":1,\"writePercent\":10}", job.getParams());
+    await()
+        .atMost(10, SECONDS)
+        .untilAsserted(
+            () ->
+                verify(jobsRepository, atLeastOnce())
+                    .save(argThat(j -> j.getStatus() == JobStatus.COMPLETE)));
+    verify(jobsRepository).updateResult(eq(0L), eq("application/json"), eq(null), any());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void synthetic_load_with_too_many_workers_is_rejected() throws Exception {
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(post("/api/jobs/launch/syntheticload?workers=1000").with(csrf()))
+            .andExpect(status().isBadRequest())
+            .andReturn();
+
+    // assert
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("workers must be between 1 and 256", json.get("message"));
+    verify(jobsRepository, never()).save(any());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_launch_a_jfr_recording() throws Exception {
+    // arrange
+    when(jobsRepository.save(any(Job.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(post("/api/jobs/launch/jfr?durationSeconds=1&settings=default").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    Job job = objectMapper.readValue(response.getResponse().getContentAsString(), Job.class);
+    assertEquals(JfrRecordingJob.class.getName(), job.getJobType());
+    assertEquals("{\"durationSeconds\":1,\"settings\":\"default\"}", job.getParams());
+    await()
+        .atMost(10, SECONDS)
+        .untilAsserted(
+            () ->
+                verify(jobsRepository, atLeastOnce())
+                    .save(argThat(j -> j.getStatus() == JobStatus.COMPLETE)));
+    verify(jobsRepository)
+        .updateResult(eq(0L), eq("application/octet-stream"), eq("recording-0.jfr"), any());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void jfr_recording_with_unknown_settings_is_rejected() throws Exception {
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(post("/api/jobs/launch/jfr?settings=/etc/passwd").with(csrf()))
+            .andExpect(status().isBadRequest())
+            .andReturn();
+
+    // assert
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("settings must be default or profile", json.get("message"));
+    verify(jobsRepository, never()).save(any());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_launch_a_heap_dump() throws Exception {
+    // arrange
+    when(jobsRepository.save(any(Job.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    Path file = Files.createTempDirectory("heap-").resolve("heap.hprof");
+    Files.writeString(file, "JAVA PROFILE 1.0.2");
+    when(memoryDiagnostics.dumpHeap(false)).thenReturn(file);
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(post("/api/jobs/launch/heapdump?live=false").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    Job job = objectMapper.readValue(response.getResponse().getContentAsString(), Job.class);
+    assertEquals(HeapDumpJob.class.getName(), job.getJobType());
+    assertEquals("{\"live\":false}", job.getParams());
+    await()
+        .atMost(10, SECONDS)
+        .untilAsserted(
+            () ->
+                verify(jobsRepository, atLeastOnce())
+                    .save(argThat(j -> j.getStatus() == JobStatus.COMPLETE)));
+    verify(jobsRepository)
+        .updateResult(eq(0L), eq("application/gzip"), eq("heap-0.hprof.gz"), any());
+    assertTrue(Files.notExists(file));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void jfr_dump_fails_without_a_continuous_recording() throws Exception {
+    // arrange
+    when(jobsRepository.save(any(Job.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(post("/api/jobs/launch/jfrdump").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    Job job = objectMapper.readValue(response.getResponse().getContentAsString(), Job.class);
+    assertEquals(JfrDumpJob.class.getName(), job.getJobType());
+    assertEquals("{}", job.getParams());
+    await()
+        .atMost(10, SECONDS)
+        .untilAsserted(
+            () ->
+                verify(jobsRepository, atLeastOnce())
+                    .save(argThat(j -> j.getStatus() == JobStatus.ERROR)));
+    verify(jobsRepository, never()).updateResult(anyLong(), any(), any(), any());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void finished_jobs_are_recorded_in_the_job_metrics() throws Exception {
+
+    // arrange
+
+    double completeBefore =
+        meterRegistry.counter("jobs.finished", "type", "TestJob", "outcome", "complete").count();
+    double linesBefore = meterRegistry.counter("jobs.log.lines", "type", "TestJob").count();
+
+    // act
+    mockMvc
+        .perform(post("/api/jobs/launch/testjob?fail=false&sleepMs=0").with(csrf()))
+        .andExpect(status().isOk());
+
+    // assert
+    await()
+        .atMost(5, SECONDS)
+        .untilAsserted(
+            () ->
+                assertEquals(
+                    completeBefore + 1,
+                    meterRegistry
+                        .counter("jobs.finished", "type", "TestJob", "outcome", "complete")
+                        .count()));
+    assertTrue(
+        meterRegistry
+                .get("jobs.execution")
+                .tags("type", "TestJob", "outcome", "complete")
+                .timer()
+                .count()
+            >= 1);
+    assertTrue(meterRegistry.get("jobs.queue.wait").tags("type", "TestJob").timer().count() >= 1);
+    assertTrue(
+        meterRegistry.counter("jobs.log.lines", "type", "TestJob").count() >= linesBefore + 2);
+    await()
+        .atMost(5, SECONDS)
+        .untilAsserted(() -> assertEquals(0.0, meterRegistry.get("jobs.active").gauge().value()));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_launch_test_job_that_fails() throws Exception {
+
+    // arrange
+
+    User user = currentUserService.getUser();
 
     Job jobFailed =
         Job.builder()
             .id(0L)
             .createdBy(user)
+            .dedupScope(user.getId())
             .createdAt(null)
             .updatedAt(null)
-            .status("error")
-            .log("Hello World! from test job!\nFail!")
+            .status(JobStatus.ERROR)
+            .jobType(TestJob.class.getName())
+            .params("{\"fail\":true,\"sleepMs\":4000}")
+            .queueWaitMs(0L)
+            .phase("sleeping")
+            .progressDone(0L)
+            .progressTotal(1L)
             .build();
 
-    when(jobsRepository.save(any(Job.class))).thenReturn(jobStarted).thenReturn(jobFailed);
+    when(jobsRepository.save(any(Job.class))).thenReturn(jobFailed);
 
     // act
     MvcResult response =
@@ -315,14 +1103,881 @@ public class JobsControllerTests extends ControllerTestCase {
     String responseString = response.getResponse().getContentAsString();
     Job jobReturned = objectMapper.readValue(responseString, Job.class);
 
-    assertEquals("running", jobReturned.getStatus());
+    assertEquals(JobStatus.RUNNING, jobReturned.getStatus());
+
+    await()
+        .atMost(10, SECONDS)
+        .untilAsserted(() -> verify(jobsRepository, times(2)).save(finished(jobFailed)));
+
+    ArgumentCaptor<List<JobLogLine>> captor = ArgumentCaptor.forClass(List.class);
+    verify(jobLogLinesRepository, atLeastOnce()).saveAll(captor.capture());
+    List<String> messages =
+        captor.getAllValues().stream().flatMap(List::stream).map(JobLogLine::getMessage).toList();
+    assertEquals(List.of("Hello World! from test job!", "Fail!"), messages);
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void launching_a_job_when_the_queue_is_full_returns_too_many_requests() throws Exception {
+
+    // arrange
+
+    Job jobRejected =
+        Job.builder()
+            .id(0L)
+            .createdBy(currentUserService.getUser())
+            .dedupScope(currentUserService.getUser().getId())
+            .status(JobStatus.REJECTED)
+            .jobType(TestJob.class.getName())
+            .params("{\"fail\":false,\"sleepMs\":0}")
+            .build();
+
+    when(jobQueueRepository.countByClaimedByIsNull()).thenReturn(100L);
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(post("/api/jobs/launch/testjob?fail=false&sleepMs=0").with(csrf()))
+            .andExpect(status().isTooManyRequests())
+            .andReturn();
+
+    // assert
+    verify(jobsRepository, times(2)).save(finished(jobRejected));
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("JobRejectedException", json.get("type"));
+    assertEquals("Job 0 rejected: the job queue is full (100 waiting)", json.get("message"));
+    verify(jobQueueRepository, never()).save(any());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void launching_a_job_stores_it_in_the_queue_claimed_by_this_node() throws Exception {
+
+    // act
+    mockMvc
+        .perform(post("/api/jobs/launch/testjob?fail=false&sleepMs=0").with(csrf()))
+        .andExpect(status().isOk());
 
+    // assert
+    ArgumentCaptor<JobQueueEntry> captor = ArgumentCaptor.forClass(JobQueueEntry.class);
+    verify(jobQueueRepository).save(captor.capture());
+    JobQueueEntry entry = captor.getValue();
+    assertEquals(0L, entry.getId());
+    assertEquals(TestJob.class.getName(), entry.getJobType());
+    assertEquals("{\"fail\":false,\"sleepMs\":0}", entry.getParams());
+    assertEquals(jobQueue.getNodeId(), entry.getClaimedBy());
+    assertEquals(1, entry.getAttempts());
     await()
-        .atMost(1, SECONDS)
-        .untilAsserted(() -> verify(jobsRepository, times(2)).save(eq(jobStarted)));
+        .atMost(5, SECONDS)
+        .untilAsserted(() -> verify(jobQueueRepository).deleteClaimed(eq(0L), any()));
+  }
 
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void job_the_executor_rejects_is_given_back_to_the_queue() throws Exception {
+
+    // arrange
+
+    doThrow(new TaskRejectedException("executor is full"))
+        .when(jobExecutor)
+        .submit(any(Callable.class));
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(post("/api/jobs/launch/testjob?fail=false&sleepMs=0").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    Job jobReturned =
+        objectMapper.readValue(response.getResponse().getContentAsString(), Job.class);
+    assertEquals(JobStatus.QUEUED, jobReturned.getStatus());
+    verify(jobQueueRepository).release(0L, jobQueue.getNodeId());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void launching_with_the_key_of_a_running_job_returns_that_job() throws Exception {
+
+    // arrange
+
+    User user = currentUserService.getUser();
+    Job running =
+        Job.builder()
+            .id(7L)
+            .status(JobStatus.RUNNING)
+            .createdAt(ZonedDateTime.now().minusSeconds(5))
+            .dedupKey("launch-1")
+            .build();
+    when(jobsRepository.findByDedupKey(
+            user.getId(), "launch-1", List.of(JobStatus.QUEUED, JobStatus.RUNNING)))
+        .thenReturn(List.of(running));
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(
+                post("/api/jobs/launch/testjob?fail=false&sleepMs=0")
+                    .header("Idempotency-Key", "launch-1")
+                    .with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    assertEquals(mapper.writeValueAsString(running), response.getResponse().getContentAsString());
+    verify(jobsRepository, never()).save(any());
+    verify(jobQueueRepository, never()).save(any());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void every_launch_endpoint_returns_the_running_job_launched_with_the_same_key()
+      throws Exception {
+
+    // arrange
+
+    User user = currentUserService.getUser();
+    Job running =
+        Job.builder()
+            .id(7L)
+            .status(JobStatus.RUNNING)
+            .createdAt(ZonedDateTime.now().minusSeconds(5))
+            .dedupKey("launch-2")
+            .build();
+    when(jobsRepository.findByDedupKey(
+            user.getId(), "launch-2", List.of(JobStatus.QUEUED, JobStatus.RUNNING)))
+        .thenReturn(List.of(running));
+
+    for (String path :
+        List.of(
+            "/api/jobs/launch/syntheticload",
+            "/api/jobs/launch/jfr",
+            "/api/jobs/launch/jfrdump",
+            "/api/jobs/launch/heapdump")) {
+      // act
+      MvcResult response =
+          mockMvc
+              .perform(post(path).header("Idempotency-Key", "launch-2").with(csrf()))
+              .andExpect(status().isOk())
+              .andReturn();
+
+      // assert
+      assertEquals(mapper.writeValueAsString(running), response.getResponse().getContentAsString());
+    }
+    verify(jobsRepository, never()).save(any());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void launching_with_a_key_last_used_before_the_window_launches_a_new_job()
+      throws Exception {
+
+    // arrange
+
+    User user = currentUserService.getUser();
+    Job stale =
+        Job.builder()
+            .id(7L)
+            .status(JobStatus.QUEUED)
+            .createdAt(ZonedDateTime.now().minusHours(1))
+            .dedupKey("launch-1")
+            .build();
+    when(jobsRepository.findByDedupKey(
+            user.getId(), "launch-1", List.of(JobStatus.QUEUED, JobStatus.RUNNING)))
+        .thenReturn(List.of(stale));
+
+    // act
+    mockMvc
+        .perform(
+            post("/api/jobs/launch/testjob?fail=false&sleepMs=0")
+                .header("Idempotency-Key", "launch-1")
+                .with(csrf()))
+        .andExpect(status().isOk());
+
+    // assert
+    verify(jobsRepository).clearDedupKey(7L);
+    ArgumentCaptor<Job> captor = ArgumentCaptor.forClass(Job.class);
+    verify(jobsRepository, atLeastOnce()).save(captor.capture());
+    assertEquals("launch-1", captor.getAllValues().get(0).getDedupKey());
     await()
-        .atMost(10, SECONDS)
-        .untilAsserted(() -> verify(jobsRepository, times(3)).save(eq(jobFailed)));
+        .atMost(5, SECONDS)
+        .untilAsserted(() -> verify(jobQueueRepository).deleteClaimed(eq(0L), any()));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void concurrent_launch_with_the_same_key_returns_the_job_that_was_saved_first()
+      throws Exception {
+
+    // arrange
+
+    User user = currentUserService.getUser();
+    Job winner = Job.builder().id(8L).status(JobStatus.RUNNING).dedupKey("launch-1").build();
+    when(jobsRepository.findByDedupKey(
+            user.getId(), "launch-1", List.of(JobStatus.QUEUED, JobStatus.RUNNING)))
+        .thenReturn(List.of())
+        .thenReturn(List.of(winner));
+    when(jobsRepository.save(any(Job.class)))
+        .thenThrow(new DataIntegrityViolationException("JOBS_DEDUP_SCOPE_DEDUP_KEY_IDX"));
+
+    // act
+    Job job = jobService.runAsJob(TestJob.builder().build(), user, "launch-1");
+
+    // assert
+    assertEquals(winner, job);
+    verify(jobQueueRepository, never()).save(any());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void user_at_their_quota_cannot_launch_another_job_of_that_type() throws Exception {
+
+    // arrange
+
+    User user = currentUserService.getUser();
+    when(jobsRepository.countByCreatedByAndJobType(
+            user.getId(),
+            OneAtATimeJob.class.getName(),
+            List.of(JobStatus.QUEUED, JobStatus.RUNNING)))
+        .thenReturn(1L);
+
+    // act
+    JobRejectedException e =
+        assertThrows(
+            JobRejectedException.class, () -> jobService.runAsJob(new OneAtATimeJob(), user));
+
+    // assert
+    assertEquals(
+        "Job 0 rejected: at most 1 unfinished OneAtATimeJob jobs are allowed per user",
+        e.getMessage());
+    verify(jobsRepository, times(2))
+        .save(
+            finished(
+                Job.builder()
+                    .id(0L)
+                    .createdBy(user)
+                    .dedupScope(user.getId())
+                    .status(JobStatus.REJECTED)
+                    .jobType(OneAtATimeJob.class.getName())
+                    .params("{}")
+                    .build()));
+    verify(jobQueueRepository, never()).save(any());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void launch_that_races_another_past_the_quota_is_rejected_once_saved() throws Exception {
+
+    // arrange
+
+    User user = currentUserService.getUser();
+    when(jobsRepository.countByCreatedByAndJobType(
+            user.getId(),
+            OneAtATimeJob.class.getName(),
+            List.of(JobStatus.QUEUED, JobStatus.RUNNING)))
+        .thenReturn(0L)
+        .thenReturn(2L);
+    JobSlots slots = (JobSlots) ReflectionTestUtils.getField(jobService, "slots");
+    int free = slots.free();
+
+    // act
+    JobRejectedException e =
+        assertThrows(
+            JobRejectedException.class, () -> jobService.runAsJob(new OneAtATimeJob(), user));
+
+    // assert
+    assertEquals(
+        "Job 0 rejected: at most 1 unfinished OneAtATimeJob jobs are allowed per user",
+        e.getMessage());
+    verify(jobsRepository, times(2)).countByCreatedByAndJobType(any(Long.class), any(), any());
+    verify(jobQueueRepository, never()).save(any());
+    assertEquals(free, slots.free());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void job_claimed_from_the_queue_records_how_long_it_waited() throws Exception {
+
+    // arrange
+
+    Job job =
+        Job.builder()
+            .id(5L)
+            .status(JobStatus.QUEUED)
+            .createdAt(ZonedDateTime.now().minusMinutes(2))
+            .build();
+    JobQueueEntry entry =
+        JobQueueEntry.builder()
+            .id(5L)
+            .jobType(TestJob.class.getName())
+            .params("{\"fail\":false,\"sleepMs\":0}")
+            .build();
+    when(jobQueueRepository.findClaimable(any(), eq(jobQueue.getNodeId()), any()))
+        .thenReturn(List.of(entry))
+        .thenReturn(List.of());
+    when(jobsRepository.findById(5L)).thenReturn(Optional.of(job));
+
+    // act
+    jobService.pollQueue();
+
+    // assert
+    await()
+        .atMost(5, SECONDS)
+        .untilAsserted(() -> verify(jobQueueRepository).deleteClaimed(eq(5L), any()));
+    assertEquals(JobStatus.COMPLETE, job.getStatus());
+    assertTrue(job.getQueueWaitMs() >= 120_000L);
+    assertTrue(job.getStartedAt() != null && job.getFinishedAt() != null);
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_cancel_a_queued_job() throws Exception {
+
+    // arrange
+
+    Job job = Job.builder().id(9L).status(JobStatus.QUEUED).build();
+    when(jobQueueRepository.deleteUnclaimed(9L)).thenReturn(1);
+    when(jobsRepository.findById(eq(9L))).thenReturn(Optional.of(job));
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(post("/api/jobs/cancel?id=9").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    String expectedJson =
+        mapper.writeValueAsString(Map.of("message", "Job with id 9 is being cancelled"));
+    assertEquals(expectedJson, response.getResponse().getContentAsString());
+    verify(jobsRepository).save(finished(Job.builder().id(9L).status(JobStatus.CANCELLED).build()));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_get_executor_status() throws Exception {
+
+    // arrange
+
+    doReturn(3).when(jobExecutor).getActiveCount();
+    when(jobQueueRepository.countByClaimedByIsNull()).thenReturn(5L);
+
+    // act
+    MvcResult response =
+        mockMvc.perform(get("/api/jobs/executor")).andExpect(status().isOk()).andReturn();
+
+    // assert
+    Map<String, Object> json = responseToJson(response);
+    assertEquals(3, json.get("activeJobs"));
+    assertEquals(5, json.get("queuedJobs"));
+    assertEquals(4, json.get("maxConcurrency"));
+    assertEquals(100, json.get("queueCapacity"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_cancel_a_running_job() throws Exception {
+
+    // arrange
+
+    Job jobCancelled =
+        Job.builder()
+            .id(0L)
+            .createdBy(currentUserService.getUser())
+            .dedupScope(currentUserService.getUser().getId())
+            .status(JobStatus.CANCELLED)
+            .jobType(TestJob.class.getName())
+            .params("{\"fail\":false,\"sleepMs\":30000}")
+            .queueWaitMs(0L)
+            .phase("sleeping")
+            .progressDone(0L)
+            .progressTotal(1L)
+            .build();
+
+    mockMvc
+        .perform(post("/api/jobs/launch/testjob?fail=false&sleepMs=30000").with(csrf()))
+        .andExpect(status().isOk());
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(post("/api/jobs/cancel?id=0").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    String expectedJson =
+        mapper.writeValueAsString(Map.of("message", "Job with id 0 is being cancelled"));
+    assertEquals(expectedJson, response.getResponse().getContentAsString());
+
+    await()
+        .atMost(5, SECONDS)
+        .untilAsserted(() -> verify(jobsRepository, times(2)).save(finished(jobCancelled)));
+
+    ArgumentCaptor<List<JobLogLine>> captor = ArgumentCaptor.forClass(List.class);
+    verify(jobLogLinesRepository, atLeastOnce()).saveAll(captor.capture());
+    List<String> messages =
+        captor.getAllValues().stream().flatMap(List::stream).map(JobLogLine::getMessage).toList();
+    assertEquals("Job cancelled", messages.get(messages.size() - 1));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_gets_reasonable_message_when_cancelling_a_job_that_is_not_running()
+      throws Exception {
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(post("/api/jobs/cancel?id=17").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    String expectedJson =
+        mapper.writeValueAsString(Map.of("message", "Job with id 17 is not running"));
+    assertEquals(expectedJson, response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_launch_a_job_graph() throws Exception {
+
+    // arrange
+
+    String params = "{\"fail\":false,\"sleepMs\":0}";
+    List<JobGraphNode> graph =
+        List.of(
+            JobGraphNode.builder()
+                .name("commons")
+                .jobType(TestJob.class.getName())
+                .params(params)
+                .build(),
+            JobGraphNode.builder()
+                .name("menuItems")
+                .jobType(TestJob.class.getName())
+                .params(params)
+                .dependsOn(List.of("commons"))
+                .build());
+    when(jobsRepository.updateStatus(0L, JobStatus.WAITING, JobStatus.QUEUED)).thenReturn(1);
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(
+                post("/api/jobs/graph")
+                    .contentType("application/json")
+                    .content(mapper.writeValueAsString(graph))
+                    .with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    List<Job> jobs =
+        Arrays.asList(
+            objectMapper.readValue(response.getResponse().getContentAsString(), Job[].class));
+    assertEquals(
+        List.of(JobStatus.QUEUED, JobStatus.WAITING), jobs.stream().map(Job::getStatus).toList());
+    assertEquals(params, jobs.get(1).getParams());
+    verify(jobDependenciesRepository)
+        .save(JobDependency.builder().jobId(0L).prerequisiteId(0L).build());
+    ArgumentCaptor<JobQueueEntry> captor = ArgumentCaptor.forClass(JobQueueEntry.class);
+    verify(jobQueueRepository).save(captor.capture());
+    assertEquals(params, captor.getValue().getParams());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void a_job_graph_is_rejected_if_a_job_depends_on_one_listed_after_it() throws Exception {
+
+    // arrange
+
+    List<JobGraphNode> graph =
+        List.of(
+            JobGraphNode.builder()
+                .name("menuItems")
+                .jobType(TestJob.class.getName())
+                .dependsOn(List.of("commons"))
+                .build(),
+            JobGraphNode.builder().name("commons").jobType(TestJob.class.getName()).build());
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(
+                post("/api/jobs/graph")
+                    .contentType("application/json")
+                    .content(mapper.writeValueAsString(graph))
+                    .with(csrf()))
+            .andExpect(status().isBadRequest())
+            .andReturn();
+
+    // assert
+    assertEquals(
+        "Job menuItems depends on commons, which is not listed before it",
+        responseToJson(response).get("message"));
+    verify(jobsRepository, never()).save(any());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void a_job_graph_is_rejected_if_its_jobs_together_exceed_the_quota() throws Exception {
+
+    // arrange
+
+    User user = currentUserService.getUser();
+    JobGraph graph = new JobGraph();
+    int first = graph.add(new OneAtATimeJob());
+    graph.add(new OneAtATimeJob(), first);
+
+    // act
+    JobRejectedException e =
+        assertThrows(JobRejectedException.class, () -> jobService.runAsGraph(graph, user));
+
+    // assert
+    assertEquals(
+        "Jobs rejected: at most 1 unfinished OneAtATimeJob jobs are allowed per user",
+        e.getMessage());
+    verify(jobsRepository, never()).save(any());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void a_graph_job_that_may_no_longer_be_launched_when_released_is_rejected()
+      throws Exception {
+
+    // arrange
+
+    User user = currentUserService.getUser();
+    JobGraph graph = new JobGraph();
+    int first = graph.add(new OneAtATimeJob());
+    graph.add(TestJob.builder().build(), first);
+    when(jobsRepository.countByCreatedByAndJobType(
+            user.getId(),
+            OneAtATimeJob.class.getName(),
+            List.of(JobStatus.QUEUED, JobStatus.RUNNING)))
+        .thenReturn(0L)
+        .thenReturn(2L);
+    when(jobsRepository.updateStatus(0L, JobStatus.WAITING, JobStatus.QUEUED)).thenReturn(1);
+    when(jobLogLinesRepository.findMaxSeqByJobId(0L)).thenReturn(-1);
+
+    // act
+    List<Job> jobs = jobService.runAsGraph(graph, user);
+
+    // assert
+    assertEquals(JobStatus.REJECTED, jobs.get(0).getStatus());
+    assertNotNull(jobs.get(0).getFinishedAt());
+    verify(jobLogLinesRepository)
+        .saveAll(
+            List.of(
+                JobLogLine.builder()
+                    .jobId(0L)
+                    .seq(0)
+                    .message(
+                        "Job rejected: at most 1 unfinished OneAtATimeJob jobs are allowed per user")
+                    .build()));
+    verify(jobQueueRepository, never()).save(any());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void cancelling_a_waiting_job_cancels_the_jobs_waiting_for_it() throws Exception {
+
+    // arrange
+
+    Job waiting = Job.builder().id(9L).status(JobStatus.WAITING).build();
+    Job dependent = Job.builder().id(10L).status(JobStatus.WAITING).build();
+    when(jobsRepository.updateStatus(9L, JobStatus.WAITING, JobStatus.CANCELLED)).thenReturn(1);
+    when(jobsRepository.updateStatus(10L, JobStatus.WAITING, JobStatus.CANCELLED)).thenReturn(1);
+    when(jobsRepository.findById(eq(9L))).thenReturn(Optional.of(waiting));
+    when(jobsRepository.findById(eq(10L))).thenReturn(Optional.of(dependent));
+    when(jobDependenciesRepository.findDependentIds(9L)).thenReturn(List.of(10L));
+    when(jobLogLinesRepository.findMaxSeqByJobId(10L)).thenReturn(-1);
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(post("/api/jobs/cancel?id=9").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    assertEquals("Job with id 9 is being cancelled", responseToJson(response).get("message"));
+    verify(jobsRepository).save(finished(Job.builder().id(9L).status(JobStatus.CANCELLED).build()));
+    verify(jobsRepository)
+        .save(finished(Job.builder().id(10L).status(JobStatus.CANCELLED).build()));
+    verify(jobLogLinesRepository)
+        .saveAll(
+            List.of(
+                JobLogLine.builder()
+                    .jobId(10L)
+                    .seq(0)
+                    .message(
+                        "Job cancelled: job 9, which it depends on, ended with status cancelled")
+                    .build()));
+    verify(jobDependenciesRepository).deleteByJobId(9L);
+    verify(jobDependenciesRepository).deleteByJobId(10L);
+    verify(jobQueueRepository, never()).save(any());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_restart_a_failed_job() throws Exception {
+
+    // arrange
+
+    Job job =
+        Job.builder()
+            .id(4L)
+            .status(JobStatus.ERROR)
+            .jobType(TestJob.class.getName())
+            .params("{\"fail\":true,\"sleepMs\":0}")
+            .checkpoint("200")
+            .finishedAt(ZonedDateTime.now())
+            .build();
+    when(jobsRepository.findById(eq(4L))).thenReturn(Optional.of(job));
+    when(jobLogLinesRepository.findMaxSeqByJobId(4L)).thenReturn(1);
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(post("/api/jobs/restart?id=4").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    Job jobReturned =
+        objectMapper.readValue(response.getResponse().getContentAsString(), Job.class);
+    assertEquals(JobStatus.QUEUED, jobReturned.getStatus());
+    assertEquals(null, jobReturned.getFinishedAt());
+    verify(jobLogChunksRepository).deleteByJobIdIn(List.of(4L));
+    verify(jobLogLinesRepository)
+        .saveAll(
+            List.of(
+                JobLogLine.builder()
+                    .jobId(4L)
+                    .seq(2)
+                    .message("Job restarted from checkpoint 200")
+                    .build()));
+    ArgumentCaptor<JobQueueEntry> captor = ArgumentCaptor.forClass(JobQueueEntry.class);
+    verify(jobQueueRepository).save(captor.capture());
+    assertEquals(4L, captor.getValue().getId());
+    assertEquals("{\"fail\":true,\"sleepMs\":0}", captor.getValue().getParams());
+    assertEquals(null, captor.getValue().getClaimedBy());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void only_stopped_jobs_with_stored_params_can_be_restarted() throws Exception {
+
+    // arrange
+
+    when(jobsRepository.findById(eq(4L)))
+        .thenReturn(
+            Optional.of(
+                Job.builder()
+                    .id(4L)
+                    .status(JobStatus.COMPLETE)
+                    .jobType(TestJob.class.getName())
+                    .params("{}")
+                    .build()));
+    when(jobsRepository.findById(eq(5L)))
+        .thenReturn(Optional.of(Job.builder().id(5L).status(JobStatus.CANCELLED).build()));
+
+    // act
+    MvcResult complete =
+        mockMvc
+            .perform(post("/api/jobs/restart?id=4").with(csrf()))
+            .andExpect(status().isBadRequest())
+            .andReturn();
+    MvcResult lambda =
+        mockMvc
+            .perform(post("/api/jobs/restart?id=5").with(csrf()))
+            .andExpect(status().isBadRequest())
+            .andReturn();
+    mockMvc.perform(post("/api/jobs/restart?id=6").with(csrf())).andExpect(status().isNotFound());
+
+    // assert
+    assertEquals(
+        "Job 4 is complete; only jobs that failed, were cancelled or timed out can be restarted",
+        responseToJson(complete).get("message"));
+    assertEquals(
+        "Job 5 was launched with a lambda and cannot be restarted",
+        responseToJson(lambda).get("message"));
+    verify(jobQueueRepository, never()).save(any());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void job_that_runs_past_its_timeout_is_stopped() throws Exception {
+
+    // arrange
+
+    Job jobTimedOut =
+        Job.builder()
+            .id(0L)
+            .createdBy(currentUserService.getUser())
+            .dedupScope(currentUserService.getUser().getId())
+            .status(JobStatus.TIMED_OUT)
+            .jobType(TestJob.class.getName())
+            .params("{\"fail\":false,\"sleepMs\":60000}")
+            .queueWaitMs(0L)
+            .phase("sleeping")
+            .progressDone(0L)
+            .progressTotal(1L)
+            .build();
+
+    // act
+    mockMvc
+        .perform(post("/api/jobs/launch/testjob?fail=false&sleepMs=60000").with(csrf()))
+        .andExpect(status().isOk());
+
+    // assert
+    await()
+        .atMost(15, SECONDS)
+        .untilAsserted(() -> verify(jobsRepository, times(2)).save(finished(jobTimedOut)));
+
+    ArgumentCaptor<List<JobLogLine>> captor = ArgumentCaptor.forClass(List.class);
+    verify(jobLogLinesRepository, atLeastOnce()).saveAll(captor.capture());
+    List<String> messages =
+        captor.getAllValues().stream().flatMap(List::stream).map(JobLogLine::getMessage).toList();
+    assertEquals(List.of("Hello World! from test job!", "Job timed out"), messages);
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_stream_the_log_of_a_finished_job() throws Exception {
+
+    // arrange
+
+    Job job = Job.builder().id(5L).status(JobStatus.COMPLETE).build();
+    when(jobsRepository.findById(eq(5L))).thenReturn(Optional.of(job));
+    when(jobLogLinesRepository.findByJobIdAndSeqBetweenOrderBySeqAsc(5L, 0, 999))
+        .thenReturn(
+            List.of(
+                JobLogLine.builder().jobId(5L).seq(0).message("line one").build(),
+                JobLogLine.builder().jobId(5L).seq(1).message("line two").build()));
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/jobs/logs/{id}/stream", 5L))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    response.getAsyncResult();
+
+    // assert
+    assertEquals(
+        "id:0\nevent:log\ndata:line one\n\n"
+            + "id:1\nevent:log\ndata:line two\n\n"
+            + "event:end\ndata:complete\n\n",
+        response.getResponse().getContentAsString());
+    assertEquals("text/event-stream", response.getResponse().getContentType());
+    // the log is read a window of lines at a time until a window comes back empty
+    verify(jobLogLinesRepository).findByJobIdAndSeqBetweenOrderBySeqAsc(5L, 1000, 1999);
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void log_stream_resumes_after_the_last_event_id() throws Exception {
+
+    // arrange
+
+    Job job = Job.builder().id(5L).status(JobStatus.ERROR).build();
+    when(jobsRepository.findById(eq(5L))).thenReturn(Optional.of(job));
+    when(jobLogLinesRepository.findByJobIdAndSeqBetweenOrderBySeqAsc(5L, 2, 1001))
+        .thenReturn(List.of(JobLogLine.builder().jobId(5L).seq(2).message("Fail!").build()));
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/jobs/logs/{id}/stream", 5L).header("Last-Event-ID", "1"))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    response.getAsyncResult();
+
+    // assert
+    assertEquals(
+        "id:2\nevent:log\ndata:Fail!\n\nevent:end\ndata:error\n\n",
+        response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void streaming_the_log_of_a_missing_job_returns_not_found() throws Exception {
+
+    // arrange
+
+    when(jobsRepository.findById(eq(6L))).thenReturn(Optional.empty());
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/jobs/logs/{id}/stream", 6L))
+            .andExpect(status().isNotFound())
+            .andReturn();
+
+    // assert
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("Job with id 6 not found", json.get("message"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_stream_the_log_of_a_running_job() throws Exception {
+
+    // arrange
+
+    mockMvc
+        .perform(post("/api/jobs/launch/testjob?fail=false&sleepMs=30000").with(csrf()))
+        .andExpect(status().isOk());
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/jobs/logs/{id}/stream", 0L))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    await()
+        .atMost(5, SECONDS)
+        .untilAsserted(
+            () ->
+                assertTrue(
+                    response
+                        .getResponse()
+                        .getContentAsString()
+                        .contains("data:Hello World! from test job!")));
+    mockMvc.perform(post("/api/jobs/cancel?id=0").with(csrf())).andExpect(status().isOk());
+    response.getAsyncResult(5000);
+
+    // assert
+    assertEquals(
+        "id:0\nevent:log\ndata:Hello World! from test job!\n\n"
+            + "id:1\nevent:log\ndata:Job cancelled\n\n"
+            + "event:end\ndata:cancelled\n\n",
+        response.getResponse().getContentAsString());
+    verify(jobsRepository, never()).findById(any());
+  }
+
+  /**
+   * Matches a job that has finished and otherwise equals {@code expected}; its start and finish
+   * times are not compared since they depend on when the test ran.
+   */
+  private static Job finished(Job expected) {
+    return argThat(
+        job -> {
+          if (job.getFinishedAt() == null) return false;
+          expected.setStartedAt(job.getStartedAt());
+          expected.setFinishedAt(job.getFinishedAt());
+          return expected.equals(job);
+        });
+  }
+
+  /** A job each user may have only one of at a time. */
+  @JobPolicy(maxPerUser = 1)
+  private static class OneAtATimeJob implements JobContextConsumer {
+    @Override
+    public void accept(JobContext ctx) {}
   }
 }
@@ -0,0 +1,290 @@
+package edu.ucsb.cs156.example.controllers;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import edu.ucsb.cs156.example.ControllerTestCase;
+import edu.ucsb.cs156.example.entities.RecurringJob;
+import edu.ucsb.cs156.example.jobs.TestJob;
+import edu.ucsb.cs156.example.repositories.JobQueueRepository;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import edu.ucsb.cs156.example.repositories.RecurringJobsRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.jobs.JobQueue;
+import edu.ucsb.cs156.example.services.jobs.JobService;
+import edu.ucsb.cs156.example.services.jobs.RecurringJobService;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
+import org.springframework.test.web.servlet.MvcResult;
+
+@WebMvcTest(controllers = RecurringJobsController.class)
+@Import({RecurringJobService.class, JobQueue.class})
+public class RecurringJobsControllerTests extends ControllerTestCase {
+
+  @MockitoBean RecurringJobsRepository recurringJobsRepository;
+
+  @MockitoBean JobsRepository jobsRepository;
+
+  @MockitoBean JobQueueRepository jobQueueRepository;
+
+  @MockitoBean JobService jobService;
+
+  @MockitoBean UserRepository userRepository;
+
+  private RecurringJob hourly() {
+    return RecurringJob.builder()
+        .id(3L)
+        .name("hourly test")
+        .jobType(TestJob.class.getName())
+        .params("{\"fail\":false,\"sleepMs\":0}")
+        .cron("0 0 * * * *")
+        .enabled(true)
+        .build();
+  }
+
+  @Test
+  public void logged_out_users_cannot_get_all() throws Exception {
+    mockMvc.perform(get("/api/recurringjobs/all")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void regular_users_cannot_get_all() throws Exception {
+    mockMvc.perform(get("/api/recurringjobs/all")).andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void regular_users_cannot_post() throws Exception {
+    mockMvc
+        .perform(
+            post("/api/recurringjobs/post")
+                .param("name", "every minute")
+                .param("jobType", TestJob.class.getName())
+                .param("fixedRateMs", "60000")
+                .with(csrf()))
+        .andExpect(status().is(403));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_get_all_recurring_jobs() throws Exception {
+
+    // arrange
+    List<RecurringJob> expected = List.of(hourly());
+    when(recurringJobsRepository.findAll()).thenReturn(expected);
+
+    // act
+    MvcResult response =
+        mockMvc.perform(get("/api/recurringjobs/all")).andExpect(status().isOk()).andReturn();
+
+    // assert
+    assertEquals(mapper.writeValueAsString(expected), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_get_a_recurring_job_by_id() throws Exception {
+
+    // arrange
+    when(recurringJobsRepository.findById(eq(3L))).thenReturn(Optional.of(hourly()));
+
+    // act
+    MvcResult response =
+        mockMvc.perform(get("/api/recurringjobs?id=3")).andExpect(status().isOk()).andReturn();
+
+    // assert
+    assertEquals(mapper.writeValueAsString(hourly()), response.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_gets_not_found_for_a_missing_recurring_job() throws Exception {
+
+    // arrange
+    when(recurringJobsRepository.findById(eq(4L))).thenReturn(Optional.empty());
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/recurringjobs?id=4"))
+            .andExpect(status().isNotFound())
+            .andReturn();
+
+    // assert
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("RecurringJob with id 4 not found", json.get("message"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_post_a_recurring_job() throws Exception {
+
+    // arrange
+    when(recurringJobsRepository.save(any(RecurringJob.class))).thenAnswer(i -> i.getArgument(0));
+
+    // act
+    mockMvc
+        .perform(
+            post("/api/recurringjobs/post")
+                .param("name", "every minute")
+                .param("jobType", TestJob.class.getName())
+                .param("params", "{\"sleepMs\":10}")
+                .param("fixedRateMs", "60000")
+                .with(csrf()))
+        .andExpect(status().isOk());
+
+    // assert
+    ArgumentCaptor<RecurringJob> captor = ArgumentCaptor.forClass(RecurringJob.class);
+    verify(recurringJobsRepository).save(captor.capture());
+    RecurringJob saved = captor.getValue();
+    assertEquals("every minute", saved.getName());
+    assertEquals(60000L, saved.getFixedRateMs());
+    assertTrue(saved.getEnabled());
+    assertTrue(saved.getNextRunAt().isAfter(ZonedDateTime.now().plusSeconds(50)));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void posting_a_recurring_job_with_a_bad_cron_expression_is_a_bad_request()
+      throws Exception {
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(
+                post("/api/recurringjobs/post")
+                    .param("name", "bad")
+                    .param("jobType", TestJob.class.getName())
+                    .param("cron", "every tuesday")
+                    .with(csrf()))
+            .andExpect(status().isBadRequest())
+            .andReturn();
+
+    // assert
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("Invalid cron expression: every tuesday", json.get("message"));
+    verify(recurringJobsRepository, never()).save(any());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void posting_a_recurring_job_that_is_not_a_job_is_a_bad_request() throws Exception {
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(
+                post("/api/recurringjobs/post")
+                    .param("name", "bad")
+                    .param("jobType", "java.lang.String")
+                    .param("fixedRateMs", "1000")
+                    .with(csrf()))
+            .andExpect(status().isBadRequest())
+            .andReturn();
+
+    // assert
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("Invalid job: java.lang.String is not a job", json.get("message"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_edit_a_recurring_job() throws Exception {
+
+    // arrange
+    RecurringJob edited = hourly();
+    edited.setName("every five seconds");
+    edited.setCron(null);
+    edited.setFixedRateMs(5000L);
+    edited.setEnabled(false);
+    when(recurringJobsRepository.findById(eq(3L))).thenReturn(Optional.of(hourly()));
+    when(recurringJobsRepository.save(any(RecurringJob.class))).thenAnswer(i -> i.getArgument(0));
+
+    // act
+    mockMvc
+        .perform(
+            put("/api/recurringjobs?id=3")
+                .contentType(MediaType.APPLICATION_JSON)
+                .characterEncoding("utf-8")
+                .content(mapper.writeValueAsString(edited))
+                .with(csrf()))
+        .andExpect(status().isOk());
+
+    // assert
+    ArgumentCaptor<RecurringJob> captor = ArgumentCaptor.forClass(RecurringJob.class);
+    verify(recurringJobsRepository, times(1)).save(captor.capture());
+    RecurringJob saved = captor.getValue();
+    assertEquals("every five seconds", saved.getName());
+    assertEquals(null, saved.getCron());
+    assertEquals(5000L, saved.getFixedRateMs());
+    assertEquals(false, saved.getEnabled());
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void editing_a_recurring_job_with_no_schedule_is_a_bad_request() throws Exception {
+
+    // arrange
+    RecurringJob edited = hourly();
+    edited.setCron(null);
+    when(recurringJobsRepository.findById(eq(3L))).thenReturn(Optional.of(hourly()));
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(
+                put("/api/recurringjobs?id=3")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(mapper.writeValueAsString(edited))
+                    .with(csrf()))
+            .andExpect(status().isBadRequest())
+            .andReturn();
+
+    // assert
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("Give either a cron expression or a fixed rate", json.get("message"));
+  }
+
+  @WithMockUser(roles = {"ADMIN"})
+  @Test
+  public void admin_can_delete_a_recurring_job() throws Exception {
+
+    // arrange
+    RecurringJob recurringJob = hourly();
+    when(recurringJobsRepository.findById(eq(3L))).thenReturn(Optional.of(recurringJob));
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(delete("/api/recurringjobs?id=3").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    verify(recurringJobsRepository, times(1)).delete(recurringJob);
+    Map<String, Object> json = responseToJson(response);
+    assertEquals("RecurringJob with id 3 deleted", json.get("message"));
+  }
+}
@@ -0,0 +1,32 @@
+package edu.ucsb.cs156.example.entities;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class JobStatusTests {
+  @Test
+  public void fromValue_accepts_values_and_names_in_any_case() {
+    assertEquals(JobStatus.TIMED_OUT, JobStatus.fromValue("timed_out"));
+    assertEquals(JobStatus.TIMED_OUT, JobStatus.fromValue("TIMED_OUT"));
+    assertEquals(JobStatus.RUNNING, JobStatus.fromValue("Running"));
+  }
+
+  @Test
+  public void fromValue_rejects_unknown_statuses() {
+    IllegalArgumentException e =
+        assertThrows(IllegalArgumentException.class, () -> JobStatus.fromValue("sleeping"));
+    assertEquals("Unknown job status: sleeping", e.getMessage());
+  }
+
+  @Test
+  public void attribute_converter_stores_lower_case_values() {
+    JobStatusAttributeConverter converter = new JobStatusAttributeConverter();
+    assertEquals("cancelled", converter.convertToDatabaseColumn(JobStatus.CANCELLED));
+    assertEquals(JobStatus.CANCELLED, converter.convertToEntityAttribute("cancelled"));
+    assertNull(converter.convertToDatabaseColumn(null));
+    assertNull(converter.convertToEntityAttribute(null));
+  }
+}
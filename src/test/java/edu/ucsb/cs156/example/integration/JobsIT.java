@@ -0,0 +1,975 @@
+package edu.ucsb.cs156.example.integration;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobDependency;
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.entities.JobQueueEntry;
+import edu.ucsb.cs156.example.entities.JobStatus;
+import edu.ucsb.cs156.example.jobs.TestJob;
+import edu.ucsb.cs156.example.models.JobGraphNode;
+import edu.ucsb.cs156.example.models.JobPurgeReport;
+import edu.ucsb.cs156.example.models.SyntheticLoadReport;
+import edu.ucsb.cs156.example.repositories.ArticlesRepository;
+import edu.ucsb.cs156.example.repositories.HelpRequestRepository;
+import edu.ucsb.cs156.example.repositories.JobDependenciesRepository;
+import edu.ucsb.cs156.example.repositories.JobLogChunksRepository;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
+import edu.ucsb.cs156.example.repositories.JobQueueRepository;
+import edu.ucsb.cs156.example.repositories.JobResultChunksRepository;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository;
+import edu.ucsb.cs156.example.repositories.UserRepository;
+import edu.ucsb.cs156.example.services.diagnostics.RecordedEvents;
+import edu.ucsb.cs156.example.services.jobs.ChunkedJob;
+import edu.ucsb.cs156.example.services.jobs.JobGraph;
+import edu.ucsb.cs156.example.services.jobs.JobPurgeService;
+import edu.ucsb.cs156.example.services.jobs.JobQueue;
+import edu.ucsb.cs156.example.services.jobs.JobService;
+import edu.ucsb.cs156.example.testconfig.TestConfig;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import jdk.jfr.consumer.RecordedEvent;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.extern.jackson.Jacksonized;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.annotation.DirtiesContext.ClassMode;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+@ExtendWith(SpringExtension.class)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@AutoConfigureMockMvc
+@ActiveProfiles("integration")
+@Import(TestConfig.class)
+@DirtiesContext(classMode = ClassMode.BEFORE_EACH_TEST_METHOD)
+@TestPropertySource(properties = "app.jobs.retention.maxJobs=2")
+public class JobsIT {
+  @Autowired JobsRepository jobsRepository;
+
+  @Autowired JobLogLinesRepository jobLogLinesRepository;
+
+  @Autowired JobLogChunksRepository jobLogChunksRepository;
+
+  @Autowired JobQueueRepository jobQueueRepository;
+
+  @Autowired JobResultChunksRepository jobResultChunksRepository;
+
+  @Autowired ArticlesRepository articlesRepository;
+
+  @Autowired HelpRequestRepository helpRequestRepository;
+
+  @Autowired MenuItemReviewRepository menuItemReviewRepository;
+
+  @Autowired JobDependenciesRepository jobDependenciesRepository;
+
+  @Autowired JobPurgeService jobPurgeService;
+
+  @Autowired JobService jobService;
+
+  @Autowired JobQueue jobQueue;
+
+  @Autowired JdbcTemplate jdbcTemplate;
+
+  @Autowired public MockMvc mockMvc;
+
+  @Autowired public ObjectMapper mapper;
+
+  @MockBean UserRepository userRepository;
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void an_admin_can_launch_a_test_job_and_read_its_log() throws Exception {
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(post("/api/jobs/launch/testjob?fail=false&sleepMs=0").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+    Job job = mapper.readValue(response.getResponse().getContentAsString(), Job.class);
+
+    // assert
+    await()
+        .atMost(10, SECONDS)
+        .untilAsserted(
+            () ->
+                assertEquals(
+                    JobStatus.COMPLETE,
+                    jobsRepository.findById(job.getId()).orElseThrow().getStatus()));
+
+    MvcResult logResponse =
+        mockMvc
+            .perform(get("/api/jobs/logs/{id}", job.getId()))
+            .andExpect(status().isOk())
+            .andReturn();
+    assertEquals(
+        "Hello World! from test job!\nGoodbye from test job!",
+        logResponse.getResponse().getContentAsString());
+
+    Job finished = jobsRepository.findById(job.getId()).orElseThrow();
+    assertEquals("sleeping", finished.getPhase());
+    assertEquals(1L, finished.getProgressDone());
+    assertEquals(1L, finished.getProgressTotal());
+    assertEquals(0, jobQueueRepository.count());
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void a_finished_job_has_its_times_and_metrics_recorded() throws Exception {
+    // act
+    Job job = launchWithKey("metrics", 0);
+    await()
+        .atMost(10, SECONDS)
+        .untilAsserted(
+            () ->
+                assertEquals(
+                    JobStatus.COMPLETE,
+                    jobsRepository.findById(job.getId()).orElseThrow().getStatus()));
+
+    // assert
+    Job finished = jobsRepository.findById(job.getId()).orElseThrow();
+    assertFalse(finished.getFinishedAt().isBefore(finished.getStartedAt()));
+
+    MvcResult response =
+        mockMvc
+            .perform(get("/actuator/metrics/jobs.finished?tag=type:TestJob&tag=outcome:complete"))
+            .andExpect(status().isOk())
+            .andReturn();
+    Map<String, Object> json =
+        mapper.readValue(response.getResponse().getContentAsString(), Map.class);
+    List<Map<String, Object>> measurements = (List<Map<String, Object>>) json.get("measurements");
+    assertEquals(1.0, measurements.get(0).get("value"));
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void a_finished_job_has_its_log_compressed() throws Exception {
+    // act
+    Job job = launchWithKey("compressed", 0);
+    await()
+        .atMost(10, SECONDS)
+        .untilAsserted(() -> assertTrue(jobLogChunksRepository.countByJobId(job.getId()) > 0));
+
+    // assert
+    assertEquals(List.of(), jobLogLinesRepository.findByJobIdOrderBySeqAsc(job.getId()));
+    MvcResult plain =
+        mockMvc
+            .perform(get("/api/jobs/logs/{id}", job.getId()))
+            .andExpect(status().isOk())
+            .andReturn();
+    assertEquals(
+        "Hello World! from test job!\nGoodbye from test job!",
+        plain.getResponse().getContentAsString());
+
+    MvcResult gzipped =
+        mockMvc
+            .perform(get("/api/jobs/logs/{id}", job.getId()).header("Accept-Encoding", "gzip"))
+            .andExpect(status().isOk())
+            .andReturn();
+    assertEquals("gzip", gzipped.getResponse().getHeader("Content-Encoding"));
+    assertEquals(
+        gzipped.getResponse().getContentAsByteArray().length,
+        gzipped.getResponse().getContentLength());
+    try (GZIPInputStream in =
+        new GZIPInputStream(
+            new ByteArrayInputStream(gzipped.getResponse().getContentAsByteArray()))) {
+      assertEquals(
+          plain.getResponse().getContentAsString(),
+          new String(in.readAllBytes(), StandardCharsets.UTF_8));
+    }
+
+    mockMvc
+        .perform(delete("/api/jobs?id={id}", job.getId()).with(csrf()))
+        .andExpect(status().isOk());
+    assertEquals(0, jobLogChunksRepository.countByJobId(job.getId()));
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void parts_of_a_finished_job_log_are_read_by_lines_and_byte_range() throws Exception {
+    // arrange
+    Job job = launchWithKey("ranged", 0);
+    await()
+        .atMost(10, SECONDS)
+        .untilAsserted(() -> assertTrue(jobLogChunksRepository.countByJobId(job.getId()) > 0));
+
+    // act & assert
+    mockMvc
+        .perform(get("/api/jobs/logs/{id}?tail=1", job.getId()))
+        .andExpect(status().isOk())
+        .andExpect(content().string("Goodbye from test job!"));
+    mockMvc
+        .perform(get("/api/jobs/logs/{id}?offset=0&limit=1", job.getId()))
+        .andExpect(status().isOk())
+        .andExpect(content().string("Hello World! from test job!"));
+    mockMvc
+        .perform(get("/api/jobs/logs/{id}", job.getId()).header("Range", "bytes=0-4"))
+        .andExpect(status().isPartialContent())
+        .andExpect(header().string("Content-Range", "bytes 0-4/50"))
+        .andExpect(content().string("Hello"));
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void finished_job_logs_are_searched_on_the_server() throws Exception {
+    // arrange
+    ZonedDateTime launchedAfter = ZonedDateTime.now();
+    Job job = launchWithKey("searched", 0);
+    await()
+        .atMost(10, SECONDS)
+        .untilAsserted(() -> assertTrue(jobLogChunksRepository.countByJobId(job.getId()) > 0));
+
+    // act
+    MvcResult one =
+        mockMvc
+            .perform(get("/api/jobs/logs/{id}/search?q=goodbye&ignoreCase=true", job.getId()))
+            .andExpect(status().isOk())
+            .andReturn();
+    MvcResult all =
+        mockMvc
+            .perform(
+                get("/api/jobs/logs/search?q=Goodbye&context=0")
+                    .param("createdAfter", launchedAfter.toInstant().toString()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    List<Map<String, Object>> matches =
+        mapper.readValue(one.getResponse().getContentAsString(), List.class);
+    assertEquals(1, matches.size());
+    assertEquals(1, matches.get(0).get("lineNumber"));
+    assertEquals("Goodbye from test job!", matches.get(0).get("line"));
+    assertEquals(List.of("Hello World! from test job!"), matches.get(0).get("before"));
+
+    List<Map<String, Object>> allMatches =
+        mapper.readValue(all.getResponse().getContentAsString(), List.class);
+    assertEquals(1, allMatches.size());
+    assertEquals((int) job.getId(), allMatches.get(0).get("jobId"));
+  }
+
+  @WithMockUser(roles = {"USER"})
+  @Test
+  public void only_admins_can_read_metrics() throws Exception {
+    mockMvc.perform(get("/actuator/metrics/jobs.finished")).andExpect(status().isForbidden());
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void a_retried_launch_returns_the_job_already_running_for_its_key() throws Exception {
+    // act
+    Job first = launchWithKey("launch-1", 1000);
+    Job retried = launchWithKey("launch-1", 1000);
+    Job other = launchWithKey("launch-2", 0);
+
+    // assert
+    assertEquals(first.getId(), retried.getId());
+    assertNotEquals(first.getId(), other.getId());
+    await()
+        .atMost(10, SECONDS)
+        .untilAsserted(
+            () ->
+                assertEquals(
+                    JobStatus.COMPLETE,
+                    jobsRepository.findById(first.getId()).orElseThrow().getStatus()));
+    assertNull(jobsRepository.findById(first.getId()).orElseThrow().getDedupKey());
+
+    Job relaunched = launchWithKey("launch-1", 0);
+    assertNotEquals(first.getId(), relaunched.getId());
+  }
+
+  private Job launchWithKey(String key, int sleepMs) throws Exception {
+    MvcResult response =
+        mockMvc
+            .perform(
+                post("/api/jobs/launch/testjob?fail=false&sleepMs={sleepMs}", sleepMs)
+                    .header("Idempotency-Key", key)
+                    .with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+    return mapper.readValue(response.getResponse().getContentAsString(), Job.class);
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void a_job_orphaned_by_a_dead_node_is_reclaimed_and_resumed() throws Exception {
+    // arrange
+    Job job = jobsRepository.save(Job.builder().status(JobStatus.RUNNING).build());
+    jobLogLinesRepository.save(
+        JobLogLine.builder().jobId(job.getId()).seq(0).message("started on dead-node").build());
+    jobQueueRepository.save(
+        JobQueueEntry.builder()
+            .id(job.getId())
+            .jobType(TestJob.class.getName())
+            .params("{\"fail\":false,\"sleepMs\":0}")
+            .enqueuedBy("dead-node")
+            .claimedBy("dead-node")
+            .leaseExpiresAt(ZonedDateTime.now().minusMinutes(1))
+            .attempts(1)
+            .build());
+
+    // act
+    await()
+        .atMost(10, SECONDS)
+        .untilAsserted(
+            () ->
+                assertEquals(
+                    JobStatus.COMPLETE,
+                    jobsRepository.findById(job.getId()).orElseThrow().getStatus()));
+
+    // assert
+    List<String> messages =
+        List.of(
+            mockMvc
+                .perform(get("/api/jobs/logs/{id}", job.getId()))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString()
+                .split("\n"));
+    assertEquals(4, messages.size());
+    assertEquals("started on dead-node", messages.get(0));
+    assertTrue(messages.get(1).matches("Job resumed on node .* \\(attempt 2\\)"));
+    assertEquals(
+        List.of("Hello World! from test job!", "Goodbye from test job!"), messages.subList(2, 4));
+    assertEquals(0, jobQueueRepository.count());
+  }
+
+  @Test
+  public void finishing_a_job_leaves_the_claim_another_node_has_taken_over() {
+    // arrange
+    Job job = jobsRepository.save(Job.builder().status(JobStatus.RUNNING).build());
+    jobQueueRepository.save(
+        JobQueueEntry.builder()
+            .id(job.getId())
+            .enqueuedBy("other-node")
+            .claimedBy("other-node")
+            .leaseExpiresAt(ZonedDateTime.now().plusMinutes(1))
+            .attempts(2)
+            .build());
+
+    // act
+    jobQueue.complete(job.getId());
+
+    // assert
+    assertEquals(
+        "other-node", jobQueueRepository.findById(job.getId()).orElseThrow().getClaimedBy());
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void jobs_get_a_created_at_time_the_list_can_filter_on() throws Exception {
+    // arrange
+    Job job = jobsRepository.save(Job.builder().status(JobStatus.COMPLETE).build());
+    ZonedDateTime createdAt = jobsRepository.findById(job.getId()).orElseThrow().getCreatedAt();
+
+    // act
+    MvcResult after =
+        mockMvc
+            .perform(get("/api/jobs/list?createdAfter={t}", createdAt.minusMinutes(1).toInstant()))
+            .andExpect(status().isOk())
+            .andReturn();
+    MvcResult before =
+        mockMvc
+            .perform(get("/api/jobs/list?createdBefore={t}", createdAt.minusMinutes(1).toInstant()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    assertNotNull(createdAt);
+    List<Map<String, Object>> created =
+        mapper.readValue(after.getResponse().getContentAsString(), List.class);
+    assertEquals(1, created.size());
+    assertEquals(job.getId(), ((Number) created.get(0).get("id")).longValue());
+    assertEquals("[]", before.getResponse().getContentAsString());
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void a_failed_chunked_job_is_restarted_from_its_checkpoint() throws Exception {
+    // arrange
+    Job job = jobService.runAsJob(NumbersJob.builder().count(10).failAt(5).build(), null);
+    await()
+        .atMost(10, SECONDS)
+        .untilAsserted(
+            () ->
+                assertEquals(
+                    JobStatus.ERROR,
+                    jobsRepository.findById(job.getId()).orElseThrow().getStatus()));
+    assertEquals("4", jobsRepository.findById(job.getId()).orElseThrow().getCheckpoint());
+
+    // act
+    mockMvc
+        .perform(post("/api/jobs/restart?id={id}", job.getId()).with(csrf()))
+        .andExpect(status().isOk());
+
+    // assert
+    await()
+        .atMost(10, SECONDS)
+        .untilAsserted(
+            () ->
+                assertEquals(
+                    JobStatus.COMPLETE,
+                    jobsRepository.findById(job.getId()).orElseThrow().getStatus()));
+    assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), NumbersJob.WRITTEN);
+    String log =
+        mockMvc
+            .perform(get("/api/jobs/logs/{id}", job.getId()))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString();
+    assertTrue(log.contains("Job restarted from checkpoint 4\n"));
+    assertTrue(log.endsWith("Continuing from checkpoint: 4 items already done\nDone: 10 items"));
+    assertEquals(10L, jobsRepository.findById(job.getId()).orElseThrow().getProgressDone());
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void an_admin_can_download_the_result_a_job_stored() throws Exception {
+    // arrange
+    Job job =
+        jobService.runAsJob(
+            ctx -> {
+              ctx.log("Counting");
+              ctx.resultFile(
+                  "counts.csv",
+                  "text/csv",
+                  out -> {
+                    for (int i = 0; i < 1000; i++) {
+                      out.write("%d,%d\n".formatted(i, i * i).getBytes(StandardCharsets.UTF_8));
+                    }
+                  });
+              ctx.result(Map.of("rows", 1000));
+            },
+            null);
+    await()
+        .atMost(10, SECONDS)
+        .untilAsserted(
+            () ->
+                assertEquals(
+                    JobStatus.COMPLETE,
+                    jobsRepository.findById(job.getId()).orElseThrow().getStatus()));
+
+    // act
+    MvcResult started =
+        mockMvc
+            .perform(get("/api/jobs/results/{id}", job.getId()))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    MvcResult response =
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk()).andReturn();
+
+    // assert
+    assertEquals("application/json", response.getResponse().getContentType());
+    assertEquals("{\"rows\":1000}", response.getResponse().getContentAsString());
+    assertEquals(
+        "Counting",
+        mockMvc
+            .perform(get("/api/jobs/logs/{id}", job.getId()))
+            .andReturn()
+            .getResponse()
+            .getContentAsString());
+
+    mockMvc
+        .perform(delete("/api/jobs?id={id}", job.getId()).with(csrf()))
+        .andExpect(status().isOk());
+    assertTrue(jobResultChunksRepository.findByJobIdAndChunkNo(job.getId(), 0).isEmpty());
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void a_synthetic_load_job_reports_throughput_and_leaves_no_rows_behind() throws Exception {
+    // act
+    MvcResult launched =
+        mockMvc
+            .perform(
+                post("/api/jobs/launch/syntheticload?workers=4&durationSeconds=1&writePercent=25")
+                    .with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+    Job job = mapper.readValue(launched.getResponse().getContentAsString(), Job.class);
+    await()
+        .atMost(20, SECONDS)
+        .untilAsserted(
+            () ->
+                assertEquals(
+                    JobStatus.COMPLETE,
+                    jobsRepository.findById(job.getId()).orElseThrow().getStatus()));
+
+    // assert
+    MvcResult started =
+        mockMvc
+            .perform(get("/api/jobs/results/{id}", job.getId()))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    SyntheticLoadReport report =
+        mapper.readValue(
+            mockMvc
+                .perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString(),
+            SyntheticLoadReport.class);
+    assertEquals(4, report.getWorkers());
+    assertEquals(0, report.getErrors());
+    assertTrue(report.getReads().getCount() > 0);
+    assertTrue(report.getWrites().getCount() > 0);
+    assertTrue(report.getOperationsPerSecond() > 0);
+    assertEquals(0, articlesRepository.count());
+    assertEquals(0, helpRequestRepository.count());
+    assertEquals(0, menuItemReviewRepository.count());
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void an_admin_can_record_a_node_with_jfr_and_download_the_recording() throws Exception {
+    // act
+    MvcResult launched =
+        mockMvc
+            .perform(post("/api/jobs/launch/jfr?durationSeconds=1&settings=profile").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+    Job job = mapper.readValue(launched.getResponse().getContentAsString(), Job.class);
+    await()
+        .atMost(20, SECONDS)
+        .untilAsserted(
+            () ->
+                assertEquals(
+                    JobStatus.COMPLETE,
+                    jobsRepository.findById(job.getId()).orElseThrow().getStatus()));
+
+    // assert
+    MvcResult started =
+        mockMvc
+            .perform(get("/api/jobs/results/{id}", job.getId()))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    MvcResult response =
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk()).andReturn();
+    assertEquals(
+        "attachment; filename=\"recording-%d.jfr\"".formatted(job.getId()),
+        response.getResponse().getHeader("Content-Disposition"));
+    byte[] recording = response.getResponse().getContentAsByteArray();
+    assertEquals("FLR", new String(recording, 0, 3, StandardCharsets.US_ASCII));
+    assertEquals(
+        jobsRepository.findById(job.getId()).orElseThrow().getResultSize(),
+        (long) recording.length);
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void an_admin_can_dump_the_heap_and_download_it_gzipped() throws Exception {
+    // act
+    MvcResult launched =
+        mockMvc
+            .perform(post("/api/jobs/launch/heapdump").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+    Job job = mapper.readValue(launched.getResponse().getContentAsString(), Job.class);
+    await()
+        .atMost(60, SECONDS)
+        .untilAsserted(
+            () ->
+                assertEquals(
+                    JobStatus.COMPLETE,
+                    jobsRepository.findById(job.getId()).orElseThrow().getStatus()));
+
+    // assert
+    MvcResult started =
+        mockMvc
+            .perform(get("/api/jobs/results/{id}", job.getId()))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+    MvcResult response =
+        mockMvc.perform(asyncDispatch(started)).andExpect(status().isOk()).andReturn();
+    assertEquals(
+        "attachment; filename=\"heap-%d.hprof.gz\"".formatted(job.getId()),
+        response.getResponse().getHeader("Content-Disposition"));
+    try (GZIPInputStream in =
+        new GZIPInputStream(
+            new ByteArrayInputStream(response.getResponse().getContentAsByteArray()))) {
+      assertEquals("JAVA PROFILE", new String(in.readNBytes(12), StandardCharsets.US_ASCII));
+    }
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void api_and_repository_calls_show_up_in_jfr_recordings() throws Throwable {
+    // arrange
+    Job job = launchWithKey("recorded", 0);
+
+    // act
+    List<RecordedEvent> controllerCalls =
+        RecordedEvents.record(
+            "edu.ucsb.cs156.example.ControllerCall",
+            () ->
+                mockMvc.perform(get("/api/jobs?id={id}", job.getId())).andExpect(status().isOk()));
+    List<RecordedEvent> repositoryCalls =
+        RecordedEvents.record(
+            "edu.ucsb.cs156.example.RepositoryCall",
+            () ->
+                mockMvc.perform(get("/api/jobs?id={id}", job.getId())).andExpect(status().isOk()));
+
+    // assert
+    assertEquals(1, controllerCalls.size());
+    assertEquals("/api/jobs", controllerCalls.get(0).getString("route"));
+    assertEquals("JobsController.getJobLogById", controllerCalls.get(0).getString("handler"));
+    assertEquals(200, controllerCalls.get(0).getInt("status"));
+    assertTrue(
+        repositoryCalls.stream()
+            .anyMatch(
+                e ->
+                    e.getString("repository").equals("JobsRepository")
+                        && e.getString("method").equals("findById")
+                        && e.getLong("rows") == 1));
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void a_job_graph_runs_each_job_once_the_jobs_it_depends_on_complete() throws Exception {
+    // arrange
+    String params = "{\"fail\":false,\"sleepMs\":500}";
+    List<JobGraphNode> graph =
+        List.of(
+            node("commons", params),
+            node("menuItems", params, "commons"),
+            node("reviews", params, "commons"),
+            node("ratings", params, "menuItems", "reviews"));
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(
+                post("/api/jobs/graph")
+                    .contentType("application/json")
+                    .content(mapper.writeValueAsString(graph))
+                    .with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+    List<Long> ids =
+        List.of(mapper.readValue(response.getResponse().getContentAsString(), Job[].class)).stream()
+            .map(Job::getId)
+            .toList();
+
+    // assert
+    await()
+        .atMost(20, SECONDS)
+        .untilAsserted(
+            () ->
+                assertEquals(
+                    JobStatus.COMPLETE,
+                    jobsRepository.findById(ids.get(3)).orElseThrow().getStatus()));
+    List<Job> jobs = ids.stream().map(id -> jobsRepository.findById(id).orElseThrow()).toList();
+    assertTrue(jobs.stream().allMatch(job -> job.getStatus() == JobStatus.COMPLETE));
+    // each job starts only after the jobs it depends on have finished
+    assertFalse(jobs.get(1).getStartedAt().isBefore(jobs.get(0).getFinishedAt()));
+    assertFalse(jobs.get(2).getStartedAt().isBefore(jobs.get(0).getFinishedAt()));
+    assertFalse(jobs.get(3).getStartedAt().isBefore(jobs.get(1).getFinishedAt()));
+    assertFalse(jobs.get(3).getStartedAt().isBefore(jobs.get(2).getFinishedAt()));
+    assertEquals(0, jobDependenciesRepository.count());
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void the_jobs_depending_on_a_failed_job_are_cancelled() throws Exception {
+    // arrange
+    JobGraph graph = new JobGraph();
+    int commons = graph.add(TestJob.builder().fail(true).build());
+    int menuItems = graph.add(TestJob.builder().build(), commons);
+    graph.add(TestJob.builder().build(), menuItems);
+    graph.add(TestJob.builder().build());
+
+    // act
+    List<Job> jobs = jobService.runAsGraph(graph, null);
+
+    // assert
+    await()
+        .atMost(10, SECONDS)
+        .untilAsserted(
+            () ->
+                assertEquals(
+                    List.of(
+                        JobStatus.ERROR,
+                        JobStatus.CANCELLED,
+                        JobStatus.CANCELLED,
+                        JobStatus.COMPLETE),
+                    jobs.stream()
+                        .map(job -> jobsRepository.findById(job.getId()).orElseThrow().getStatus())
+                        .toList()));
+    assertEquals(
+        "Job cancelled: job %d, which it depends on, ended with status cancelled"
+            .formatted(jobs.get(menuItems).getId()),
+        mockMvc
+            .perform(get("/api/jobs/logs/{id}", jobs.get(2).getId()))
+            .andExpect(status().isOk())
+            .andReturn()
+            .getResponse()
+            .getContentAsString());
+    assertNull(jobsRepository.findById(jobs.get(menuItems).getId()).orElseThrow().getStartedAt());
+    assertEquals(0, jobDependenciesRepository.count());
+  }
+
+  private static JobGraphNode node(String name, String params, String... dependsOn) {
+    return JobGraphNode.builder()
+        .name(name)
+        .jobType(TestJob.class.getName())
+        .params(params)
+        .dependsOn(List.of(dependsOn))
+        .build();
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void an_admin_can_list_jobs_by_status_without_their_logs() throws Exception {
+    // arrange
+    Job complete = jobsRepository.save(Job.builder().status(JobStatus.COMPLETE).log("x").build());
+    Job error = jobsRepository.save(Job.builder().status(JobStatus.ERROR).build());
+    jobsRepository.save(Job.builder().status(JobStatus.COMPLETE).build());
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(get("/api/jobs/list?status=complete&size=1"))
+            .andExpect(status().isOk())
+            .andReturn();
+    MvcResult nextPage =
+        mockMvc
+            .perform(get("/api/jobs/list?status=complete&beforeId={id}", complete.getId() + 1))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    List<Map<String, Object>> jobs =
+        mapper.readValue(response.getResponse().getContentAsString(), List.class);
+    assertEquals(1, jobs.size());
+    assertEquals("complete", jobs.get(0).get("status"));
+    assertTrue(((Number) jobs.get(0).get("id")).longValue() > error.getId());
+    assertFalse(jobs.get(0).containsKey("log"));
+
+    List<Map<String, Object>> older =
+        mapper.readValue(nextPage.getResponse().getContentAsString(), List.class);
+    assertEquals(1, older.size());
+    assertEquals(complete.getId(), ((Number) older.get(0).get("id")).longValue());
+  }
+
+  @Test
+  public void purge_deletes_finished_jobs_older_than_the_maximum_age() {
+    // arrange
+    Job aged = jobsRepository.save(Job.builder().status(JobStatus.COMPLETE).build());
+    jobLogLinesRepository.save(
+        JobLogLine.builder().jobId(aged.getId()).seq(0).message("done").build());
+    Job fresh = jobsRepository.save(Job.builder().status(JobStatus.COMPLETE).build());
+    assertNotNull(jobsRepository.findById(fresh.getId()).orElseThrow().getCreatedAt());
+    jdbcTemplate.update(
+        "UPDATE jobs SET created_at = ? WHERE id = ?",
+        Timestamp.from(Instant.now().minus(Duration.ofDays(31))),
+        aged.getId());
+
+    // act
+    JobPurgeReport report = jobPurgeService.purge();
+
+    // assert
+    assertEquals(1, report.getExpiredJobsDeleted());
+    assertEquals(0, report.getExcessJobsDeleted());
+    assertEquals(1, report.getLogLinesDeleted());
+    assertFalse(jobsRepository.existsById(aged.getId()));
+    assertTrue(jobsRepository.existsById(fresh.getId()));
+  }
+
+  @Test
+  public void purge_keeps_the_newest_jobs_and_any_running_job() throws Exception {
+    // arrange
+    Job running = jobsRepository.save(Job.builder().status(JobStatus.RUNNING).build());
+    Job oldest = jobsRepository.save(Job.builder().status(JobStatus.COMPLETE).build());
+    jobLogLinesRepository.save(
+        JobLogLine.builder().jobId(oldest.getId()).seq(0).message("done").build());
+    Job older = jobsRepository.save(Job.builder().status(JobStatus.ERROR).build());
+    Job newest = jobsRepository.save(Job.builder().status(JobStatus.COMPLETE).build());
+
+    // act
+    JobPurgeReport report = jobPurgeService.purge();
+
+    // assert
+    assertEquals(0, report.getExpiredJobsDeleted());
+    assertEquals(2, report.getExcessJobsDeleted());
+    assertEquals(1, report.getLogLinesDeleted());
+    assertTrue(jobsRepository.existsById(running.getId()));
+    assertTrue(jobsRepository.existsById(newest.getId()));
+    assertFalse(jobsRepository.existsById(oldest.getId()));
+    assertFalse(jobsRepository.existsById(older.getId()));
+    assertEquals(List.of(), jobLogLinesRepository.findByJobIdOrderBySeqAsc(oldest.getId()));
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void an_admin_can_bulk_delete_jobs_by_status() throws Exception {
+    // arrange
+    Job error = jobsRepository.save(Job.builder().status(JobStatus.ERROR).build());
+    jobLogLinesRepository.save(
+        JobLogLine.builder().jobId(error.getId()).seq(0).message("boom").build());
+    Job complete = jobsRepository.save(Job.builder().status(JobStatus.COMPLETE).build());
+
+    // act
+    MvcResult response =
+        mockMvc
+            .perform(delete("/api/jobs/bulk?status=error").with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+    MvcResult byId =
+        mockMvc
+            .perform(delete("/api/jobs/bulk?ids={id}&createdById=1", complete.getId()).with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    Map<String, Object> json =
+        mapper.readValue(response.getResponse().getContentAsString(), Map.class);
+    assertEquals(1, json.get("jobsDeleted"));
+    assertEquals(1, json.get("logLinesDeleted"));
+    assertFalse(jobsRepository.existsById(error.getId()));
+    Map<String, Object> byIdJson =
+        mapper.readValue(byId.getResponse().getContentAsString(), Map.class);
+    assertEquals(0, byIdJson.get("jobsDeleted"));
+    assertTrue(jobsRepository.existsById(complete.getId()));
+  }
+
+  @WithMockUser(roles = {"ADMIN", "USER"})
+  @Test
+  public void a_bulk_delete_removes_queue_entries_and_edges_but_keeps_active_jobs()
+      throws Exception {
+    // arrange
+    Job error = jobsRepository.save(Job.builder().status(JobStatus.ERROR).build());
+    Job running = jobsRepository.save(Job.builder().status(JobStatus.RUNNING).build());
+    Job waiting = jobsRepository.save(Job.builder().status(JobStatus.WAITING).build());
+    for (Job job : List.of(error, running)) {
+      jobQueueRepository.save(
+          JobQueueEntry.builder()
+              .id(job.getId())
+              .enqueuedBy("other-node")
+              .claimedBy("other-node")
+              .leaseExpiresAt(ZonedDateTime.now().plusMinutes(5))
+              .build());
+    }
+    jobDependenciesRepository.save(
+        JobDependency.builder().jobId(waiting.getId()).prerequisiteId(error.getId()).build());
+
+    // act
+    mockMvc.perform(delete("/api/jobs/bulk").with(csrf())).andExpect(status().isBadRequest());
+    MvcResult response =
+        mockMvc
+            .perform(
+                delete("/api/jobs/bulk?ids={error},{running}", error.getId(), running.getId())
+                    .with(csrf()))
+            .andExpect(status().isOk())
+            .andReturn();
+
+    // assert
+    Map<String, Object> json =
+        mapper.readValue(response.getResponse().getContentAsString(), Map.class);
+    assertEquals(1, json.get("jobsDeleted"));
+    assertFalse(jobsRepository.existsById(error.getId()));
+    assertFalse(jobQueueRepository.existsById(error.getId()));
+    assertTrue(jobsRepository.existsById(running.getId()));
+    assertTrue(jobQueueRepository.existsById(running.getId()));
+    assertEquals(0, jobDependenciesRepository.count());
+  }
+
+  @Test
+  public void system_launches_with_the_same_key_conflict_in_the_database() throws Exception {
+    // arrange
+    jobsRepository.save(Job.builder().status(JobStatus.QUEUED).dedupKey("nightly-report").build());
+
+    // act
+    Job again = Job.builder().status(JobStatus.QUEUED).dedupKey("nightly-report").build();
+
+    // assert
+    assertThrows(DataIntegrityViolationException.class, () -> jobsRepository.save(again));
+    Job sameTask = jobService.runAsJob(TestJob.builder().build(), null, "nightly-report");
+    assertEquals("nightly-report", sameTask.getDedupKey());
+    assertEquals(1, jobsRepository.count());
+  }
+
+  /** Writes the numbers below {@code count}, two at a time; fails at {@code failAt} once. */
+  @Getter
+  @Builder
+  @Jacksonized
+  public static class NumbersJob extends ChunkedJob<Integer, Integer> {
+    static final List<Integer> WRITTEN = new CopyOnWriteArrayList<>();
+    private static final AtomicBoolean FAILED = new AtomicBoolean();
+
+    private int count;
+    private int failAt;
+
+    @Override
+    protected int chunkSize() {
+      return 2;
+    }
+
+    @Override
+    protected long total() {
+      return count;
+    }
+
+    @Override
+    protected List<Integer> read(long offset, int size) {
+      return IntStream.range((int) offset, Math.min((int) offset + size, count)).boxed().toList();
+    }
+
+    @Override
+    protected Integer process(Integer item) {
+      if (item == failAt && FAILED.compareAndSet(false, true)) {
+        throw new IllegalStateException("failed at " + item);
+      }
+      return item;
+    }
+
+    @Override
+    protected void write(List<Integer> items) {
+      WRITTEN.addAll(items);
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package edu.ucsb.cs156.example.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.services.diagnostics.MemoryDiagnostics;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+public class HeapDumpJobTests extends JobTestCase {
+
+  @Mock MemoryDiagnostics memoryDiagnostics;
+
+  private final ByteArrayOutputStream result = new ByteArrayOutputStream();
+
+  private Path file;
+
+  @BeforeEach
+  public void setup() throws Exception {
+    storeResultIn(result, "heap-5.hprof.gz", "application/gzip");
+    file = Files.createTempDirectory("heap-").resolve("heap.hprof");
+    Files.writeString(file, "JAVA PROFILE 1.0.2");
+  }
+
+  private HeapDumpJob heapDumpJob(boolean live) {
+    return autowire(HeapDumpJob.builder().live(live).build(), memoryDiagnostics);
+  }
+
+  @Test
+  public void the_heap_dump_is_stored_gzipped_and_the_file_deleted() throws Exception {
+
+    // arrange
+    when(memoryDiagnostics.dumpHeap(true)).thenReturn(file);
+
+    // act
+    heapDumpJob(true).accept(ctx);
+
+    // assert
+    try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(result.toByteArray()))) {
+      assertEquals("JAVA PROFILE 1.0.2", new String(in.readAllBytes(), StandardCharsets.UTF_8));
+    }
+    assertTrue(Files.notExists(file));
+    assertTrue(Files.notExists(file.getParent()));
+    assertEquals(
+        List.of(
+            "Dumping the live objects in the heap of node node-1",
+            "Dumped 18 bytes",
+            "Stored %d compressed bytes".formatted(result.size())),
+        logged());
+  }
+
+  @Test
+  public void the_file_is_deleted_even_if_the_dump_cannot_be_stored() throws Exception {
+
+    // arrange
+    when(memoryDiagnostics.dumpHeap(false)).thenReturn(file);
+    doThrow(new IllegalStateException("database is down"))
+        .when(jobResultStore)
+        .writeFile(eq(job), eq("heap-5.hprof.gz"), eq("application/gzip"), any());
+
+    // act
+    assertThrows(IllegalStateException.class, () -> heapDumpJob(false).accept(ctx));
+
+    // assert
+    assertTrue(Files.notExists(file));
+    assertEquals(List.of("Dumping the whole heap of node node-1", "Dumped 18 bytes"), logged());
+  }
+}
@@ -0,0 +1,81 @@
+package edu.ucsb.cs156.example.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.services.diagnostics.JfrRecorder;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+
+public class JfrRecordingJobTests extends JobTestCase {
+
+  @Mock JfrRecorder jfrRecorder;
+
+  private final ByteArrayOutputStream result = new ByteArrayOutputStream();
+
+  @Test
+  public void a_recording_is_stored_as_the_job_result() throws Exception {
+
+    // arrange
+    storeResultIn(result, "recording-5.jfr", "application/octet-stream");
+    JfrRecordingJob recordingJob =
+        autowire(
+            JfrRecordingJob.builder().durationSeconds(1).settings("default").build(),
+            new JfrRecorder());
+
+    // act
+    recordingJob.accept(ctx);
+
+    // assert
+    assertArrayEquals(
+        "FLR".getBytes(StandardCharsets.US_ASCII), Arrays.copyOf(result.toByteArray(), 3));
+    assertEquals(1L, job.getProgressDone());
+    List<String> log = logged();
+    assertEquals("Recording node node-1 for 1s with default settings", log.get(0));
+    assertEquals("Stored a recording of %d bytes".formatted(result.size()), log.get(1));
+  }
+
+  @Test
+  public void the_continuous_recording_is_dumped_and_the_file_deleted() throws Exception {
+
+    // arrange
+    Path file = Files.createTempFile("continuous-", ".jfr");
+    Files.writeString(file, "FLR recording");
+    when(jfrRecorder.dumpContinuous()).thenReturn(file);
+    storeResultIn(result, "continuous-5.jfr", "application/octet-stream");
+    JfrDumpJob dumpJob = autowire(JfrDumpJob.builder().build(), jfrRecorder);
+
+    // act
+    dumpJob.accept(ctx);
+
+    // assert
+    assertEquals("FLR recording", result.toString(StandardCharsets.UTF_8));
+    assertTrue(Files.notExists(file));
+    assertEquals(
+        List.of(
+            "Dumping the continuous recording of node node-1", "Stored a recording of 13 bytes"),
+        logged());
+  }
+
+  @Test
+  public void parameters_out_of_range_are_rejected() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> JfrRecordingJob.builder().durationSeconds(0).settings("default").build());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> JfrRecordingJob.builder().durationSeconds(10).settings("custom").build());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> JfrRecordingJob.builder().durationSeconds(10).build());
+  }
+}
@@ -0,0 +1,102 @@
+package edu.ucsb.cs156.example.jobs;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
+import edu.ucsb.cs156.example.services.jobs.JobContext;
+import edu.ucsb.cs156.example.services.jobs.JobContextConsumer;
+import edu.ucsb.cs156.example.services.jobs.JobQueue;
+import edu.ucsb.cs156.example.services.jobs.JobResultStore;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Field;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Runs a job outside of JobService: the job logs to, and stores its result in, mocks, and its beans
+ * are set by {@link #autowire} rather than by Spring.
+ */
+public abstract class JobTestCase {
+  @Mock JobLogLinesRepository jobLogLinesRepository;
+
+  @Mock JobResultStore jobResultStore;
+
+  @Mock JobQueue jobQueue;
+
+  final Job job = Job.builder().id(5L).build();
+
+  JobContext ctx;
+
+  @BeforeEach
+  public void setupJobTestCase() {
+    MockitoAnnotations.openMocks(this);
+    when(jobQueue.getNodeId()).thenReturn("node-1");
+    ctx =
+        JobContext.builder()
+            .jobLogLinesRepository(jobLogLinesRepository)
+            .job(job)
+            .resultStore(jobResultStore)
+            .build();
+  }
+
+  /**
+   * Sets each {@code @Autowired} field of a job to the bean of its type, as JobQueue has Spring do
+   * before the job runs.
+   *
+   * @param jobFunction the job
+   * @param beans the beans besides {@link #jobQueue}, e.g. mocks of the repositories it uses
+   * @return the job
+   */
+  <T extends JobContextConsumer> T autowire(T jobFunction, Object... beans) {
+    for (Field field : jobFunction.getClass().getDeclaredFields()) {
+      if (!field.isAnnotationPresent(Autowired.class)) continue;
+      if (field.getType().isInstance(jobQueue)) {
+        ReflectionTestUtils.setField(jobFunction, field.getName(), jobQueue);
+      }
+      for (Object bean : beans) {
+        if (field.getType().isInstance(bean)) {
+          ReflectionTestUtils.setField(jobFunction, field.getName(), bean);
+        }
+      }
+    }
+    return jobFunction;
+  }
+
+  /**
+   * Has the result store write the result file of the job to a stream, and record its size on the
+   * job, as the store does once the file is written.
+   */
+  void storeResultIn(ByteArrayOutputStream out, String fileName, String contentType)
+      throws Exception {
+    doAnswer(
+            invocation -> {
+              invocation.<JobResultStore.ResultWriter>getArgument(3).write(out);
+              job.setResultSize((long) out.size());
+              return null;
+            })
+        .when(jobResultStore)
+        .writeFile(eq(job), eq(fileName), eq(contentType), any());
+  }
+
+  /**
+   * @return the messages the job logged, in order
+   */
+  @SuppressWarnings("unchecked")
+  List<String> logged() {
+    ArgumentCaptor<List<JobLogLine>> lines = ArgumentCaptor.forClass(List.class);
+    verify(jobLogLinesRepository, atLeastOnce()).saveAll(lines.capture());
+    return lines.getAllValues().stream().flatMap(List::stream).map(JobLogLine::getMessage).toList();
+  }
+}
@@ -0,0 +1,65 @@
+package edu.ucsb.cs156.example.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ucsb.cs156.example.models.LatencySummary;
+import org.junit.jupiter.api.Test;
+
+public class LatencyHistogramTests {
+
+  @Test
+  public void buckets_are_exact_below_32_micros_and_about_3_percent_wide_above() {
+    for (long micros = 0; micros < 32; micros++) {
+      assertEquals(micros, LatencyHistogram.lowerBound(LatencyHistogram.bucketOf(micros)));
+    }
+    for (long micros : new long[] {32, 100, 999, 123_456, 60_000_000}) {
+      int bucket = LatencyHistogram.bucketOf(micros);
+      long lower = LatencyHistogram.lowerBound(bucket);
+      long next = LatencyHistogram.lowerBound(bucket + 1);
+      assertTrue(lower <= micros && micros < next, "bucket of " + micros);
+      assertTrue(next - lower <= Math.max(1, lower / 32), "width at " + micros);
+    }
+  }
+
+  @Test
+  public void percentiles_are_within_a_bucket_of_the_exact_values() {
+    // arrange
+    LatencyHistogram histogram = new LatencyHistogram();
+    for (long micros = 1; micros <= 1000; micros++) histogram.record(micros * 1000);
+
+    // act
+    LatencySummary summary = histogram.summarize();
+
+    // assert
+    assertEquals(1000, summary.getCount());
+    assertEquals(0.5005, summary.getMeanMs(), 1e-9);
+    assertEquals(0.5, summary.getP50Ms(), 0.5 * 0.04);
+    assertEquals(0.9, summary.getP90Ms(), 0.9 * 0.04);
+    assertEquals(0.99, summary.getP99Ms(), 0.99 * 0.04);
+    assertEquals(1.0, summary.getMaxMs());
+  }
+
+  @Test
+  public void histograms_of_workers_are_added_together() {
+    // arrange
+    LatencyHistogram first = new LatencyHistogram();
+    LatencyHistogram second = new LatencyHistogram();
+    first.record(10_000);
+    second.record(20_000);
+    second.record(5_000_000);
+
+    // act
+    first.add(second);
+
+    // assert
+    assertEquals(3, first.getCount());
+    assertEquals(20, first.percentileMicros(50));
+    assertEquals(5000, first.percentileMicros(100));
+  }
+
+  @Test
+  public void an_empty_histogram_summarizes_to_zeros() {
+    assertEquals(LatencySummary.builder().build(), new LatencyHistogram().summarize());
+  }
+}
@@ -0,0 +1,167 @@
+package edu.ucsb.cs156.example.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.Articles;
+import edu.ucsb.cs156.example.entities.HelpRequest;
+import edu.ucsb.cs156.example.entities.MenuItemReview;
+import edu.ucsb.cs156.example.models.SyntheticLoadReport;
+import edu.ucsb.cs156.example.repositories.ArticlesRepository;
+import edu.ucsb.cs156.example.repositories.HelpRequestRepository;
+import edu.ucsb.cs156.example.repositories.MenuItemReviewRepository;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.stubbing.Answer;
+
+public class SyntheticLoadJobTests extends JobTestCase {
+
+  @Mock MenuItemReviewRepository menuItemReviewRepository;
+
+  @Mock HelpRequestRepository helpRequestRepository;
+
+  @Mock ArticlesRepository articlesRepository;
+
+  private final AtomicLong nextId = new AtomicLong(1);
+
+  @BeforeEach
+  public void setup() {
+    when(menuItemReviewRepository.save(any())).thenAnswer(slowly(MenuItemReview::setId));
+    when(helpRequestRepository.save(any())).thenAnswer(slowly(HelpRequest::setId));
+    when(articlesRepository.save(any())).thenAnswer(slowly(Articles::setId));
+    when(menuItemReviewRepository.findById(anyLong())).thenAnswer(slowly(null));
+    when(helpRequestRepository.findById(anyLong())).thenAnswer(slowly(null));
+    when(articlesRepository.findById(anyLong())).thenAnswer(slowly(null));
+  }
+
+  /**
+   * Answers a save by giving the row the next id, or a find with nothing, after a millisecond like
+   * a database would, which keeps the number of calls the mocks record small.
+   */
+  private <T> Answer<Object> slowly(BiConsumer<T, Long> setId) {
+    return invocation -> {
+      Thread.sleep(1);
+      if (setId == null) return Optional.empty();
+      T row = invocation.getArgument(0);
+      setId.accept(row, nextId.getAndIncrement());
+      return row;
+    };
+  }
+
+  private SyntheticLoadJob loadJob(int workers, int writePercent) {
+    return autowire(
+        SyntheticLoadJob.builder()
+            .workers(workers)
+            .durationSeconds(1)
+            .writePercent(writePercent)
+            .build(),
+        menuItemReviewRepository,
+        helpRequestRepository,
+        articlesRepository);
+  }
+
+  private SyntheticLoadReport run(SyntheticLoadJob loadJob) throws Exception {
+    loadJob.accept(ctx);
+    ArgumentCaptor<Object> report = ArgumentCaptor.forClass(Object.class);
+    verify(jobResultStore).writeJson(eq(job), report.capture());
+    return (SyntheticLoadReport) report.getValue();
+  }
+
+  @SuppressWarnings("unchecked")
+  private List<Long> deletedIds() {
+    ArgumentCaptor<Iterable<Long>> ids = ArgumentCaptor.forClass(Iterable.class);
+    List<Long> deleted = new ArrayList<>();
+    verify(menuItemReviewRepository).deleteAllById(ids.capture());
+    verify(helpRequestRepository).deleteAllById(ids.capture());
+    verify(articlesRepository).deleteAllById(ids.capture());
+    ids.getAllValues().forEach(i -> deleted.addAll((Collection<Long>) i));
+    return deleted;
+  }
+
+  @Test
+  public void workers_run_reads_and_writes_and_report_their_latencies() throws Exception {
+
+    // act
+    SyntheticLoadReport report = run(loadJob(3, 50));
+
+    // assert
+    assertEquals(3, report.getWorkers());
+    assertEquals(50, report.getWritePercent());
+    assertEquals(0, report.getErrors());
+    assertTrue(report.getDurationMs() >= 1000);
+    assertTrue(report.getReads().getCount() > 0);
+    assertTrue(report.getWrites().getCount() > 0);
+    assertEquals(
+        report.getReads().getCount() + report.getWrites().getCount(), report.getOperations());
+    assertTrue(report.getOperationsPerSecond() > 0);
+    assertTrue(report.getReads().getP50Ms() <= report.getReads().getP99Ms());
+    assertTrue(report.getReads().getP99Ms() <= report.getReads().getMaxMs());
+    verify(articlesRepository, atLeastOnce()).findById(anyLong());
+  }
+
+  @Test
+  public void every_row_the_job_inserted_is_deleted() throws Exception {
+
+    // act
+    SyntheticLoadReport report = run(loadJob(2, 100));
+
+    // assert
+    assertEquals(0, report.getReads().getCount());
+    List<Long> deleted = deletedIds();
+    assertEquals(3 * SyntheticLoadJob.SEED_ROWS + report.getWrites().getCount(), deleted.size());
+    assertEquals(nextId.get() - 1, deleted.size());
+  }
+
+  @Test
+  public void failed_operations_are_counted_and_the_rows_are_still_deleted() throws Exception {
+
+    // arrange
+    when(helpRequestRepository.findById(anyLong()))
+        .thenThrow(new IllegalStateException("connection refused"));
+
+    // act
+    SyntheticLoadReport report = run(loadJob(1, 0));
+
+    // assert
+    assertTrue(report.getErrors() > 0);
+    assertEquals(report.getReads().getCount() + report.getErrors(), report.getOperations());
+    assertEquals(3 * SyntheticLoadJob.SEED_ROWS, deletedIds().size());
+    List<String> log = logged();
+    assertTrue(
+        log.stream()
+            .anyMatch(
+                line ->
+                    line.endsWith(
+                        "read on helprequest: java.lang.IllegalStateException: connection refused")),
+        String.join("\n", log));
+    assertEquals("Deleted 300 synthetic rows", log.get(log.size() - 1));
+  }
+
+  @Test
+  public void parameters_out_of_range_are_rejected() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> SyntheticLoadJob.builder().workers(0).durationSeconds(1).build());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> SyntheticLoadJob.builder().workers(1).durationSeconds(3601).build());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> SyntheticLoadJob.builder().workers(1).durationSeconds(1).writePercent(101).build());
+  }
+}
@@ -5,8 +5,13 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.when;
 
 import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
 import edu.ucsb.cs156.example.repositories.JobsRepository;
+import edu.ucsb.cs156.example.services.jobs.JobLogArchive;
 import edu.ucsb.cs156.example.services.jobs.JobService;
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -18,6 +23,10 @@ public class JobLogsServiceTests {
 
   @Mock private JobsRepository jobRepository;
 
+  @Mock private JobLogLinesRepository jobLogLinesRepository;
+
+  @Mock private JobLogArchive jobLogArchive;
+
   @InjectMocks private JobService jobService;
 
   @BeforeEach
@@ -55,6 +64,26 @@ public class JobLogsServiceTests {
     assertEquals("", result);
   }
 
+  @Test
+  void test_getJobLogs_reassembles_log_lines() {
+    // Arrange
+    Long jobId = 4L;
+    Job job = Job.builder().build();
+    job.setLog("stale log column");
+    when(jobRepository.findById(jobId)).thenReturn(Optional.of(job));
+    when(jobLogLinesRepository.findByJobIdOrderBySeqAsc(jobId))
+        .thenReturn(
+            List.of(
+                JobLogLine.builder().jobId(jobId).seq(0).message("first line").build(),
+                JobLogLine.builder().jobId(jobId).seq(1).message("second line").build()));
+
+    // Act
+    String result = jobService.getJobLogs(jobId);
+
+    // Assert
+    assertEquals("first line\nsecond line", result);
+  }
+
   @Test
   void test_getJobLogs_job_not_found() {
     // Arrange
@@ -62,6 +91,6 @@ public class JobLogsServiceTests {
     when(jobRepository.findById(jobId)).thenReturn(Optional.empty());
 
     // Act & Assert
-    assertThrows(IllegalArgumentException.class, () -> jobService.getJobLogs(jobId));
+    assertThrows(EntityNotFoundException.class, () -> jobService.getJobLogs(jobId));
   }
 }
@@ -0,0 +1,92 @@
+package edu.ucsb.cs156.example.services.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.unit.DataSize;
+
+public class JfrRecorderTests {
+
+  private final JfrRecorder jfrRecorder = new JfrRecorder();
+
+  @AfterEach
+  public void teardown() {
+    jfrRecorder.stopContinuous();
+  }
+
+  static byte[] magic(Path file) throws Exception {
+    return Arrays.copyOf(Files.readAllBytes(file), 3);
+  }
+
+  @Test
+  public void there_is_no_continuous_recording_unless_enabled() throws Exception {
+
+    // act
+    jfrRecorder.startContinuous();
+
+    // assert
+    assertFalse(jfrRecorder.isContinuousRecording());
+    IllegalStateException e =
+        assertThrows(IllegalStateException.class, () -> jfrRecorder.dumpContinuous());
+    assertEquals(
+        "No continuous recording is running; set app.jfr.continuous.enabled to start one",
+        e.getMessage());
+  }
+
+  @Test
+  public void the_continuous_recording_is_dumped_on_demand() throws Exception {
+
+    // arrange
+    ReflectionTestUtils.setField(jfrRecorder, "continuous", true);
+    ReflectionTestUtils.setField(jfrRecorder, "continuousSettings", "default");
+    ReflectionTestUtils.setField(jfrRecorder, "maxAge", Duration.ofMinutes(5));
+    ReflectionTestUtils.setField(jfrRecorder, "maxSize", DataSize.ofMegabytes(16));
+    jfrRecorder.startContinuous();
+
+    // act
+    Path file = jfrRecorder.dumpContinuous();
+
+    // assert
+    try {
+      assertTrue(jfrRecorder.isContinuousRecording());
+      assertArrayEquals("FLR".getBytes(StandardCharsets.US_ASCII), magic(file));
+    } finally {
+      Files.deleteIfExists(file);
+    }
+    jfrRecorder.stopContinuous();
+    assertFalse(jfrRecorder.isContinuousRecording());
+  }
+
+  @Test
+  public void a_recording_is_started_with_the_given_settings() throws Exception {
+
+    // act
+    try (Recording recording = jfrRecorder.start("job-1", "profile")) {
+
+      // assert
+      assertEquals("job-1", recording.getName());
+      assertEquals(RecordingState.RUNNING, recording.getState());
+      assertTrue(recording.getSettings().size() > 0);
+    }
+  }
+
+  @Test
+  public void only_the_settings_shipped_with_the_jdk_are_accepted() {
+    IllegalArgumentException e =
+        assertThrows(IllegalArgumentException.class, () -> jfrRecorder.start("job-1", "../etc"));
+    assertEquals("settings must be default or profile", e.getMessage());
+  }
+}
@@ -0,0 +1,120 @@
+package edu.ucsb.cs156.example.services.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.models.ClassHistogramEntry;
+import edu.ucsb.cs156.example.models.GarbageCollectorStats;
+import edu.ucsb.cs156.example.models.MemoryPoolStats;
+import edu.ucsb.cs156.example.models.MemoryReport;
+import edu.ucsb.cs156.example.services.jobs.JobQueue;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class MemoryDiagnosticsTests {
+
+  @Mock JobQueue jobQueue;
+
+  private final MemoryDiagnostics memoryDiagnostics = new MemoryDiagnostics();
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    when(jobQueue.getNodeId()).thenReturn("node-1");
+    ReflectionTestUtils.setField(memoryDiagnostics, "jobQueue", jobQueue);
+  }
+
+  @Test
+  public void the_memory_report_covers_the_heap_its_pools_and_the_collectors() {
+
+    // arrange
+    System.gc();
+
+    // act
+    MemoryReport report = memoryDiagnostics.memory();
+
+    // assert
+    assertEquals("node-1", report.getNodeId());
+    assertTrue(report.getUptimeMs() > 0);
+    assertEquals("HEAP", report.getHeap().getType());
+    assertTrue(report.getHeap().getUsedBytes() > 0);
+    assertTrue(report.getHeap().getCommittedBytes() >= report.getHeap().getUsedBytes());
+    assertNull(report.getHeap().getUsedAfterGcBytes());
+    assertEquals("NON_HEAP", report.getNonHeap().getType());
+    assertTrue(report.getPools().stream().anyMatch(pool -> pool.getType().equals("HEAP")));
+    assertTrue(report.getPools().stream().anyMatch(pool -> pool.getType().equals("NON_HEAP")));
+    long heapPoolsUsed =
+        report.getPools().stream()
+            .filter(pool -> pool.getType().equals("HEAP"))
+            .mapToLong(MemoryPoolStats::getUsedBytes)
+            .sum();
+    assertTrue(heapPoolsUsed > 0);
+    assertFalse(report.getCollectors().isEmpty());
+    GarbageCollectorStats collected =
+        report.getCollectors().stream()
+            .filter(collector -> collector.getCollections() > 0)
+            .findFirst()
+            .orElseThrow();
+    assertFalse(collected.getPools().isEmpty());
+    assertEquals(
+        (double) collected.getCollectionTimeMs() / collected.getCollections(),
+        collected.getMeanCollectionMs());
+  }
+
+  @Test
+  public void the_class_histogram_lists_the_classes_with_the_most_bytes_first() throws Exception {
+
+    // act
+    List<ClassHistogramEntry> classes = memoryDiagnostics.classHistogram(5);
+
+    // assert
+    assertEquals(5, classes.size());
+    for (int i = 1; i < classes.size(); i++) {
+      assertTrue(classes.get(i - 1).getBytes() >= classes.get(i).getBytes(), classes.toString());
+    }
+    assertTrue(classes.stream().allMatch(entry -> entry.getInstances() > 0));
+  }
+
+  @Test
+  public void a_class_histogram_is_parsed_without_its_header_and_total() {
+
+    // arrange
+    String histogram =
+        """
+         num     #instances         #bytes  class name (module)
+        -------------------------------------------------------
+           1:         41201        3925704  [B (java.base@21.0.1)
+           2:         39560         949440  java.lang.String (java.base@21.0.1)
+           3:          1203         134736  edu.ucsb.cs156.example.entities.JobLogLine
+        Total        81964        5009880
+        """;
+
+    // act
+    List<ClassHistogramEntry> all = MemoryDiagnostics.parseHistogram(histogram, 10);
+    List<ClassHistogramEntry> top = MemoryDiagnostics.parseHistogram(histogram, 2);
+
+    // assert
+    assertEquals(
+        List.of(
+            ClassHistogramEntry.builder().className("[B").instances(41201).bytes(3925704).build(),
+            ClassHistogramEntry.builder()
+                .className("java.lang.String")
+                .instances(39560)
+                .bytes(949440)
+                .build(),
+            ClassHistogramEntry.builder()
+                .className("edu.ucsb.cs156.example.entities.JobLogLine")
+                .instances(1203)
+                .bytes(134736)
+                .build()),
+        all);
+    assertEquals(all.subList(0, 2), top);
+  }
+}
@@ -0,0 +1,36 @@
+package edu.ucsb.cs156.example.services.diagnostics;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.function.Executable;
+
+/** Records the Flight Recorder events of one type that some code emits, for tests to check. */
+public class RecordedEvents {
+
+  /**
+   * @param eventName the name of the event type, e.g. edu.ucsb.cs156.example.JobStep
+   * @param action the code to run while recording
+   * @return the events of that type, in the order they were committed
+   * @throws Throwable what the action threw
+   */
+  public static List<RecordedEvent> record(String eventName, Executable action) throws Throwable {
+    Path file = Files.createTempFile("events-", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable(eventName).withoutThreshold();
+      recording.start();
+      action.execute();
+      recording.stop();
+      recording.dump(file);
+      return RecordingFile.readAllEvents(file).stream()
+          .filter(e -> e.getEventType().getName().equals(eventName))
+          .sorted((a, b) -> a.getStartTime().compareTo(b.getStartTime()))
+          .toList();
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+}
@@ -0,0 +1,145 @@
+package edu.ucsb.cs156.example.services.diagnostics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+public class StackSamplerTests {
+
+  private final StackSampler stackSampler = new StackSampler();
+
+  private final AtomicBoolean running = new AtomicBoolean(true);
+
+  private final CountDownLatch parked = new CountDownLatch(1);
+
+  @AfterEach
+  public void teardown() {
+    running.set(false);
+  }
+
+  static volatile long sink;
+
+  private void spin() {
+    while (running.get()) sink++;
+  }
+
+  private void park() {
+    parked.countDown();
+    while (running.get()) {
+      try {
+        Thread.sleep(10);
+      } catch (InterruptedException e) {
+        return;
+      }
+    }
+  }
+
+  private void start(String name, Runnable body) {
+    Thread thread = new Thread(body, name);
+    thread.setDaemon(true);
+    thread.start();
+  }
+
+  private static boolean sampled(Map<String, Long> stacks, String method) {
+    return stacks.keySet().stream()
+        .anyMatch(stack -> stack.endsWith(StackSamplerTests.class.getName() + "." + method));
+  }
+
+  @Test
+  public void a_busy_request_thread_is_sampled_root_first() throws Exception {
+
+    // arrange
+    start("http-nio-8080-exec-1", this::spin);
+
+    // act
+    Map<String, Long> stacks =
+        stackSampler.sample(Duration.ofMillis(200), 5, StackSampler.Threads.REQUESTS, false);
+
+    // assert
+    assertTrue(sampled(stacks, "spin"), stacks.toString());
+    String stack =
+        stacks.keySet().stream().filter(s -> s.endsWith(".spin")).findFirst().orElseThrow();
+    assertTrue(stack.startsWith("java.lang.Thread.run"), stack);
+    assertTrue(stacks.values().stream().allMatch(count -> count > 0));
+  }
+
+  @Test
+  public void threads_are_filtered_by_name() throws Exception {
+
+    // arrange
+    start("http-nio-8080-exec-2", this::spin);
+
+    // act
+    Map<String, Long> stacks =
+        stackSampler.sample(Duration.ofMillis(100), 5, StackSampler.Threads.JOBS, false);
+
+    // assert
+    assertFalse(sampled(stacks, "spin"), stacks.toString());
+  }
+
+  @Test
+  public void waiting_threads_are_sampled_only_when_asked_for() throws Exception {
+
+    // arrange
+    start("job-1", this::park);
+    parked.await();
+
+    // act
+    Map<String, Long> cpu =
+        stackSampler.sample(Duration.ofMillis(100), 5, StackSampler.Threads.JOBS, false);
+    Map<String, Long> wall =
+        stackSampler.sample(Duration.ofMillis(100), 5, StackSampler.Threads.JOBS, true);
+
+    // assert
+    assertFalse(sampled(cpu, "park"), cpu.toString());
+    assertTrue(wall.keySet().stream().anyMatch(stack -> stack.contains(".park;")), wall.toString());
+  }
+
+  @Test
+  public void thread_names_are_matched_by_kind() {
+    assertTrue(StackSampler.Threads.REQUESTS.matches("http-nio-8080-exec-10"));
+    assertFalse(StackSampler.Threads.REQUESTS.matches("job-1"));
+    assertTrue(StackSampler.Threads.JOBS.matches("job-12"));
+    assertFalse(StackSampler.Threads.JOBS.matches("job-12-item-3"));
+    assertTrue(StackSampler.Threads.ALL.matches("main"));
+  }
+
+  @Test
+  public void stacks_are_formatted_most_sampled_first() {
+
+    // arrange
+    Map<String, Long> stacks = new LinkedHashMap<>();
+    stacks.put("a;b", 2L);
+    stacks.put("a;c", 5L);
+
+    // act
+    String formatted = StackSampler.format(stacks);
+
+    // assert
+    assertEquals("a;c 5\na;b 2\n", formatted);
+  }
+
+  @Test
+  public void frames_are_collapsed_outermost_first() {
+
+    // arrange
+    StackTraceElement[] frames = {
+      new StackTraceElement("Inner", "work", null, 1),
+      new StackTraceElement("Outer", "run", null, 1)
+    };
+
+    // act
+    String stack = StackSampler.collapse(frames);
+
+    // assert
+    assertEquals("Outer.run;Inner.work", stack);
+  }
+}
@@ -0,0 +1,121 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import edu.ucsb.cs156.example.entities.Job;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.LongStream;
+import org.junit.jupiter.api.Test;
+
+public class ChunkedJobTests {
+
+  /** Reads the numbers below {@code count}, leaves out multiples of 5 and writes the squares. */
+  private static class SquaresJob extends ChunkedJob<Long, Long> {
+    private final long count;
+    private final long failAt;
+    private final List<Long> reads = new ArrayList<>();
+    private final List<List<Long>> writes = new ArrayList<>();
+
+    SquaresJob(long count, long failAt) {
+      this.count = count;
+      this.failAt = failAt;
+    }
+
+    @Override
+    protected int chunkSize() {
+      return 3;
+    }
+
+    @Override
+    protected long total() {
+      return count;
+    }
+
+    @Override
+    protected List<Long> read(long offset, int size) {
+      reads.add(offset);
+      return LongStream.range(offset, Math.min(offset + size, count)).boxed().toList();
+    }
+
+    @Override
+    protected Long process(Long item) {
+      if (item == failAt) throw new IllegalStateException("bad item " + item);
+      return item % 5 == 0 ? null : item * item;
+    }
+
+    @Override
+    protected void write(List<Long> items) {
+      writes.add(items);
+    }
+  }
+
+  @Test
+  public void items_are_written_a_chunk_at_a_time_with_a_checkpoint_after_each() throws Exception {
+
+    // arrange
+    Job job = Job.builder().id(1L).build();
+    JobContext ctx = JobContext.builder().job(job).build();
+    SquaresJob squares = new SquaresJob(7, -1);
+
+    // act
+    squares.accept(ctx);
+
+    // assert
+    assertEquals(List.of(0L, 3L, 6L, 7L), squares.reads);
+    assertEquals(List.of(List.of(1L, 4L), List.of(9L, 16L), List.of(36L)), squares.writes);
+    assertEquals("7", job.getCheckpoint());
+    assertEquals(7L, job.getProgressDone());
+  }
+
+  @Test
+  public void a_restarted_job_continues_from_its_checkpoint() throws Exception {
+
+    // arrange
+    Job job = Job.builder().id(1L).checkpoint("3").build();
+    JobContext ctx = JobContext.builder().job(job).build();
+    SquaresJob squares = new SquaresJob(7, -1);
+
+    // act
+    squares.accept(ctx);
+
+    // assert
+    assertEquals(List.of(3L, 6L, 7L), squares.reads);
+    assertEquals(List.of(List.of(9L, 16L), List.of(36L)), squares.writes);
+    assertEquals("7", job.getCheckpoint());
+  }
+
+  @Test
+  public void a_failed_chunk_keeps_the_checkpoint_of_the_last_chunk_written() throws Exception {
+
+    // arrange
+    Job job = Job.builder().id(1L).build();
+    JobContext ctx = JobContext.builder().job(job).build();
+    SquaresJob squares = new SquaresJob(7, 4);
+
+    // act
+    assertThrows(IllegalStateException.class, () -> squares.accept(ctx));
+
+    // assert
+    assertEquals(List.of(List.of(1L, 4L)), squares.writes);
+    assertEquals("3", job.getCheckpoint());
+  }
+
+  @Test
+  public void a_job_with_nothing_to_read_writes_nothing() throws Exception {
+
+    // arrange
+    Job job = Job.builder().id(1L).build();
+    JobContext ctx = JobContext.builder().job(job).build();
+    SquaresJob squares = new SquaresJob(0, -1);
+
+    // act
+    squares.accept(ctx);
+
+    // assert
+    assertEquals(List.of(), squares.writes);
+    assertNull(job.getCheckpoint());
+  }
+}
@@ -1,9 +1,41 @@
 package edu.ucsb.cs156.example.services.jobs;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.entities.JobStatus;
+import edu.ucsb.cs156.example.errors.JobCancelledException;
+import edu.ucsb.cs156.example.errors.JobItemsFailedException;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import edu.ucsb.cs156.example.services.diagnostics.RecordedEvents;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.IntStream;
+import jdk.jfr.consumer.RecordedEvent;
 import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
 
 public class JobContextTests {
   @Test
@@ -12,12 +44,463 @@ public class JobContextTests {
     // arrange
 
     Job job1 = Job.builder().build();
-    JobContext ctx = new JobContext(null, job1);
+    JobContext ctx = JobContext.builder().job(job1).flushLines(1).build();
 
     // act
     ctx.log("This is a log message");
+    ctx.flush();
 
     // assert
-    assertEquals("This is a log message", job1.getLog());
+    assertNull(job1.getLog());
+  }
+
+  @Test
+  public void lines_are_buffered_until_flush_lines_is_reached() throws Exception {
+
+    // arrange
+
+    JobLogLinesRepository repository = mock(JobLogLinesRepository.class);
+    Job job1 = Job.builder().id(7L).build();
+    JobContext ctx =
+        JobContext.builder()
+            .jobLogLinesRepository(repository)
+            .job(job1)
+            .flushLines(2)
+            .flushIntervalMs(60_000)
+            .build();
+
+    // act
+    ctx.log("line one");
+    verify(repository, never()).saveAll(any());
+    ctx.log("line two");
+    ctx.log("line three");
+
+    // assert
+    verify(repository, times(1))
+        .saveAll(
+            List.of(
+                JobLogLine.builder().jobId(7L).seq(0).message("line one").build(),
+                JobLogLine.builder().jobId(7L).seq(1).message("line two").build()));
+    verify(repository, times(1)).saveAll(any());
+  }
+
+  @Test
+  public void a_message_with_line_breaks_is_logged_as_one_line_each() throws Exception {
+
+    // arrange
+
+    JobLogLinesRepository repository = mock(JobLogLinesRepository.class);
+    Job job1 = Job.builder().id(7L).build();
+    JobContext ctx =
+        JobContext.builder()
+            .jobLogLinesRepository(repository)
+            .job(job1)
+            .flushLines(100)
+            .flushIntervalMs(60_000)
+            .build();
+
+    // act
+    ctx.log("failed:\n  at A\n");
+    ctx.log("done");
+    ctx.flush();
+
+    // assert
+    verify(repository, times(1))
+        .saveAll(
+            List.of(
+                JobLogLine.builder().jobId(7L).seq(0).message("failed:").build(),
+                JobLogLine.builder().jobId(7L).seq(1).message("  at A").build(),
+                JobLogLine.builder().jobId(7L).seq(2).message("").build(),
+                JobLogLine.builder().jobId(7L).seq(3).message("done").build()));
+  }
+
+  @Test
+  public void lines_are_flushed_once_flush_interval_has_elapsed() throws Exception {
+
+    // arrange
+
+    JobLogLinesRepository repository = mock(JobLogLinesRepository.class);
+    Job job1 = Job.builder().id(7L).build();
+    JobContext ctx =
+        JobContext.builder()
+            .jobLogLinesRepository(repository)
+            .job(job1)
+            .flushLines(100)
+            .flushIntervalMs(0)
+            .build();
+
+    // act
+    ctx.log("line one");
+
+    // assert
+    verify(repository, times(1))
+        .saveAll(List.of(JobLogLine.builder().jobId(7L).seq(0).message("line one").build()));
+  }
+
+  @Test
+  public void flush_writes_remaining_lines_and_skips_empty_batches() throws Exception {
+
+    // arrange
+
+    JobLogLinesRepository repository = mock(JobLogLinesRepository.class);
+    Job job1 = Job.builder().id(7L).build();
+    JobContext ctx =
+        JobContext.builder()
+            .jobLogLinesRepository(repository)
+            .job(job1)
+            .flushLines(100)
+            .flushIntervalMs(60_000)
+            .build();
+
+    // act
+    ctx.flush();
+    ctx.log("line one");
+    ctx.flush();
+    ctx.flush();
+
+    // assert
+    verify(repository, times(1))
+        .saveAll(List.of(JobLogLine.builder().jobId(7L).seq(0).message("line one").build()));
+    verify(repository, times(1)).saveAll(any());
+  }
+
+  @Test
+  public void phase_changes_are_saved_right_away_and_progress_is_throttled() throws Exception {
+
+    // arrange
+
+    JobsRepository repository = mock(JobsRepository.class);
+    Job job1 = Job.builder().id(7L).build();
+    JobContext ctx =
+        JobContext.builder()
+            .jobsRepository(repository)
+            .job(job1)
+            .progressIntervalMs(60_000)
+            .build();
+
+    // act
+    ctx.progress(1, 10);
+    ctx.progress(2, 10);
+    ctx.phase("writing");
+
+    // assert
+    verify(repository, times(1)).updateProgress(7L, null, 1L, 10L);
+    verify(repository, never()).updateProgress(7L, null, 2L, 10L);
+    verify(repository, times(1)).updateProgress(7L, "writing", 2L, 10L);
+    assertEquals("writing", job1.getPhase());
+    assertEquals(2L, job1.getProgressDone());
+    assertEquals(10L, job1.getProgressTotal());
+  }
+
+  @Test
+  public void progress_is_saved_every_time_when_interval_is_zero() throws Exception {
+
+    // arrange
+
+    JobsRepository repository = mock(JobsRepository.class);
+    JobContext ctx =
+        JobContext.builder().jobsRepository(repository).job(Job.builder().id(7L).build()).build();
+
+    // act
+    ctx.progress(1, 2);
+    ctx.progress(2, 2);
+
+    // assert
+    verify(repository, times(1)).updateProgress(7L, null, 1L, 2L);
+    verify(repository, times(1)).updateProgress(7L, null, 2L, 2L);
+  }
+
+  @Test
+  public void progress_is_kept_on_job_when_jobs_repository_is_null() throws Exception {
+
+    // arrange
+
+    Job job1 = Job.builder().id(7L).build();
+    JobContext ctx = JobContext.builder().job(job1).build();
+
+    // act
+    ctx.phase("loading");
+    ctx.progress(3, 4);
+
+    // assert
+    assertEquals("loading", job1.getPhase());
+    assertEquals(3L, job1.getProgressDone());
+    assertEquals(4L, job1.getProgressTotal());
+  }
+
+  @Test
+  public void job_cancelled_before_it_starts_does_not_start() throws Exception {
+
+    // arrange
+
+    JobContext ctx = JobContext.builder().job(Job.builder().id(3L).build()).build();
+
+    // act
+    assertTrue(ctx.cancel(JobStatus.CANCELLED));
+
+    // assert
+    assertFalse(ctx.cancel(JobStatus.TIMED_OUT));
+    assertTrue(ctx.isCancelled());
+    assertEquals(JobStatus.CANCELLED, ctx.getCancelStatus());
+    assertFalse(ctx.start());
+  }
+
+  @Test
+  public void cancelling_a_running_job_interrupts_its_worker() throws Exception {
+
+    // arrange
+
+    JobContext ctx = JobContext.builder().job(Job.builder().id(3L).build()).build();
+    assertTrue(ctx.start());
+    assertFalse(ctx.isCancelled());
+    assertNull(ctx.getCancelStatus());
+    ctx.checkCancelled();
+
+    // act
+    ctx.cancel(JobStatus.TIMED_OUT);
+
+    // assert
+    assertTrue(Thread.currentThread().isInterrupted());
+    JobCancelledException e = assertThrows(JobCancelledException.class, ctx::checkCancelled);
+    assertEquals("Job 3 stopped: timed_out", e.getMessage());
+    ctx.finish();
+    assertFalse(Thread.currentThread().isInterrupted());
+  }
+
+  @Test
+  public void cancelling_a_finished_job_does_not_interrupt_its_worker() throws Exception {
+
+    // arrange
+
+    JobContext ctx = JobContext.builder().job(Job.builder().id(3L).build()).build();
+    ctx.start();
+    ctx.finish();
+
+    // act
+    ctx.cancel(JobStatus.CANCELLED);
+
+    // assert
+    assertFalse(Thread.currentThread().isInterrupted());
+  }
+
+  @Test
+  public void items_are_mapped_in_parallel_with_bounded_concurrency() throws Exception {
+
+    // arrange
+
+    Job job = Job.builder().id(3L).build();
+    JobContext ctx = JobContext.builder().job(job).build();
+    AtomicInteger running = new AtomicInteger();
+    AtomicInteger maxRunning = new AtomicInteger();
+    List<Integer> items = IntStream.range(0, 20).boxed().toList();
+
+    // act
+    List<Integer> squares =
+        ctx.mapParallel(
+            items,
+            3,
+            item -> {
+              maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+              Thread.sleep(10);
+              running.decrementAndGet();
+              return item * item;
+            });
+
+    // assert
+    assertEquals(items.stream().map(i -> i * i).toList(), squares);
+    assertTrue(maxRunning.get() > 1);
+    assertTrue(maxRunning.get() <= 3);
+    assertEquals(20L, job.getProgressDone());
+    assertEquals(20L, job.getProgressTotal());
+  }
+
+  @Test
+  public void failed_items_are_reported_together_once_all_items_have_run() throws Exception {
+
+    // arrange
+
+    JobLogLinesRepository repository = mock(JobLogLinesRepository.class);
+    JobContext ctx =
+        JobContext.builder()
+            .jobLogLinesRepository(repository)
+            .job(Job.builder().id(3L).build())
+            .flushLines(1)
+            .build();
+    Set<Integer> processed = ConcurrentHashMap.newKeySet();
+
+    // act
+    JobItemsFailedException e =
+        assertThrows(
+            JobItemsFailedException.class,
+            () ->
+                ctx.forEachParallel(
+                    List.of(0, 1, 2, 3, 4),
+                    2,
+                    item -> {
+                      processed.add(item);
+                      if (item % 2 == 1) throw new IllegalStateException("odd item " + item);
+                    }));
+
+    // assert
+    assertEquals(Set.of(0, 1, 2, 3, 4), processed);
+    assertEquals("2 of 5 items failed; item 1: odd item 1", e.getMessage());
+    assertEquals(Set.of(1, 3), e.getFailures().keySet());
+    assertEquals(2, e.getSuppressed().length);
+    verify(repository)
+        .saveAll(
+            List.of(
+                JobLogLine.builder()
+                    .jobId(3L)
+                    .seq(0)
+                    .message("Item 1 failed: odd item 1")
+                    .build()));
+    verify(repository)
+        .saveAll(
+            List.of(
+                JobLogLine.builder()
+                    .jobId(3L)
+                    .seq(1)
+                    .message("Item 3 failed: odd item 3")
+                    .build()));
+  }
+
+  @Test
+  public void cancelling_the_job_interrupts_its_items_and_starts_no_more() throws Exception {
+
+    // arrange
+
+    JobContext ctx = JobContext.builder().job(Job.builder().id(3L).build()).build();
+    CountDownLatch started = new CountDownLatch(2);
+    AtomicInteger interrupted = new AtomicInteger();
+    Set<Integer> processed = ConcurrentHashMap.newKeySet();
+    AtomicReference<Exception> thrown = new AtomicReference<>();
+    Thread worker =
+        new Thread(
+            () -> {
+              ctx.start();
+              try {
+                ctx.forEachParallel(
+                    IntStream.range(0, 100).boxed().toList(),
+                    2,
+                    item -> {
+                      processed.add(item);
+                      started.countDown();
+                      try {
+                        Thread.sleep(60_000);
+                      } catch (InterruptedException e) {
+                        interrupted.incrementAndGet();
+                        throw e;
+                      }
+                    });
+              } catch (Exception e) {
+                thrown.set(e);
+              }
+            });
+    worker.start();
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    // act
+    ctx.cancel(JobStatus.CANCELLED);
+    worker.join(5_000);
+
+    // assert
+    assertFalse(worker.isAlive());
+    assertTrue(thrown.get() instanceof JobCancelledException);
+    assertEquals(2, interrupted.get());
+    assertEquals(2, processed.size());
+  }
+
+  @Test
+  public void a_commit_writes_and_records_the_checkpoint_in_one_transaction() throws Exception {
+
+    // arrange
+
+    JobsRepository jobsRepository = mock(JobsRepository.class);
+    PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    TransactionStatus transaction = mock(TransactionStatus.class);
+    when(transactionManager.getTransaction(any())).thenReturn(transaction);
+    Job job = Job.builder().id(3L).build();
+    JobContext ctx =
+        JobContext.builder()
+            .jobsRepository(jobsRepository)
+            .transactionTemplate(new TransactionTemplate(transactionManager))
+            .job(job)
+            .build();
+    List<String> written = new ArrayList<>();
+
+    // act
+    ctx.commit(() -> written.add("a"), "1");
+
+    // assert
+    assertEquals(List.of("a"), written);
+    assertEquals("1", ctx.getCheckpoint());
+    verify(jobsRepository).updateCheckpoint(3L, "1");
+    verify(transactionManager).commit(transaction);
+  }
+
+  @Test
+  public void a_failed_write_does_not_record_the_checkpoint() throws Exception {
+
+    // arrange
+
+    JobsRepository jobsRepository = mock(JobsRepository.class);
+    PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    TransactionStatus transaction = mock(TransactionStatus.class);
+    when(transactionManager.getTransaction(any())).thenReturn(transaction);
+    Job job = Job.builder().id(3L).checkpoint("1").build();
+    JobContext ctx =
+        JobContext.builder()
+            .jobsRepository(jobsRepository)
+            .transactionTemplate(new TransactionTemplate(transactionManager))
+            .job(job)
+            .build();
+
+    // act
+    Exception e =
+        assertThrows(
+            IOException.class,
+            () ->
+                ctx.commit(
+                    () -> {
+                      throw new IOException("disk full");
+                    },
+                    "2"));
+
+    // assert
+    assertEquals("disk full", e.getMessage());
+    assertEquals("1", ctx.getCheckpoint());
+    verify(jobsRepository, never()).updateCheckpoint(3L, "2");
+    verify(transactionManager).rollback(transaction);
+  }
+
+  @Test
+  public void log_lines_phases_and_progress_are_recorded_as_jfr_events() throws Throwable {
+
+    // arrange
+    Job job1 = Job.builder().id(7L).jobType("edu.ucsb.cs156.example.jobs.TestJob").build();
+    JobContext ctx = JobContext.builder().job(job1).flushLines(100).build();
+
+    // act
+    List<RecordedEvent> events =
+        RecordedEvents.record(
+            "edu.ucsb.cs156.example.JobStep",
+            () -> {
+              ctx.phase("loading");
+              ctx.progress(1, 4);
+              ctx.log("loaded one");
+            });
+
+    // assert
+    assertEquals(
+        List.of("phase", "progress", "log"),
+        events.stream().map(e -> e.getString("step")).toList());
+    assertEquals(
+        Arrays.asList("loading", null, "loaded one"),
+        events.stream().map(e -> e.getString("message")).toList());
+    RecordedEvent logged = events.get(2);
+    assertEquals(7L, logged.getLong("jobId"));
+    assertEquals("TestJob", logged.getString("jobType"));
+    assertEquals(1L, logged.getLong("done"));
+    assertEquals(4L, logged.getLong("total"));
   }
 }
@@ -0,0 +1,38 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import org.junit.jupiter.api.Test;
+
+public class JobGraphTests {
+  private final JobContextConsumer job = ctx -> {};
+
+  @Test
+  public void jobs_are_numbered_in_the_order_they_are_added() {
+    JobGraph graph = new JobGraph();
+
+    int first = graph.add(job);
+    int second = graph.add(job, first);
+    int third = graph.add(job, first, second);
+
+    assertEquals(3, graph.size());
+    assertEquals(2, third);
+    assertSame(job, graph.getJob(second));
+    assertArrayEquals(new int[] {}, graph.getPrerequisites(first));
+    assertArrayEquals(new int[] {0, 1}, graph.getPrerequisites(third));
+  }
+
+  @Test
+  public void a_job_cannot_depend_on_a_job_not_added_yet() {
+    JobGraph graph = new JobGraph();
+    graph.add(job);
+
+    IllegalArgumentException e =
+        assertThrows(IllegalArgumentException.class, () -> graph.add(job, 1));
+    assertEquals("Job 1 can only depend on jobs added before it, not on job 1", e.getMessage());
+    assertEquals(1, graph.size());
+  }
+}
@@ -0,0 +1,214 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.JobLogChunk;
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.repositories.JobLogChunksRepository;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class JobLogArchiveTests {
+
+  @Mock JobLogLinesRepository jobLogLinesRepository;
+
+  @Mock JobLogChunksRepository jobLogChunksRepository;
+
+  @InjectMocks JobLogArchive jobLogArchive;
+
+  private final List<JobLogChunk> chunks = new ArrayList<>();
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    ReflectionTestUtils.setField(jobLogArchive, "chunkLines", 2);
+    when(jobLogChunksRepository.save(any(JobLogChunk.class)))
+        .thenAnswer(
+            invocation -> {
+              chunks.add(invocation.getArgument(0));
+              return invocation.getArgument(0);
+            });
+    when(jobLogChunksRepository.findByJobIdAndChunkNo(anyLong(), anyInt()))
+        .thenAnswer(
+            invocation -> {
+              int chunkNo = invocation.getArgument(1);
+              return chunkNo < chunks.size() ? Optional.of(chunks.get(chunkNo)) : Optional.empty();
+            });
+    when(jobLogChunksRepository.countByJobId(anyLong())).thenAnswer(invocation -> chunks.size());
+    when(jobLogChunksRepository.findCoveringLines(anyLong(), anyInt(), anyInt()))
+        .thenAnswer(
+            invocation -> {
+              int first = invocation.getArgument(1);
+              int last = invocation.getArgument(2);
+              return chunks.stream()
+                  .filter(c -> c.getFirstLine() <= last)
+                  .filter(c -> c.getFirstLine() + c.getLineCount() > first)
+                  .toList();
+            });
+    when(jobLogChunksRepository.findCoveringBytes(anyLong(), anyLong(), anyLong()))
+        .thenAnswer(
+            invocation -> {
+              long first = invocation.getArgument(1);
+              long last = invocation.getArgument(2);
+              return chunks.stream()
+                  .filter(c -> c.getRawOffset() <= last)
+                  .filter(c -> c.getRawOffset() + c.getRawLength() > first)
+                  .toList();
+            });
+  }
+
+  private void givenLines(String... messages) {
+    when(jobLogLinesRepository.findMaxSeqByJobId(7L)).thenReturn(messages.length - 1);
+    when(jobLogLinesRepository.findByJobIdAndSeqBetweenOrderBySeqAsc(eq(7L), anyInt(), anyInt()))
+        .thenAnswer(
+            invocation -> {
+              int first = invocation.getArgument(1);
+              int last = invocation.getArgument(2);
+              List<JobLogLine> lines = new ArrayList<>();
+              for (int seq = first; seq <= last && seq < messages.length; seq++) {
+                lines.add(JobLogLine.builder().jobId(7L).seq(seq).message(messages[seq]).build());
+              }
+              return lines;
+            });
+  }
+
+  @Test
+  public void log_lines_are_replaced_by_gzip_chunks() {
+
+    // arrange
+    givenLines("one", "two", "three", "four", "five");
+
+    // act
+    jobLogArchive.compress(7L);
+
+    // assert
+    assertEquals(3, chunks.size());
+    assertEquals(List.of(0, 2, 4), chunks.stream().map(JobLogChunk::getFirstLine).toList());
+    assertEquals(List.of(0L, 7L, 18L), chunks.stream().map(JobLogChunk::getRawOffset).toList());
+    verify(jobLogLinesRepository).deleteByJobId(7L);
+    assertTrue(jobLogArchive.isCompressed(7L));
+    assertEquals("one\ntwo\nthree\nfour\nfive", jobLogArchive.read(7L));
+  }
+
+  @Test
+  public void the_chunks_form_one_gzip_stream_of_the_log() throws Exception {
+
+    // arrange
+    givenLines("one", "two", "three");
+    jobLogArchive.compress(7L);
+
+    // act
+    byte[] compressed;
+    try (InputStream in = jobLogArchive.openCompressed(7L)) {
+      compressed = in.readAllBytes();
+    }
+
+    // assert
+    try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+      assertEquals("one\ntwo\nthree", new String(gzip.readAllBytes(), StandardCharsets.UTF_8));
+    }
+  }
+
+  @Test
+  public void lines_of_a_multi_line_message_keep_their_sequence_numbers() {
+
+    // arrange
+    List<JobLogLine> logged = new ArrayList<>();
+    for (String message : List.of("start", "boom\n  at A\n  at B", "end")) {
+      logged.addAll(JobContext.toLines(7L, logged.size(), message));
+    }
+    givenLines(logged.stream().map(JobLogLine::getMessage).toArray(String[]::new));
+
+    // act
+    jobLogArchive.compress(7L);
+
+    // assert
+    assertEquals(logged, jobLogArchive.readLines(7L, 0, 4));
+    assertEquals(List.of(logged.get(4)), jobLogArchive.readLines(7L, 4, 4));
+  }
+
+  @Test
+  public void lines_are_read_back_by_line_number() {
+
+    // arrange
+    givenLines("one", "two\nand a half", "three", "four");
+    jobLogArchive.compress(7L);
+
+    // act
+    List<JobLogLine> lines = jobLogArchive.readLines(7L, 2, 3);
+
+    // assert
+    assertEquals(
+        List.of("and a half", "three"), lines.stream().map(JobLogLine::getMessage).toList());
+    assertEquals(List.of(2, 3), lines.stream().map(JobLogLine::getSeq).toList());
+  }
+
+  @Test
+  public void only_the_chunks_holding_a_range_of_lines_are_read() {
+
+    // arrange
+    givenLines("one", "two", "three", "four", "five");
+    jobLogArchive.compress(7L);
+
+    // act
+    List<JobLogLine> lines = jobLogArchive.readLines(7L, 3, 4);
+
+    // assert
+    assertEquals(List.of("four", "five"), lines.stream().map(JobLogLine::getMessage).toList());
+    verify(jobLogChunksRepository).findCoveringLines(7L, 3, 4);
+    verify(jobLogChunksRepository, never()).findByJobIdAndChunkNo(anyLong(), anyInt());
+  }
+
+  @Test
+  public void a_range_of_bytes_is_read_across_chunks() {
+
+    // arrange
+    givenLines("one", "two", "three", "four", "five");
+    jobLogArchive.compress(7L);
+
+    // act
+    byte[] bytes = jobLogArchive.readBytes(7L, 4, 12);
+
+    // assert
+    assertEquals("two\nthree", new String(bytes, StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void a_job_without_log_lines_is_left_alone() {
+
+    // arrange
+    when(jobLogLinesRepository.findMaxSeqByJobId(7L)).thenReturn(-1);
+
+    // act
+    jobLogArchive.compress(7L);
+
+    // assert
+    verify(jobLogChunksRepository, never()).save(any());
+    verify(jobLogLinesRepository, never()).deleteByJobId(anyLong());
+    assertFalse(jobLogArchive.isCompressed(7L));
+    assertNull(jobLogArchive.read(7L));
+    assertEquals(List.of(), jobLogArchive.readLines(7L, 0, Integer.MAX_VALUE));
+  }
+}
@@ -0,0 +1,95 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.entities.JobStatus;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public class JobLogEmitterTests {
+
+  /** Records the events sent to it, once it is let go of. */
+  private static class ClientEmitter extends SseEmitter {
+    private final List<String> sent = Collections.synchronizedList(new ArrayList<>());
+    private final CountDownLatch reading = new CountDownLatch(1);
+    private final CountDownLatch completed = new CountDownLatch(1);
+
+    @Override
+    public void send(SseEventBuilder builder) throws IOException {
+      try {
+        reading.await();
+      } catch (InterruptedException e) {
+        throw new IOException(e);
+      }
+      sent.add(
+          builder.build().stream()
+              .map(data -> data.getData().toString())
+              .collect(Collectors.joining()));
+    }
+
+    @Override
+    public void complete() {
+      completed.countDown();
+    }
+  }
+
+  private static JobLogLine line(int seq) {
+    return JobLogLine.builder().jobId(1L).seq(seq).message("line " + seq).build();
+  }
+
+  @Test
+  public void replayed_lines_are_sent_before_new_lines_then_the_end() throws Exception {
+
+    // arrange
+    ClientEmitter emitter = new ClientEmitter();
+    emitter.reading.countDown();
+    JobLogEmitter listener = new JobLogEmitter(emitter, 2);
+
+    // act
+    listener.replay(line(0));
+    listener.replay(line(1));
+    listener.onLine(line(2));
+    listener.onEnd(JobStatus.COMPLETE);
+
+    // assert
+    assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+    assertEquals(
+        List.of(
+            "id:0\nevent:log\ndata:line 0\n\n",
+            "id:1\nevent:log\ndata:line 1\n\n",
+            "id:2\nevent:log\ndata:line 2\n\n",
+            "event:end\ndata:complete\n\n"),
+        emitter.sent);
+  }
+
+  @Test
+  public void a_client_that_stops_reading_is_dropped_without_holding_up_the_job() throws Exception {
+
+    // arrange
+    ClientEmitter emitter = new ClientEmitter();
+    JobLogEmitter listener = new JobLogEmitter(emitter, 2);
+
+    // act
+    assertThrows(
+        IOException.class,
+        () -> {
+          for (int seq = 0; seq < 10; seq++) listener.onLine(line(seq));
+        });
+    emitter.reading.countDown();
+
+    // assert
+    assertTrue(emitter.completed.await(5, TimeUnit.SECONDS));
+    assertThrows(IOException.class, () -> listener.onLine(line(10)));
+    assertTrue(emitter.sent.size() <= 1, emitter.sent.toString());
+  }
+}
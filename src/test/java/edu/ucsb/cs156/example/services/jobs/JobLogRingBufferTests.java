@@ -0,0 +1,225 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.entities.JobStatus;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.Test;
+
+public class JobLogRingBufferTests {
+
+  /** Records what it receives, optionally failing on every call. */
+  private static class RecordingListener implements JobLogListener {
+    private final List<String> events = new ArrayList<>();
+    private final boolean fail;
+
+    RecordingListener(boolean fail) {
+      this.fail = fail;
+    }
+
+    @Override
+    public void onLine(JobLogLine line) throws Exception {
+      events.add(line.getSeq() + ":" + line.getMessage());
+      if (fail) throw new Exception("client went away");
+    }
+
+    @Override
+    public void onEnd(JobStatus status) throws Exception {
+      events.add("end:" + status.getValue());
+      if (fail) throw new Exception("client went away");
+    }
+  }
+
+  private static JobLogLine line(int seq) {
+    return JobLogLine.builder().jobId(1L).seq(seq).message("line " + seq).build();
+  }
+
+  @Test
+  public void subscriber_gets_buffered_lines_then_new_lines_then_end() throws Exception {
+
+    // arrange
+
+    JobLogRingBuffer buffer = new JobLogRingBuffer(10);
+    buffer.append(line(0));
+    buffer.append(line(1));
+    RecordingListener listener = new RecordingListener(false);
+
+    // act
+    buffer.subscribe(1, listener, (first, last) -> List.of());
+    buffer.append(line(2));
+    buffer.close(JobStatus.COMPLETE);
+    buffer.append(line(3));
+
+    // assert
+    assertEquals(List.of("1:line 1", "2:line 2", "end:complete"), listener.events);
+  }
+
+  @Test
+  public void lines_evicted_from_the_buffer_are_loaded_from_elsewhere() throws Exception {
+
+    // arrange
+
+    JobLogRingBuffer buffer = new JobLogRingBuffer(2);
+    for (int seq = 0; seq < 5; seq++) buffer.append(line(seq));
+    RecordingListener listener = new RecordingListener(false);
+    List<String> requestedRanges = new ArrayList<>();
+
+    // act
+    buffer.subscribe(
+        1,
+        listener,
+        (first, last) -> {
+          requestedRanges.add(first + "-" + last);
+          return List.of(line(1), line(2));
+        });
+
+    // assert
+    assertEquals(List.of("1-2"), requestedRanges);
+    assertEquals(List.of("1:line 1", "2:line 2", "3:line 3", "4:line 4"), listener.events);
+  }
+
+  @Test
+  public void older_lines_are_loaded_a_window_at_a_time() throws Exception {
+
+    // arrange
+
+    JobLogRingBuffer buffer = new JobLogRingBuffer(1, 2500);
+    buffer.append(line(2500));
+    RecordingListener listener = new RecordingListener(false);
+    List<String> requestedRanges = new ArrayList<>();
+
+    // act
+    buffer.subscribe(
+        0,
+        listener,
+        (first, last) -> {
+          requestedRanges.add(first + "-" + last);
+          return IntStream.rangeClosed(first, last).mapToObj(seq -> line(seq)).toList();
+        });
+
+    // assert
+    assertEquals(List.of("0-999", "1000-1999", "2000-2499"), requestedRanges);
+    assertEquals(2501, listener.events.size());
+  }
+
+  @Test
+  public void empty_buffer_with_zero_capacity_loads_everything_from_elsewhere() throws Exception {
+
+    // arrange
+
+    JobLogRingBuffer buffer = new JobLogRingBuffer(0);
+    buffer.append(line(0));
+    RecordingListener listener = new RecordingListener(false);
+
+    // act
+    buffer.subscribe(0, listener, (first, last) -> List.of(line(first)));
+
+    // assert
+    assertEquals(List.of("0:line 0"), listener.events);
+  }
+
+  @Test
+  public void subscriber_to_a_closed_buffer_gets_the_end_immediately() throws Exception {
+
+    // arrange
+
+    JobLogRingBuffer buffer = new JobLogRingBuffer(10);
+    buffer.append(line(0));
+    buffer.close(JobStatus.ERROR);
+    RecordingListener listener = new RecordingListener(false);
+
+    // act
+    buffer.subscribe(0, listener, (first, last) -> List.of());
+
+    // assert
+    assertEquals(List.of("0:line 0", "end:error"), listener.events);
+  }
+
+  @Test
+  public void failing_and_unsubscribed_listeners_stop_receiving_lines() throws Exception {
+
+    // arrange
+
+    JobLogRingBuffer buffer = new JobLogRingBuffer(10);
+    RecordingListener failing = new RecordingListener(true);
+    RecordingListener leaving = new RecordingListener(false);
+    buffer.subscribe(0, failing, (first, last) -> List.of());
+    buffer.subscribe(0, leaving, (first, last) -> List.of());
+
+    // act
+    buffer.append(line(0));
+    buffer.unsubscribe(leaving);
+    buffer.append(line(1));
+    buffer.close(JobStatus.COMPLETE);
+
+    // assert
+    assertEquals(List.of("0:line 0"), failing.events);
+    assertEquals(List.of("0:line 0"), leaving.events);
+  }
+
+  @Test
+  public void listener_failing_at_end_does_not_affect_others() throws Exception {
+
+    // arrange
+
+    JobLogRingBuffer buffer = new JobLogRingBuffer(10);
+    RecordingListener failing = new RecordingListener(true);
+    RecordingListener other = new RecordingListener(false);
+    buffer.subscribe(0, failing, (first, last) -> List.of());
+    buffer.subscribe(0, other, (first, last) -> List.of());
+
+    // act
+    buffer.close(JobStatus.COMPLETE);
+
+    // assert
+    assertEquals(List.of("end:complete"), failing.events);
+    assertEquals(List.of("end:complete"), other.events);
+  }
+
+  @Test
+  public void older_lines_are_read_while_the_job_keeps_logging() throws Exception {
+
+    // arrange
+
+    JobLogRingBuffer buffer = new JobLogRingBuffer(2);
+    for (int seq = 0; seq < 4; seq++) buffer.append(line(seq));
+    RecordingListener listener = new RecordingListener(false);
+    List<String> requestedRanges = new ArrayList<>();
+
+    // act
+    buffer.subscribe(
+        0,
+        listener,
+        (first, last) -> {
+          requestedRanges.add(first + "-" + last);
+          if (first == 0) {
+            // the job logs two more lines while the first read is slow, evicting lines 2 and 3
+            Thread job =
+                new Thread(
+                    () -> {
+                      buffer.append(line(4));
+                      buffer.append(line(5));
+                    });
+            job.start();
+            try {
+              job.join(5000);
+            } catch (InterruptedException e) {
+              throw new IllegalStateException(e);
+            }
+            assertFalse(job.isAlive(), "the job was blocked by the subscriber");
+          }
+          return IntStream.rangeClosed(first, last).mapToObj(seq -> line(seq)).toList();
+        });
+    buffer.append(line(6));
+
+    // assert
+    assertEquals(List.of("0-1", "2-3"), requestedRanges);
+    assertEquals(
+        IntStream.rangeClosed(0, 6).mapToObj(seq -> seq + ":line " + seq).toList(),
+        listener.events);
+  }
+}
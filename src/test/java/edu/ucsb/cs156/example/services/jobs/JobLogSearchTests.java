@@ -0,0 +1,162 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.JobLogLine;
+import edu.ucsb.cs156.example.errors.EntityNotFoundException;
+import edu.ucsb.cs156.example.models.JobLogMatch;
+import edu.ucsb.cs156.example.models.JobSummary;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.BiPredicate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class JobLogSearchTests {
+
+  @Mock JobsRepository jobsRepository;
+
+  @Mock JobLogLinesRepository jobLogLinesRepository;
+
+  @Mock JobLogArchive jobLogArchive;
+
+  @InjectMocks JobLogSearch jobLogSearch;
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    ReflectionTestUtils.setField(jobLogSearch, "windowLines", 2);
+    ReflectionTestUtils.setField(jobLogSearch, "maxContext", 20);
+    ReflectionTestUtils.setField(jobLogSearch, "maxMatches", 1000);
+    ReflectionTestUtils.setField(jobLogSearch, "maxWindow", Duration.ofDays(7));
+    when(jobsRepository.existsById(anyLong())).thenReturn(true);
+    when(jobLogLinesRepository.findMaxSeqByJobId(anyLong())).thenReturn(-1);
+  }
+
+  private void givenLines(long jobId, String... messages) {
+    when(jobLogLinesRepository.findMaxSeqByJobId(jobId)).thenReturn(messages.length - 1);
+    when(jobLogLinesRepository.findByJobIdAndSeqBetweenOrderBySeqAsc(eq(jobId), anyInt(), anyInt()))
+        .thenAnswer(
+            invocation -> {
+              int first = invocation.getArgument(1);
+              int last = invocation.getArgument(2);
+              List<JobLogLine> lines = new ArrayList<>();
+              for (int seq = first; seq <= last && seq < messages.length; seq++) {
+                lines.add(
+                    JobLogLine.builder().jobId(jobId).seq(seq).message(messages[seq]).build());
+              }
+              return lines;
+            });
+  }
+
+  @Test
+  public void matches_come_with_the_lines_around_them_across_windows() {
+
+    // arrange
+    givenLines(7L, "start", "loading", "ERROR: disk full", "retrying", "done");
+
+    // act
+    List<JobLogMatch> matches = jobLogSearch.search(7L, "error", true, 2, 100);
+
+    // assert
+    assertEquals(1, matches.size());
+    JobLogMatch match = matches.get(0);
+    assertEquals(7L, match.getJobId());
+    assertEquals(2, match.getLineNumber());
+    assertEquals("ERROR: disk full", match.getLine());
+    assertEquals(List.of("start", "loading"), match.getBefore());
+    assertEquals(List.of("retrying", "done"), match.getAfter());
+  }
+
+  @Test
+  public void the_scan_stops_once_the_limit_is_reached() {
+
+    // arrange
+    givenLines(7L, "hit", "miss", "miss", "miss", "hit", "miss");
+
+    // act
+    List<JobLogMatch> matches = jobLogSearch.search(7L, "hit", false, 0, 1);
+
+    // assert
+    assertEquals(List.of(0), matches.stream().map(JobLogMatch::getLineNumber).toList());
+    verify(jobLogLinesRepository, never()).findByJobIdAndSeqBetweenOrderBySeqAsc(7L, 2, 3);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void a_compressed_log_is_scanned_chunk_by_chunk() {
+
+    // arrange
+    when(jobLogArchive.scanLines(eq(7L), any()))
+        .thenAnswer(
+            invocation -> {
+              BiPredicate<Integer, String> visitor = invocation.getArgument(1);
+              if (visitor.test(0, "first")) visitor.test(1, "Second");
+              return true;
+            });
+
+    // act
+    List<JobLogMatch> caseSensitive = jobLogSearch.search(7L, "second", false, 1, 10);
+    List<JobLogMatch> ignoringCase = jobLogSearch.search(7L, "second", true, 1, 10);
+
+    // assert
+    assertEquals(List.of(), caseSensitive);
+    assertEquals(1, ignoringCase.size());
+    assertEquals(List.of("first"), ignoringCase.get(0).getBefore());
+    verify(jobsRepository, never()).findById(anyLong());
+  }
+
+  @Test
+  public void jobs_in_the_window_are_searched_newest_first() {
+
+    // arrange
+    ZonedDateTime after = ZonedDateTime.now().minusDays(1);
+    when(jobsRepository.findSummaries(any(), any(), eq(after), any(), any(), any()))
+        .thenReturn(
+            List.of(JobSummary.builder().id(9L).build(), JobSummary.builder().id(8L).build()));
+    givenLines(9L, "ok");
+    givenLines(8L, "failed", "ok");
+
+    // act
+    List<JobLogMatch> matches = jobLogSearch.searchJobs("ok", false, after, null, 0, 10);
+
+    // assert
+    assertEquals(List.of(9L, 8L), matches.stream().map(JobLogMatch::getJobId).toList());
+    assertEquals(List.of(0, 1), matches.stream().map(JobLogMatch::getLineNumber).toList());
+  }
+
+  @Test
+  public void a_window_longer_than_the_maximum_is_rejected() {
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> jobLogSearch.searchJobs("ok", false, ZonedDateTime.now().minusDays(8), null, 0, 10));
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> jobLogSearch.searchJobs("ok", false, null, null, 0, 10));
+  }
+
+  @Test
+  public void an_empty_query_or_a_missing_job_is_rejected() {
+    when(jobsRepository.existsById(3L)).thenReturn(false);
+
+    assertThrows(IllegalArgumentException.class, () -> jobLogSearch.search(7L, "", false, 0, 10));
+    assertThrows(IllegalArgumentException.class, () -> jobLogSearch.search(7L, "x", false, 21, 10));
+    assertThrows(EntityNotFoundException.class, () -> jobLogSearch.search(3L, "x", false, 0, 10));
+  }
+}
@@ -0,0 +1,85 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import edu.ucsb.cs156.example.entities.JobStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+public class JobMetricsTests {
+  @Test
+  public void type_tag_is_the_simple_class_name() {
+    assertEquals("TestJob", JobMetrics.typeTag("edu.ucsb.cs156.example.jobs.TestJob"));
+    assertEquals("lambda", JobMetrics.typeTag(null));
+  }
+
+  @Test
+  public void execution_is_timed_and_counted_by_type_and_outcome() {
+
+    // arrange
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    JobMetrics metrics = new JobMetrics(registry);
+
+    // act
+    metrics.recordExecution("a.b.SomeJob", JobStatus.COMPLETE, Duration.ofMillis(300));
+    metrics.recordExecution("a.b.SomeJob", JobStatus.ERROR, Duration.ofMillis(100));
+    metrics.recordOutcome("a.b.SomeJob", JobStatus.CANCELLED);
+
+    // assert
+    assertEquals(
+        300,
+        registry
+            .get("jobs.execution")
+            .tags("type", "SomeJob", "outcome", "complete")
+            .timer()
+            .totalTime(TimeUnit.MILLISECONDS));
+    assertEquals(1, registry.get("jobs.finished").tags("outcome", "error").counter().count());
+    assertEquals(1, registry.get("jobs.finished").tags("outcome", "cancelled").counter().count());
+    // a job that never ran is counted but not timed
+    assertEquals(2, registry.get("jobs.execution").timers().size());
+  }
+
+  @Test
+  public void queue_wait_and_log_volume_are_recorded_by_type() {
+
+    // arrange
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    JobMetrics metrics = new JobMetrics(registry);
+
+    // act
+    metrics.recordQueueWait("a.b.SomeJob", Duration.ofSeconds(2));
+    metrics.logLines("a.b.SomeJob").increment();
+    metrics.logChars("a.b.SomeJob").increment(12);
+
+    // assert
+    assertEquals(
+        2,
+        registry
+            .get("jobs.queue.wait")
+            .tags("type", "SomeJob")
+            .timer()
+            .totalTime(TimeUnit.SECONDS));
+    assertEquals(1, registry.get("jobs.log.lines").tags("type", "SomeJob").counter().count());
+    assertEquals(12, registry.get("jobs.log.chars").tags("type", "SomeJob").counter().count());
+  }
+
+  @Test
+  public void gauges_report_active_and_queued_jobs() {
+
+    // arrange
+
+    SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    JobMetrics metrics = new JobMetrics(registry);
+
+    // act
+    metrics.registerGauges(() -> 3, () -> 7L);
+
+    // assert
+    assertEquals(3, registry.get("jobs.active").gauge().value());
+    assertEquals(7, registry.get("jobs.queued").gauge().value());
+  }
+}
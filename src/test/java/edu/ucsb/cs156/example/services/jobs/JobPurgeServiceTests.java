@@ -0,0 +1,237 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.JobStatus;
+import edu.ucsb.cs156.example.models.JobDeleteResult;
+import edu.ucsb.cs156.example.models.JobPurgeReport;
+import edu.ucsb.cs156.example.repositories.JobDependenciesRepository;
+import edu.ucsb.cs156.example.repositories.JobLogChunksRepository;
+import edu.ucsb.cs156.example.repositories.JobLogLinesRepository;
+import edu.ucsb.cs156.example.repositories.JobQueueRepository;
+import edu.ucsb.cs156.example.repositories.JobResultChunksRepository;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+public class JobPurgeServiceTests {
+
+  @Mock JobsRepository jobsRepository;
+
+  @Mock JobLogLinesRepository jobLogLinesRepository;
+
+  @Mock JobLogChunksRepository jobLogChunksRepository;
+
+  @Mock JobResultChunksRepository jobResultChunksRepository;
+
+  @Mock JobQueueRepository jobQueueRepository;
+
+  @Mock JobDependenciesRepository jobDependenciesRepository;
+
+  @Mock PlatformTransactionManager transactionManager;
+
+  @InjectMocks JobPurgeService jobPurgeService;
+
+  private final List<JobStatus> finished =
+      List.of(
+          JobStatus.COMPLETE,
+          JobStatus.ERROR,
+          JobStatus.REJECTED,
+          JobStatus.CANCELLED,
+          JobStatus.TIMED_OUT);
+
+  @BeforeEach
+  public void setup() {
+    ReflectionTestUtils.setField(jobPurgeService, "maxAge", Duration.ofDays(30));
+    ReflectionTestUtils.setField(jobPurgeService, "maxJobs", 0L);
+    ReflectionTestUtils.setField(
+        jobPurgeService,
+        "statuses",
+        new String[] {"complete", "error", "rejected", "cancelled", "timed_out"});
+    ReflectionTestUtils.setField(jobPurgeService, "batchSize", 2);
+    ReflectionTestUtils.setField(
+        jobPurgeService, "transactionTemplate", new TransactionTemplate(transactionManager));
+  }
+
+  @Test
+  public void expired_jobs_are_deleted_in_batches() {
+
+    // arrange
+    when(jobsRepository.findOldestIds(eq(finished), any(), eq(PageRequest.of(0, 2))))
+        .thenReturn(List.of(1L, 2L), List.of(3L), List.of());
+    when(jobLogLinesRepository.deleteByJobIdIn(List.of(1L, 2L))).thenReturn(10);
+    when(jobLogLinesRepository.deleteByJobIdIn(List.of(3L))).thenReturn(4);
+    when(jobsRepository.deleteByIdIn(List.of(1L, 2L))).thenReturn(2);
+    when(jobsRepository.deleteByIdIn(List.of(3L))).thenReturn(1);
+
+    // act
+    JobPurgeReport report = jobPurgeService.purge();
+
+    // assert
+    assertEquals(3, report.getExpiredJobsDeleted());
+    assertEquals(0, report.getExcessJobsDeleted());
+    assertEquals(14, report.getLogLinesDeleted());
+    assertEquals(2, report.getBatches());
+    assertSame(report, jobPurgeService.getLastReport());
+
+    ArgumentCaptor<ZonedDateTime> cutoff = ArgumentCaptor.forClass(ZonedDateTime.class);
+    verify(jobsRepository, times(3)).findOldestIds(eq(finished), cutoff.capture(), any());
+    assertEquals(report.getStartedAt().minusDays(30), cutoff.getValue());
+    verify(jobsRepository, never()).count();
+    verify(jobLogChunksRepository).deleteByJobIdIn(List.of(1L, 2L));
+    verify(jobLogChunksRepository).deleteByJobIdIn(List.of(3L));
+    verify(jobResultChunksRepository).deleteByJobIdIn(List.of(1L, 2L));
+    verify(jobResultChunksRepository).deleteByJobIdIn(List.of(3L));
+    verify(jobQueueRepository).deleteByIdIn(List.of(1L, 2L));
+    verify(jobDependenciesRepository).deleteByJobIdIn(List.of(3L));
+    verify(transactionManager, times(2)).commit(any());
+  }
+
+  @Test
+  public void a_batch_that_fails_partway_is_rolled_back() {
+
+    // arrange
+    when(jobsRepository.findOldestIds(eq(finished), any(), eq(PageRequest.of(0, 2))))
+        .thenReturn(List.of(1L, 2L));
+    when(jobsRepository.deleteByIdIn(List.of(1L, 2L)))
+        .thenThrow(new IllegalStateException("lock timeout"));
+
+    // act
+    assertThrows(IllegalStateException.class, () -> jobPurgeService.purge());
+
+    // assert
+    verify(jobLogLinesRepository).deleteByJobIdIn(List.of(1L, 2L));
+    verify(transactionManager).rollback(any());
+    verify(transactionManager, never()).commit(any());
+  }
+
+  @Test
+  public void oldest_finished_jobs_are_deleted_while_there_are_too_many() {
+
+    // arrange
+    ReflectionTestUtils.setField(jobPurgeService, "maxAge", Duration.ZERO);
+    ReflectionTestUtils.setField(jobPurgeService, "maxJobs", 10L);
+    when(jobsRepository.count()).thenReturn(13L);
+    when(jobsRepository.findOldestIds(eq(finished), isNull(), eq(PageRequest.of(0, 2))))
+        .thenReturn(List.of(1L, 2L));
+    when(jobsRepository.findOldestIds(eq(finished), isNull(), eq(PageRequest.of(0, 1))))
+        .thenReturn(List.of(3L));
+    when(jobsRepository.deleteByIdIn(List.of(1L, 2L))).thenReturn(2);
+    when(jobsRepository.deleteByIdIn(List.of(3L))).thenReturn(1);
+
+    // act
+    JobPurgeReport report = jobPurgeService.purge();
+
+    // assert
+    assertEquals(0, report.getExpiredJobsDeleted());
+    assertEquals(3, report.getExcessJobsDeleted());
+    assertEquals(2, report.getBatches());
+  }
+
+  @Test
+  public void purge_stops_when_only_unfinished_jobs_are_left() {
+
+    // arrange
+    ReflectionTestUtils.setField(jobPurgeService, "maxAge", Duration.ZERO);
+    ReflectionTestUtils.setField(jobPurgeService, "maxJobs", 1L);
+    when(jobsRepository.count()).thenReturn(5L);
+    when(jobsRepository.findOldestIds(eq(finished), isNull(), any())).thenReturn(List.of());
+
+    // act
+    JobPurgeReport report = jobPurgeService.purge();
+
+    // assert
+    assertEquals(0, report.getExcessJobsDeleted());
+    assertEquals(0, report.getBatches());
+    verify(jobsRepository, never()).deleteByIdIn(any());
+  }
+
+  @Test
+  public void scheduled_purge_records_its_report() {
+
+    // arrange
+    ReflectionTestUtils.setField(jobPurgeService, "maxAge", Duration.ZERO);
+    assertNull(jobPurgeService.getLastReport());
+
+    // act
+    jobPurgeService.scheduledPurge();
+
+    // assert
+    assertEquals(0, jobPurgeService.getLastReport().getBatches());
+    verify(jobsRepository, never()).findOldestIds(any(), any(), any());
+  }
+
+  @Test
+  public void jobs_matching_filters_are_deleted_with_their_log_lines() {
+
+    // arrange
+    List<JobStatus> error = List.of(JobStatus.ERROR);
+    ZonedDateTime before = ZonedDateTime.parse("2025-11-01T00:00:00Z");
+    when(jobLogLinesRepository.deleteMatching(error, 1L, null, before)).thenReturn(8);
+    when(jobsRepository.deleteMatching(error, 1L, null, before)).thenReturn(2);
+
+    // act
+    JobDeleteResult result = jobPurgeService.deleteJobs(null, error, 1L, null, before);
+
+    // assert
+    assertEquals(JobDeleteResult.builder().jobsDeleted(2).logLinesDeleted(8).build(), result);
+    verify(jobLogChunksRepository).deleteMatching(error, 1L, null, before);
+    verify(jobResultChunksRepository).deleteMatching(error, 1L, null, before);
+    verify(jobQueueRepository).deleteMatching(error, 1L, null, before);
+    verify(jobDependenciesRepository).deleteMatching(error, 1L, null, before);
+  }
+
+  @Test
+  public void jobs_with_given_ids_are_deleted_with_their_log_lines() {
+
+    // arrange
+    List<Long> ids = List.of(4L, 5L);
+    when(jobLogLinesRepository.deleteMatchingIn(ids, finished, null, null, null)).thenReturn(3);
+    when(jobsRepository.deleteMatchingIn(ids, finished, null, null, null)).thenReturn(1);
+
+    // act
+    JobDeleteResult result = jobPurgeService.deleteJobs(ids, finished, null, null, null);
+
+    // assert
+    assertEquals(JobDeleteResult.builder().jobsDeleted(1).logLinesDeleted(3).build(), result);
+    verify(jobLogChunksRepository).deleteMatchingIn(ids, finished, null, null, null);
+    verify(jobResultChunksRepository).deleteMatchingIn(ids, finished, null, null, null);
+    verify(jobQueueRepository).deleteMatchingIn(ids, finished, null, null, null);
+    verify(jobDependenciesRepository).deleteMatchingIn(ids, finished, null, null, null);
+  }
+
+  @Test
+  public void empty_list_of_ids_deletes_nothing() {
+
+    // act
+    JobDeleteResult result = jobPurgeService.deleteJobs(List.of(), finished, null, null, null);
+
+    // assert
+    assertEquals(0, result.getJobsDeleted());
+    verify(jobsRepository, never()).deleteMatching(any(), any(), any(), any());
+    verify(jobsRepository, never()).deleteMatchingIn(any(), any(), any(), any(), any());
+  }
+}
@@ -0,0 +1,203 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ucsb.cs156.example.entities.JobQueueEntry;
+import edu.ucsb.cs156.example.jobs.TestJob;
+import edu.ucsb.cs156.example.repositories.JobQueueRepository;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+public class JobQueueTests {
+
+  @Mock JobQueueRepository jobQueueRepository;
+
+  JobQueue jobQueue = new JobQueue("node-1");
+
+  @BeforeEach
+  public void setup() {
+    ReflectionTestUtils.setField(jobQueue, "jobQueueRepository", jobQueueRepository);
+    ReflectionTestUtils.setField(jobQueue, "objectMapper", new ObjectMapper());
+    ReflectionTestUtils.setField(jobQueue, "leaseMs", 60_000L);
+  }
+
+  @Test
+  public void node_id_defaults_to_pid_and_host() {
+    assertTrue(new JobQueue("").getNodeId().contains("@"));
+    assertEquals("node-1", jobQueue.getNodeId());
+  }
+
+  @Test
+  public void job_that_cannot_be_stored_is_enqueued_for_this_node_only() {
+
+    // act
+    boolean durable = jobQueue.enqueue(3L, ctx -> ctx.log("hi"), false);
+
+    // assert
+    assertFalse(durable);
+    ArgumentCaptor<JobQueueEntry> captor = ArgumentCaptor.forClass(JobQueueEntry.class);
+    verify(jobQueueRepository).save(captor.capture());
+    JobQueueEntry entry = captor.getValue();
+    assertNull(entry.getJobType());
+    assertNull(entry.getParams());
+    assertEquals("node-1", entry.getEnqueuedBy());
+    assertNull(entry.getClaimedBy());
+    assertEquals(0, entry.getAttempts());
+  }
+
+  @Test
+  public void job_that_cannot_be_serialized_cannot_be_stored() {
+
+    // act
+    boolean durable = jobQueue.enqueue(3L, new UnserializableJob(), false);
+
+    // assert
+    assertFalse(durable);
+  }
+
+  @Test
+  public void claimed_entries_get_a_lease_and_another_attempt() {
+
+    // arrange
+    JobQueueEntry entry = JobQueueEntry.builder().id(3L).attempts(1).claimedBy("node-2").build();
+    when(jobQueueRepository.findClaimable(any(), eq("node-1"), eq(PageRequest.of(0, 2))))
+        .thenReturn(List.of(entry));
+
+    // act
+    List<JobQueueEntry> claimed = jobQueue.claim(2, e -> true);
+
+    // assert
+    assertEquals(List.of(entry), claimed);
+    assertEquals("node-1", entry.getClaimedBy());
+    assertEquals(2, entry.getAttempts());
+    assertTrue(entry.getLeaseExpiresAt() != null);
+  }
+
+  @Test
+  public void claim_skips_entries_this_node_may_not_start_and_stops_at_max() {
+
+    // arrange
+    ReflectionTestUtils.setField(jobQueue, "claimScan", 10);
+    JobQueueEntry capped = JobQueueEntry.builder().id(3L).jobType("capped").build();
+    JobQueueEntry first = JobQueueEntry.builder().id(4L).jobType("ok").build();
+    JobQueueEntry second = JobQueueEntry.builder().id(5L).jobType("ok").build();
+    JobQueueEntry third = JobQueueEntry.builder().id(6L).jobType("ok").build();
+    when(jobQueueRepository.findClaimable(any(), eq("node-1"), eq(PageRequest.of(0, 10))))
+        .thenReturn(List.of(capped, first, second, third));
+
+    // act
+    List<JobQueueEntry> claimed = jobQueue.claim(2, e -> e.getJobType().equals("ok"));
+
+    // assert
+    assertEquals(List.of(first, second), claimed);
+    assertNull(capped.getClaimedBy());
+    assertNull(third.getClaimedBy());
+  }
+
+  @Test
+  public void job_is_enqueued_with_the_priority_of_its_lane() {
+
+    // act
+    jobQueue.enqueue(3L, new BulkJob(), false);
+    jobQueue.enqueue(4L, TestJob.builder().build(), false);
+
+    // assert
+    ArgumentCaptor<JobQueueEntry> captor = ArgumentCaptor.forClass(JobQueueEntry.class);
+    verify(jobQueueRepository, times(2)).save(captor.capture());
+    assertEquals(JobLane.BULK.getPriority(), captor.getAllValues().get(0).getPriority());
+    assertEquals(JobLane.NORMAL.getPriority(), captor.getAllValues().get(1).getPriority());
+  }
+
+  @Test
+  public void completing_a_job_removes_only_this_nodes_claim() {
+
+    // act
+    jobQueue.complete(3L);
+
+    // assert
+    verify(jobQueueRepository).deleteClaimed(3L, "node-1");
+    verify(jobQueueRepository, never()).deleteById(any());
+  }
+
+  @Test
+  public void renewing_no_leases_does_not_touch_the_database() {
+
+    // act
+    jobQueue.renewLeases(List.of());
+
+    // assert
+    verify(jobQueueRepository, never()).renewLeases(any(), any(), any());
+  }
+
+  @Test
+  public void stored_job_is_rebuilt_from_its_params() throws Exception {
+
+    // arrange
+    JobQueueEntry entry =
+        JobQueueEntry.builder()
+            .jobType(TestJob.class.getName())
+            .params("{\"fail\":true,\"sleepMs\":5}")
+            .build();
+
+    // act
+    TestJob job = (TestJob) jobQueue.toJobFunction(entry);
+
+    // assert
+    assertTrue(job.getFail());
+    assertEquals(5, job.getSleepMs());
+  }
+
+  @Test
+  public void entries_that_do_not_hold_a_job_are_not_rebuilt() {
+
+    // arrange
+    JobQueueEntry lambda = JobQueueEntry.builder().enqueuedBy("node-2").build();
+    JobQueueEntry notAJob = JobQueueEntry.builder().jobType("java.lang.String").params("").build();
+
+    // act
+    Exception e1 =
+        assertThrows(IllegalArgumentException.class, () -> jobQueue.toJobFunction(lambda));
+    Exception e2 =
+        assertThrows(IllegalArgumentException.class, () -> jobQueue.toJobFunction(notAJob));
+
+    // assert
+    assertEquals("job was launched on node node-2", e1.getMessage());
+    assertEquals("java.lang.String is not a job", e2.getMessage());
+  }
+
+  /** A job whose only property cannot be read. */
+  private static class UnserializableJob implements JobContextConsumer {
+    public String getName() {
+      throw new IllegalStateException("not available");
+    }
+
+    @Override
+    public void accept(JobContext c) {}
+  }
+
+  /** A job that waits in the BULK lane. */
+  @JobPolicy(lane = JobLane.BULK)
+  private static class BulkJob implements JobContextConsumer {
+    @Override
+    public void accept(JobContext ctx) {}
+  }
+}
@@ -0,0 +1,188 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobResultChunk;
+import edu.ucsb.cs156.example.repositories.JobResultChunksRepository;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.mockito.Spy;
+import org.springframework.test.util.ReflectionTestUtils;
+
+public class JobResultStoreTests {
+
+  @Mock JobResultChunksRepository jobResultChunksRepository;
+
+  @Mock JobsRepository jobsRepository;
+
+  @Spy ObjectMapper objectMapper = new ObjectMapper();
+
+  @InjectMocks JobResultStore jobResultStore;
+
+  private final List<JobResultChunk> chunks = new ArrayList<>();
+
+  @BeforeEach
+  public void setup() {
+    MockitoAnnotations.openMocks(this);
+    ReflectionTestUtils.setField(jobResultStore, "chunkBytes", 4);
+    when(jobResultChunksRepository.save(any(JobResultChunk.class)))
+        .thenAnswer(
+            invocation -> {
+              chunks.add(invocation.getArgument(0));
+              return invocation.getArgument(0);
+            });
+    when(jobResultChunksRepository.findByJobIdAndChunkNo(anyLong(), anyInt()))
+        .thenAnswer(
+            invocation -> {
+              int chunkNo = invocation.getArgument(1);
+              return chunkNo < chunks.size() ? Optional.of(chunks.get(chunkNo)) : Optional.empty();
+            });
+  }
+
+  @Test
+  public void a_result_file_is_saved_in_chunks_and_recorded_once_written() throws Exception {
+
+    // arrange
+    Job job = Job.builder().id(7L).build();
+    List<OutputStream> opened = new ArrayList<>();
+
+    // act
+    jobResultStore.writeFile(
+        job,
+        "report.csv",
+        "text/csv",
+        out -> {
+          opened.add(out);
+          out.write("a,b\n1,2\n".getBytes(StandardCharsets.UTF_8));
+          out.write('3');
+          out.close();
+          verify(jobsRepository, never()).updateResult(anyLong(), any(), any(), any());
+        });
+
+    // assert
+    assertEquals(3, chunks.size());
+    assertEquals(List.of(0, 1, 2), chunks.stream().map(JobResultChunk::getChunkNo).toList());
+    assertArrayEquals("3".getBytes(StandardCharsets.UTF_8), chunks.get(2).getData());
+    verify(jobResultChunksRepository).deleteByJobId(7L);
+    verify(jobsRepository, times(1)).updateResult(7L, "text/csv", "report.csv", 9L);
+    assertEquals("text/csv", job.getResultContentType());
+    assertEquals("report.csv", job.getResultFileName());
+    assertEquals(9L, job.getResultSize());
+    assertThrows(IOException.class, () -> opened.get(0).write('4'));
+  }
+
+  @Test
+  public void a_result_is_read_back_a_chunk_at_a_time() throws Exception {
+
+    // arrange
+    Job job = Job.builder().id(7L).build();
+    jobResultStore.writeFile(
+        job, null, "text/plain", out -> out.write("hello, world".getBytes(StandardCharsets.UTF_8)));
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    // act
+    jobResultStore.write(7L, bytes);
+
+    // assert
+    assertEquals("hello, world", bytes.toString(StandardCharsets.UTF_8));
+    verify(jobResultChunksRepository, times(4)).findByJobIdAndChunkNo(anyLong(), anyInt());
+  }
+
+  @Test
+  public void a_value_is_stored_as_json() throws Exception {
+
+    // arrange
+    Job job = Job.builder().id(7L).build();
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+
+    // act
+    jobResultStore.writeJson(job, Map.of("count", 3));
+    jobResultStore.write(7L, bytes);
+
+    // assert
+    assertEquals("{\"count\":3}", bytes.toString(StandardCharsets.UTF_8));
+    verify(jobsRepository).updateResult(7L, "application/json", null, 11L);
+  }
+
+  @Test
+  public void a_new_result_replaces_the_last() throws Exception {
+
+    // arrange
+    Job job =
+        Job.builder()
+            .id(7L)
+            .resultContentType("text/csv")
+            .resultFileName("old.csv")
+            .resultSize(100L)
+            .build();
+
+    // act
+    jobResultStore.writeFile(
+        job,
+        null,
+        "text/plain",
+        out -> {
+          verify(jobsRepository).updateResult(7L, null, null, null);
+          verify(jobResultChunksRepository).deleteByJobId(7L);
+          assertNull(job.getResultContentType());
+          assertNull(job.getResultFileName());
+          assertNull(job.getResultSize());
+        });
+
+    // assert
+    assertEquals(0L, job.getResultSize());
+    assertEquals(0, chunks.size());
+  }
+
+  @Test
+  public void a_result_whose_writer_fails_is_deleted_and_not_recorded() throws Exception {
+
+    // arrange
+    Job job = Job.builder().id(7L).build();
+
+    // act
+    IOException e =
+        assertThrows(
+            IOException.class,
+            () ->
+                jobResultStore.writeFile(
+                    job,
+                    "heap.hprof.gz",
+                    "application/gzip",
+                    out -> {
+                      out.write("partial".getBytes(StandardCharsets.UTF_8));
+                      throw new IOException("No space left on device");
+                    }));
+
+    // assert
+    assertEquals("No space left on device", e.getMessage());
+    assertEquals(1, chunks.size());
+    verify(jobResultChunksRepository, times(2)).deleteByJobId(7L);
+    verify(jobsRepository, never()).updateResult(anyLong(), any(), any(), any());
+    assertNull(job.getResultSize());
+  }
+}
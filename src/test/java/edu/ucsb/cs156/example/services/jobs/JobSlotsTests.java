@@ -0,0 +1,95 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.ucsb.cs156.example.jobs.TestJob;
+import org.junit.jupiter.api.Test;
+
+public class JobSlotsTests {
+
+  @Test
+  public void jobs_without_a_policy_get_the_default_policy() throws Exception {
+    JobPolicy policy = JobSlots.policyOf(TestJob.class);
+    assertEquals(JobLane.NORMAL, policy.lane());
+    assertEquals(0, policy.maxConcurrency());
+    assertEquals(0, policy.maxPerUser());
+  }
+
+  @Test
+  public void reserved_workers_are_kept_for_interactive_jobs() throws Exception {
+
+    // arrange
+    JobSlots slots = new JobSlots(() -> 3, () -> 1);
+
+    // act
+    assertTrue(slots.tryAcquire(BulkJob.class));
+    assertTrue(slots.tryAcquire(TestJob.class));
+
+    // assert
+    assertFalse(slots.tryAcquire(TestJob.class));
+    assertFalse(slots.tryAcquire(BulkJob.class));
+    assertTrue(slots.tryAcquire(InteractiveJob.class));
+    assertFalse(slots.tryAcquire(InteractiveJob.class));
+    assertEquals(0, slots.free());
+  }
+
+  @Test
+  public void other_jobs_can_always_use_one_worker() throws Exception {
+
+    // arrange
+    JobSlots slots = new JobSlots(() -> 1, () -> 2);
+
+    // act & assert
+    assertTrue(slots.tryAcquire(TestJob.class));
+    assertFalse(slots.tryAcquire(InteractiveJob.class));
+  }
+
+  @Test
+  public void jobs_of_a_type_are_capped_at_its_max_concurrency() throws Exception {
+
+    // arrange
+    JobSlots slots = new JobSlots(() -> 8, () -> 0);
+
+    // act
+    assertTrue(slots.tryAcquire(BulkJob.class));
+    assertTrue(slots.tryAcquire(BulkJob.class));
+
+    // assert
+    assertFalse(slots.tryAcquire(BulkJob.class));
+    assertTrue(slots.tryAcquire(TestJob.class));
+    slots.release(BulkJob.class);
+    assertTrue(slots.tryAcquire(BulkJob.class));
+    assertEquals(5, slots.free());
+  }
+
+  @Test
+  public void a_copy_does_not_take_slots_from_the_original() throws Exception {
+
+    // arrange
+    JobSlots slots = new JobSlots(() -> 2, () -> 0);
+    slots.tryAcquire(TestJob.class);
+
+    // act
+    JobSlots plan = slots.copy();
+    assertTrue(plan.tryAcquire(TestJob.class));
+    assertFalse(plan.tryAcquire(TestJob.class));
+
+    // assert
+    assertEquals(1, slots.free());
+    assertTrue(slots.tryAcquire(TestJob.class));
+  }
+
+  @JobPolicy(lane = JobLane.BULK, maxConcurrency = 2)
+  private static class BulkJob implements JobContextConsumer {
+    @Override
+    public void accept(JobContext ctx) {}
+  }
+
+  @JobPolicy(lane = JobLane.INTERACTIVE)
+  private static class InteractiveJob implements JobContextConsumer {
+    @Override
+    public void accept(JobContext ctx) {}
+  }
+}
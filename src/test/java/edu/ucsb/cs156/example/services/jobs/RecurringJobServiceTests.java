@@ -0,0 +1,210 @@
+package edu.ucsb.cs156.example.services.jobs;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import edu.ucsb.cs156.example.entities.Job;
+import edu.ucsb.cs156.example.entities.JobStatus;
+import edu.ucsb.cs156.example.entities.RecurringJob;
+import edu.ucsb.cs156.example.jobs.TestJob;
+import edu.ucsb.cs156.example.repositories.JobsRepository;
+import edu.ucsb.cs156.example.repositories.RecurringJobsRepository;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+public class RecurringJobServiceTests {
+
+  @Mock RecurringJobsRepository recurringJobsRepository;
+
+  @Mock JobsRepository jobsRepository;
+
+  @Mock JobService jobService;
+
+  @Mock JobQueue jobQueue;
+
+  @InjectMocks RecurringJobService recurringJobService;
+
+  private final TestJob testJob = TestJob.builder().build();
+
+  private RecurringJob due(ZonedDateTime dueAt, Long lastJobId) {
+    return RecurringJob.builder()
+        .id(3L)
+        .name("every minute")
+        .jobType(TestJob.class.getName())
+        .params("{}")
+        .fixedRateMs(60_000L)
+        .enabled(true)
+        .lastJobId(lastJobId)
+        .nextRunAt(dueAt)
+        .build();
+  }
+
+  @Test
+  public void due_job_is_launched_and_moved_on_by_its_fixed_rate() throws Exception {
+
+    // arrange
+    ZonedDateTime dueAt = ZonedDateTime.now().minusSeconds(5);
+    when(recurringJobsRepository.findByEnabledTrueAndNextRunAtLessThanEqual(any()))
+        .thenReturn(List.of(due(dueAt, null)));
+    when(recurringJobsRepository.advance(3L, dueAt, dueAt.plusMinutes(1))).thenReturn(1);
+    when(jobQueue.toJobFunction(TestJob.class.getName(), "{}")).thenReturn(testJob);
+    when(jobService.runAsJob(testJob, null)).thenReturn(Job.builder().id(17L).build());
+
+    // act
+    recurringJobService.runDueJobs();
+
+    // assert
+    verify(recurringJobsRepository).recordRun(eq(3L), eq(17L), any());
+  }
+
+  @Test
+  public void missed_runs_are_not_made_up() throws Exception {
+
+    // arrange
+    ZonedDateTime dueAt = ZonedDateTime.now().minusHours(1);
+    when(recurringJobsRepository.findByEnabledTrueAndNextRunAtLessThanEqual(any()))
+        .thenReturn(List.of(due(dueAt, null)));
+    when(jobQueue.toJobFunction(TestJob.class.getName(), "{}")).thenReturn(testJob);
+    when(jobService.runAsJob(testJob, null)).thenReturn(Job.builder().id(17L).build());
+    ArgumentCaptor<ZonedDateTime> next = ArgumentCaptor.forClass(ZonedDateTime.class);
+    when(recurringJobsRepository.advance(eq(3L), eq(dueAt), next.capture())).thenReturn(1);
+
+    // act
+    recurringJobService.runDueJobs();
+
+    // assert
+    assertEquals(true, next.getValue().isAfter(ZonedDateTime.now().plusSeconds(50)));
+  }
+
+  @Test
+  public void run_launched_by_another_node_is_not_launched_again() throws Exception {
+
+    // arrange
+    ZonedDateTime dueAt = ZonedDateTime.now().minusSeconds(5);
+    when(recurringJobsRepository.findByEnabledTrueAndNextRunAtLessThanEqual(any()))
+        .thenReturn(List.of(due(dueAt, null)));
+    when(recurringJobsRepository.advance(eq(3L), eq(dueAt), any())).thenReturn(0);
+
+    // act
+    recurringJobService.runDueJobs();
+
+    // assert
+    verify(jobService, never()).runAsJob(any(), any());
+    verify(recurringJobsRepository, never()).recordRun(anyLong(), anyLong(), any());
+  }
+
+  @Test
+  public void run_is_skipped_while_the_previous_run_is_still_running() throws Exception {
+
+    // arrange
+    ZonedDateTime dueAt = ZonedDateTime.now().minusSeconds(5);
+    when(recurringJobsRepository.findByEnabledTrueAndNextRunAtLessThanEqual(any()))
+        .thenReturn(List.of(due(dueAt, 16L)));
+    when(recurringJobsRepository.advance(eq(3L), eq(dueAt), any())).thenReturn(1);
+    when(jobsRepository.findById(16L))
+        .thenReturn(Optional.of(Job.builder().id(16L).status(JobStatus.RUNNING).build()));
+
+    // act
+    recurringJobService.runDueJobs();
+
+    // assert
+    verify(jobService, never()).runAsJob(any(), any());
+  }
+
+  @Test
+  public void run_goes_ahead_once_the_previous_run_has_finished() throws Exception {
+
+    // arrange
+    ZonedDateTime dueAt = ZonedDateTime.now().minusSeconds(5);
+    when(recurringJobsRepository.findByEnabledTrueAndNextRunAtLessThanEqual(any()))
+        .thenReturn(List.of(due(dueAt, 16L)));
+    when(recurringJobsRepository.advance(eq(3L), eq(dueAt), any())).thenReturn(1);
+    when(jobsRepository.findById(16L))
+        .thenReturn(Optional.of(Job.builder().id(16L).status(JobStatus.COMPLETE).build()));
+    when(jobQueue.toJobFunction(TestJob.class.getName(), "{}")).thenReturn(testJob);
+    when(jobService.runAsJob(testJob, null)).thenReturn(Job.builder().id(17L).build());
+
+    // act
+    recurringJobService.runDueJobs();
+
+    // assert
+    verify(recurringJobsRepository).recordRun(eq(3L), eq(17L), any());
+  }
+
+  @Test
+  public void failure_to_launch_one_job_does_not_stop_the_others() throws Exception {
+
+    // arrange
+    ZonedDateTime dueAt = ZonedDateTime.now().minusSeconds(5);
+    RecurringJob broken = due(dueAt, null);
+    broken.setJobType("no.such.Job");
+    when(recurringJobsRepository.findByEnabledTrueAndNextRunAtLessThanEqual(any()))
+        .thenReturn(List.of(broken, due(dueAt, null)));
+    when(recurringJobsRepository.advance(eq(3L), eq(dueAt), any())).thenReturn(1);
+    when(jobQueue.toJobFunction("no.such.Job", "{}"))
+        .thenThrow(new ClassNotFoundException("no.such.Job"));
+    when(jobQueue.toJobFunction(TestJob.class.getName(), "{}")).thenReturn(testJob);
+    when(jobService.runAsJob(testJob, null)).thenReturn(Job.builder().id(17L).build());
+
+    // act
+    recurringJobService.runDueJobs();
+
+    // assert
+    verify(recurringJobsRepository).recordRun(eq(3L), eq(17L), any());
+  }
+
+  @Test
+  public void prepare_sets_the_next_run_of_a_cron_job() throws Exception {
+
+    // arrange
+    RecurringJob recurringJob =
+        RecurringJob.builder()
+            .jobType(TestJob.class.getName())
+            .params("{}")
+            .cron("0 0 3 * * *")
+            .build();
+
+    // act
+    recurringJobService.prepare(recurringJob);
+
+    // assert
+    assertEquals(3, recurringJob.getNextRunAt().getHour());
+    assertEquals(0, recurringJob.getNextRunAt().getMinute());
+  }
+
+  @Test
+  public void prepare_refuses_bad_schedules() throws Exception {
+
+    // arrange
+    RecurringJob both = RecurringJob.builder().cron("0 0 3 * * *").fixedRateMs(1000L).build();
+    RecurringJob negative = RecurringJob.builder().fixedRateMs(-1L).build();
+    RecurringJob never = RecurringJob.builder().cron("0 0 0 30 2 *").build();
+
+    // act
+    Exception e1 =
+        assertThrows(IllegalArgumentException.class, () -> recurringJobService.prepare(both));
+    Exception e2 =
+        assertThrows(IllegalArgumentException.class, () -> recurringJobService.prepare(negative));
+    Exception e3 =
+        assertThrows(IllegalArgumentException.class, () -> recurringJobService.prepare(never));
+
+    // assert
+    assertEquals("Give either a cron expression or a fixed rate", e1.getMessage());
+    assertEquals("The fixed rate must be positive", e2.getMessage());
+    assertEquals("The cron expression never matches again", e3.getMessage());
+  }
+}